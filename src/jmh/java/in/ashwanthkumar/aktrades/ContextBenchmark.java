@@ -0,0 +1,71 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.ledger.PrimitivePositionLedger;
+import in.ashwanthkumar.aktrades.ledger.QueuePositionLedger;
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of executing an order in the Context. Every op is a round trip - an exit of the oldest lot followed by an
+ * entry - so the number of open lots stays the same through the benchmark.
+ * <p>
+ * Note: The order book grows with every execution, like it does during a backtest.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextBenchmark {
+    private static final Order BUY = Order.of("NIFTY", OrderOp.BUY, OrderType.MARKET, 1, 0.0);
+    private static final Order SELL = Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 1, 0.0);
+
+    @State(Scope.Thread)
+    public static class PrimitiveLedger {
+        // number of open lots of the ticker
+        @Param({"1", "16", "256"})
+        public int lots;
+
+        Context context;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            context = new Context(20, new PrimitivePositionLedger());
+            for (int i = 0; i < lots; i++) {
+                context.execute(BUY, 100.0 + i);
+            }
+        }
+    }
+
+    /**
+     * QueuePositionLedger can't scale up a position, so it always has (at most) one open lot.
+     */
+    @State(Scope.Thread)
+    public static class QueueLedger {
+        Context context;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            context = new Context(20, new QueuePositionLedger());
+        }
+    }
+
+    @Benchmark
+    public double primitiveLedger(PrimitiveLedger state) {
+        state.context.execute(SELL, 101.0);
+        state.context.execute(BUY, 100.0);
+        return state.context.getPnl();
+    }
+
+    @Benchmark
+    public double queueLedger(QueueLedger state) {
+        state.context.execute(BUY, 100.0);
+        state.context.execute(SELL, 101.0);
+        return state.context.getPnl();
+    }
+}
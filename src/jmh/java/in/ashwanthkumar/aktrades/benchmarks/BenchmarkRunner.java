@@ -0,0 +1,24 @@
+package in.ashwanthkumar.aktrades.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts all the JMH command line options, and always attaches the GC
+ * profiler so that every benchmark reports the bytes allocated per op (gc.alloc.rate.norm) next to its ops/s.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("--add-opens=java.base/java.nio=ALL-UNNAMED")
+                .build();
+        new Runner(options).run();
+    }
+}
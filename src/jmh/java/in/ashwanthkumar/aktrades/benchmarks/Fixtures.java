@@ -0,0 +1,91 @@
+package in.ashwanthkumar.aktrades.benchmarks;
+
+import tech.tablesaw.api.DateTimeColumn;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Generates the synthetic 1-min bars the benchmarks run on. The data is generated from a fixed seed, so
+ * every run of the benchmarks sees the same data.
+ */
+public class Fixtures {
+    public static final LocalDateTime MARKET_OPEN = LocalDateTime.of(2022, 1, 3, 9, 15);
+    private static final DateTimeFormatter CSV_DATE_TIME = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+    private static final String[] TICKERS = {"NIFTY", "NIFTY-FUT", "BANKNIFTY", "BANKNIFTY-FUT", "RELIANCE", "INFY"};
+
+    /**
+     * @param rows Number of rows in the table
+     * @return Bars in the format that's written to our storage - one row per (Ticker, Time)
+     */
+    public static Table bars(int rows) {
+        StringColumn ticker = StringColumn.create("Ticker");
+        DateTimeColumn time = DateTimeColumn.create("Time");
+        StringColumn day = StringColumn.create("Day");
+        DoubleColumn open = DoubleColumn.create("Open");
+        DoubleColumn high = DoubleColumn.create("High");
+        DoubleColumn low = DoubleColumn.create("Low");
+        DoubleColumn close = DoubleColumn.create("Close");
+        IntColumn volume = IntColumn.create("Volume");
+        generate(rows, (name, dateTime, o, h, l, c, v) -> {
+            ticker.append(name);
+            time.append(dateTime);
+            day.append(dateTime.getDayOfWeek().name());
+            open.append(o);
+            high.append(h);
+            low.append(l);
+            close.append(c);
+            volume.append(v);
+        });
+        return Table.create("bars", ticker, time, day, open, high, low, close, volume);
+    }
+
+    /**
+     * @param rows Number of rows in the table
+     * @return Bars in the format of the CSV files that {@link in.ashwanthkumar.aktrades.plugins.TelegramNfBnfTransformation} parses
+     */
+    public static Table csvBars(int rows) {
+        StringColumn ticker = StringColumn.create("Ticker");
+        StringColumn time = StringColumn.create("Date/Time");
+        DoubleColumn open = DoubleColumn.create("Open");
+        DoubleColumn high = DoubleColumn.create("High");
+        DoubleColumn low = DoubleColumn.create("Low");
+        DoubleColumn close = DoubleColumn.create("Close");
+        IntColumn volume = IntColumn.create("Volume");
+        generate(rows, (name, dateTime, o, h, l, c, v) -> {
+            ticker.append(name);
+            time.append(dateTime.format(CSV_DATE_TIME));
+            open.append(o);
+            high.append(h);
+            low.append(l);
+            close.append(c);
+            volume.append(v);
+        });
+        return Table.create("csv", ticker, time, open, high, low, close, volume);
+    }
+
+    private static void generate(int rows, BarConsumer consumer) {
+        Random random = new Random(42);
+        // 375 1-min bars in a trading day, one series per ticker
+        int barsPerTicker = Math.max(1, rows / TICKERS.length);
+        for (int row = 0; row < rows; row++) {
+            String ticker = TICKERS[Math.min(row / barsPerTicker, TICKERS.length - 1)];
+            int bar = row % barsPerTicker;
+            LocalDateTime time = MARKET_OPEN.plusDays(bar / 375).plusMinutes(bar % 375);
+            double open = 100 + random.nextInt(10_000) / 100.0;
+            double close = open + (random.nextInt(200) - 100) / 100.0;
+            double high = Math.max(open, close) + random.nextInt(50) / 100.0;
+            double low = Math.min(open, close) - random.nextInt(50) / 100.0;
+            consumer.accept(ticker, time, open, high, low, close, random.nextInt(100_000));
+        }
+    }
+
+    private interface BarConsumer {
+        void accept(String ticker, LocalDateTime time, double open, double high, double low, double close, int volume);
+    }
+}
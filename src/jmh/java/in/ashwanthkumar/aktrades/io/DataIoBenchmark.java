@@ -0,0 +1,70 @@
+package in.ashwanthkumar.aktrades.io;
+
+import in.ashwanthkumar.aktrades.benchmarks.Fixtures;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@Slf4j
+public class DataIoBenchmark {
+    private static final Set<String> CATEGORICAL_COLUMNS = Set.of("Ticker", "Day");
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"NONE", "LZ4_FRAME", "ZSTD"})
+    public Compression compression;
+
+    private Table table;
+    private File dataset;
+    private File output;
+
+    @Setup
+    public void setUp() throws IOException {
+        table = Fixtures.bars(rows);
+        dataset = Files.createTempFile("aktrades-bench", ".bin").toFile();
+        output = Files.createTempFile("aktrades-bench-out", ".bin").toFile();
+        new DataWriter(table, dataset).write(CATEGORICAL_COLUMNS, compression);
+        log.info("Size of the dataset of {} rows with {}: {} bytes", rows, compression, dataset.length());
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataset.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public Table read() {
+        return new DataReader(dataset).read();
+    }
+
+    @Benchmark
+    public Table readOnOneThread() {
+        return new DataReader(dataset).read(1);
+    }
+
+    @Benchmark
+    public long writeWithCategoricalColumns() {
+        new DataWriter(table, output).write(CATEGORICAL_COLUMNS, compression);
+        return output.length();
+    }
+
+    @Benchmark
+    public long writeWithoutCategoricalColumns() {
+        new DataWriter(table, output).write(Set.of(), compression);
+        return output.length();
+    }
+}
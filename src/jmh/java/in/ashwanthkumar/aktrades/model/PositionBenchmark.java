@@ -0,0 +1,33 @@
+package in.ashwanthkumar.aktrades.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PositionBenchmark {
+    private final Position position = Position.of("NIFTY", OrderOp.BUY, 10, 17500.0);
+    private final Order fullExit = Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 10, 17510.0);
+    private final Order partialExit = Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 4, 17510.0);
+    private final Order flip = Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 15, 17510.0);
+
+    @Benchmark
+    public PositionExecutionResult fullExit() {
+        return position.exitWith(fullExit);
+    }
+
+    @Benchmark
+    public PositionExecutionResult partialExit() {
+        return position.exitWith(partialExit);
+    }
+
+    @Benchmark
+    public PositionExecutionResult exitMoreThanOpen() {
+        return position.exitWith(flip);
+    }
+}
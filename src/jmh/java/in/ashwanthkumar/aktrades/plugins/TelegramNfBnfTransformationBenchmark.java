@@ -0,0 +1,30 @@
+package in.ashwanthkumar.aktrades.plugins;
+
+import in.ashwanthkumar.aktrades.benchmarks.Fixtures;
+import org.openjdk.jmh.annotations.*;
+import tech.tablesaw.api.Table;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TelegramNfBnfTransformationBenchmark {
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Table input;
+
+    @Setup
+    public void generate() {
+        input = Fixtures.csvBars(rows);
+    }
+
+    @Benchmark
+    public Table transform() {
+        return new TelegramNfBnfTransformation().transform(input);
+    }
+}
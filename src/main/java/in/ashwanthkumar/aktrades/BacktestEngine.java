@@ -1,40 +1,107 @@
 package in.ashwanthkumar.aktrades;
 
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import in.ashwanthkumar.aktrades.metrics.Timer;
+import lombok.extern.slf4j.Slf4j;
 
-import in.ashwanthkumar.aktrades.model.Order;
-import lombok.RequiredArgsConstructor;
-import tech.tablesaw.api.Table;
 
-import java.time.LocalTime;
-import java.util.List;
-import java.util.Queue;
-
-@RequiredArgsConstructor
+/**
+ * Runs a Strategy over every scrip in the {@link TickIndex}.
+ * <p>
+ * The per-ticker series are merged into a single time ordered stream, {@link Strategy#onTick(Scrip, Context)} is
+ * called once per scrip per timestamp and the open orders are executed at every tick boundary, i.e. before the
+ * first scrip of a new timestamp is handed to the strategy.
+ * </p>
+ * <p>
+ * The engine runs a {@link SinkStrategy}, so a tick that doesn't place any orders doesn't allocate anything. A
+ * {@link Strategy} is run through {@link SinkStrategy#of(Strategy)}.
+ * </p>
+ * <p>
+ * The phases of every tick are timed on a sample of the ticks into the {@link Metrics} of the Context, and the
+ * report of the metrics is logged at the end of the run.
+ * </p>
+ */
+@Slf4j
 public class BacktestEngine {
-    private final List<LocalTime> ticks;
-    private final Strategy strategy;
+    private final TickIndex index;
+    private final SinkStrategy strategy;
     private final Context context;
-    private final Queue<Order> openOrders;
+    private final MatchingEngine matchingEngine;
+    private boolean reportMetrics = true;
+
+    public BacktestEngine(TickIndex index, Strategy strategy, Context context) {
+        this(index, SinkStrategy.of(strategy), context);
+    }
+
+    public BacktestEngine(TickIndex index, SinkStrategy strategy, Context context) {
+        this.index = index;
+        this.strategy = strategy;
+        this.context = context;
+        this.matchingEngine = new MatchingEngine(context, strategy);
+    }
 
     public void execute() {
-        for (LocalTime tick : ticks) {
-            // Check for open orders that we need to execute
-            executeOpenOrders();
-
-            // TODO: Read or fetch the required data - Use DataLoader
-            // execute the strategy for the given tick
-            List<Order> newOrders = strategy.onTick(null, null);
-            openOrders.addAll(newOrders);
+        Metrics metrics = context.getMetrics();
+        Timer matching = metrics.timer(Metrics.MATCHING);
+        Timer indicators = metrics.timer(Metrics.INDICATORS);
+        Timer onTick = metrics.timer(Metrics.ON_TICK);
+        TickMerger ticks = new TickMerger(index);
+        long currentTick = Long.MIN_VALUE;
+        long tickCount = 0;
+        while (ticks.hasNext()) {
+            boolean sampled = (tickCount++ & Timer.SAMPLE_MASK) == 0;
+            long startTime = sampled ? System.nanoTime() : 0;
+            long tick = ticks.peekTime();
+            if (tick != currentTick) {
+                // Check for open orders that we need to execute
+                executeOpenOrders();
+                currentTick = tick;
+            }
+
+            ScripCursor scrip = ticks.next();
+            // LIMIT and SL orders are matched against the bar before the strategy sees it
+            matchingEngine.onBar(scrip);
+            if (sampled) {
+                long matched = System.nanoTime();
+                matching.record(matched - startTime);
+                context.onTick(scrip);
+                long updated = System.nanoTime();
+                indicators.record(updated - matched);
+                strategy.onTick(scrip, context, matchingEngine);
+                onTick.recordSince(updated);
+            } else {
+                context.onTick(scrip);
+                // execute the strategy for the given tick, it places the orders on the matching engine
+                strategy.onTick(scrip, context, matchingEngine);
+            }
         }
 
         // Cancel the open orders
+        matchingEngine.cancelAll();
+        metrics.counter(Metrics.TICKS).add(tickCount);
+        metrics.counter(Metrics.ORDERS).add(matchingEngine.submittedOrders());
+        if (reportMetrics) {
+            log.info("Completed the backtest over {} ticks\n{}", tickCount, metrics.report());
+        }
+    }
+
+    /**
+     * The runners that execute many backtests report the metrics once for all of them.
+     */
+    BacktestEngine reportMetrics(boolean reportMetrics) {
+        this.reportMetrics = reportMetrics;
+        return this;
+    }
+
+    public Context getContext() {
+        return context;
     }
 
     private void executeOpenOrders() {
-        // TODO: We would be executing all the MARKET orders first
-        //   followed by LIMIT orders that can be executed. SL orders
-        //   that have satisfied the trigger condition, will be converted
-        //   to MARKET orders and executed on the next tick.
-        throw new RuntimeException("TODO: Implement execute Open Orders");
+        // We execute all the MARKET orders first at the LTP, the LIMIT orders that
+        // can be executed are filled as the bars of their tickers arrive. SL orders
+        // that have satisfied the trigger condition are converted to LIMIT orders
+        // that are considered from the next tick.
+        matchingEngine.onTickBoundary();
     }
 }
@@ -0,0 +1,133 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.io.PartitionFilter;
+import in.ashwanthkumar.aktrades.io.PartitionedDataset;
+import in.ashwanthkumar.aktrades.ledger.OrderLog;
+import in.ashwanthkumar.aktrades.ledger.PrimitivePositionLedger;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Worker of a {@link DistributedBacktest}, runs in its own JVM. It connects to the coordinator, and runs the shards
+ * that it's handed one at a time over the same partitioned dataset that the coordinator has, streaming back the
+ * orders that were executed in each of them. The worker exits once the coordinator says BYE or goes away.
+ * <p>
+ * Usage: {@code BacktestWorker <coordinator host> <coordinator port> [name]}
+ * </p>
+ */
+@Slf4j
+public class BacktestWorker {
+    private final String name;
+    private PartitionedDataset dataset;
+    private StrategyFactory factory;
+    private double perOrderBrokerage;
+
+    public BacktestWorker(String name) {
+        this.name = name;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Preconditions.checkArgument(args.length >= 2, "Usage: BacktestWorker <coordinator host> <coordinator port> [name]");
+        String name = args.length > 2 ? args[2] : "worker-" + ProcessHandle.current().pid();
+        new BacktestWorker(name).run(args[0], Integer.parseInt(args[1]));
+    }
+
+    /**
+     * Runs the shards of the coordinator till it says BYE or closes the connection.
+     */
+    public void run(String host, int port) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            send(out, WireProtocol.line(WireProtocol.HELLO, WireProtocol.encode(name)));
+            out.flush();
+            log.info("{} connected to {}:{}", name, host, port);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = WireProtocol.fields(line);
+                switch (fields[0]) {
+                    case WireProtocol.JOB:
+                        job(fields);
+                        break;
+                    case WireProtocol.SHARD:
+                        shard(fields, out);
+                        out.flush();
+                        break;
+                    case WireProtocol.BYE:
+                        log.info("{} is done", name);
+                        return;
+                    default:
+                        throw new IllegalStateException("Unexpected message " + line);
+                }
+            }
+        }
+    }
+
+    private void job(String[] fields) {
+        Preconditions.checkArgument(fields.length == 4, "Malformed job %s", String.join(" ", fields));
+        dataset = PartitionedDataset.open(new File(WireProtocol.decode(fields[1])));
+        try {
+            factory = (StrategyFactory) Class.forName(WireProtocol.decode(fields[2])).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+        perOrderBrokerage = Double.parseDouble(fields[3]);
+    }
+
+    private void shard(String[] fields, Writer out) throws IOException {
+        Preconditions.checkState(dataset != null, "Shard %s came before the job", fields[1]);
+        int id = Integer.parseInt(fields[1]);
+        Shard shard = WireProtocol.parseShard(fields);
+        long startTime = System.nanoTime();
+        PrimitivePositionLedger ledger = new PrimitivePositionLedger();
+        Context context = new Context(perOrderBrokerage, ledger);
+        try {
+            execute(shard, factory.create(shard.getParameters()), context);
+        } catch (RuntimeException e) {
+            log.error("{} failed to run shard {} ({})", name, id, shard, e);
+            send(out, WireProtocol.line(WireProtocol.FAILED, id, WireProtocol.encode(String.valueOf(e))));
+            return;
+        }
+        OrderLog orders = ledger.getOrderLog();
+        for (int i = 0; i < orders.size(); i++) {
+            send(out, WireProtocol.order(id, orders.get(i), orders.executedPrice(i)));
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        send(out, WireProtocol.line(WireProtocol.DONE, id, context.getPnl(), context.getCharges(), orders.size(), elapsedNanos));
+        log.debug("{} ran shard {} ({}) in {} ms", name, id, shard, elapsedNanos / 1_000_000);
+    }
+
+    private void execute(Shard shard, Strategy strategy, Context context) {
+        PartitionFilter filter = PartitionFilter.all().between(shard.getFrom(), shard.getTo());
+        if (!shard.getTickers().isEmpty()) {
+            filter = filter.tickers(shard.getTickers());
+        }
+        List<MappedDataset> datasets = dataset.map(filter);
+        try {
+            if (datasets.isEmpty()) {
+                return;
+            }
+            TickIndex index = TickIndex.of(datasets).between(shard.getFrom(), shard.getTo());
+            new BacktestEngine(index, strategy, context).reportMetrics(false).execute();
+        } finally {
+            datasets.forEach(MappedDataset::close);
+        }
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+    }
+}
@@ -1,66 +1,169 @@
 package in.ashwanthkumar.aktrades;
 
+import in.ashwanthkumar.aktrades.bars.BarResampler;
+import in.ashwanthkumar.aktrades.bars.Timeframe;
+import in.ashwanthkumar.aktrades.bars.Timeframes;
+import in.ashwanthkumar.aktrades.indicators.Indicator;
+import in.ashwanthkumar.aktrades.indicators.IndicatorSpec;
+import in.ashwanthkumar.aktrades.indicators.Indicators;
+import in.ashwanthkumar.aktrades.ledger.PositionLedger;
+import in.ashwanthkumar.aktrades.ledger.PrimitivePositionLedger;
+import in.ashwanthkumar.aktrades.metrics.Counter;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import in.ashwanthkumar.aktrades.metrics.Timer;
 import in.ashwanthkumar.aktrades.model.Order;
 import in.ashwanthkumar.aktrades.model.Position;
-import in.ashwanthkumar.aktrades.model.PositionExecutionResult;
+import in.ashwanthkumar.aktrades.options.OptionChain;
+import in.ashwanthkumar.aktrades.options.OptionChains;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
-import java.util.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 
 // TODO: Engine that the Strategy has access to for querying live strategy info like:
 //   - [x] current open positions
 //   - [x] past order history (only for intra day)
+//   - [x] technical indicators that are maintained per ticker
+//   - [x] bars of the higher timeframes
+//   - [x] option chains of the underlyings
 //   - Any custom configurations or metadata that was passed
 //   - View (and edit?) triggers during the live strategy
-@Getter
-@RequiredArgsConstructor
 public class Context {
+    @Getter
     private final double perOrderBrokerage;
-    private final Map<String, Queue<Position>> positions = new TreeMap<>(Comparator.naturalOrder());
-    private final List<Order> orderBook = new LinkedList<>();
-    private double pnl = 0.0;
+    private final PositionLedger ledger;
+    private final Indicators indicators = new Indicators();
+    private final Timeframes timeframes = new Timeframes();
+    private final OptionChains optionChains = new OptionChains();
+    @Getter
+    private final Metrics metrics;
+    private final Timer executeTimer;
+    private final Counter fills;
+    private long executions = 0;
+    @Getter
     private double charges = 0.0; // we'll add a fixed charge for each order execution
 
+    public Context(double perOrderBrokerage) {
+        this(perOrderBrokerage, new PrimitivePositionLedger());
+    }
+
+    /**
+     * The run is recorded in Metrics of its own, so the report at its end is of this run alone.
+     *
+     * @param perOrderBrokerage Fixed charge for each order execution
+     * @param ledger            Ledger to keep the positions and the order history in
+     */
+    public Context(double perOrderBrokerage, PositionLedger ledger) {
+        this(perOrderBrokerage, ledger, new Metrics());
+    }
+
+    /**
+     * @param perOrderBrokerage Fixed charge for each order execution
+     * @param ledger            Ledger to keep the positions and the order history in
+     * @param metrics           Metrics that the run is recorded in
+     */
+    public Context(double perOrderBrokerage, PositionLedger ledger, Metrics metrics) {
+        this.perOrderBrokerage = perOrderBrokerage;
+        this.ledger = ledger;
+        this.metrics = metrics;
+        this.executeTimer = metrics.timer(Metrics.EXECUTE);
+        this.fills = metrics.counter(Metrics.FILLS);
+    }
+
     public int activePositions() {
-        return positions.size();
+        return ledger.activePositions();
+    }
+
+    public double getPnl() {
+        return ledger.getPnl();
+    }
+
+    public Map<String, Queue<Position>> getPositions() {
+        return ledger.getPositions();
+    }
+
+    public List<Order> getOrderBook() {
+        return ledger.getOrderBook();
+    }
+
+    /**
+     * Registers the indicator with this run, it's updated with every tick from here on. Strategies that ask for
+     * the same spec share the same indicator.
+     *
+     * @param spec Indicator to register, eg. {@code IndicatorSpec.ema(20)}
+     * @return Indicator to read the per-ticker values from
+     */
+    public Indicator indicator(IndicatorSpec spec) {
+        return indicators.register(spec);
+    }
+
+    public Indicators getIndicators() {
+        return indicators;
+    }
+
+    /**
+     * Registers the timeframe with this run, the base ticks are resampled into its bars from here on. Strategies
+     * that ask for the same timeframe share the same resampler.
+     *
+     * @param timeframe Timeframe of the bars, eg. {@code Timeframe.minutes(15)}
+     * @return Resampler to read the completed bars of each ticker from
+     */
+    public BarResampler timeframe(Timeframe timeframe) {
+        return timeframes.register(timeframe);
+    }
+
+    public Timeframes getTimeframes() {
+        return timeframes;
+    }
+
+    /**
+     * Registers the option chain of the underlying with this run, it's updated with the ticks of the underlying
+     * and its weekly options from here on. Strategies that ask for the same underlying share the same chain.
+     *
+     * @param underlying Name of the underlying, eg. NIFTY or BANKNIFTY
+     * @return Chain to look up the nearest strike to the spot or the strikes around it
+     */
+    public OptionChain optionChain(String underlying) {
+        return optionChains.register(underlying);
+    }
+
+    public OptionChains getOptionChains() {
+        return optionChains;
+    }
+
+    /**
+     * Called by the engine with every tick, before the strategy sees it.
+     */
+    void onTick(Scrip scrip) {
+        indicators.onTick(scrip);
+        timeframes.onTick(scrip);
+        optionChains.onTick(scrip);
     }
 
     /**
      * @param order Order to execute
      */
     void execute(Order order, double ltp) {
-        orderBook.add(order);
-        Queue<Position> currentPositions = positions.getOrDefault(order.getTicker(), new LinkedList<>());
-        charges += this.perOrderBrokerage;
-        if (currentPositions.isEmpty()) {
-            // TODO: May be support slippage during order execution?
-            Position newPosition = Position.of(order.getTicker(), order.getOp(), order.getQuantity(), ltp);
-            currentPositions.add(newPosition);
-        } else {
-            boolean orderExecuted = false;
-            while (!orderExecuted && !currentPositions.isEmpty()) {
-                Position position = currentPositions.poll();
-                PositionExecutionResult result = position.exitWith(order.withPrice(ltp));
-                this.pnl += result.getPnl();
-
-                Position newPosition = result.getPosition();
-                orderExecuted = result.orderExecuteFully();
-                if (!orderExecuted) {
-                    // update order ref when it's pending more
-                    order = order.withQuantity(Math.abs(newPosition.getQuantity()));
-                }
-
-                if (newPosition.getQuantity() != 0) {
-                    currentPositions.add(newPosition);
-                }
-            }
+        // timed on a sample of the executions like the per-tick phases
+        boolean sampled = (executions++ & Timer.SAMPLE_MASK) == 0;
+        long startTime = sampled ? System.nanoTime() : 0;
+        replay(order, ltp);
+        if (sampled) {
+            executeTimer.recordSince(startTime);
         }
+        fills.increment();
+    }
 
-        if (!currentPositions.isEmpty()) {
-            positions.put(order.getTicker(), currentPositions);
-        } else {
-            positions.remove(order.getTicker());
-        }
+    /**
+     * Executes the order without recording it in the metrics, used to merge the orders of runs that were already
+     * recorded.
+     *
+     * @param order Order to execute
+     */
+    void replay(Order order, double ltp) {
+        charges += this.perOrderBrokerage;
+        // TODO: May be support slippage during order execution?
+        ledger.execute(order, ltp);
     }
 }
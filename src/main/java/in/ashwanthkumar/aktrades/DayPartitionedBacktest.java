@@ -0,0 +1,134 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.ledger.OrderLog;
+import in.ashwanthkumar.aktrades.ledger.PrimitivePositionLedger;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs an intraday Strategy over every trading date of the {@link TickIndex} on its own, and the dates
+ * concurrently.
+ * <p>
+ * Every date gets a fresh Strategy, {@link Context} and {@link BacktestEngine} over its slice of the index, so the
+ * strategy shouldn't carry anything across the dates - positions, orders that are still open at the end of the
+ * day (they're cancelled) or state of its own. The indicators and the timeframes of the Context start afresh
+ * every day as well.
+ * </p>
+ * <p>
+ * The runs are merged by replaying the orders that were executed on each date, in date order, on a single
+ * Context. That's the same sequence of executions as a sequential run over all the dates, so the PnL, the
+ * charges and the order book are bit-identical to it irrespective of the parallelism.
+ * The metrics of every date are added to the metrics of the merged Context, the replay isn't recorded again.
+ * </p>
+ */
+@Slf4j
+public class DayPartitionedBacktest {
+    private final TickIndex index;
+    private final double perOrderBrokerage;
+    private final int parallelism;
+
+    public DayPartitionedBacktest(TickIndex index, double perOrderBrokerage) {
+        this(index, perOrderBrokerage, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param index             Dataset to run the strategy on
+     * @param perOrderBrokerage Brokerage charged for each order
+     * @param parallelism       Number of dates that are executed concurrently
+     */
+    public DayPartitionedBacktest(TickIndex index, double perOrderBrokerage, int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism should be positive, but was %s", parallelism);
+        this.index = index;
+        this.perOrderBrokerage = perOrderBrokerage;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs the strategy over all the trading dates of the index.
+     *
+     * @param strategies Creates the Strategy for a trading date, called once per date on the calling thread
+     * @return Result with the merged Context and the summary of every date
+     */
+    public Result run(Supplier<Strategy> strategies) {
+        List<LocalDate> dates = index.tradingDates();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long startTime = System.nanoTime();
+        Context merged = new Context(perOrderBrokerage);
+        List<Day> days = new ArrayList<>(dates.size());
+        try {
+            List<Future<DayRun>> runs = new ArrayList<>(dates.size());
+            for (LocalDate date : dates) {
+                // the supplier doesn't have to be thread-safe, only the strategies it creates run on the pool
+                Strategy strategy = strategies.get();
+                runs.add(pool.submit(() -> runOne(date, strategy)));
+            }
+            // merged in date order as the runs complete, so we hold on to the order logs of only the pending dates
+            for (Future<DayRun> future : runs) {
+                DayRun run = Runs.await(future);
+                OrderLog orders = run.ledger.getOrderLog();
+                for (int i = 0; i < orders.size(); i++) {
+                    merged.replay(orders.get(i), orders.executedPrice(i));
+                }
+                merged.getMetrics().add(run.metrics);
+                days.add(run.day);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        log.info("Completed {} trading dates over {} rows in {} ms\n{}", dates.size(), index.rowCount(), elapsedNanos / 1_000_000, merged.getMetrics().report());
+        return new Result(merged, days);
+    }
+
+    private DayRun runOne(LocalDate date, Strategy strategy) {
+        long startTime = System.nanoTime();
+        PrimitivePositionLedger ledger = new PrimitivePositionLedger();
+        Context context = new Context(perOrderBrokerage, ledger);
+        new BacktestEngine(index.between(date, date), strategy, context).reportMetrics(false).execute();
+        if (context.activePositions() > 0) {
+            log.warn("{} positions are still open at the end of {}, they're carried over in the merged result", context.activePositions(), date);
+        }
+        Day day = new Day(date, context.getPnl(), context.getCharges(), ledger.getOrderLog().size(), System.nanoTime() - startTime);
+        return new DayRun(day, ledger, context.getMetrics());
+    }
+
+    @RequiredArgsConstructor
+    private static class DayRun {
+        private final Day day;
+        private final PrimitivePositionLedger ledger;
+        private final Metrics metrics;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        // PnL, charges, the order book and the metrics of all the dates
+        private final Context context;
+        // in date order
+        private final List<Day> days;
+    }
+
+    /**
+     * Summary of the run of a trading date.
+     */
+    @Getter
+    public static class Day extends RunSummary {
+        private final LocalDate date;
+
+        public Day(LocalDate date, double pnl, double charges, int trades, long elapsedNanos) {
+            super(pnl, charges, trades, elapsedNanos);
+            this.date = date;
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.model.Order;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a backtest over a partitioned dataset on a set of worker JVMs ({@link BacktestWorker}), the coordinator
+ * splits the backtest into {@link Shard}s - by dates, tickers or parameters - and hands them out to the workers as
+ * they become free.
+ * <p>
+ * The workers connect to the coordinator over a socket ({@link WireProtocol}) and read the same partitioned dataset
+ * from the disk, so only the shards and the executed orders go over the wire. A worker that dies (or whose
+ * connection breaks) in the middle of a shard has the shard handed to another worker, up to maxAttempts times per
+ * shard. A strategy that fails on a shard fails the run, retrying it wouldn't help. A worker that hangs isn't
+ * detected.
+ * </p>
+ * <p>
+ * The results are merged by replaying the orders that were executed in each shard, in the order of the shards, on
+ * a single Context. For shards of consecutive dates of an intraday strategy, that's bit-identical to a
+ * sequential run over all the dates, like the {@link DayPartitionedBacktest}. Shards of different tickers or
+ * parameters aren't merged - the PnL of different parameters doesn't add up, and the orders of different tickers
+ * would be grouped by shard instead of being in time order - only their {@link ShardResult}s are returned.
+ * </p>
+ */
+@Slf4j
+public class DistributedBacktest implements AutoCloseable {
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final long POLL_MILLIS = 100;
+
+    private final File datasetRoot;
+    private final Class<? extends StrategyFactory> factory;
+    private final double perOrderBrokerage;
+    private final int maxAttempts;
+    private final ServerSocket server;
+    private final BlockingDeque<Task> pending = new LinkedBlockingDeque<>();
+    private final List<Thread> handlers = new CopyOnWriteArrayList<>();
+    private final List<Process> processes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger spawned = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    /**
+     * Listens for the workers on an ephemeral port of the loopback address.
+     */
+    public DistributedBacktest(File datasetRoot, Class<? extends StrategyFactory> factory, double perOrderBrokerage) {
+        this(datasetRoot, factory, perOrderBrokerage, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * @param datasetRoot       Root of the partitioned dataset, it should be at the same path on all the workers
+     * @param factory           Creates the strategy of each shard on the workers
+     * @param perOrderBrokerage Brokerage charged for each order
+     * @param bindAddress       Address that the workers connect to
+     * @param maxAttempts       Number of times a shard is run before we give up on it, when its workers die
+     */
+    public DistributedBacktest(File datasetRoot, Class<? extends StrategyFactory> factory, double perOrderBrokerage,
+                               InetSocketAddress bindAddress, int maxAttempts) {
+        Preconditions.checkArgument(maxAttempts > 0, "maxAttempts should be positive, but was %s", maxAttempts);
+        this.datasetRoot = datasetRoot.getAbsoluteFile();
+        this.factory = factory;
+        this.perOrderBrokerage = perOrderBrokerage;
+        this.maxAttempts = maxAttempts;
+        try {
+            this.server = new ServerSocket();
+            server.bind(bindAddress);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        Thread acceptor = new Thread(this::accept, "backtest-coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Waiting for the workers on {}", getAddress());
+    }
+
+    /**
+     * @return Address that the workers should connect to
+     */
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) server.getLocalSocketAddress();
+    }
+
+    /**
+     * Starts workers as child JVMs with the classpath of this JVM. A local worker that dies is replaced by a new
+     * one, and they're all stopped on {@link #close()}.
+     *
+     * @param count Number of workers to start
+     * @return this
+     */
+    public DistributedBacktest spawnLocalWorkers(int count) {
+        for (int i = 0; i < count; i++) {
+            spawn();
+        }
+        return this;
+    }
+
+    /**
+     * Runs the shards on the workers that are connected, or that connect later.
+     *
+     * @param shards Shards of the backtest
+     * @return Result with the summary of every shard, and the merged Context if the shards are mergeable
+     * @see #isMergeable(List)
+     */
+    public synchronized Result run(List<Shard> shards) {
+        Preconditions.checkState(!closed, "Coordinator is closed");
+        long startTime = System.nanoTime();
+        Run run = new Run(shards.size());
+        for (int id = 0; id < shards.size(); id++) {
+            run.tasks[id] = new Task(run, id, shards.get(id));
+            pending.add(run.tasks[id]);
+        }
+        try {
+            while (!run.remaining.await(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                Preconditions.checkState(!closed, "Coordinator was closed with %s shards pending", run.remaining.getCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            pending.removeIf(task -> task.run == run);
+        }
+        if (run.failure != null) {
+            throw run.failure;
+        }
+
+        Context merged = isMergeable(shards) ? new Context(perOrderBrokerage) : null;
+        List<ShardResult> results = new ArrayList<>(shards.size());
+        int trades = 0;
+        for (Task task : run.tasks) {
+            for (int i = 0; merged != null && i < task.orders.size(); i++) {
+                merged.replay(task.orders.get(i), task.executedPrices[i]);
+            }
+            trades += task.result.getTrades();
+            results.add(task.result);
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        // the metrics of the shards are recorded on the workers, the replay isn't recorded
+        log.info("Completed {} shards with {} orders in {} ms", shards.size(), trades, elapsedNanos / 1_000_000);
+        return new Result(merged, results);
+    }
+
+    /**
+     * Shards are merged only when they have the same tickers and parameters, and their dates are in order without
+     * overlapping each other - like the ones of {@link Shard#byDate}.
+     *
+     * @return true if replaying the shards in order is the same as a sequential run over all of their dates
+     */
+    static boolean isMergeable(List<Shard> shards) {
+        for (int i = 1; i < shards.size(); i++) {
+            Shard previous = shards.get(i - 1);
+            Shard shard = shards.get(i);
+            if (!shard.getTickers().equals(previous.getTickers()) || !shard.getParameters().equals(previous.getParameters())
+                    || !shard.getFrom().isAfter(previous.getTo())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Says BYE to the workers, and stops the ones that we started.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the coordinator's socket", e);
+        }
+        for (Thread handler : handlers) {
+            try {
+                handler.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void spawn() {
+        String name = "worker-" + spawned.incrementAndGet();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "--add-opens=java.base/java.nio=ALL-UNNAMED",
+                "-cp", System.getProperty("java.class.path"), BacktestWorker.class.getName(),
+                getAddress().getHostString(), String.valueOf(getAddress().getPort()), name).inheritIO();
+        try {
+            processes.add(builder.start());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                Thread handler = new Thread(() -> handle(socket), "backtest-coordinator-" + socket.getRemoteSocketAddress());
+                handler.setDaemon(true);
+                handlers.add(handler);
+                handler.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    log.error("Failed to accept a worker", e);
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        String worker = String.valueOf(socket.getRemoteSocketAddress());
+        Task task = null;
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String[] hello = WireProtocol.fields(readLine(in));
+            Preconditions.checkState(hello[0].equals(WireProtocol.HELLO), "Expected HELLO from %s", worker);
+            worker = WireProtocol.decode(hello[1]);
+            log.info("{} connected from {}", worker, socket.getRemoteSocketAddress());
+            send(out, WireProtocol.line(WireProtocol.JOB, WireProtocol.encode(datasetRoot.getPath()),
+                    WireProtocol.encode(factory.getName()), perOrderBrokerage));
+            while (!closed) {
+                task = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (task == null || task.run.isDone()) {
+                    continue;
+                }
+                task.attempts++;
+                task.reset();
+                send(out, WireProtocol.shard(task.id, task.shard));
+                receive(in, worker, task);
+                task = null;
+            }
+            send(out, WireProtocol.BYE);
+        } catch (IOException e) {
+            if (task != null) {
+                retry(task, worker, e);
+            } else if (!closed) {
+                log.warn("Lost {} while it was idle", worker, e);
+            }
+            if (!closed && !processes.isEmpty()) {
+                spawn();
+            }
+        } catch (RuntimeException e) {
+            // the worker doesn't speak the protocol, we don't hand it any more shards
+            log.error("Dropping {}", worker, e);
+            if (task != null) {
+                task.run.fail(e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            handlers.remove(Thread.currentThread());
+        }
+    }
+
+    private void receive(BufferedReader in, String worker, Task task) throws IOException {
+        while (true) {
+            String[] fields = WireProtocol.fields(readLine(in));
+            Preconditions.checkState(fields.length > 1 && Integer.parseInt(fields[1]) == task.id,
+                    "Unexpected message %s from %s while running shard %s", String.join(" ", fields), worker, task.id);
+            switch (fields[0]) {
+                case WireProtocol.ORDER:
+                    task.add(WireProtocol.parseOrder(fields), Double.parseDouble(fields[8]));
+                    break;
+                case WireProtocol.DONE:
+                    task.result = new ShardResult(task.shard, worker, task.attempts, Double.parseDouble(fields[2]),
+                            Double.parseDouble(fields[3]), Integer.parseInt(fields[4]), Long.parseLong(fields[5]));
+                    Preconditions.checkState(task.result.getTrades() == task.orders.size(),
+                            "%s sent %s of the %s orders of shard %s", worker, task.orders.size(), task.result.getTrades(), task.id);
+                    log.debug("{} completed shard {} ({})", worker, task.id, task.shard);
+                    task.run.remaining.countDown();
+                    return;
+                case WireProtocol.FAILED:
+                    task.run.fail(new RuntimeException("Shard " + task.shard + " failed on " + worker + ": " + WireProtocol.decode(fields[2])));
+                    return;
+                default:
+                    throw new IllegalStateException("Unexpected message " + fields[0] + " from " + worker);
+            }
+        }
+    }
+
+    private void retry(Task task, String worker, IOException cause) {
+        if (task.attempts < maxAttempts) {
+            log.warn("Lost {} while it was running shard {} ({}), retrying it", worker, task.id, task.shard, cause);
+            pending.addFirst(task);
+        } else {
+            task.run.fail(new RuntimeException("Shard " + task.shard + " failed after " + task.attempts + " attempts", cause));
+        }
+    }
+
+    private static String readLine(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new EOFException("Connection closed");
+        }
+        return line;
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    private static class Run {
+        private final Task[] tasks;
+        private final CountDownLatch remaining;
+        private volatile RuntimeException failure;
+
+        private Run(int shards) {
+            this.tasks = new Task[shards];
+            this.remaining = new CountDownLatch(shards);
+        }
+
+        private boolean isDone() {
+            return remaining.getCount() == 0;
+        }
+
+        private synchronized void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            while (remaining.getCount() > 0) {
+                remaining.countDown();
+            }
+        }
+    }
+
+    // handed to one worker at a time, the run reads it only after the worker is done with it
+    @RequiredArgsConstructor
+    private static class Task {
+        private final Run run;
+        private final int id;
+        private final Shard shard;
+        private final List<Order> orders = new ArrayList<>();
+        private double[] executedPrices = new double[16];
+        private int attempts = 0;
+        private ShardResult result;
+
+        private void reset() {
+            orders.clear();
+        }
+
+        private void add(Order order, double executedPrice) {
+            if (orders.size() == executedPrices.length) {
+                executedPrices = Arrays.copyOf(executedPrices, executedPrices.length * 2);
+            }
+            executedPrices[orders.size()] = executedPrice;
+            orders.add(order);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        // PnL, charges and the order book of all the shards, null when they aren't mergeable
+        private final Context context;
+        // in the order of the shards
+        private final List<ShardResult> shards;
+
+        /**
+         * @return true if the shards were merged in to a single Context
+         */
+        public boolean isMerged() {
+            return context != null;
+        }
+
+        /**
+         * @return PnL, charges and the order book of all the shards
+         * @throws IllegalStateException if the shards have different tickers or parameters, or their dates overlap
+         */
+        public Context getContext() {
+            Preconditions.checkState(context != null, "Shards of different tickers, parameters or overlapping dates aren't merged, use getShards()");
+            return context;
+        }
+    }
+
+    /**
+     * Summary of the run of a shard.
+     */
+    @Getter
+    public static class ShardResult extends RunSummary {
+        private final Shard shard;
+        // name of the worker that ran it
+        private final String worker;
+        // number of times it was handed to a worker
+        private final int attempts;
+
+        public ShardResult(Shard shard, String worker, int attempts, double pnl, double charges, int trades, long elapsedNanos) {
+            super(pnl, charges, trades, elapsedNanos);
+            this.shard = shard;
+            this.worker = worker;
+            this.attempts = attempts;
+        }
+    }
+}
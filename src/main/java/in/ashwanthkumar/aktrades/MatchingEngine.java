@@ -0,0 +1,285 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-ticker order matching for MARKET, LIMIT and SL_LIMIT orders.
+ * <p>
+ * Orders that are submitted during a tick are accepted only at the next tick boundary, so an order is never
+ * executed on the tick it was placed in. At the boundary the MARKET orders are executed at the LTP (Last Traded
+ * Price) of their ticker and the LIMIT and SL_LIMIT orders go into their ticker's books. As each bar of a ticker
+ * arrives, its high / low range releases exactly the orders it crosses:
+ * <ul>
+ *     <li>BUY LIMIT when low &lt;= price, filled at min(open, price)</li>
+ *     <li>SELL LIMIT when high &gt;= price, filled at max(open, price)</li>
+ *     <li>BUY SL_LIMIT when high &gt;= trigger price</li>
+ *     <li>SELL SL_LIMIT when low &lt;= trigger price</li>
+ * </ul>
+ * The crossed orders are released in price priority - the most aggressive price (the one the bar reaches first)
+ * first, and in the order they were placed within a price.
+ * Triggered SL_LIMIT orders are converted to LIMIT orders at their price from the next tick.
+ * Fills are executed on the {@link Context} and the orders placed by {@link SinkStrategy#afterOrder(Order, Context, OrderSink)}
+ * are submitted like any other order.
+ * </p>
+ * <p>
+ * The engine is the {@link OrderSink} of the strategy, the orders submitted with their fields come from an
+ * {@link OrderPool}.
+ * </p>
+ */
+public class MatchingEngine implements OrderSink {
+    private final Context context;
+    private final SinkStrategy strategy;
+    private final OrderPool pool = new OrderPool();
+    // number of orders submitted so far
+    private long submittedOrders = 0;
+    private final Map<String, TickerBook> books = new HashMap<>();
+    // orders that are submitted on the current tick and are accepted at the next tick boundary
+    private List<Order> submitted = new ArrayList<>();
+    private List<Order> accepting = new ArrayList<>();
+    // MARKET orders of tickers that haven't traded yet
+    private final List<Order> pendingMarketOrders = new ArrayList<>();
+    // orders resting in the books are referred to by their slot
+    private Order[] slots = new Order[64];
+    private int[] freeSlots = new int[64];
+    private int freeCount = 0;
+    private int nextSlot = 0;
+    private int restingOrders = 0;
+
+    public MatchingEngine(Context context, Strategy strategy) {
+        this(context, SinkStrategy.of(strategy));
+    }
+
+    public MatchingEngine(Context context, SinkStrategy strategy) {
+        this.context = context;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Submits the order, it would be considered for execution from the next tick.
+     *
+     * @param order Order to submit
+     */
+    @Override
+    public void submit(Order order) {
+        submitted.add(order);
+        submittedOrders++;
+    }
+
+    @Override
+    public void submit(String ticker, OrderOp op, OrderType orderType, int quantity, double price) {
+        submit(pool.get(ticker, op, orderType, quantity, price, price));
+    }
+
+    @Override
+    public void submitStopLimit(String ticker, OrderOp op, int quantity, double triggerPrice, double limitPrice) {
+        submit(pool.get(ticker, op, OrderType.SL_LIMIT, quantity, limitPrice, triggerPrice));
+    }
+
+    /**
+     * @param orders Orders to submit
+     */
+    public void submitAll(List<Order> orders) {
+        for (int i = 0; i < orders.size(); i++) {
+            submit(orders.get(i));
+        }
+    }
+
+    /**
+     * Accepts the orders submitted during the previous tick. MARKET orders are executed at the LTP and the rest
+     * are placed in the books.
+     */
+    public void onTickBoundary() {
+        if (submitted.isEmpty() && pendingMarketOrders.isEmpty()) {
+            return;
+        }
+        // swap the lists, the orders from afterOrder callbacks should wait for the next tick
+        List<Order> orders = submitted;
+        submitted = accepting;
+        accepting = orders;
+
+        if (!pendingMarketOrders.isEmpty()) {
+            List<Order> waiting = new ArrayList<>(pendingMarketOrders);
+            pendingMarketOrders.clear();
+            waiting.forEach(this::accept);
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            accept(orders.get(i));
+        }
+        orders.clear();
+    }
+
+    /**
+     * Matches the resting orders of the scrip's ticker against its bar and updates the LTP of the ticker.
+     *
+     * @param scrip Bar of the scrip on the current tick
+     */
+    public void onBar(Scrip scrip) {
+        String ticker = scrip.getName();
+        TickerBook book = books.get(ticker);
+        if (book == null) {
+            book = new TickerBook();
+            books.put(ticker, book);
+        }
+        if (!book.isEmpty()) {
+            double open = scrip.open();
+            double high = scrip.high();
+            double low = scrip.low();
+            fillLimits(book.buyLimits, low, open, true);
+            fillLimits(book.sellLimits, -high, open, false);
+            trigger(book.buyStops, -high);
+            trigger(book.sellStops, low);
+        }
+        book.ltp = scrip.close();
+    }
+
+    /**
+     * Cancels all the open orders.
+     */
+    public void cancelAll() {
+        submitted.clear();
+        pendingMarketOrders.clear();
+        for (TickerBook book : books.values()) {
+            book.buyLimits.truncate(0);
+            book.sellLimits.truncate(0);
+            book.buyStops.truncate(0);
+            book.sellStops.truncate(0);
+        }
+        Arrays.fill(slots, null);
+        nextSlot = 0;
+        freeCount = 0;
+        restingOrders = 0;
+    }
+
+    /**
+     * @return Number of orders that were submitted so far, including the ones that were triggered
+     */
+    public long submittedOrders() {
+        return submittedOrders;
+    }
+
+    /**
+     * @return Number of orders that are waiting to be executed
+     */
+    public int openOrders() {
+        return submitted.size() + pendingMarketOrders.size() + restingOrders;
+    }
+
+    private void accept(Order order) {
+        TickerBook book = books.get(order.getTicker());
+        if (order.getOrderType() == OrderType.MARKET) {
+            if (book == null || Double.isNaN(book.ltp)) {
+                // the ticker hasn't traded yet
+                pendingMarketOrders.add(order);
+            } else {
+                fill(order, book.ltp);
+            }
+            return;
+        }
+
+        if (book == null) {
+            book = new TickerBook();
+            books.put(order.getTicker(), book);
+        }
+        int slot = allocate(order);
+        boolean isBuy = order.getOp() == OrderOp.BUY;
+        if (order.getOrderType() == OrderType.LIMIT) {
+            if (isBuy) {
+                book.buyLimits.add(order.getPrice(), slot);
+            } else {
+                book.sellLimits.add(-order.getPrice(), slot);
+            }
+        } else if (order.getOrderType() == OrderType.SL_LIMIT) {
+            if (isBuy) {
+                book.buyStops.add(-order.getTriggerPrice(), slot);
+            } else {
+                book.sellStops.add(order.getTriggerPrice(), slot);
+            }
+        }
+    }
+
+    private void fillLimits(PriceBook limits, double threshold, double open, boolean isBuy) {
+        int from = limits.lowerBound(threshold);
+        int to = limits.size();
+        limits.truncate(from);
+        // the highest keys are the most aggressive, the orders of a price level are in the order they were placed
+        for (int end = to; end > from; ) {
+            int start = limits.levelStart(from, end);
+            for (int i = start; i < end; i++) {
+                Order order = release(limits.idAt(i));
+                double fillPrice = isBuy ? Math.min(open, order.getPrice()) : Math.max(open, order.getPrice());
+                fill(order, fillPrice);
+            }
+            end = start;
+        }
+    }
+
+    private void trigger(PriceBook stops, double threshold) {
+        int from = stops.lowerBound(threshold);
+        int to = stops.size();
+        stops.truncate(from);
+        // same priority as the limits, the trigger that the bar reaches first is submitted first
+        for (int end = to; end > from; ) {
+            int start = stops.levelStart(from, end);
+            for (int i = start; i < end; i++) {
+                Order order = release(stops.idAt(i));
+                submit(order.getTicker(), order.getOp(), OrderType.LIMIT, order.getQuantity(), order.getPrice());
+            }
+            end = start;
+        }
+    }
+
+    private void fill(Order order, double price) {
+        context.execute(order, price);
+        strategy.afterOrder(order, context, this);
+    }
+
+    private int allocate(Order order) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (nextSlot == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            slot = nextSlot++;
+        }
+        slots[slot] = order;
+        restingOrders++;
+        return slot;
+    }
+
+    private Order release(int slot) {
+        Order order = slots[slot];
+        slots[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        restingOrders--;
+        return order;
+    }
+
+    private static final class TickerBook {
+        private double ltp = Double.NaN;
+        // BUY LIMITs are crossed when price >= low
+        private final PriceBook buyLimits = new PriceBook();
+        // SELL LIMITs are crossed when -price >= -high
+        private final PriceBook sellLimits = new PriceBook();
+        // BUY SL_LIMITs are triggered when -trigger >= -high
+        private final PriceBook buyStops = new PriceBook();
+        // SELL SL_LIMITs are triggered when trigger >= low
+        private final PriceBook sellStops = new PriceBook();
+
+        boolean isEmpty() {
+            return buyLimits.isEmpty() && sellLimits.isEmpty() && buyStops.isEmpty() && sellStops.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+
+/**
+ * Cache of the recently created Orders, keyed on all their fields.
+ * <p>
+ * Orders are immutable, so the same instance can be handed out every time a strategy submits an order with the
+ * same fields - strategies usually place the same few orders (eg. a MARKET BUY of a lot of NIFTY) over and over.
+ * The cache is a direct-mapped table, a lookup hashes the primitives and compares the fields of a single entry,
+ * and a miss replaces the entry.
+ * </p>
+ */
+final class OrderPool {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final Order[] orders;
+    private final int mask;
+
+    OrderPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Number of entries, a power of 2
+     */
+    OrderPool(int capacity) {
+        this.orders = new Order[capacity];
+        this.mask = capacity - 1;
+    }
+
+    Order get(String ticker, OrderOp op, OrderType orderType, int quantity, double price, double triggerPrice) {
+        int hash = ticker.hashCode();
+        hash = 31 * hash + op.ordinal();
+        hash = 31 * hash + orderType.ordinal();
+        hash = 31 * hash + quantity;
+        hash = 31 * hash + Double.hashCode(price);
+        hash = 31 * hash + Double.hashCode(triggerPrice);
+        int index = (hash ^ (hash >>> 16)) & mask;
+        Order order = orders[index];
+        if (order == null || !matches(order, ticker, op, orderType, quantity, price, triggerPrice)) {
+            order = Order.of(ticker, op, orderType, quantity, price, triggerPrice);
+            orders[index] = order;
+        }
+        return order;
+    }
+
+    private static boolean matches(Order order, String ticker, OrderOp op, OrderType orderType, int quantity, double price, double triggerPrice) {
+        return order.getOp() == op
+                && order.getOrderType() == orderType
+                && order.getQuantity() == quantity
+                && Double.compare(order.getPrice(), price) == 0
+                && Double.compare(order.getTriggerPrice(), triggerPrice) == 0
+                && order.getTicker().equals(ticker);
+    }
+}
@@ -0,0 +1,30 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+
+/**
+ * Where a {@link SinkStrategy} places its orders. Like the orders returned by a {@link Strategy}, an order that's
+ * submitted is executed only from the next tick.
+ * <p>
+ * Submitting an order with its fields doesn't allocate when the same order (ticker, op, type, quantity and
+ * prices) was submitted recently - the engine re-uses the Order it created for it, see {@link OrderPool}.
+ * </p>
+ */
+public interface OrderSink {
+    /**
+     * Submits a MARKET or a LIMIT order, the price is ignored for MARKET orders.
+     */
+    void submit(String ticker, OrderOp op, OrderType orderType, int quantity, double price);
+
+    /**
+     * Submits an SL_LIMIT order, see {@link Order#stopLimit(String, OrderOp, int, double, double)}.
+     */
+    void submitStopLimit(String ticker, OrderOp op, int quantity, double triggerPrice, double limitPrice);
+
+    /**
+     * Submits an order that the strategy has already created.
+     */
+    void submit(Order order);
+}
@@ -0,0 +1,203 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.live.LiveTick;
+import in.ashwanthkumar.aktrades.live.TickFeed;
+import in.ashwanthkumar.aktrades.live.TickRingBuffer;
+import in.ashwanthkumar.aktrades.metrics.Histogram;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import in.ashwanthkumar.aktrades.model.Order;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a Strategy on the ticks of a live {@link TickFeed}, with the orders filled by the {@link MatchingEngine}
+ * instead of a broker (paper trading).
+ * <p>
+ * The feed is read on a thread of its own into a pre-allocated {@link TickRingBuffer}, and a single strategy
+ * thread handles the ticks exactly like {@link BacktestEngine} does - the open orders are executed at the tick
+ * boundaries, and {@link Strategy#onTick(Scrip, Context)} and {@link Strategy#afterOrder(Order, Context)} are
+ * always called on the strategy thread with the same {@link Context}. So a strategy that's backtested runs as is.
+ * </p>
+ * <p>
+ * The time from a tick being published to the ring till the strategy returns orders for it is recorded in the
+ * {@link #getLatency()} histogram (in nanos).
+ * </p>
+ */
+@Slf4j
+public class PaperTradingEngine implements AutoCloseable {
+    public static final int DEFAULT_RING_SIZE = 1 << 14;
+
+    private final TickFeed feed;
+    private final SinkStrategy strategy;
+    private final Context context;
+    private final MatchingEngine matchingEngine;
+    private final TickRingBuffer ring;
+    private final Histogram latency = new Histogram();
+    private final Thread feedThread;
+    private final Thread strategyThread;
+    private volatile Throwable failure;
+    private volatile long ticks = 0;
+
+    public PaperTradingEngine(TickFeed feed, Strategy strategy, Context context) {
+        this(feed, strategy, context, DEFAULT_RING_SIZE);
+    }
+
+    /**
+     * @param feed     Feed of the ticks, it's closed along with the engine
+     * @param strategy Strategy to run
+     * @param context  Context of the run
+     * @param ringSize Number of ticks that can be waiting for the strategy, a power of 2
+     */
+    public PaperTradingEngine(TickFeed feed, Strategy strategy, Context context, int ringSize) {
+        this(feed, SinkStrategy.of(strategy), context, ringSize);
+    }
+
+    /**
+     * @param feed     Feed of the ticks, it's closed along with the engine
+     * @param strategy Strategy to run
+     * @param context  Context of the run
+     * @param ringSize Number of ticks that can be waiting for the strategy, a power of 2
+     */
+    public PaperTradingEngine(TickFeed feed, SinkStrategy strategy, Context context, int ringSize) {
+        this.feed = feed;
+        this.strategy = strategy;
+        this.context = context;
+        this.matchingEngine = new MatchingEngine(context, strategy);
+        this.ring = new TickRingBuffer(ringSize);
+        this.feedThread = new Thread(this::readFeed, "aktrades-feed");
+        this.strategyThread = new Thread(this::runStrategy, "aktrades-strategy");
+        feedThread.setDaemon(true);
+        strategyThread.setDaemon(true);
+    }
+
+    /**
+     * Starts reading the feed and running the strategy.
+     */
+    public void start() {
+        Preconditions.checkState(!feedThread.isAlive() && !strategyThread.isAlive(), "Engine is already running");
+        strategyThread.start();
+        feedThread.start();
+    }
+
+    /**
+     * Waits till the feed ends and the strategy has handled all its ticks.
+     *
+     * @return false if the engine is still running after the timeout
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        feedThread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        strategyThread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        return !feedThread.isAlive() && !strategyThread.isAlive();
+    }
+
+    /**
+     * Stops reading the feed, the ticks that were already read are handled before the strategy thread stops.
+     */
+    @Override
+    public void close() {
+        try {
+            feed.close();
+        } catch (IOException e) {
+            log.warn("Couldn't close the feed", e);
+        }
+        try {
+            feedThread.join();
+            strategyThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Handled {} ticks, tick to order latency (us): {}\n{}", ticks, latency.summary(1000), context.getMetrics().report());
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * @return Histogram of the nanos from a tick being published till the strategy returns orders for it. Read it
+     * once the engine has stopped for a consistent snapshot.
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return Number of ticks that the strategy has handled
+     */
+    public long ticks() {
+        return ticks;
+    }
+
+    private void readFeed() {
+        try {
+            while (true) {
+                LiveTick slot = ring.claim();
+                if (!feed.next(slot)) {
+                    break;
+                }
+                ring.publish();
+            }
+        } catch (Throwable e) {
+            failure = e;
+            log.error("Feed failed, stopping the engine", e);
+        } finally {
+            ring.close();
+        }
+    }
+
+    private void runStrategy() {
+        long currentTick = Long.MIN_VALUE;
+        long handled = 0;
+        int spins = 0;
+        try {
+            while (true) {
+                LiveTick tick = ring.poll();
+                if (tick == null) {
+                    if (ring.isDrained()) {
+                        break;
+                    }
+                    spins = TickRingBuffer.idle(spins);
+                    continue;
+                }
+                spins = 0;
+                if (tick.epochSecond() != currentTick) {
+                    matchingEngine.onTickBoundary();
+                    currentTick = tick.epochSecond();
+                }
+                matchingEngine.onBar(tick);
+                context.onTick(tick);
+                long submitted = matchingEngine.submittedOrders();
+                strategy.onTick(tick, context, matchingEngine);
+                if (matchingEngine.submittedOrders() != submitted) {
+                    latency.record(System.nanoTime() - tick.getPublishedNanos());
+                }
+                ring.release();
+                ticks = ++handled;
+            }
+            matchingEngine.cancelAll();
+            context.getMetrics().counter(Metrics.TICKS).add(handled);
+            context.getMetrics().counter(Metrics.ORDERS).add(matchingEngine.submittedOrders());
+        } catch (Throwable e) {
+            failure = e;
+            log.error("Strategy failed, stopping the engine", e);
+            try {
+                feed.close();
+            } catch (IOException ignored) {
+                // we're already failing
+            }
+            // let a producer that's waiting on a full ring move on
+            while (!ring.isDrained() && feedThread.isAlive()) {
+                if (ring.poll() != null) {
+                    ring.release();
+                }
+            }
+        }
+    }
+}
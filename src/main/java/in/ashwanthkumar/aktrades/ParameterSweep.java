@@ -0,0 +1,127 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.LongColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs a Strategy with many different parameters over the same dataset.
+ * <p>
+ * The {@link TickIndex} (and the memory mapped datasets behind it) is read-only, so it's loaded once and shared
+ * by all the runs. Every parameter gets its own Strategy instance, {@link Context} and {@link BacktestEngine}, and
+ * the runs are spread over a work-stealing pool - nothing is shared between the runs except the data, so the
+ * throughput scales with the number of cores.
+ * </p>
+ */
+@Slf4j
+public class ParameterSweep {
+    private final TickIndex index;
+    private final double perOrderBrokerage;
+    private final int parallelism;
+
+    public ParameterSweep(TickIndex index, double perOrderBrokerage) {
+        this(index, perOrderBrokerage, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param index             Dataset to run the strategies on
+     * @param perOrderBrokerage Brokerage charged for each order in every run
+     * @param parallelism       Number of runs that are executed concurrently
+     */
+    public ParameterSweep(TickIndex index, double perOrderBrokerage, int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism should be positive, but was %s", parallelism);
+        this.index = index;
+        this.perOrderBrokerage = perOrderBrokerage;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs the strategy once for each of the parameters.
+     *
+     * @param parameters List of parameters to try
+     * @param strategies Creates the Strategy for a set of parameters, called once per run
+     * @param <P>        Type of the parameters, its toString() is used to identify the run in the results
+     * @return Results of all the runs, ranked on the net PnL (PnL - charges)
+     */
+    public <P> List<Result<P>> run(List<P> parameters, Function<P, Strategy> strategies) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long startTime = System.nanoTime();
+        Metrics metrics = new Metrics();
+        List<Result<P>> results = new ArrayList<>(parameters.size());
+        try {
+            List<Future<Result<P>>> runs = new ArrayList<>(parameters.size());
+            for (P parameter : parameters) {
+                runs.add(pool.submit(() -> runOne(parameter, strategies.apply(parameter), metrics)));
+            }
+            for (Future<Result<P>> run : runs) {
+                results.add(Runs.await(run));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        log.info("Completed {} runs over {} rows in {} ms\n{}", results.size(), index.rowCount(), elapsedNanos / 1_000_000, metrics.report());
+        results.sort(Comparator.comparingDouble((Result<P> result) -> result.netPnl()).reversed());
+        return results;
+    }
+
+    /**
+     * Same as {@link #run(List, Function)} but returns the results as a Table.
+     *
+     * @return Table with one row per run, ranked on the net PnL
+     */
+    public <P> Table runAsTable(List<P> parameters, Function<P, Strategy> strategies) {
+        return toTable(run(parameters, strategies));
+    }
+
+    public static <P> Table toTable(List<Result<P>> results) {
+        StringColumn parameters = StringColumn.create("Parameters");
+        DoubleColumn pnl = DoubleColumn.create("PnL");
+        DoubleColumn charges = DoubleColumn.create("Charges");
+        DoubleColumn netPnl = DoubleColumn.create("Net PnL");
+        IntColumn trades = IntColumn.create("Trades");
+        LongColumn elapsed = LongColumn.create("Elapsed (ms)");
+        for (Result<P> result : results) {
+            parameters.append(String.valueOf(result.getParameters()));
+            pnl.append(result.getPnl());
+            charges.append(result.getCharges());
+            netPnl.append(result.netPnl());
+            trades.append(result.getTrades());
+            elapsed.append(result.getElapsedNanos() / 1_000_000);
+        }
+        return Table.create("Parameter Sweep", parameters, pnl, charges, netPnl, trades, elapsed);
+    }
+
+    private <P> Result<P> runOne(P parameters, Strategy strategy, Metrics metrics) {
+        long startTime = System.nanoTime();
+        Context context = new Context(perOrderBrokerage);
+        new BacktestEngine(index, strategy, context).reportMetrics(false).execute();
+        metrics.add(context.getMetrics());
+        return new Result<>(parameters, context.getPnl(), context.getCharges(), context.getOrderBook().size(),
+                System.nanoTime() - startTime);
+    }
+
+    @Getter
+    public static class Result<P> extends RunSummary {
+        private final P parameters;
+
+        public Result(P parameters, double pnl, double charges, int trades, long elapsedNanos) {
+            super(pnl, charges, trades, elapsedNanos);
+            this.parameters = parameters;
+        }
+    }
+}
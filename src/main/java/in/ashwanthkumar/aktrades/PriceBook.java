@@ -0,0 +1,88 @@
+package in.ashwanthkumar.aktrades;
+
+import java.util.Arrays;
+
+/**
+ * Orders of one side of a book kept sorted by a price key in primitive arrays.
+ * <p>
+ * The keys are chosen such that an order is crossed by a tick when its key is at least the threshold derived from
+ * the tick (see {@link MatchingEngine}), so the crossed orders always form a suffix of the arrays. Finding them
+ * is a binary search and releasing them is just truncating the arrays - O(log n + k) for k crossed orders.
+ * Orders with the same key are kept in the order they were added.
+ * </p>
+ * <p>
+ * Adding an order is a binary search and a shift of the orders with higher keys, i.e. O(n). That's a memmove over
+ * the open orders of a single ticker of a strategy, which are few, we'd need a tree of price levels for deep
+ * books.
+ * </p>
+ */
+final class PriceBook {
+    private double[] keys = new double[8];
+    private int[] ids = new int[8];
+    private int size = 0;
+
+    void add(double key, int id) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        // insert after the orders with the same key
+        int position = lowerBound(Math.nextUp(key));
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        keys[position] = key;
+        ids[position] = id;
+        size++;
+    }
+
+    /**
+     * @param threshold Threshold to compare the keys with
+     * @return Index of the first order whose key is at least the threshold, size() when there are none
+     */
+    int lowerBound(double threshold) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < threshold) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param from Index of the first order to look at
+     * @param end  Index after the last order of the price level
+     * @return Index of the first order in [from, end) that has the same key as the order at end - 1
+     */
+    int levelStart(int from, int end) {
+        double key = keys[end - 1];
+        int start = end - 1;
+        while (start > from && keys[start - 1] == key) {
+            start--;
+        }
+        return start;
+    }
+
+    int idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Removes all the orders from the given index till the end.
+     */
+    void truncate(int from) {
+        size = from;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,80 @@
+package in.ashwanthkumar.aktrades;
+
+import tech.tablesaw.api.Row;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Scrip backed by a row of a Tablesaw Table. Every access looks up the column by its name, prefer
+ * {@link ScripCursor} on the hot paths.
+ */
+public class RowScrip implements Scrip {
+    // Unique identifier of the Scrip aka Symbol in the wild
+    private final String name;
+    private final Row row;
+
+    public RowScrip(String name, Row row) {
+        this.name = name;
+        this.row = row;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public LocalDateTime instant() {
+        return row.getDateTime(ScripColumns.TIME);
+    }
+
+    @Override
+    public long epochSecond() {
+        return instant().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @Override
+    public double open() {
+        return row.getDouble(ScripColumns.OPEN);
+    }
+
+    @Override
+    public double high() {
+        return row.getDouble(ScripColumns.HIGH);
+    }
+
+    @Override
+    public double low() {
+        return row.getDouble(ScripColumns.LOW);
+    }
+
+    @Override
+    public double close() {
+        return row.getDouble(ScripColumns.CLOSE);
+    }
+
+    @Override
+    public boolean hasOi() {
+        return isPresent(ScripColumns.OPEN_INTEREST);
+    }
+
+    @Override
+    public long oiAsLong() {
+        return hasOi() ? (long) row.getNumber(ScripColumns.OPEN_INTEREST) : 0;
+    }
+
+    @Override
+    public boolean hasVolume() {
+        return isPresent(ScripColumns.VOLUME);
+    }
+
+    @Override
+    public long volumeAsLong() {
+        return hasVolume() ? (long) row.getNumber(ScripColumns.VOLUME) : 0;
+    }
+
+    private boolean isPresent(String column) {
+        return row.columnNames().contains(column) && !row.isMissing(column);
+    }
+}
@@ -0,0 +1,22 @@
+package in.ashwanthkumar.aktrades;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Summary of a single run of a Strategy - of a set of parameters in a {@link ParameterSweep}, a trading date in a
+ * {@link DayPartitionedBacktest} or a shard in a {@link DistributedBacktest}.
+ */
+@Getter
+@RequiredArgsConstructor
+public class RunSummary {
+    private final double pnl;
+    private final double charges;
+    // number of orders that were executed
+    private final int trades;
+    private final long elapsedNanos;
+
+    public double netPnl() {
+        return pnl - charges;
+    }
+}
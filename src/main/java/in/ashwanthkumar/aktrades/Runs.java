@@ -0,0 +1,26 @@
+package in.ashwanthkumar.aktrades;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Helpers of the runners that spread the runs of a Strategy over a pool.
+ */
+final class Runs {
+    private Runs() {
+    }
+
+    /**
+     * Waits for the run to complete, a run that failed is rethrown with its cause.
+     */
+    static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -5,14 +5,25 @@ import tech.tablesaw.api.Row;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
-public class Scrip {
-    // Unique identifier of the Scrip aka Symbol in the wild
-    private final String name;
-    private final Row row;
-
-    public Scrip(String name, Row row) {
-        this.name = name;
-        this.row = row;
+/**
+ * Data of a Scrip on a tick that's passed to the {@link Strategy}.
+ * <p>
+ * Implementations can be flyweights (see {@link ScripCursor}) that are re-pointed to the next tick once
+ * {@link Strategy#onTick(Scrip, Context)} returns, so strategies should copy the values they want to hold on to.
+ * </p>
+ * <p>
+ * Scrip used to be a class over a Tablesaw Row, that's {@link RowScrip} now and {@code new Scrip(name, row)} is
+ * {@link #of(String, Row)}.
+ * </p>
+ */
+public interface Scrip {
+    /**
+     * @param name Name of the Scrip
+     * @param row  Row of the tick, with the columns of {@link ScripColumns}
+     * @return Scrip backed by the row
+     */
+    static Scrip of(String name, Row row) {
+        return new RowScrip(name, row);
     }
 
     /**
@@ -20,66 +31,77 @@ public class Scrip {
      *
      * @return Name of this Scrip
      */
-    public String getName() {
-        return name;
-    }
+    String getName();
 
     /**
      * Current time of the day
      *
      * @return Current time of the day
      */
-    public LocalDateTime instant() {
-        return row.getDateTime("dt");
-    }
+    LocalDateTime instant();
+
+    /**
+     * Current time of the day without allocating a LocalDateTime
+     *
+     * @return Seconds since epoch (in UTC) of the current tick
+     */
+    long epochSecond();
 
     /**
      * Open Price on this tick
      *
      * @return Open Price on this tick
      */
-    public double open() {
-        return row.getDouble("Open");
-    }
+    double open();
 
     /**
      * High Price on this tick
      *
      * @return High Price on this tick
      */
-    public double high() {
-        return row.getDouble("High");
-    }
+    double high();
 
     /**
      * Low price on this tick
      *
      * @return Low price on this tick
      */
-    public double low() {
-        return row.getDouble("Low");
-    }
+    double low();
 
     /**
      * Close price on this tick
      *
      * @return Close price on this tick
      */
-    public double close() {
-        return row.getDouble("Close");
-    }
+    double close();
+
+    /**
+     * @return true if Open Interest is present for the scrip on this tick
+     */
+    boolean hasOi();
+
+    /**
+     * @return Open Interest on this tick, 0 if not present
+     */
+    long oiAsLong();
+
+    /**
+     * @return true if Volume is present for the scrip on this tick
+     */
+    boolean hasVolume();
+
+    /**
+     * @return Volume on this tick, 0 if not present
+     */
+    long volumeAsLong();
 
     /**
      * Open Interest if present for the scrip
      *
      * @return Open Interest if present for the scrip
      */
-    public Optional<Long> oi() {
-        try {
-            return Optional.of(row.getLong("Open Interest"));
-        } catch (IllegalStateException notAvailable) {
-            return Optional.empty();
-        }
+    default Optional<Long> oi() {
+        return hasOi() ? Optional.of(oiAsLong()) : Optional.empty();
     }
 
     /**
@@ -87,11 +109,7 @@ public class Scrip {
      *
      * @return Volume if present for the Scrip
      */
-    public Optional<Long> volume() {
-        try {
-            return Optional.of(row.getLong("Volume"));
-        } catch (IllegalStateException notAvailable) {
-            return Optional.empty();
-        }
+    default Optional<Long> volume() {
+        return hasVolume() ? Optional.of(volumeAsLong()) : Optional.empty();
     }
 }
@@ -0,0 +1,61 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.io.MappedBatch;
+import in.ashwanthkumar.aktrades.io.view.DoubleColumnView;
+import in.ashwanthkumar.aktrades.io.view.IntColumnView;
+import in.ashwanthkumar.aktrades.io.view.StringColumnView;
+import in.ashwanthkumar.aktrades.io.view.TimestampColumnView;
+
+/**
+ * Column views of a {@link MappedBatch} that make up a {@link Scrip}, resolved once per batch so that
+ * {@link ScripCursor} doesn't have to look up the columns by name on every tick.
+ */
+public class ScripColumns {
+    public static final String TICKER = "Ticker";
+    public static final String TIME = "Time";
+    public static final String OPEN = "Open";
+    public static final String HIGH = "High";
+    public static final String LOW = "Low";
+    public static final String CLOSE = "Close";
+    public static final String VOLUME = "Volume";
+    public static final String OPEN_INTEREST = "Open Interest";
+
+    final MappedBatch batch;
+    final StringColumnView ticker;
+    final TimestampColumnView time;
+    final DoubleColumnView open;
+    final DoubleColumnView high;
+    final DoubleColumnView low;
+    final DoubleColumnView close;
+    // optional columns, they're null when not present in the dataset
+    final IntColumnView volume;
+    final IntColumnView openInterest;
+
+    private ScripColumns(MappedBatch batch) {
+        this.batch = batch;
+        this.ticker = batch.stringColumn(TICKER);
+        this.time = batch.timestampColumn(TIME);
+        this.open = batch.doubleColumn(OPEN);
+        this.high = batch.doubleColumn(HIGH);
+        this.low = batch.doubleColumn(LOW);
+        this.close = batch.doubleColumn(CLOSE);
+        this.volume = batch.hasColumn(VOLUME) ? batch.intColumn(VOLUME) : null;
+        this.openInterest = batch.hasColumn(OPEN_INTEREST) ? batch.intColumn(OPEN_INTEREST) : null;
+    }
+
+    public static ScripColumns of(MappedBatch batch) {
+        return new ScripColumns(batch);
+    }
+
+    public MappedBatch getBatch() {
+        return batch;
+    }
+
+    public StringColumnView getTicker() {
+        return ticker;
+    }
+
+    public TimestampColumnView getTime() {
+        return time;
+    }
+}
@@ -0,0 +1,149 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.io.MappedBatch;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Flyweight {@link Scrip} over the columns of a {@link MappedBatch}.
+ * <p>
+ * The cursor is re-pointed to a row instead of creating a Scrip for every tick. Columns are resolved once per
+ * batch via {@link ScripColumns} and the values are read as primitives straight from the Arrow buffers, so
+ * none of the primitive accessors allocate or throw when an optional column is missing.
+ * </p>
+ * <p>
+ * A cursor that's created for a ticker (like the ones of the {@link TickMerger}) returns that name from
+ * {@link #getName()} instead of decoding it from the Ticker column, so it doesn't allocate even when the column
+ * isn't dictionary encoded.
+ * </p>
+ */
+public final class ScripCursor implements Scrip {
+    // null when the cursor isn't tied to a ticker, the name is read from the row then
+    private final String ticker;
+    private ScripColumns columns;
+    private int row = -1;
+
+    /**
+     * Cursor over the rows of any ticker.
+     */
+    public ScripCursor() {
+        this(null);
+    }
+
+    /**
+     * Cursor over the rows of a single ticker.
+     *
+     * @param ticker Name of the ticker of every row the cursor is pointed to
+     */
+    public ScripCursor(String ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * Points the cursor to the row of the batch, the columns are resolved only when the batch changes.
+     *
+     * @param batch Batch that has the row
+     * @param row   Index of the row in the batch
+     * @return this cursor
+     */
+    public ScripCursor moveTo(MappedBatch batch, int row) {
+        if (columns == null || columns.batch != batch) {
+            columns = ScripColumns.of(batch);
+        }
+        this.row = row;
+        return this;
+    }
+
+    /**
+     * Points the cursor to the row of already resolved columns.
+     *
+     * @param columns Columns of the batch that has the row
+     * @param row     Index of the row in the batch
+     * @return this cursor
+     */
+    public ScripCursor moveTo(ScripColumns columns, int row) {
+        this.columns = columns;
+        this.row = row;
+        return this;
+    }
+
+    /**
+     * @return Index of the current row in the current batch
+     */
+    public int row() {
+        return row;
+    }
+
+    /**
+     * @return true if the Ticker column of the current batch is dictionary encoded, i.e. it has {@link #tickerCode()}
+     */
+    public boolean hasTickerCodes() {
+        return columns.ticker.isDictionaryEncoded();
+    }
+
+    /**
+     * @return Dictionary code of the ticker on the current row
+     * @throws IllegalStateException if the Ticker column isn't dictionary encoded, see {@link #hasTickerCodes()}
+     */
+    public int tickerCode() {
+        Preconditions.checkState(columns.ticker.isDictionaryEncoded(), "Ticker column isn't dictionary encoded, the dataset should be written with Ticker as a categorical column");
+        return columns.ticker.getCode(row);
+    }
+
+    @Override
+    public String getName() {
+        return ticker != null ? ticker : columns.ticker.getString(row);
+    }
+
+    @Override
+    public LocalDateTime instant() {
+        return LocalDateTime.ofEpochSecond(epochSecond(), 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public long epochSecond() {
+        return columns.time.getEpochSecond(row);
+    }
+
+    @Override
+    public double open() {
+        return columns.open.getDouble(row);
+    }
+
+    @Override
+    public double high() {
+        return columns.high.getDouble(row);
+    }
+
+    @Override
+    public double low() {
+        return columns.low.getDouble(row);
+    }
+
+    @Override
+    public double close() {
+        return columns.close.getDouble(row);
+    }
+
+    @Override
+    public boolean hasOi() {
+        return columns.openInterest != null && !columns.openInterest.isNull(row);
+    }
+
+    @Override
+    public long oiAsLong() {
+        return hasOi() ? columns.openInterest.getInt(row) : 0;
+    }
+
+    @Override
+    public boolean hasVolume() {
+        return columns.volume != null && !columns.volume.isNull(row);
+    }
+
+    @Override
+    public long volumeAsLong() {
+        return hasVolume() ? columns.volume.getInt(row) : 0;
+    }
+}
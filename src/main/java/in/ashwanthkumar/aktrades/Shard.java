@@ -0,0 +1,109 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A unit of work of a {@link DistributedBacktest} - the trading dates and the tickers of the partitioned dataset
+ * to run the strategy on, and the parameters that the strategy is created with.
+ */
+@Getter
+@EqualsAndHashCode
+public class Shard {
+    private final LocalDate from;
+    private final LocalDate to;
+    // empty means all the tickers
+    private final Set<String> tickers;
+    private final Map<String, String> parameters;
+
+    private Shard(LocalDate from, LocalDate to, Set<String> tickers, Map<String, String> parameters) {
+        Preconditions.checkArgument(!from.isAfter(to), "from (%s) should not be after to (%s)", from, to);
+        this.from = from;
+        this.to = to;
+        this.tickers = tickers;
+        this.parameters = parameters;
+    }
+
+    /**
+     * @param from First trading date (inclusive)
+     * @param to   Last trading date (inclusive)
+     * @return Shard of all the tickers between the dates, without any parameters
+     */
+    public static Shard between(LocalDate from, LocalDate to) {
+        return new Shard(from, to, Set.of(), Map.of());
+    }
+
+    /**
+     * @return Shard that has only the given tickers
+     */
+    public Shard withTickers(Set<String> tickers) {
+        return new Shard(from, to, Set.copyOf(tickers), parameters);
+    }
+
+    /**
+     * @return Shard whose strategy is created with the given parameters
+     */
+    public Shard withParameters(Map<String, String> parameters) {
+        return new Shard(from, to, tickers, Map.copyOf(parameters));
+    }
+
+    /**
+     * Splits the dates into shards of consecutive dates. Replaying the shards in order is the same as a sequential
+     * run over all the dates for an intraday strategy, see {@link DistributedBacktest.Result#getContext()}.
+     *
+     * @param daysPerShard Number of calendar days in each shard
+     * @return Shards in date order
+     */
+    public static List<Shard> byDate(LocalDate from, LocalDate to, int daysPerShard) {
+        Preconditions.checkArgument(daysPerShard > 0, "daysPerShard should be positive, but was %s", daysPerShard);
+        List<Shard> shards = new ArrayList<>();
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(daysPerShard)) {
+            LocalDate end = start.plusDays(daysPerShard - 1);
+            shards.add(between(start, end.isAfter(to) ? to : end));
+        }
+        return shards;
+    }
+
+    /**
+     * The shards aren't merged by a {@link DistributedBacktest}, each of them has its own result.
+     *
+     * @param tickersPerShard Number of tickers in each shard
+     * @return Shards of the tickers (in their sorted order) over all the dates
+     */
+    public static List<Shard> byTickers(LocalDate from, LocalDate to, Set<String> tickers, int tickersPerShard) {
+        Preconditions.checkArgument(tickersPerShard > 0, "tickersPerShard should be positive, but was %s", tickersPerShard);
+        List<String> sorted = new ArrayList<>(new TreeSet<>(tickers));
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i += tickersPerShard) {
+            shards.add(between(from, to).withTickers(Set.copyOf(sorted.subList(i, Math.min(sorted.size(), i + tickersPerShard)))));
+        }
+        return shards;
+    }
+
+    /**
+     * The shards aren't merged by a {@link DistributedBacktest}, each of them has its own result.
+     *
+     * @return One shard per set of parameters, over all the tickers and the dates
+     */
+    public static List<Shard> byParameters(LocalDate from, LocalDate to, List<Map<String, String>> parameters) {
+        List<Shard> shards = new ArrayList<>();
+        for (Map<String, String> block : parameters) {
+            shards.add(between(from, to).withParameters(block));
+        }
+        return shards;
+    }
+
+    @Override
+    public String toString() {
+        return from + ".." + to + (tickers.isEmpty() ? "" : " " + new TreeSet<>(tickers)) + (parameters.isEmpty() ? "" : " " + new TreeMap<>(parameters));
+    }
+}
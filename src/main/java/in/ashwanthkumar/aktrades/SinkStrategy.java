@@ -0,0 +1,56 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.model.Order;
+
+import java.util.List;
+
+/**
+ * Strategy that places its orders on an {@link OrderSink} instead of returning them, so a tick that doesn't place
+ * any orders doesn't allocate anything and one that does re-uses the pooled orders.
+ * <p>
+ * Every engine runs SinkStrategies, a {@link Strategy} is run through {@link #of(Strategy)}.
+ * </p>
+ */
+public interface SinkStrategy {
+    /**
+     * Invoked for each tick, see {@link Strategy#onTick(Scrip, Context)}.
+     *
+     * @param scrip   Scrip data
+     * @param context Context object to query runtime info
+     * @param orders  Sink to place the orders on, they're executed only on the next tick
+     */
+    void onTick(Scrip scrip, Context context, OrderSink orders);
+
+    /**
+     * Invoked after each order execution, see {@link Strategy#afterOrder(Order, Context)}.
+     *
+     * @param order   Order that just got executed
+     * @param context Context object to query runtime info
+     * @param orders  Sink to place the orders on, they're executed only on the next tick
+     */
+    default void afterOrder(Order order, Context context, OrderSink orders) {
+    }
+
+    /**
+     * @return SinkStrategy that submits the orders returned by the strategy
+     */
+    static SinkStrategy of(Strategy strategy) {
+        return new SinkStrategy() {
+            @Override
+            public void onTick(Scrip scrip, Context context, OrderSink orders) {
+                submitAll(strategy.onTick(scrip, context), orders);
+            }
+
+            @Override
+            public void afterOrder(Order order, Context context, OrderSink orders) {
+                submitAll(strategy.afterOrder(order, context), orders);
+            }
+
+            private void submitAll(List<Order> newOrders, OrderSink orders) {
+                for (int i = 0; i < newOrders.size(); i++) {
+                    orders.submit(newOrders.get(i));
+                }
+            }
+        };
+    }
+}
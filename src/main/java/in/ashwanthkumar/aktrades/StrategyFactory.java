@@ -0,0 +1,16 @@
+package in.ashwanthkumar.aktrades;
+
+import java.util.Map;
+
+/**
+ * Creates the strategies of a {@link DistributedBacktest} on the workers. Workers are separate JVMs, so the factory
+ * is instantiated on the worker from its class name - it should be a public class with a public no-arg constructor
+ * that's on the classpath of the workers.
+ */
+public interface StrategyFactory {
+    /**
+     * @param parameters Parameters of the shard, see {@link Shard#withParameters(Map)}
+     * @return Strategy to run the shard with, called once per shard
+     */
+    Strategy create(Map<String, String> parameters);
+}
@@ -0,0 +1,261 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.io.MappedBatch;
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.io.view.StringColumnView;
+import in.ashwanthkumar.aktrades.io.view.TimestampColumnView;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Index of the per-ticker time series in one or more {@link MappedDataset}s.
+ * <p>
+ * The datasets are scanned once to find the runs - consecutive rows of a batch that belong to the same ticker and
+ * are in strictly increasing order of time, a ticker with more than one row at a time is rejected. Runs are
+ * grouped by ticker and ordered by time, which lets {@link TickMerger} walk every ticker's series in order without
+ * sorting or copying any of the rows. The index is immutable and can be shared by any number of backtests running
+ * over the same data.
+ * </p>
+ */
+public class TickIndex {
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final List<ScripColumns> batches;
+    // tickers sorted by their name, the position is the ticker id
+    private final String[] tickers;
+    private final Map<String, Integer> tickerIds;
+    // runs of ticker t are in [tickerRuns[t], tickerRuns[t + 1]) sorted by time
+    private final int[] tickerRuns;
+    private final int[] runBatch;
+    private final int[] runStart;
+    private final int[] runEnd;
+    private final long rows;
+
+    private TickIndex(List<ScripColumns> batches, String[] tickers, int[] tickerRuns, int[] runBatch, int[] runStart, int[] runEnd, long rows) {
+        this.batches = batches;
+        this.tickers = tickers;
+        this.tickerRuns = tickerRuns;
+        this.runBatch = runBatch;
+        this.runStart = runStart;
+        this.runEnd = runEnd;
+        this.rows = rows;
+        this.tickerIds = new HashMap<>();
+        for (int i = 0; i < tickers.length; i++) {
+            tickerIds.put(tickers[i], i);
+        }
+    }
+
+    public static TickIndex of(MappedDataset... datasets) {
+        return of(Arrays.asList(datasets));
+    }
+
+    public static TickIndex of(List<MappedDataset> datasets) {
+        List<MappedBatch> batches = new ArrayList<>();
+        for (MappedDataset dataset : datasets) {
+            batches.addAll(dataset.batches());
+        }
+        return ofBatches(batches);
+    }
+
+    /**
+     * Builds the index over the given batches, the batches can come from different datasets.
+     *
+     * @param mappedBatches Batches that should be part of the index
+     * @return TickIndex over all the rows of the batches
+     */
+    public static TickIndex ofBatches(List<MappedBatch> mappedBatches) {
+        List<ScripColumns> batches = new ArrayList<>(mappedBatches.size());
+        Map<String, List<long[]>> runsByTicker = new HashMap<>();
+        long rows = 0;
+        for (int b = 0; b < mappedBatches.size(); b++) {
+            ScripColumns columns = ScripColumns.of(mappedBatches.get(b));
+            batches.add(columns);
+            StringColumnView ticker = columns.ticker;
+            TimestampColumnView time = columns.time;
+            int rowCount = columns.batch.rowCount();
+            rows += rowCount;
+
+            int start = 0;
+            for (int row = 1; row <= rowCount; row++) {
+                boolean endOfRun = row == rowCount || !sameTicker(ticker, row - 1, row);
+                if (!endOfRun) {
+                    long current = time.getEpochSecond(row);
+                    long previous = time.getEpochSecond(row - 1);
+                    // a ticker gets a single tick at a time
+                    Preconditions.checkState(current != previous, "%s has more than one row at %s, the dataset should have a single row per (Ticker, Time)",
+                            ticker.getString(row), current);
+                    endOfRun = current < previous;
+                }
+                if (endOfRun) {
+                    // run = {first time, batch, start, end}
+                    long[] run = {time.getEpochSecond(start), b, start, row};
+                    runsByTicker.computeIfAbsent(ticker.getString(start), k -> new ArrayList<>()).add(run);
+                    start = row;
+                }
+            }
+        }
+
+        String[] tickers = runsByTicker.keySet().toArray(new String[0]);
+        Arrays.sort(tickers);
+        int totalRuns = runsByTicker.values().stream().mapToInt(List::size).sum();
+        int[] tickerRuns = new int[tickers.length + 1];
+        int[] runBatch = new int[totalRuns];
+        int[] runStart = new int[totalRuns];
+        int[] runEnd = new int[totalRuns];
+        int next = 0;
+        for (int t = 0; t < tickers.length; t++) {
+            tickerRuns[t] = next;
+            List<long[]> runs = runsByTicker.get(tickers[t]);
+            runs.sort(Comparator.comparingLong(run -> run[0]));
+            long lastTime = Long.MIN_VALUE;
+            for (long[] run : runs) {
+                Preconditions.checkState(run[0] > lastTime, "Rows of %s overlap in time across batches, the dataset should be sorted on (Ticker, Time)", tickers[t]);
+                ScripColumns columns = batches.get((int) run[1]);
+                lastTime = columns.time.getEpochSecond((int) run[3] - 1);
+                runBatch[next] = (int) run[1];
+                runStart[next] = (int) run[2];
+                runEnd[next] = (int) run[3];
+                next++;
+            }
+        }
+        tickerRuns[tickers.length] = next;
+        return new TickIndex(batches, tickers, tickerRuns, runBatch, runStart, runEnd, rows);
+    }
+
+    private static boolean sameTicker(StringColumnView ticker, int previous, int current) {
+        if (ticker.isDictionaryEncoded()) {
+            return ticker.getCode(previous) == ticker.getCode(current);
+        }
+        return Objects.equals(ticker.getString(previous), ticker.getString(current));
+    }
+
+    /**
+     * @return Number of unique tickers
+     */
+    public int tickerCount() {
+        return tickers.length;
+    }
+
+    /**
+     * @param tickerId Id of the ticker
+     * @return Name of the ticker
+     */
+    public String ticker(int tickerId) {
+        return tickers[tickerId];
+    }
+
+    /**
+     * @param ticker Name of the ticker
+     * @return Id of the ticker or -1 if it's not present in the index
+     */
+    public int tickerId(String ticker) {
+        Integer id = tickerIds.get(ticker);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return Total number of rows that are indexed
+     */
+    public long rowCount() {
+        return rows;
+    }
+
+    /**
+     * @return Trading dates that have at least one tick, in order
+     */
+    public List<LocalDate> tradingDates() {
+        TreeSet<Long> days = new TreeSet<>();
+        for (int run = 0; run < runBatch.length; run++) {
+            TimestampColumnView time = batches.get(runBatch[run]).time;
+            int row = runStart[run];
+            while (row < runEnd[run]) {
+                long day = Math.floorDiv(time.getEpochSecond(row), SECONDS_PER_DAY);
+                days.add(day);
+                // skip over the rest of the day's rows in the run
+                row = lowerBound(time, row, runEnd[run], (day + 1) * SECONDS_PER_DAY);
+            }
+        }
+        List<LocalDate> dates = new ArrayList<>(days.size());
+        for (long day : days) {
+            dates.add(LocalDate.ofEpochDay(day));
+        }
+        return dates;
+    }
+
+    /**
+     * Slices the index to the ticks of the given trading dates. The slice shares the batches and the ticker ids
+     * with this index, so the ticks of a day are merged in exactly the same order as they're in the whole index.
+     *
+     * @param from First trading date (inclusive)
+     * @param to   Last trading date (inclusive)
+     * @return TickIndex over the ticks of the dates
+     */
+    public TickIndex between(LocalDate from, LocalDate to) {
+        Preconditions.checkArgument(!from.isAfter(to), "from (%s) should not be after to (%s)", from, to);
+        long fromSecond = from.toEpochDay() * SECONDS_PER_DAY;
+        long toSecond = (to.toEpochDay() + 1) * SECONDS_PER_DAY;
+        int[] sliceTickerRuns = new int[tickers.length + 1];
+        int[] sliceBatch = new int[runBatch.length];
+        int[] sliceStart = new int[runBatch.length];
+        int[] sliceEnd = new int[runBatch.length];
+        long sliceRows = 0;
+        int next = 0;
+        for (int t = 0; t < tickers.length; t++) {
+            sliceTickerRuns[t] = next;
+            for (int run = tickerRuns[t]; run < tickerRuns[t + 1]; run++) {
+                TimestampColumnView time = batches.get(runBatch[run]).time;
+                int start = lowerBound(time, runStart[run], runEnd[run], fromSecond);
+                int end = lowerBound(time, start, runEnd[run], toSecond);
+                if (start < end) {
+                    sliceBatch[next] = runBatch[run];
+                    sliceStart[next] = start;
+                    sliceEnd[next] = end;
+                    sliceRows += end - start;
+                    next++;
+                }
+            }
+        }
+        sliceTickerRuns[tickers.length] = next;
+        return new TickIndex(batches, tickers, sliceTickerRuns, Arrays.copyOf(sliceBatch, next),
+                Arrays.copyOf(sliceStart, next), Arrays.copyOf(sliceEnd, next), sliceRows);
+    }
+
+    /**
+     * @return First row in [start, end) whose time is at or after the given time, end if there's none
+     */
+    private static int lowerBound(TimestampColumnView time, int start, int end, long epochSecond) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (time.getEpochSecond(mid) < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int firstRun(int tickerId) {
+        return tickerRuns[tickerId];
+    }
+
+    int endRun(int tickerId) {
+        return tickerRuns[tickerId + 1];
+    }
+
+    ScripColumns runColumns(int run) {
+        return batches.get(runBatch[run]);
+    }
+
+    int runStart(int run) {
+        return runStart[run];
+    }
+
+    int runEnd(int run) {
+        return runEnd[run];
+    }
+}
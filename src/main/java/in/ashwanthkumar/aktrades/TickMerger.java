@@ -0,0 +1,122 @@
+package in.ashwanthkumar.aktrades;
+
+/**
+ * K-way merge of the per-ticker time series of a {@link TickIndex} into a single stream that's ordered on
+ * (time, ticker id).
+ * <p>
+ * The heap holds one entry per ticker and is kept in primitive arrays, so every tick costs O(log tickers) and
+ * doesn't allocate. Each ticker has its own {@link ScripCursor} that's re-pointed as the ticker moves forward.
+ * </p>
+ */
+final class TickMerger {
+    private final TickIndex index;
+    private final ScripCursor[] cursors;
+    // state of each ticker
+    private final int[] run;
+    private final int[] row;
+    private final long[] time;
+    // min-heap of ticker ids
+    private final int[] heap;
+    private int size = 0;
+
+    TickMerger(TickIndex index) {
+        this.index = index;
+        int tickers = index.tickerCount();
+        this.cursors = new ScripCursor[tickers];
+        this.run = new int[tickers];
+        this.row = new int[tickers];
+        this.time = new long[tickers];
+        this.heap = new int[tickers];
+        for (int ticker = 0; ticker < tickers; ticker++) {
+            cursors[ticker] = new ScripCursor(index.ticker(ticker));
+            int first = index.firstRun(ticker);
+            if (first < index.endRun(ticker)) {
+                run[ticker] = first;
+                row[ticker] = index.runStart(first);
+                time[ticker] = index.runColumns(first).time.getEpochSecond(row[ticker]);
+                heap[size] = ticker;
+                siftUp(size++);
+            }
+        }
+    }
+
+    boolean hasNext() {
+        return size > 0;
+    }
+
+    /**
+     * @return Time (seconds since epoch) of the next tick
+     */
+    long peekTime() {
+        return time[heap[0]];
+    }
+
+    /**
+     * @return Id of the ticker of the next tick
+     */
+    int peekTicker() {
+        return heap[0];
+    }
+
+    /**
+     * Moves the cursor of the next ticker to its current row and advances the ticker.
+     *
+     * @return Cursor pointing to the next tick, valid till the same ticker is returned again
+     */
+    ScripCursor next() {
+        int ticker = heap[0];
+        ScripCursor cursor = cursors[ticker].moveTo(index.runColumns(run[ticker]), row[ticker]);
+
+        row[ticker]++;
+        if (row[ticker] == index.runEnd(run[ticker])) {
+            run[ticker]++;
+            if (run[ticker] == index.endRun(ticker)) {
+                // the ticker doesn't have any more ticks
+                heap[0] = heap[--size];
+                if (size > 0) {
+                    siftDown(0);
+                }
+                return cursor;
+            }
+            row[ticker] = index.runStart(run[ticker]);
+        }
+        time[ticker] = index.runColumns(run[ticker]).time.getEpochSecond(row[ticker]);
+        siftDown(0);
+        return cursor;
+    }
+
+    private boolean less(int a, int b) {
+        return time[a] < time[b] || (time[a] == time[b] && a < b);
+    }
+
+    private void siftUp(int position) {
+        int ticker = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(ticker, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = ticker;
+    }
+
+    private void siftDown(int position) {
+        int ticker = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], ticker)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = ticker;
+    }
+}
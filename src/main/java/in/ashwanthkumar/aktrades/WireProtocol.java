@@ -0,0 +1,100 @@
+package in.ashwanthkumar.aktrades;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Line based protocol between the coordinator of a {@link DistributedBacktest} and its workers.
+ * <p>
+ * Every message is a line of tab separated fields, the first one being the command. Strings are URL encoded, so
+ * they never have a tab or a new line, and doubles are written with {@link Double#toString(double)} which parses
+ * back to the same bits.
+ * </p>
+ * <pre>
+ * worker      → coordinator  HELLO  name
+ * coordinator → worker       JOB    datasetRoot  factoryClass  perOrderBrokerage
+ * coordinator → worker       SHARD  id  from  to  tickers  parameters
+ * worker      → coordinator  ORDER  id  ticker  op  type  quantity  price  triggerPrice  executedPrice  (per execution)
+ * worker      → coordinator  DONE   id  pnl  charges  trades  elapsedNanos
+ * worker      → coordinator  FAILED id  message
+ * coordinator → worker       BYE
+ * </pre>
+ */
+final class WireProtocol {
+    static final String HELLO = "HELLO";
+    static final String JOB = "JOB";
+    static final String SHARD = "SHARD";
+    static final String ORDER = "ORDER";
+    static final String DONE = "DONE";
+    static final String FAILED = "FAILED";
+    static final String BYE = "BYE";
+
+    private WireProtocol() {
+    }
+
+    static String line(String command, Object... fields) {
+        StringJoiner line = new StringJoiner("\t");
+        line.add(command);
+        for (Object field : fields) {
+            line.add(String.valueOf(field));
+        }
+        return line.toString();
+    }
+
+    static String[] fields(String line) {
+        return line.split("\t", -1);
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    static String shard(int id, Shard shard) {
+        StringJoiner tickers = new StringJoiner(",");
+        shard.getTickers().stream().sorted().forEach(ticker -> tickers.add(encode(ticker)));
+        StringJoiner parameters = new StringJoiner("&");
+        shard.getParameters().forEach((key, value) -> parameters.add(encode(key) + "=" + encode(value)));
+        return line(SHARD, id, shard.getFrom(), shard.getTo(), tickers, parameters);
+    }
+
+    static Shard parseShard(String[] fields) {
+        Preconditions.checkArgument(fields.length == 6, "Malformed shard %s", String.join(" ", fields));
+        Set<String> tickers = new HashSet<>();
+        for (String ticker : fields[4].isEmpty() ? new String[0] : fields[4].split(",")) {
+            tickers.add(decode(ticker));
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : fields[5].isEmpty() ? new String[0] : fields[5].split("&")) {
+            int separator = parameter.indexOf('=');
+            parameters.put(decode(parameter.substring(0, separator)), decode(parameter.substring(separator + 1)));
+        }
+        return Shard.between(LocalDate.parse(fields[2]), LocalDate.parse(fields[3])).withTickers(tickers).withParameters(parameters);
+    }
+
+    static String order(int id, Order order, double executedPrice) {
+        return line(ORDER, id, encode(order.getTicker()), order.getOp(), order.getOrderType(), order.getQuantity(),
+                order.getPrice(), order.getTriggerPrice(), executedPrice);
+    }
+
+    static Order parseOrder(String[] fields) {
+        Preconditions.checkArgument(fields.length == 9, "Malformed order %s", String.join(" ", fields));
+        return Order.of(decode(fields[2]), OrderOp.valueOf(fields[3]), OrderType.valueOf(fields[4]),
+                Integer.parseInt(fields[5]), Double.parseDouble(fields[6]), Double.parseDouble(fields[7]));
+    }
+}
@@ -0,0 +1,149 @@
+package in.ashwanthkumar.aktrades.bars;
+
+import in.ashwanthkumar.aktrades.ScripColumns;
+import in.ashwanthkumar.aktrades.io.Compression;
+import in.ashwanthkumar.aktrades.io.Partition;
+import in.ashwanthkumar.aktrades.io.PartitionFilter;
+import in.ashwanthkumar.aktrades.io.PartitionedDataWriter;
+import in.ashwanthkumar.aktrades.io.PartitionedDataset;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Bars of the higher timeframes of a {@link PartitionedDataset}, resampled once and kept as datasets of their
+ * own at {@code timeframes/<timeframe>} under the root of the base dataset.
+ * <p>
+ * {@code sources.csv} in the directory of a timeframe records the base segments (path and rows) that the bars of
+ * every ticker were resampled from. {@link #open(Timeframe)} resamples only the tickers whose segments have
+ * changed since - new imports or compactions - so after a daily import we resample just the tickers that got
+ * new rows. The bars of a ticker are always resampled from all of its rows, a bar can span the segments.
+ * </p>
+ */
+@Slf4j
+public class BarCache {
+    static final String DIRECTORY = "timeframes";
+    static final String SOURCES = "sources.csv";
+    private static final String[] HEADER = {"ticker", "segments"};
+
+    private final PartitionedDataset base;
+    private final Set<String> categoricalColumns;
+    private final Compression compression;
+
+    /**
+     * @param base               Dataset of the base series
+     * @param categoricalColumns List of StringColumns in the bars that have categorical values.
+     * @param compression        Compression of the record batches in the bar segments
+     */
+    public BarCache(PartitionedDataset base, Set<String> categoricalColumns, Compression compression) {
+        this.base = base;
+        this.categoricalColumns = categoricalColumns;
+        this.compression = compression;
+    }
+
+    /**
+     * @return Directory of the cached bars of the timeframe
+     */
+    public File root(Timeframe timeframe) {
+        return new File(new File(base.getRoot(), DIRECTORY), timeframe.name());
+    }
+
+    /**
+     * Brings the bars of the timeframe up to date with the base dataset and opens them.
+     *
+     * @param timeframe Timeframe of the bars
+     * @return Dataset of the bars, with the same columns as the base series
+     */
+    public PartitionedDataset open(Timeframe timeframe) {
+        File root = root(timeframe);
+        Map<String, String> cached = readSources(root);
+        Map<String, String> current = sources(base);
+
+        Set<String> stale = new TreeSet<>();
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            if (!entry.getValue().equals(cached.get(entry.getKey()))) {
+                stale.add(entry.getKey());
+            }
+        }
+        Set<String> removed = new TreeSet<>(cached.keySet());
+        removed.removeAll(current.keySet());
+
+        if (!stale.isEmpty() || !removed.isEmpty() || !new File(root, "manifest.csv").exists()) {
+            log.info("Resampling {} tickers into {} bars, {} are up to date", stale.size(), timeframe, current.size() - stale.size());
+            try (PartitionedDataWriter writer = new PartitionedDataWriter(root, categoricalColumns, compression)) {
+                Set<String> dropped = new HashSet<>(stale);
+                dropped.addAll(removed);
+                PartitionedDataset.dropTickers(root, dropped);
+                for (String ticker : stale) {
+                    Table rows = base.read(PartitionFilter.all().tickers(ticker)).sortAscendingOn(ScripColumns.TIME);
+                    writer.append(BarResampler.resample(rows, timeframe));
+                }
+            }
+            // the sources are saved only after the bars are in the manifest, so a failed run resamples them again
+            writeSources(root, current);
+        }
+        return PartitionedDataset.open(root);
+    }
+
+    /**
+     * @return Segments of every ticker in the base dataset, as a string that changes when any of them change
+     */
+    static Map<String, String> sources(PartitionedDataset dataset) {
+        Map<String, StringBuilder> segments = new TreeMap<>();
+        for (Partition partition : dataset.partitions()) {
+            StringBuilder builder = segments.computeIfAbsent(partition.getTicker(), t -> new StringBuilder());
+            if (builder.length() > 0) {
+                builder.append(';');
+            }
+            builder.append(partition.getPath()).append(':').append(partition.getRows());
+        }
+        Map<String, String> sources = new TreeMap<>();
+        segments.forEach((ticker, builder) -> sources.put(ticker, builder.toString()));
+        return sources;
+    }
+
+    private static Map<String, String> readSources(File root) {
+        Map<String, String> sources = new TreeMap<>();
+        File file = new File(root, SOURCES);
+        if (!file.exists()) {
+            return sources;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build();
+            for (CSVRecord record : format.parse(reader)) {
+                sources.put(record.get("ticker"), record.get("segments"));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return sources;
+    }
+
+    private static void writeSources(File root, Map<String, String> sources) {
+        Path file = new File(root, SOURCES).toPath();
+        Path temp = new File(root, SOURCES + ".tmp").toPath();
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8);
+                 CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(HEADER).build())) {
+                for (Map.Entry<String, String> entry : sources.entrySet()) {
+                    printer.printRecord(entry.getKey(), entry.getValue());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package in.ashwanthkumar.aktrades.bars;
+
+import in.ashwanthkumar.aktrades.Scrip;
+import in.ashwanthkumar.aktrades.ScripColumns;
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+import tech.tablesaw.api.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Resamples the base series (eg. 1-min) of every ticker into the bars of a {@link Timeframe}, one tick at a time.
+ * <p>
+ * The bar that's being built and the last {@code history} completed bars of each ticker are kept in primitive
+ * arrays indexed by the ticker id, so a tick is an O(1) update that doesn't allocate. A bar is completed by the
+ * base tick that ends at the end of the bar (the 09:29 1-min tick completes the 09:15 15-min bar), or by the
+ * first tick of the ticker in a later bar when there are gaps. So a completed bar never has data from the future
+ * of the tick it's served on. The last bar of the day is completed by the first tick of the next day when the
+ * day doesn't end on a bar boundary.
+ * </p>
+ * <p>
+ * Open is of the first tick, High / Low are the extremes, Close and Open Interest are of the last tick and the
+ * Volume is the sum of the volumes of the ticks.
+ * </p>
+ */
+public class BarResampler {
+    public static final int DEFAULT_BASE_SECONDS = 60;
+    public static final int DEFAULT_HISTORY = 16;
+    private static final int INITIAL_TICKERS = 16;
+
+    private final Timeframe timeframe;
+    private final int baseSeconds;
+    private final int history;
+    private final TickerIds tickerIds;
+    private final Bar bar = new Bar();
+    private int capacity = 0;
+
+    // the bar that's being built, start is Long.MIN_VALUE when there's none
+    private long[] start = new long[0];
+    private double[] open = new double[0];
+    private double[] high = new double[0];
+    private double[] low = new double[0];
+    private double[] close = new double[0];
+    private long[] volume = new long[0];
+    private boolean[] hasVolume = new boolean[0];
+    private long[] oi = new long[0];
+    private boolean[] hasOi = new boolean[0];
+
+    // ring of the completed bars, the bars of ticker t are at [t * history, (t + 1) * history)
+    private long[] doneStart = new long[0];
+    private double[] doneOpen = new double[0];
+    private double[] doneHigh = new double[0];
+    private double[] doneLow = new double[0];
+    private double[] doneClose = new double[0];
+    private long[] doneVolume = new long[0];
+    private boolean[] doneHasVolume = new boolean[0];
+    private long[] doneOi = new long[0];
+    private boolean[] doneHasOi = new boolean[0];
+    // total number of bars completed and the number completed on the last tick of each ticker
+    private long[] completed = new long[0];
+    private int[] justCompleted = new int[0];
+
+    public BarResampler(Timeframe timeframe, TickerIds tickerIds) {
+        this(timeframe, DEFAULT_BASE_SECONDS, DEFAULT_HISTORY, tickerIds);
+    }
+
+    /**
+     * @param timeframe   Timeframe of the bars
+     * @param baseSeconds Length of a base tick, a base tick that's longer than this completes its bar only on the
+     *                    next tick
+     * @param history     Number of completed bars we keep for each ticker
+     * @param tickerIds   Ids of the tickers that the resampler is updated with
+     */
+    public BarResampler(Timeframe timeframe, int baseSeconds, int history, TickerIds tickerIds) {
+        this.timeframe = timeframe;
+        this.baseSeconds = baseSeconds;
+        this.history = history;
+        this.tickerIds = tickerIds;
+    }
+
+    public Timeframe getTimeframe() {
+        return timeframe;
+    }
+
+    /**
+     * Adds a base tick of the ticker, ticks of a ticker should be added in the order of their time.
+     *
+     * @return Number of bars that were completed by this tick
+     */
+    public int update(int ticker, long epochSecond, double tickOpen, double tickHigh, double tickLow, double tickClose,
+                      boolean tickHasVolume, long tickVolume, boolean tickHasOi, long tickOi) {
+        if (ticker >= capacity) {
+            grow(ticker);
+        }
+        justCompleted[ticker] = 0;
+        long barStart = timeframe.barStart(epochSecond);
+        if (start[ticker] != Long.MIN_VALUE && start[ticker] != barStart) {
+            // a tick of a later bar, the bar that we were building is done
+            complete(ticker);
+        }
+        if (start[ticker] == Long.MIN_VALUE) {
+            start[ticker] = barStart;
+            open[ticker] = tickOpen;
+            high[ticker] = tickHigh;
+            low[ticker] = tickLow;
+            volume[ticker] = 0;
+            hasVolume[ticker] = false;
+        } else {
+            high[ticker] = Math.max(high[ticker], tickHigh);
+            low[ticker] = Math.min(low[ticker], tickLow);
+        }
+        close[ticker] = tickClose;
+        if (tickHasVolume) {
+            volume[ticker] += tickVolume;
+            hasVolume[ticker] = true;
+        }
+        oi[ticker] = tickOi;
+        hasOi[ticker] = tickHasOi;
+
+        if (epochSecond + baseSeconds >= barStart + timeframe.getSeconds()) {
+            complete(ticker);
+        }
+        return justCompleted[ticker];
+    }
+
+    /**
+     * Adds the tick of the scrip.
+     */
+    public int update(int ticker, Scrip scrip) {
+        return update(ticker, scrip.epochSecond(), scrip.open(), scrip.high(), scrip.low(), scrip.close(),
+                scrip.hasVolume(), scrip.volumeAsLong(), scrip.hasOi(), scrip.oiAsLong());
+    }
+
+    /**
+     * @param ticker Name of the ticker
+     * @return Number of bars of the ticker that were completed by its last tick
+     */
+    public int justCompleted(String ticker) {
+        int id = tickerIds.idOf(ticker);
+        return id == -1 || id >= capacity ? 0 : justCompleted[id];
+    }
+
+    /**
+     * @return Number of bars of the ticker that we've completed so far
+     */
+    public long completedBars(String ticker) {
+        int id = tickerIds.idOf(ticker);
+        return id == -1 || id >= capacity ? 0 : completed[id];
+    }
+
+    /**
+     * A completed bar of the ticker. The same Bar instance is re-pointed on every call, copy the values that you
+     * want to hold on to.
+     *
+     * @param ticker Name of the ticker
+     * @param ago    0 for the last completed bar, 1 for the one before that and so on, less than the history
+     * @return The bar, or null if the ticker doesn't have that many completed bars
+     */
+    public Bar bar(String ticker, int ago) {
+        int id = tickerIds.idOf(ticker);
+        if (id == -1 || id >= capacity || ago < 0 || ago >= history || ago >= completed[id]) {
+            return null;
+        }
+        int slot = id * history + (int) ((completed[id] - 1 - ago) % history);
+        return bar.moveTo(id, slot);
+    }
+
+    /**
+     * @return The last completed bar of the ticker, or null if there's none yet
+     */
+    public Bar lastBar(String ticker) {
+        return bar(ticker, 0);
+    }
+
+    private void complete(int ticker) {
+        int slot = ticker * history + (int) (completed[ticker] % history);
+        doneStart[slot] = start[ticker];
+        doneOpen[slot] = open[ticker];
+        doneHigh[slot] = high[ticker];
+        doneLow[slot] = low[ticker];
+        doneClose[slot] = close[ticker];
+        doneVolume[slot] = volume[ticker];
+        doneHasVolume[slot] = hasVolume[ticker];
+        doneOi[slot] = oi[ticker];
+        doneHasOi[slot] = hasOi[ticker];
+        completed[ticker]++;
+        justCompleted[ticker]++;
+        start[ticker] = Long.MIN_VALUE;
+    }
+
+    private void grow(int ticker) {
+        int newCapacity = Math.max(capacity, INITIAL_TICKERS);
+        while (newCapacity <= ticker) {
+            newCapacity *= 2;
+        }
+        start = Arrays.copyOf(start, newCapacity);
+        Arrays.fill(start, capacity, newCapacity, Long.MIN_VALUE);
+        open = Arrays.copyOf(open, newCapacity);
+        high = Arrays.copyOf(high, newCapacity);
+        low = Arrays.copyOf(low, newCapacity);
+        close = Arrays.copyOf(close, newCapacity);
+        volume = Arrays.copyOf(volume, newCapacity);
+        hasVolume = Arrays.copyOf(hasVolume, newCapacity);
+        oi = Arrays.copyOf(oi, newCapacity);
+        hasOi = Arrays.copyOf(hasOi, newCapacity);
+
+        int slots = newCapacity * history;
+        doneStart = Arrays.copyOf(doneStart, slots);
+        doneOpen = Arrays.copyOf(doneOpen, slots);
+        doneHigh = Arrays.copyOf(doneHigh, slots);
+        doneLow = Arrays.copyOf(doneLow, slots);
+        doneClose = Arrays.copyOf(doneClose, slots);
+        doneVolume = Arrays.copyOf(doneVolume, slots);
+        doneHasVolume = Arrays.copyOf(doneHasVolume, slots);
+        doneOi = Arrays.copyOf(doneOi, slots);
+        doneHasOi = Arrays.copyOf(doneHasOi, slots);
+        completed = Arrays.copyOf(completed, newCapacity);
+        justCompleted = Arrays.copyOf(justCompleted, newCapacity);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Resamples all the rows of a table. The rows of every ticker should be in the order of their time, the rows
+     * of different tickers can be interleaved.
+     *
+     * @param table     Table with the Ticker, Time, Open, High, Low and Close columns and optionally the Volume
+     *                  and Open Interest columns
+     * @param timeframe Timeframe of the bars
+     * @return Table of the bars in the order they were completed, the bars that are still open at the end of the
+     * table are added at the end
+     */
+    public static Table resample(Table table, Timeframe timeframe) {
+        TickerIds tickerIds = new TickerIds();
+        // a tick completes at most 2 bars - the one before a gap and its own - so that's all the history we need
+        BarResampler resampler = new BarResampler(timeframe, DEFAULT_BASE_SECONDS, 2, tickerIds);
+        StringColumn ticker = table.stringColumn(ScripColumns.TICKER);
+        DateTimeColumn time = table.dateTimeColumn(ScripColumns.TIME);
+        DoubleColumn open = table.doubleColumn(ScripColumns.OPEN);
+        DoubleColumn high = table.doubleColumn(ScripColumns.HIGH);
+        DoubleColumn low = table.doubleColumn(ScripColumns.LOW);
+        DoubleColumn close = table.doubleColumn(ScripColumns.CLOSE);
+        IntColumn volume = table.containsColumn(ScripColumns.VOLUME) ? table.intColumn(ScripColumns.VOLUME) : null;
+        IntColumn oi = table.containsColumn(ScripColumns.OPEN_INTEREST) ? table.intColumn(ScripColumns.OPEN_INTEREST) : null;
+
+        Table bars = Table.create(table.name() + " " + timeframe,
+                StringColumn.create(ScripColumns.TICKER),
+                DateTimeColumn.create(ScripColumns.TIME),
+                DoubleColumn.create(ScripColumns.OPEN),
+                DoubleColumn.create(ScripColumns.HIGH),
+                DoubleColumn.create(ScripColumns.LOW),
+                DoubleColumn.create(ScripColumns.CLOSE),
+                IntColumn.create(ScripColumns.VOLUME),
+                IntColumn.create(ScripColumns.OPEN_INTEREST));
+        for (int row = 0; row < table.rowCount(); row++) {
+            int id = tickerIds.intern(ticker.get(row));
+            boolean rowHasVolume = volume != null && !volume.isMissing(row);
+            boolean rowHasOi = oi != null && !oi.isMissing(row);
+            int done = resampler.update(id, time.get(row).toEpochSecond(ZoneOffset.UTC),
+                    open.getDouble(row), high.getDouble(row), low.getDouble(row), close.getDouble(row),
+                    rowHasVolume, rowHasVolume ? volume.getInt(row) : 0, rowHasOi, rowHasOi ? oi.getInt(row) : 0);
+            resampler.appendCompleted(id, done, bars);
+        }
+        for (int id = 0; id < tickerIds.size(); id++) {
+            if (resampler.start[id] != Long.MIN_VALUE) {
+                resampler.complete(id);
+                resampler.appendCompleted(id, 1, bars);
+            }
+        }
+        return bars;
+    }
+
+    private void appendCompleted(int ticker, int done, Table bars) {
+        String name = tickerIds.name(ticker);
+        for (int ago = done - 1; ago >= 0; ago--) {
+            bar(name, ago).appendTo(bars);
+        }
+    }
+
+    /**
+     * Flyweight {@link Scrip} over a completed bar, the time of the bar is its start.
+     */
+    public class Bar implements Scrip {
+        private int ticker;
+        private int slot;
+
+        private Bar moveTo(int ticker, int slot) {
+            this.ticker = ticker;
+            this.slot = slot;
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return tickerIds.name(ticker);
+        }
+
+        @Override
+        public LocalDateTime instant() {
+            return LocalDateTime.ofEpochSecond(epochSecond(), 0, ZoneOffset.UTC);
+        }
+
+        @Override
+        public long epochSecond() {
+            return doneStart[slot];
+        }
+
+        @Override
+        public double open() {
+            return doneOpen[slot];
+        }
+
+        @Override
+        public double high() {
+            return doneHigh[slot];
+        }
+
+        @Override
+        public double low() {
+            return doneLow[slot];
+        }
+
+        @Override
+        public double close() {
+            return doneClose[slot];
+        }
+
+        @Override
+        public boolean hasOi() {
+            return doneHasOi[slot];
+        }
+
+        @Override
+        public long oiAsLong() {
+            return doneHasOi[slot] ? doneOi[slot] : 0;
+        }
+
+        @Override
+        public boolean hasVolume() {
+            return doneHasVolume[slot];
+        }
+
+        @Override
+        public long volumeAsLong() {
+            return doneHasVolume[slot] ? doneVolume[slot] : 0;
+        }
+
+        private void appendTo(Table bars) {
+            bars.stringColumn(ScripColumns.TICKER).append(getName());
+            bars.dateTimeColumn(ScripColumns.TIME).append(instant());
+            bars.doubleColumn(ScripColumns.OPEN).append(open());
+            bars.doubleColumn(ScripColumns.HIGH).append(high());
+            bars.doubleColumn(ScripColumns.LOW).append(low());
+            bars.doubleColumn(ScripColumns.CLOSE).append(close());
+            appendLong(bars.intColumn(ScripColumns.VOLUME), hasVolume(), volumeAsLong());
+            appendLong(bars.intColumn(ScripColumns.OPEN_INTEREST), hasOi(), oiAsLong());
+        }
+
+        private void appendLong(IntColumn column, boolean present, long value) {
+            if (present) {
+                // the dataset keeps Volume and OI as ints, we saturate instead of wrapping around
+                column.append((int) Math.min(value, Integer.MAX_VALUE));
+            } else {
+                column.appendMissing();
+            }
+        }
+    }
+}
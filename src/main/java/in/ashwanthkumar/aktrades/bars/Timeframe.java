@@ -0,0 +1,70 @@
+package in.ashwanthkumar.aktrades.bars;
+
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Interval of the bars that we resample the base series into.
+ * <p>
+ * Bars are aligned to the market open (09:15), so the 15-min bars of a day start at 09:15, 09:30, ... and the
+ * 60-min bars at 09:15, 10:15, ... The times are the exchange's local time stored as UTC, like in the dataset.
+ * </p>
+ */
+@Getter
+@EqualsAndHashCode
+public class Timeframe {
+    // 09:15 as the seconds of the day
+    public static final int MARKET_OPEN = (9 * 60 + 15) * 60;
+
+    private final int seconds;
+    // seconds of the day that the bars are aligned to
+    private final int alignment;
+
+    private Timeframe(int seconds, int alignment) {
+        Preconditions.checkArgument(seconds > 0, "Timeframe should be positive, but was %s seconds", seconds);
+        this.seconds = seconds;
+        this.alignment = alignment;
+    }
+
+    public static Timeframe minutes(int minutes) {
+        return new Timeframe(minutes * 60, MARKET_OPEN);
+    }
+
+    public static Timeframe hours(int hours) {
+        return new Timeframe(hours * 60 * 60, MARKET_OPEN);
+    }
+
+    /**
+     * @param seconds   Length of a bar
+     * @param alignment Seconds of the day that the bars are aligned to
+     */
+    public static Timeframe of(int seconds, int alignment) {
+        return new Timeframe(seconds, alignment);
+    }
+
+    /**
+     * @param epochSecond Time of a tick
+     * @return Start of the bar that the tick belongs to
+     */
+    public long barStart(long epochSecond) {
+        return epochSecond - Math.floorMod(epochSecond - alignment, seconds);
+    }
+
+    /**
+     * @return Short name of the timeframe, eg. 15m or 1h
+     */
+    public String name() {
+        if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        } else if (seconds % 60 == 0) {
+            return seconds / 60 + "m";
+        }
+        return seconds + "s";
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+}
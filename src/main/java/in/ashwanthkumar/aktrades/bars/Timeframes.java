@@ -0,0 +1,80 @@
+package in.ashwanthkumar.aktrades.bars;
+
+import in.ashwanthkumar.aktrades.Scrip;
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Higher timeframes that the strategies of a run have registered, they're resampled from every base tick before
+ * the strategies see it.
+ * <p>
+ * Like {@link in.ashwanthkumar.aktrades.indicators.Indicators}, a resampler is created once per
+ * {@link Timeframe} and shared by the strategies that ask for it. A timeframe that's registered while a tick is
+ * being handled starts with that tick.
+ * </p>
+ */
+public class Timeframes {
+    private final TickerIds tickerIds = new TickerIds();
+    private final Map<Timeframe, BarResampler> resamplers = new LinkedHashMap<>();
+    private BarResampler[] active = new BarResampler[0];
+    // the last tick, to start the timeframes that are registered in between
+    private String ticker;
+    private long epochSecond;
+    private double open, high, low, close;
+    private boolean hasVolume, hasOi;
+    private long volume, oi;
+
+    /**
+     * @return Resampler of the timeframe, it's created if no one has asked for it before
+     */
+    public BarResampler register(Timeframe timeframe) {
+        BarResampler resampler = resamplers.get(timeframe);
+        if (resampler == null) {
+            resampler = new BarResampler(timeframe, tickerIds);
+            resamplers.put(timeframe, resampler);
+            active = Arrays.copyOf(active, active.length + 1);
+            active[active.length - 1] = resampler;
+            if (ticker != null) {
+                resampler.update(tickerIds.intern(ticker), epochSecond, open, high, low, close, hasVolume, volume, hasOi, oi);
+            }
+        }
+        return resampler;
+    }
+
+    /**
+     * @return Registered timeframes in the order they were registered
+     */
+    public List<Timeframe> timeframes() {
+        return new ArrayList<>(resamplers.keySet());
+    }
+
+    /**
+     * Updates all the registered timeframes with the tick.
+     *
+     * @param scrip Scrip on the tick, the values are read as primitives
+     */
+    public void onTick(Scrip scrip) {
+        ticker = scrip.getName();
+        epochSecond = scrip.epochSecond();
+        open = scrip.open();
+        high = scrip.high();
+        low = scrip.low();
+        close = scrip.close();
+        hasVolume = scrip.hasVolume();
+        volume = scrip.volumeAsLong();
+        hasOi = scrip.hasOi();
+        oi = scrip.oiAsLong();
+        if (active.length == 0) {
+            return;
+        }
+        int id = tickerIds.intern(ticker);
+        for (BarResampler resampler : active) {
+            resampler.update(id, epochSecond, open, high, low, close, hasVolume, volume, hasOi, oi);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+
+import java.util.Arrays;
+
+/**
+ * Average true range with Wilder's smoothing - the first value is the mean of the first period true ranges and
+ * every later tick moves it by (TR - ATR) / period. The true range of the first tick of a ticker is its
+ * high - low, as there's no previous close yet.
+ */
+class AverageTrueRange extends Indicator {
+    private final int period;
+    private int[] count = new int[0];
+    private double[] previousClose = new double[0];
+    // sum of the true ranges till we have period of them, the average after that
+    private double[] atr = new double[0];
+
+    AverageTrueRange(IndicatorSpec spec, TickerIds tickerIds) {
+        super(spec, tickerIds);
+        this.period = spec.getPeriod();
+    }
+
+    @Override
+    protected double current(int ticker) {
+        return count[ticker] < period ? Double.NaN : atr[ticker];
+    }
+
+    @Override
+    protected void add(int ticker, long epochSecond, double open, double high, double low, double close, long volume) {
+        double trueRange = high - low;
+        if (count[ticker] > 0) {
+            double previous = previousClose[ticker];
+            trueRange = Math.max(trueRange, Math.max(Math.abs(high - previous), Math.abs(low - previous)));
+        }
+        previousClose[ticker] = close;
+
+        if (count[ticker] < period) {
+            atr[ticker] += trueRange;
+            count[ticker]++;
+            if (count[ticker] == period) {
+                atr[ticker] /= period;
+            }
+        } else {
+            atr[ticker] += (trueRange - atr[ticker]) / period;
+        }
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        count = Arrays.copyOf(count, capacity);
+        previousClose = Arrays.copyOf(previousClose, capacity);
+        atr = Arrays.copyOf(atr, capacity);
+    }
+}
@@ -0,0 +1,47 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+
+import java.util.Arrays;
+
+/**
+ * Exponential moving average of the close with a smoothing of 2 / (period + 1). The average is seeded with the
+ * SMA of the first period closes of the ticker.
+ */
+class ExponentialMovingAverage extends Indicator {
+    private final int period;
+    private final double alpha;
+    private int[] count = new int[0];
+    // sum of the closes till we have period of them, the average after that
+    private double[] ema = new double[0];
+
+    ExponentialMovingAverage(IndicatorSpec spec, TickerIds tickerIds) {
+        super(spec, tickerIds);
+        this.period = spec.getPeriod();
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    @Override
+    protected double current(int ticker) {
+        return count[ticker] < period ? Double.NaN : ema[ticker];
+    }
+
+    @Override
+    protected void add(int ticker, long epochSecond, double open, double high, double low, double close, long volume) {
+        if (count[ticker] < period) {
+            ema[ticker] += close;
+            count[ticker]++;
+            if (count[ticker] == period) {
+                ema[ticker] /= period;
+            }
+        } else {
+            ema[ticker] += alpha * (close - ema[ticker]);
+        }
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        count = Arrays.copyOf(count, capacity);
+        ema = Arrays.copyOf(ema, capacity);
+    }
+}
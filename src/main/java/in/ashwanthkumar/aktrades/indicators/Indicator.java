@@ -0,0 +1,107 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+
+/**
+ * An indicator that's maintained incrementally for every ticker.
+ * <p>
+ * The state of all the tickers lives in primitive arrays indexed by the ticker id, every tick is an O(1) update
+ * of its ticker's state and neither the updates nor the reads allocate (except when the arrays grow for a new
+ * ticker). The values are NaN till the indicator has seen enough ticks of the ticker.
+ * </p>
+ */
+public abstract class Indicator {
+    private static final int INITIAL_TICKERS = 16;
+
+    private final IndicatorSpec spec;
+    private final TickerIds tickerIds;
+    private int capacity = 0;
+
+    protected Indicator(IndicatorSpec spec, TickerIds tickerIds) {
+        this.spec = spec;
+        this.tickerIds = tickerIds;
+    }
+
+    public IndicatorSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * @param ticker Name of the ticker
+     * @return Current value of the indicator for the ticker, NaN if it isn't ready yet
+     */
+    public double value(String ticker) {
+        int id = tickerIds.idOf(ticker);
+        return id == -1 ? Double.NaN : value(id);
+    }
+
+    /**
+     * @param ticker Id of the ticker in the {@link TickerIds} of the indicator
+     * @return Current value of the indicator for the ticker, NaN if it isn't ready yet
+     */
+    public double value(int ticker) {
+        return ticker < capacity ? current(ticker) : Double.NaN;
+    }
+
+    /**
+     * @return true if the indicator has seen enough ticks of the ticker to have a value
+     */
+    public boolean isReady(String ticker) {
+        return !Double.isNaN(value(ticker));
+    }
+
+    /**
+     * Adds the tick of the ticker, ticks of a ticker should be added in the order of their time.
+     *
+     * @param ticker      Id of the ticker
+     * @param epochSecond Time of the tick
+     * @param volume      Volume of the tick, 0 if not present
+     */
+    public final void update(int ticker, long epochSecond, double open, double high, double low, double close, long volume) {
+        if (ticker >= capacity) {
+            int newCapacity = Math.max(capacity, INITIAL_TICKERS);
+            while (newCapacity <= ticker) {
+                newCapacity *= 2;
+            }
+            grow(newCapacity);
+            capacity = newCapacity;
+        }
+        add(ticker, epochSecond, open, high, low, close, volume);
+    }
+
+    /**
+     * @return Value of a ticker that's within the capacity
+     */
+    protected abstract double current(int ticker);
+
+    protected abstract void add(int ticker, long epochSecond, double open, double high, double low, double close, long volume);
+
+    /**
+     * Grows the per-ticker state to hold the given number of tickers.
+     */
+    protected abstract void grow(int capacity);
+
+    /**
+     * Creates the indicator for a spec.
+     *
+     * @param tickerIds Ids of the tickers that the indicator is updated with
+     */
+    public static Indicator of(IndicatorSpec spec, TickerIds tickerIds) {
+        switch (spec.getType()) {
+            case SMA:
+                return new SimpleMovingAverage(spec, tickerIds);
+            case EMA:
+                return new ExponentialMovingAverage(spec, tickerIds);
+            case VWAP:
+                return new Vwap(spec, tickerIds);
+            case ATR:
+                return new AverageTrueRange(spec, tickerIds);
+            case HIGHEST:
+                return new RollingExtreme(spec, tickerIds, true);
+            case LOWEST:
+                return new RollingExtreme(spec, tickerIds, false);
+            default:
+                throw new IllegalArgumentException("Unsupported indicator " + spec);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Identifies an indicator - its type and the number of ticks it looks back on. Strategies that ask for the same
+ * spec get the same {@link Indicator}.
+ */
+@Getter
+@EqualsAndHashCode
+public class IndicatorSpec {
+    public enum Type {
+        SMA, EMA, VWAP, ATR, HIGHEST, LOWEST
+    }
+
+    private final Type type;
+    // number of ticks, 0 for VWAP which is over the ticks of the trading day
+    private final int period;
+
+    private IndicatorSpec(Type type, int period) {
+        this.type = type;
+        this.period = period;
+    }
+
+    /**
+     * @return Simple moving average of the close over the last period ticks
+     */
+    public static IndicatorSpec sma(int period) {
+        return withPeriod(Type.SMA, period);
+    }
+
+    /**
+     * @return Exponential moving average of the close, seeded with the SMA of the first period ticks
+     */
+    public static IndicatorSpec ema(int period) {
+        return withPeriod(Type.EMA, period);
+    }
+
+    /**
+     * @return Volume weighted average of the typical price (H + L + C) / 3 since the start of the trading day
+     */
+    public static IndicatorSpec vwap() {
+        return new IndicatorSpec(Type.VWAP, 0);
+    }
+
+    /**
+     * @return Average true range with Wilder's smoothing
+     */
+    public static IndicatorSpec atr(int period) {
+        return withPeriod(Type.ATR, period);
+    }
+
+    /**
+     * @return Highest high over the last period ticks
+     */
+    public static IndicatorSpec highest(int period) {
+        return withPeriod(Type.HIGHEST, period);
+    }
+
+    /**
+     * @return Lowest low over the last period ticks
+     */
+    public static IndicatorSpec lowest(int period) {
+        return withPeriod(Type.LOWEST, period);
+    }
+
+    private static IndicatorSpec withPeriod(Type type, int period) {
+        Preconditions.checkArgument(period > 0, "period of %s should be positive, but was %s", type, period);
+        return new IndicatorSpec(type, period);
+    }
+
+    /**
+     * @return true if the indicator needs the Volume of the ticks
+     */
+    public boolean needsVolume() {
+        return type == Type.VWAP;
+    }
+
+    /**
+     * @return Name of the column when the indicator is precomputed, eg. SMA(20)
+     */
+    public String columnName() {
+        return type == Type.VWAP ? type.name() : type.name() + "(" + period + ")";
+    }
+
+    @Override
+    public String toString() {
+        return columnName();
+    }
+}
@@ -0,0 +1,101 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.ScripColumns;
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+import in.ashwanthkumar.aktrades.plugins.Chunk;
+import in.ashwanthkumar.aktrades.plugins.Stage;
+import tech.tablesaw.api.ColumnType;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.dates.PackedLocalDate;
+import tech.tablesaw.columns.datetimes.PackedLocalDateTime;
+import tech.tablesaw.columns.times.PackedLocalTime;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Stage} that precomputes the indicators as columns, named by {@link IndicatorSpec#columnName()}.
+ * <p>
+ * The rows are fed to the same incremental indicators that the backtests use, in the order of the table, so the
+ * rows of every ticker should be in the order of their time (the rows of different tickers can be interleaved).
+ * A row has the value of the indicator after that row, NaN when it isn't ready yet.
+ * </p>
+ */
+public class IndicatorStage implements Stage {
+    private final List<IndicatorSpec> specs;
+    private final boolean needsVolume;
+    private TickerIds tickerIds;
+    private Indicator[] indicators;
+
+    public IndicatorStage(List<IndicatorSpec> specs) {
+        this.specs = specs;
+        this.needsVolume = specs.stream().anyMatch(IndicatorSpec::needsVolume);
+    }
+
+    @Override
+    public Map<String, ColumnType> inputs() {
+        Map<String, ColumnType> inputs = new LinkedHashMap<>();
+        inputs.put(ScripColumns.TICKER, ColumnType.STRING);
+        inputs.put(ScripColumns.TIME, ColumnType.LOCAL_DATE_TIME);
+        inputs.put(ScripColumns.OPEN, ColumnType.DOUBLE);
+        inputs.put(ScripColumns.HIGH, ColumnType.DOUBLE);
+        inputs.put(ScripColumns.LOW, ColumnType.DOUBLE);
+        inputs.put(ScripColumns.CLOSE, ColumnType.DOUBLE);
+        if (needsVolume) {
+            inputs.put(ScripColumns.VOLUME, ColumnType.INTEGER);
+        }
+        return inputs;
+    }
+
+    @Override
+    public Map<String, ColumnType> outputs() {
+        Map<String, ColumnType> outputs = new LinkedHashMap<>();
+        for (IndicatorSpec spec : specs) {
+            outputs.put(spec.columnName(), ColumnType.DOUBLE);
+        }
+        return outputs;
+    }
+
+    @Override
+    public void prepare(Table table) {
+        // every table starts with fresh indicators
+        tickerIds = new TickerIds();
+        indicators = new Indicator[specs.size()];
+        for (int i = 0; i < specs.size(); i++) {
+            indicators[i] = Indicator.of(specs.get(i), tickerIds);
+        }
+    }
+
+    @Override
+    public void apply(Chunk chunk) {
+        String[] ticker = chunk.strings(ScripColumns.TICKER);
+        long[] time = chunk.dateTimes(ScripColumns.TIME);
+        double[] open = chunk.doubles(ScripColumns.OPEN);
+        double[] high = chunk.doubles(ScripColumns.HIGH);
+        double[] low = chunk.doubles(ScripColumns.LOW);
+        double[] close = chunk.doubles(ScripColumns.CLOSE);
+        int[] volume = needsVolume ? chunk.ints(ScripColumns.VOLUME) : null;
+        double[][] outputs = new double[indicators.length][];
+        for (int i = 0; i < indicators.length; i++) {
+            outputs[i] = chunk.doubles(specs.get(i).columnName());
+        }
+
+        for (int i = 0; i < chunk.selected(); i++) {
+            int row = chunk.row(i);
+            int id = tickerIds.intern(ticker[row]);
+            long epochSecond = epochSecond(time[row]);
+            // missing volume is Integer.MIN_VALUE in the chunk
+            long rowVolume = volume == null || volume[row] == Integer.MIN_VALUE ? 0 : volume[row];
+            for (int j = 0; j < indicators.length; j++) {
+                indicators[j].update(id, epochSecond, open[row], high[row], low[row], close[row], rowVolume);
+                outputs[j][row] = indicators[j].value(id);
+            }
+        }
+    }
+
+    private static long epochSecond(long packedDateTime) {
+        long epochDay = PackedLocalDate.toEpochDay(PackedLocalDateTime.date(packedDateTime));
+        return epochDay * 24 * 60 * 60 + PackedLocalTime.getSecondOfDay(PackedLocalDateTime.time(packedDateTime));
+    }
+}
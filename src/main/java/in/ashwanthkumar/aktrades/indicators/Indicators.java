@@ -0,0 +1,76 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.Scrip;
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indicators that the strategies of a run have registered, they're updated with every tick before the
+ * strategies see it.
+ * <p>
+ * An indicator is created once per {@link IndicatorSpec}, strategies that ask for the same spec share it and it's
+ * updated only once per tick. An indicator that's registered while a tick is being handled starts with that
+ * tick, so the strategy that registered it sees its value right away.
+ * </p>
+ */
+public class Indicators {
+    private final TickerIds tickerIds = new TickerIds();
+    private final Map<IndicatorSpec, Indicator> indicators = new LinkedHashMap<>();
+    private Indicator[] active = new Indicator[0];
+    // the last tick, to start the indicators that are registered in between
+    private String ticker;
+    private long epochSecond;
+    private double open, high, low, close;
+    private long volume;
+
+    /**
+     * @return Indicator of the spec, it's created if no one has asked for it before
+     */
+    public Indicator register(IndicatorSpec spec) {
+        Indicator indicator = indicators.get(spec);
+        if (indicator == null) {
+            indicator = Indicator.of(spec, tickerIds);
+            indicators.put(spec, indicator);
+            active = Arrays.copyOf(active, active.length + 1);
+            active[active.length - 1] = indicator;
+            if (ticker != null) {
+                indicator.update(tickerIds.intern(ticker), epochSecond, open, high, low, close, volume);
+            }
+        }
+        return indicator;
+    }
+
+    /**
+     * @return Specs of the registered indicators in the order they were registered
+     */
+    public List<IndicatorSpec> specs() {
+        return new ArrayList<>(indicators.keySet());
+    }
+
+    /**
+     * Updates all the registered indicators with the tick.
+     *
+     * @param scrip Scrip on the tick, the values are read as primitives
+     */
+    public void onTick(Scrip scrip) {
+        ticker = scrip.getName();
+        epochSecond = scrip.epochSecond();
+        open = scrip.open();
+        high = scrip.high();
+        low = scrip.low();
+        close = scrip.close();
+        volume = scrip.volumeAsLong();
+        if (active.length == 0) {
+            return;
+        }
+        int id = tickerIds.intern(ticker);
+        for (Indicator indicator : active) {
+            indicator.update(id, epochSecond, open, high, low, close, volume);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+
+import java.util.Arrays;
+
+/**
+ * Highest high (or lowest low) over the last period ticks.
+ * <p>
+ * Each ticker has a monotonic deque in a ring of the period - the values that can never be the extreme again
+ * (an older value that's lower than a newer high) are dropped from the tail and the head is dropped once it
+ * falls out of the window. Every value is added and dropped at most once, so a tick is amortized O(1).
+ * </p>
+ */
+class RollingExtreme extends Indicator {
+    private final int period;
+    private final boolean highest;
+    // deque of ticker t is in the ring at [t * period, (t + 1) * period)
+    private double[] values = new double[0];
+    private long[] sequences = new long[0];
+    private int[] head = new int[0];
+    private int[] size = new int[0];
+    // number of ticks we've seen of the ticker
+    private long[] ticks = new long[0];
+
+    RollingExtreme(IndicatorSpec spec, TickerIds tickerIds, boolean highest) {
+        super(spec, tickerIds);
+        this.period = spec.getPeriod();
+        this.highest = highest;
+    }
+
+    @Override
+    protected double current(int ticker) {
+        return ticks[ticker] < period ? Double.NaN : values[ticker * period + head[ticker]];
+    }
+
+    @Override
+    protected void add(int ticker, long epochSecond, double open, double high, double low, double close, long volume) {
+        double value = highest ? high : low;
+        int offset = ticker * period;
+        long sequence = ticks[ticker]++;
+
+        // drop the head if it's out of the window
+        if (size[ticker] > 0 && sequences[offset + head[ticker]] <= sequence - period) {
+            head[ticker] = (head[ticker] + 1) % period;
+            size[ticker]--;
+        }
+        // drop the values from the tail that are dominated by the new value
+        while (size[ticker] > 0) {
+            int tail = (head[ticker] + size[ticker] - 1) % period;
+            double last = values[offset + tail];
+            if (highest ? last > value : last < value) {
+                break;
+            }
+            size[ticker]--;
+        }
+        int slot = (head[ticker] + size[ticker]) % period;
+        values[offset + slot] = value;
+        sequences[offset + slot] = sequence;
+        size[ticker]++;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        values = Arrays.copyOf(values, capacity * period);
+        sequences = Arrays.copyOf(sequences, capacity * period);
+        head = Arrays.copyOf(head, capacity);
+        size = Arrays.copyOf(size, capacity);
+        ticks = Arrays.copyOf(ticks, capacity);
+    }
+}
@@ -0,0 +1,58 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+
+import java.util.Arrays;
+
+/**
+ * Mean of the close over the last period ticks. The closes of each ticker are kept in a ring of the period and
+ * the running sum is updated with the close that enters and the one that leaves the window.
+ */
+class SimpleMovingAverage extends Indicator {
+    private final int period;
+    // ring of ticker t is at [t * period, (t + 1) * period)
+    private double[] window = new double[0];
+    private int[] count = new int[0];
+    private int[] next = new int[0];
+    private double[] sum = new double[0];
+
+    SimpleMovingAverage(IndicatorSpec spec, TickerIds tickerIds) {
+        super(spec, tickerIds);
+        this.period = spec.getPeriod();
+    }
+
+    @Override
+    protected double current(int ticker) {
+        return count[ticker] < period ? Double.NaN : sum[ticker] / period;
+    }
+
+    @Override
+    protected void add(int ticker, long epochSecond, double open, double high, double low, double close, long volume) {
+        int offset = ticker * period;
+        int slot = next[ticker];
+        if (count[ticker] == period) {
+            sum[ticker] -= window[offset + slot];
+        } else {
+            count[ticker]++;
+        }
+        window[offset + slot] = close;
+        sum[ticker] += close;
+        next[ticker] = slot + 1 == period ? 0 : slot + 1;
+        if (next[ticker] == 0) {
+            // recompute the sum once per lap so that the rounding errors of the running sum don't pile up
+            double exact = 0.0;
+            for (int i = 0; i < period; i++) {
+                exact += window[offset + i];
+            }
+            sum[ticker] = exact;
+        }
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        window = Arrays.copyOf(window, capacity * period);
+        count = Arrays.copyOf(count, capacity);
+        next = Arrays.copyOf(next, capacity);
+        sum = Arrays.copyOf(sum, capacity);
+    }
+}
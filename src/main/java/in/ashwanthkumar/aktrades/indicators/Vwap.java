@@ -0,0 +1,50 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+
+import java.util.Arrays;
+
+/**
+ * Volume weighted average price of the trading day, it starts over on the first tick of every day. It stays NaN
+ * till the ticker has traded some volume on the day, so it's never ready for the tickers without Volume (eg.
+ * the indices).
+ */
+class Vwap extends Indicator {
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private long[] day = new long[0];
+    private double[] priceVolume = new double[0];
+    private long[] totalVolume = new long[0];
+
+    Vwap(IndicatorSpec spec, TickerIds tickerIds) {
+        super(spec, tickerIds);
+    }
+
+    @Override
+    protected double current(int ticker) {
+        return totalVolume[ticker] == 0 ? Double.NaN : priceVolume[ticker] / totalVolume[ticker];
+    }
+
+    @Override
+    protected void add(int ticker, long epochSecond, double open, double high, double low, double close, long volume) {
+        // the times are the exchange's local time stored as UTC, so the day changes at the local midnight
+        long tickDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        if (tickDay != day[ticker]) {
+            day[ticker] = tickDay;
+            priceVolume[ticker] = 0.0;
+            totalVolume[ticker] = 0;
+        }
+        priceVolume[ticker] += (high + low + close) / 3 * volume;
+        totalVolume[ticker] += volume;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        int from = day.length;
+        day = Arrays.copyOf(day, capacity);
+        // so that the first tick of a ticker is always a new day
+        Arrays.fill(day, from, capacity, Long.MIN_VALUE);
+        priceVolume = Arrays.copyOf(priceVolume, capacity);
+        totalVolume = Arrays.copyOf(totalVolume, capacity);
+    }
+}
@@ -0,0 +1,110 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import tech.tablesaw.api.DateTimeColumn;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.selection.Selection;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+/**
+ * Predicate on the Time and the Ticker of the rows that we want to read from a single file. Record batches whose
+ * zone maps (see {@link DatasetMetadata}) can't match the filter are skipped without being mapped, the rows of the
+ * remaining batches are filtered as they're read.
+ */
+public class BatchFilter {
+    static final String TIME = "Time";
+    static final String TICKER = "Ticker";
+    private static final BatchFilter ALL = new BatchFilter(null, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    // null means all the tickers
+    private final Set<String> tickers;
+    // epoch seconds, both inclusive
+    private final long from;
+    private final long to;
+
+    private BatchFilter(Set<String> tickers, long from, long to) {
+        this.tickers = tickers;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static BatchFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @param tickers Tickers that we want to read
+     * @return Filter that additionally matches only the given tickers
+     */
+    public BatchFilter tickers(Set<String> tickers) {
+        return new BatchFilter(Set.copyOf(tickers), from, to);
+    }
+
+    public BatchFilter tickers(String... tickers) {
+        return tickers(Set.of(tickers));
+    }
+
+    /**
+     * @param from First time to read (inclusive)
+     * @param to   Last time to read (inclusive)
+     * @return Filter that additionally matches only the times in the range
+     */
+    public BatchFilter between(LocalDateTime from, LocalDateTime to) {
+        Preconditions.checkArgument(!from.isAfter(to), "from (%s) should not be after to (%s)", from, to);
+        return new BatchFilter(tickers, from.toEpochSecond(ZoneOffset.UTC), to.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    public boolean isAll() {
+        return tickers == null && !hasTimeRange();
+    }
+
+    private boolean hasTimeRange() {
+        return from != Long.MIN_VALUE || to != Long.MAX_VALUE;
+    }
+
+    Set<String> getTickers() {
+        return tickers;
+    }
+
+    /**
+     * @param metadata    Metadata of the file
+     * @param batch       Index of the record batch
+     * @param tickerCodes Dictionary codes of the tickers in ascending order, null if we can't tell them
+     * @return false if the zone maps of the batch rule out every row of it
+     */
+    boolean mayMatch(DatasetMetadata metadata, int batch, int[] tickerCodes) {
+        DatasetMetadata.ZoneMap time = metadata.zoneMap(TIME);
+        if (hasTimeRange() && time != null && !time.overlaps(batch, from, to)) {
+            return false;
+        }
+        DatasetMetadata.ZoneMap ticker = metadata.zoneMap(TICKER);
+        return tickers == null || tickerCodes == null || ticker == null || ticker.overlapsAny(batch, tickerCodes);
+    }
+
+    /**
+     * @return Rows of the table that match the filter
+     */
+    Table apply(Table rows) {
+        if (isAll()) {
+            return rows;
+        }
+        Selection selection = Selection.withRange(0, rows.rowCount());
+        if (hasTimeRange() && rows.containsColumn(TIME)) {
+            DateTimeColumn time = rows.dateTimeColumn(TIME);
+            selection.and(time.eval((LocalDateTime t) -> {
+                if (t == null) {
+                    return false;
+                }
+                long epochSecond = t.toEpochSecond(ZoneOffset.UTC);
+                return epochSecond >= from && epochSecond <= to;
+            }));
+        }
+        if (tickers != null && rows.containsColumn(TICKER)) {
+            selection.and(rows.stringColumn(TICKER).isIn(tickers));
+        }
+        return selection.size() == rows.rowCount() ? rows : rows.where(selection);
+    }
+}
@@ -0,0 +1,257 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.io.view.StringColumnView;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.selection.BitmapBackedSelection;
+import tech.tablesaw.selection.Selection;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * String column with few unique values (Ticker, Day) that's kept dictionary encoded on the heap - a 16-bit code
+ * per row and the dictionary of the unique values, the same encoding the columns have in the Arrow files.
+ * <p>
+ * Predicates are evaluated once per value of the dictionary into a bitmap of the matching codes, filtering the
+ * rows is then a bit lookup per row, and grouping goes by the codes without hashing any Strings. Reading the
+ * column from a {@link MappedDataset} copies the codes as is, none of the rows are decoded.
+ * </p>
+ */
+public class CategoricalColumn {
+    // code of the missing values, so we can have at most 65535 unique values
+    public static final int MISSING = 0xFFFF;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String name;
+    private final List<String> dictionary;
+    private final Map<String, Integer> codes;
+    private char[] values;
+    private int size = 0;
+
+    public CategoricalColumn(String name) {
+        this(name, new ArrayList<>(), INITIAL_CAPACITY);
+    }
+
+    private CategoricalColumn(String name, List<String> dictionary, int capacity) {
+        this.name = name;
+        this.dictionary = dictionary;
+        this.codes = new HashMap<>();
+        for (int code = 0; code < dictionary.size(); code++) {
+            codes.putIfAbsent(dictionary.get(code), code);
+        }
+        this.values = new char[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Encodes a Tablesaw column, missing values stay missing.
+     */
+    public static CategoricalColumn of(StringColumn column) {
+        CategoricalColumn categorical = new CategoricalColumn(column.name(), new ArrayList<>(), column.size());
+        String last = null;
+        int lastCode = MISSING;
+        for (int row = 0; row < column.size(); row++) {
+            if (column.isMissing(row)) {
+                categorical.appendCode(MISSING);
+                continue;
+            }
+            String value = column.get(row);
+            // Tablesaw hands out the same instance for every row of a value, and the rows of a value are mostly together
+            if (value != last) {
+                last = value;
+                lastCode = categorical.codeFor(value);
+            }
+            categorical.appendCode(lastCode);
+        }
+        return categorical;
+    }
+
+    /**
+     * @param views Views over the same dictionary encoded column of the batches of a dataset, in order
+     * @return Column with the codes of all the batches, without decoding any of the rows
+     */
+    static CategoricalColumn of(String name, List<StringColumnView> views) {
+        List<String> dictionary = views.isEmpty() ? List.of() : views.get(0).dictionary();
+        Preconditions.checkArgument(dictionary.size() <= MISSING, "Column %s has more than %s unique values", name, MISSING);
+        int rows = views.stream().mapToInt(StringColumnView::size).sum();
+        CategoricalColumn categorical = new CategoricalColumn(name, new ArrayList<>(dictionary), rows);
+        for (StringColumnView view : views) {
+            Preconditions.checkArgument(view.isDictionaryEncoded(), "Column %s isn't dictionary encoded", view.name());
+            for (int row = 0; row < view.size(); row++) {
+                categorical.appendCode(view.isNull(row) ? MISSING : view.getCode(row));
+            }
+        }
+        return categorical;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CategoricalColumn append(String value) {
+        return appendCode(value == null ? MISSING : codeFor(value));
+    }
+
+    public boolean isMissing(int row) {
+        return values[row] == MISSING;
+    }
+
+    /**
+     * @return Code of the value at the row, {@link #MISSING} if it's missing
+     */
+    public int getCode(int row) {
+        return values[row];
+    }
+
+    /**
+     * @return Value at the row, null if it's missing
+     */
+    public String getString(int row) {
+        int code = values[row];
+        return code == MISSING ? null : dictionary.get(code);
+    }
+
+    /**
+     * @return Unique values indexed by their code
+     */
+    public List<String> dictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    /**
+     * @return Code of the value, -1 if it isn't in the column
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Evaluates the predicate once for every unique value.
+     *
+     * @return Bitmap of the codes whose values match the predicate
+     */
+    public BitSet matching(Predicate<String> predicate) {
+        BitSet matching = new BitSet(dictionary.size());
+        for (int code = 0; code < dictionary.size(); code++) {
+            if (predicate.test(dictionary.get(code))) {
+                matching.set(code);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * @return Rows whose values match the predicate, missing values never match
+     */
+    public Selection eval(Predicate<String> predicate) {
+        return select(matching(predicate));
+    }
+
+    public Selection isIn(Collection<String> values) {
+        BitSet matching = new BitSet(dictionary.size());
+        for (String value : values) {
+            int code = codeOf(value);
+            if (code >= 0) {
+                matching.set(code);
+            }
+        }
+        return select(matching);
+    }
+
+    public Selection isEqualTo(String value) {
+        return isIn(List.of(value));
+    }
+
+    /**
+     * @param codes Bitmap of the codes to select
+     * @return Rows whose codes are in the bitmap
+     */
+    public Selection select(BitSet codes) {
+        Selection selection = new BitmapBackedSelection();
+        for (int row = 0; row < size; row++) {
+            int code = values[row];
+            if (code != MISSING && codes.get(code)) {
+                selection.add(row);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * @return Number of rows of each code, indexed by the code
+     */
+    public int[] countByCode() {
+        int[] counts = new int[dictionary.size()];
+        for (int row = 0; row < size; row++) {
+            if (values[row] != MISSING) {
+                counts[values[row]]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Groups the rows by their value, missing values are left out.
+     *
+     * @return Rows of each value, in the order of the codes
+     */
+    public Map<String, Selection> groupBy() {
+        Selection[] groups = new Selection[dictionary.size()];
+        for (int row = 0; row < size; row++) {
+            int code = values[row];
+            if (code != MISSING) {
+                if (groups[code] == null) {
+                    groups[code] = new BitmapBackedSelection();
+                }
+                groups[code].add(row);
+            }
+        }
+        Map<String, Selection> byValue = new LinkedHashMap<>();
+        for (int code = 0; code < groups.length; code++) {
+            if (groups[code] != null) {
+                byValue.put(dictionary.get(code), groups[code]);
+            }
+        }
+        return byValue;
+    }
+
+    /**
+     * Decodes the column into a Tablesaw column, every row of a value gets the same String instance.
+     */
+    public StringColumn toStringColumn() {
+        StringColumn column = StringColumn.create(name);
+        for (int row = 0; row < size; row++) {
+            int code = values[row];
+            if (code == MISSING) {
+                column.appendMissing();
+            } else {
+                column.append(dictionary.get(code));
+            }
+        }
+        return column;
+    }
+
+    private int codeFor(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            Preconditions.checkState(code < MISSING, "Column %s has more than %s unique values", name, MISSING);
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    private CategoricalColumn appendCode(int code) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = (char) code;
+        return this;
+    }
+}
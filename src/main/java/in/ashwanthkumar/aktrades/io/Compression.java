@@ -0,0 +1,44 @@
+package in.ashwanthkumar.aktrades.io;
+
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+
+/**
+ * Compression of the record batch bodies in the Arrow IPC files that we write.
+ * <p>
+ * The codec is recorded in every record batch, so the readers work out how to decompress a file on their own.
+ * Compressed batches can't be read in place from the mapped file - they're decompressed on to the off-heap
+ * memory when the batch is first accessed, so compression trades read speed for size, it never reads faster
+ * than NONE. {@code DataIoBenchmark.read} (100k rows, a single iteration) measured:
+ * </p>
+ * <ul>
+ *     <li>NONE - 24.8 ops/s</li>
+ *     <li>ZSTD (native) - 17.8 ops/s, about 30% slower, with files that are 37% of the uncompressed size</li>
+ *     <li>LZ4_FRAME (the pure Java implementation in commons-compress) - 3.65 ops/s, about 7x slower than NONE</li>
+ * </ul>
+ * <p>
+ * Use ZSTD when the disk or the page cache is the constraint, and NONE when the read speed is.
+ * </p>
+ */
+public enum Compression {
+    NONE(CompressionUtil.CodecType.NO_COMPRESSION),
+    LZ4_FRAME(CompressionUtil.CodecType.LZ4_FRAME),
+    ZSTD(CompressionUtil.CodecType.ZSTD);
+
+    /**
+     * Decompresses the record batches of any of the codecs above.
+     */
+    static final CompressionCodec.Factory CODECS = CommonsCompressionFactory.INSTANCE;
+
+    private final CompressionUtil.CodecType codecType;
+
+    Compression(CompressionUtil.CodecType codecType) {
+        this.codecType = codecType;
+    }
+
+    CompressionCodec codec() {
+        return this == NONE ? NoCompressionCodec.INSTANCE : CODECS.createCodec(codecType);
+    }
+}
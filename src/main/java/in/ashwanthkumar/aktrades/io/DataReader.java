@@ -1,14 +1,19 @@
 package in.ashwanthkumar.aktrades.io;
 
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.io.view.DoubleColumnView;
+import in.ashwanthkumar.aktrades.io.view.StringColumnView;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.dictionary.Dictionary;
-import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
 import org.apache.arrow.vector.ipc.ArrowFileReader;
 import org.apache.arrow.vector.ipc.message.ArrowBlock;
 import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
@@ -23,7 +28,13 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 @RequiredArgsConstructor
@@ -32,66 +43,169 @@ public class DataReader {
     private final File input;
 
     public Table read() {
-        try (BufferAllocator allocator = new RootAllocator(); FileInputStream fileInputStream = new FileInputStream(input); ArrowFileReader reader = new ArrowFileReader(fileInputStream.getChannel(), allocator)) {
-            List<Column<?>> columns = new ArrayList<>();
-
-            for (ArrowBlock arrowBlock : reader.getRecordBlocks()) {
-                reader.loadRecordBatch(arrowBlock);
-                VectorSchemaRoot vectorSchemaRoot = reader.getVectorSchemaRoot();
-                List<Field> fields = vectorSchemaRoot.getSchema().getFields();
-                for (Field field : fields) {
-                    FieldVector fieldVector = vectorSchemaRoot.getVector(field);
-                    System.out.println(field.getName() + " has " + fieldVector.getValueCount() + " elements of type: " + field.getFieldType().getType().getTypeID());
-                    // does the field use a dict based encoding?
-                    DictionaryEncoding dictEncoding = field.getDictionary();
-                    if (dictEncoding != null) {
-                        Dictionary dictionary = reader.getDictionaryVectors().get(dictEncoding.getId());
-                        try (ValueVector fieldValues = DictionaryEncoder.decode(fieldVector, dictionary)) {
-                            columns.add(
-                                    parseColumn(fieldValues, field, StringColumn::create, text -> ((Text) text).toString())
-                            );
-                        }
-                    } else {
-                        switch (field.getFieldType().getType().getTypeID()) {
-                            case Utf8:
-                                columns.add(
-                                        parseColumn(fieldVector, field, StringColumn::create, value -> ((Text)value).toString())
-                                );
-                                break;
-
-                            case FloatingPoint:
-                                columns.add(
-                                        parseColumn(fieldVector, field, DoubleColumn::create, value -> truncateDecimal(((Float) value).doubleValue(), 2))
-                                );
-                                break;
-                            case Int:
-                                columns.add(
-                                        parseColumn(fieldVector, field, IntColumn::create, Function.identity())
-                                );
-                                break;
-                            case Timestamp:
-                                columns.add(
-                                        parseColumn(fieldVector, field, DateTimeColumn::create, Function.identity())
-                                );
-                                break;
-                            case Bool:
-                                columns.add(
-                                        parseColumn(fieldVector, field, BooleanColumn::create, Function.identity())
-                                );
-                                break;
-                        }
+        return read(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reads all the rows in the file on to the heap. The record batches are decompressed and decoded concurrently
+     * and are appended in the order they're in the file.
+     *
+     * @param parallelism Number of batches that are decoded at the same time
+     * @return Table with all the rows in the file
+     */
+    public Table read(int parallelism) {
+        return read(BatchFilter.all(), parallelism);
+    }
+
+    public Table read(BatchFilter filter) {
+        return read(filter, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reads the rows in the file that match the filter on to the heap. Record batches whose zone maps can't match
+     * the filter are skipped without being decoded, see {@link MappedDataset#matchingBatches(BatchFilter)}.
+     *
+     * @param filter      Rows that we want to read
+     * @param parallelism Number of batches that are decoded at the same time
+     * @return Table with the matching rows in the order they're in the file
+     */
+    public Table read(BatchFilter filter, int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism should be positive, but was %s", parallelism);
+        long startTime = System.nanoTime();
+        try (MappedDataset dataset = MappedDataset.open(input)) {
+            List<Integer> matching = dataset.matchingBatches(filter);
+            Table[] batches = new Table[matching.size()];
+            if (parallelism == 1 || batches.length <= 1) {
+                for (int i = 0; i < batches.length; i++) {
+                    batches[i] = filter.apply(dataset.batch(matching.get(i)).toTable());
+                }
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    List<Future<?>> decoded = new ArrayList<>(batches.length);
+                    for (int i = 0; i < batches.length; i++) {
+                        int index = i;
+                        decoded.add(pool.submit(() -> batches[index] = filter.apply(dataset.batch(matching.get(index)).toTable())));
                     }
+                    for (Future<?> batch : decoded) {
+                        await(batch);
+                    }
+                } finally {
+                    pool.shutdownNow();
                 }
             }
 
-            return Table.create(columns);
-        } catch (IOException e) {
+            Table table = null;
+            for (Table batch : batches) {
+                // Note: Use append instead of concat, because concat appends only the columns and not rows.
+                table = (table == null) ? batch : table.append(batch);
+            }
+            table = table == null ? Table.create() : table;
+            Metrics.global().timer(Metrics.READ).recordSince(startTime);
+            Metrics.global().counter(Metrics.ROWS_READ).add(table.rowCount());
+            return table;
+        }
+    }
 
-            throw new RuntimeException(e);
+    /**
+     * Reads only the footer of the file.
+     *
+     * @return Categorical columns, sort keys and zone maps of the file
+     */
+    public DatasetMetadata metadata() {
+        try (MappedDataset dataset = MappedDataset.open(input)) {
+            return dataset.getMetadata();
+        }
+    }
+
+    /**
+     * Lazily iterates over the record batches in the file, each batch is materialized only when we ask for it.
+     *
+     * @return BatchIterator that should be closed once we're done with it.
+     */
+    public BatchIterator batches() {
+        return new BatchIterator(input);
+    }
+
+    /**
+     * Memory maps the underlying file instead of copying it on to the heap. Columns are exposed as read-only
+     * primitive views over the Arrow buffers and are materialized as Tablesaw columns only when asked for.
+     *
+     * @return MappedDataset that should be closed once we're done with it.
+     */
+    public MappedDataset map() {
+        return MappedDataset.open(input);
+    }
+
+    /**
+     * Converts the vectors currently loaded in the root into Tablesaw columns.
+     *
+     * @param vectorSchemaRoot Root with a record batch loaded into it
+     * @param dictionaries     Dictionaries to decode the categorical columns with
+     * @param priceBases       Base ticks of the price columns in this batch
+     * @return Tablesaw columns in the same order as the schema
+     */
+    static List<Column<?>> toColumns(VectorSchemaRoot vectorSchemaRoot, DictionaryProvider dictionaries, Map<String, Long> priceBases) {
+        List<Column<?>> columns = new ArrayList<>();
+        List<Field> fields = vectorSchemaRoot.getSchema().getFields();
+        for (Field field : fields) {
+            FieldVector fieldVector = vectorSchemaRoot.getVector(field);
+            log.trace("{} has {} elements of type {}", field.getName(), fieldVector.getValueCount(), field.getFieldType().getType().getTypeID());
+            // does the field use a dict based encoding?
+            DictionaryEncoding dictEncoding = field.getDictionary();
+            if (dictEncoding != null) {
+                // the dictionary is decoded once, every row of a value gets the same String
+                Dictionary dictionary = dictionaries.lookup(dictEncoding.getId());
+                StringColumnView codes = StringColumnView.ofDictionary(fieldVector, dictionary);
+                StringColumn column = StringColumn.create(field.getName());
+                for (int i = 0; i < codes.size(); i++) {
+                    if (codes.isNull(i)) {
+                        column.appendMissing();
+                    } else {
+                        column.append(codes.getString(i));
+                    }
+                }
+                columns.add(column);
+            } else if (PriceEncoding.isScaled(field)) {
+                // decoded straight into the array that backs the column, the ticks are exact so there's nothing to truncate
+                double[] values = new double[fieldVector.getValueCount()];
+                DoubleColumnView.scaled(fieldVector, PriceEncoding.scale(field), priceBases.get(field.getName())).copyTo(values, 0);
+                columns.add(DoubleColumn.create(field.getName(), values));
+            } else {
+                switch (field.getFieldType().getType().getTypeID()) {
+                    case Utf8:
+                        columns.add(
+                                parseColumn(fieldVector, field, StringColumn::create, value -> ((Text)value).toString())
+                        );
+                        break;
+
+                    case FloatingPoint:
+                        columns.add(
+                                parseColumn(fieldVector, field, DoubleColumn::create, value -> truncateDecimal(((Float) value).doubleValue(), 2))
+                        );
+                        break;
+                    case Int:
+                        columns.add(
+                                parseColumn(fieldVector, field, IntColumn::create, Function.identity())
+                        );
+                        break;
+                    case Timestamp:
+                        columns.add(
+                                parseColumn(fieldVector, field, DateTimeColumn::create, Function.identity())
+                        );
+                        break;
+                    case Bool:
+                        columns.add(
+                                parseColumn(fieldVector, field, BooleanColumn::create, Function.identity())
+                        );
+                        break;
+                }
+            }
         }
+        return columns;
     }
 
-    private Column<?> parseColumn(ValueVector fieldVector, Field field, Function<String, Column<?>> createColumnFn, Function<Object, Object> parseValueFn) {
+    private static Column<?> parseColumn(ValueVector fieldVector, Field field, Function<String, Column<?>> createColumnFn, Function<Object, Object> parseValueFn) {
         Column<?> column = createColumnFn.apply(field.getName());
         for (int i = 0; i < fieldVector.getValueCount(); i++) {
             if (fieldVector.isNull(i)) {
@@ -103,7 +217,18 @@ public class DataReader {
         return column;
     }
 
-    private Double truncateDecimal(double x, int numberOfDecimals) {
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static Double truncateDecimal(double x, int numberOfDecimals) {
         if (x > 0) {
             return new BigDecimal(String.valueOf(x)).setScale(numberOfDecimals, RoundingMode.FLOOR).doubleValue();
         } else {
@@ -111,4 +236,58 @@ public class DataReader {
         }
     }
 
+
+    /**
+     * Iterator over the record batches of an Arrow file as Tablesaw Tables. Only the batch that's being read is
+     * held in memory.
+     */
+    public static class BatchIterator implements Iterator<Table>, AutoCloseable {
+        private final BufferAllocator allocator;
+        private final FileInputStream fileInputStream;
+        private final ArrowFileReader reader;
+        private final List<ArrowBlock> blocks;
+        private final Map<String, long[]> priceBases;
+        private int current = 0;
+
+        private BatchIterator(File input) {
+            this.allocator = new RootAllocator();
+            try {
+                this.fileInputStream = new FileInputStream(input);
+                this.reader = new ArrowFileReader(fileInputStream.getChannel(), allocator, Compression.CODECS);
+                this.blocks = reader.getRecordBlocks();
+                this.priceBases = PriceEncoding.bases(reader.getVectorSchemaRoot().getSchema(), reader.getMetaData(), blocks.size());
+            } catch (IOException e) {
+                close();
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current < blocks.size();
+        }
+
+        @Override
+        public Table next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                Map<String, Long> batchBases = PriceEncoding.basesOf(priceBases, current);
+                reader.loadRecordBatch(blocks.get(current++));
+                return Table.create(toColumns(reader.getVectorSchemaRoot(), reader, batchBases));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                AutoCloseables.close(reader, fileInputStream, allocator);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
 }
@@ -0,0 +1,226 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.util.*;
+
+/**
+ * Metadata that {@link StreamingDataWriter} writes to the footer of the file, so the readers don't have to be told
+ * how the file was written.
+ * <p>
+ * The footer has the categorical columns, the sort keys (columns whose values are in ascending order across the
+ * whole file) and a zone map of every timestamp, categorical and price column - the min and the max value of the
+ * column in each record batch. Timestamps are in epoch seconds, categorical columns are their dictionary codes and
+ * prices are ticks (see {@link PriceEncoding}). A batch whose range doesn't overlap a {@link BatchFilter} is
+ * skipped without being mapped.
+ * </p>
+ * <p>
+ * Files written before we had the metadata don't have the sort keys or the zone maps, every batch of such a file
+ * may match a filter. Their categorical columns are still known from the dictionary encoded fields of the schema.
+ * </p>
+ */
+public class DatasetMetadata {
+    static final String CATEGORICAL = "aktrades.categorical";
+    static final String SORT_KEYS = "aktrades.sort";
+    private static final String ZONE_MAP_PREFIX = "aktrades.zonemap.";
+    // zone of a batch where all the values of the column are null
+    private static final String EMPTY_ZONE = "-";
+
+    private final Set<String> categoricalColumns;
+    private final List<String> sortKeys;
+    private final Map<String, ZoneMap> zoneMaps;
+
+    private DatasetMetadata(Set<String> categoricalColumns, List<String> sortKeys, Map<String, ZoneMap> zoneMaps) {
+        this.categoricalColumns = categoricalColumns;
+        this.sortKeys = sortKeys;
+        this.zoneMaps = zoneMaps;
+    }
+
+    /**
+     * Parses the metadata of a file.
+     *
+     * @param schema  Schema of the file
+     * @param footer  Custom metadata in the footer of the file
+     * @param batches Number of record batches in the file
+     */
+    static DatasetMetadata of(Schema schema, Map<String, String> footer, int batches) {
+        Map<String, String> metaData = footer == null ? Map.of() : footer;
+        Set<String> categorical = new LinkedHashSet<>();
+        Map<String, ZoneMap> zoneMaps = new HashMap<>();
+        for (Field field : schema.getFields()) {
+            if (field.getDictionary() != null) {
+                categorical.add(field.getName());
+            }
+            String zones = metaData.get(zoneMapKey(field.getName()));
+            if (zones != null) {
+                zoneMaps.put(field.getName(), ZoneMap.parse(field.getName(), zones, batches));
+            }
+        }
+        List<String> sortKeys = split(metaData.get(SORT_KEYS));
+        return new DatasetMetadata(Collections.unmodifiableSet(categorical), sortKeys, zoneMaps);
+    }
+
+    /**
+     * @return Columns that are dictionary encoded, in the order of the schema
+     */
+    public Set<String> getCategoricalColumns() {
+        return categoricalColumns;
+    }
+
+    /**
+     * @return Columns whose values are in ascending order across all the batches of the file
+     */
+    public List<String> getSortKeys() {
+        return sortKeys;
+    }
+
+    public boolean isSortedOn(String column) {
+        return sortKeys.contains(column);
+    }
+
+    /**
+     * @return Zone map of the column, null if the file doesn't have one for it
+     */
+    public ZoneMap zoneMap(String column) {
+        return zoneMaps.get(column);
+    }
+
+    /**
+     * @return Key in the footer of the file that holds the zone map of the column
+     */
+    static String zoneMapKey(String column) {
+        return ZONE_MAP_PREFIX + column;
+    }
+
+    static String join(Collection<String> columns) {
+        return String.join(",", columns);
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isEmpty()) {
+            return List.of();
+        }
+        return List.of(value.split(","));
+    }
+
+    /**
+     * Min and max value of a column in each record batch.
+     */
+    public static class ZoneMap {
+        private final long[] min;
+        private final long[] max;
+
+        private ZoneMap(long[] min, long[] max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        static ZoneMap parse(String column, String value, int batches) {
+            String[] zones = value.isEmpty() ? new String[0] : value.split(",");
+            Preconditions.checkState(zones.length == batches, "Column %s has zones for %s batches, but the file has %s", column, zones.length, batches);
+            long[] min = new long[batches];
+            long[] max = new long[batches];
+            for (int i = 0; i < batches; i++) {
+                if (EMPTY_ZONE.equals(zones[i])) {
+                    min[i] = Long.MAX_VALUE;
+                    max[i] = Long.MIN_VALUE;
+                } else {
+                    int separator = zones[i].indexOf(':');
+                    min[i] = Long.parseLong(zones[i].substring(0, separator));
+                    max[i] = Long.parseLong(zones[i].substring(separator + 1));
+                }
+            }
+            return new ZoneMap(min, max);
+        }
+
+        /**
+         * @return Smallest value in the batch, Long.MAX_VALUE if all the values are null
+         */
+        public long min(int batch) {
+            return min[batch];
+        }
+
+        /**
+         * @return Largest value in the batch, Long.MIN_VALUE if all the values are null
+         */
+        public long max(int batch) {
+            return max[batch];
+        }
+
+        /**
+         * @return true if the batch may have a value in [from, to]
+         */
+        public boolean overlaps(int batch, long from, long to) {
+            return min[batch] <= to && max[batch] >= from;
+        }
+
+        /**
+         * @param values Values in ascending order
+         * @return true if the batch may have any of the values
+         */
+        public boolean overlapsAny(int batch, int[] values) {
+            int index = Arrays.binarySearch(values, (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, min[batch])));
+            int first = index >= 0 ? index : -index - 1;
+            return first < values.length && values[first] <= max[batch];
+        }
+    }
+
+    /**
+     * Tracks the zone map of a column as its values are written, along with whether they're in ascending order.
+     */
+    static class ZoneMapBuilder {
+        private final StringBuilder zones = new StringBuilder();
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+        private long last = Long.MIN_VALUE;
+        private boolean sorted = true;
+        private int batches = 0;
+
+        void add(long value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sorted = sorted && value >= last;
+            last = value;
+        }
+
+        /**
+         * @return Smallest value of the current batch, Long.MAX_VALUE if there are none
+         */
+        long batchMin() {
+            return min;
+        }
+
+        /**
+         * @return Largest value of the current batch, Long.MIN_VALUE if there are none
+         */
+        long batchMax() {
+            return max;
+        }
+
+        void endBatch() {
+            if (batches++ > 0) {
+                zones.append(',');
+            }
+            if (min > max) {
+                zones.append(EMPTY_ZONE);
+            } else {
+                zones.append(min).append(':').append(max);
+            }
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+        }
+
+        /**
+         * @return true if all the values so far are in ascending order
+         */
+        boolean isSorted() {
+            return sorted;
+        }
+
+        String format() {
+            return zones.toString();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package in.ashwanthkumar.aktrades.io;
+
+import tech.tablesaw.api.Table;
+
+/**
+ * Destination of the tables that are imported by {@link ImportPipeline}.
+ */
+public interface DatasetWriter extends AutoCloseable {
+    /**
+     * Appends all the rows in the table.
+     *
+     * @param table Table (or a chunk of rows) to write
+     */
+    void append(Table table);
+
+    @Override
+    void close();
+}
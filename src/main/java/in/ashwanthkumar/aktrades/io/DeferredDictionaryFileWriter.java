@@ -0,0 +1,120 @@
+package in.ashwanthkumar.aktrades.io;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowDictionaryBatch;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ArrowFileWriter that writes the dictionaries at the end of the file instead of before the first record batch.
+ * <p>
+ * ArrowWriter snapshots the dictionaries when it's created, which doesn't work when we're streaming the rows and
+ * the dictionaries keep growing as we see new values. In the file format the dictionaries are located through
+ * the footer, so we can write them just before the footer once all the record batches are written.
+ * </p>
+ * <p>
+ * ArrowWriter doesn't take a codec either, so the record batches are unloaded with the codec here. The
+ * dictionaries are small and are always written uncompressed.
+ * </p>
+ * <p>
+ * Note: A compressing codec releases the buffers it compresses and VectorUnloader retains the compressed ones
+ * on top of their allocation. We retain the buffers of the vectors before unloading and release the compressed
+ * buffers once they're written, so the vectors can be reused for the next batch and nothing leaks.
+ * </p>
+ */
+class DeferredDictionaryFileWriter extends ArrowFileWriter {
+    private final DictionaryProvider provider;
+    private final Set<Long> dictionaryIds;
+    private final VectorSchemaRoot root;
+    private final VectorUnloader unloader;
+    private final boolean compressed;
+    private boolean writingDictionaries = false;
+    private boolean dictionariesWritten = false;
+
+    DeferredDictionaryFileWriter(VectorSchemaRoot root, DictionaryProvider provider, Set<Long> dictionaryIds,
+                                 WritableByteChannel out, Map<String, String> metaData, CompressionCodec codec) {
+        super(root, provider, out, metaData);
+        this.provider = provider;
+        this.dictionaryIds = dictionaryIds;
+        this.root = root;
+        this.unloader = new VectorUnloader(root, true, codec, true);
+        this.compressed = codec.getCodecType() != CompressionUtil.CodecType.NO_COMPRESSION;
+    }
+
+    @Override
+    public void writeBatch() throws IOException {
+        start();
+        if (compressed) {
+            for (FieldVector vector : root.getFieldVectors()) {
+                retainBuffers(vector);
+            }
+        }
+        ArrowRecordBatch batch = unloader.getRecordBatch();
+        List<ArrowBuf> buffers = batch.getBuffers();
+        try {
+            writeRecordBatch(batch);
+        } finally {
+            batch.close();
+            if (compressed) {
+                for (ArrowBuf buffer : buffers) {
+                    buffer.getReferenceManager().release();
+                }
+            }
+        }
+    }
+
+    private static void retainBuffers(FieldVector vector) {
+        for (ArrowBuf buffer : vector.getFieldBuffers()) {
+            buffer.getReferenceManager().retain();
+        }
+        for (FieldVector child : vector.getChildrenFromFields()) {
+            retainBuffers(child);
+        }
+    }
+
+    @Override
+    protected ArrowBlock writeDictionaryBatch(ArrowDictionaryBatch batch) throws IOException {
+        if (!writingDictionaries) {
+            // skip the (incomplete) snapshot that ArrowWriter took during construction
+            return null;
+        }
+        return super.writeDictionaryBatch(batch);
+    }
+
+    @Override
+    public void end() throws IOException {
+        start();
+        if (!dictionariesWritten) {
+            dictionariesWritten = true;
+            writingDictionaries = true;
+            for (long id : dictionaryIds) {
+                Dictionary dictionary = provider.lookup(id);
+                FieldVector vector = dictionary.getVector();
+                VectorSchemaRoot dictRoot = new VectorSchemaRoot(
+                        Collections.singletonList(vector.getField()),
+                        Collections.singletonList(vector),
+                        vector.getValueCount());
+                try (ArrowDictionaryBatch batch = new ArrowDictionaryBatch(id, new VectorUnloader(dictRoot).getRecordBatch(), false)) {
+                    writeDictionaryBatch(batch);
+                }
+            }
+            writingDictionaries = false;
+        }
+        super.end();
+    }
+}
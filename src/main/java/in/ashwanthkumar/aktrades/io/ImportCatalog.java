@@ -0,0 +1,156 @@
+package in.ashwanthkumar.aktrades.io;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Catalog of the source files that were imported into a dataset, kept at {@code catalog.csv} under the root
+ * of the dataset.
+ * <p>
+ * Every file is recorded with its size, last modified time and a CRC32C checksum of its contents. On the next
+ * import only the files that aren't in the catalog are imported. We checksum a file only when its size or
+ * modified time changed, so checking a directory of already imported files doesn't read any of them. A file
+ * whose contents changed after it was imported is skipped with a warning, importing it again would duplicate
+ * its rows.
+ * </p>
+ */
+@Slf4j
+public class ImportCatalog {
+    static final String CATALOG = "catalog.csv";
+    private static final String[] HEADER = {"name", "size", "modified", "checksum"};
+
+    private final File root;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    private ImportCatalog(File root) {
+        this.root = root;
+    }
+
+    /**
+     * @param root Root of the dataset
+     * @return Catalog of the dataset, it's empty if nothing was imported yet
+     */
+    public static ImportCatalog open(File root) {
+        ImportCatalog catalog = new ImportCatalog(root);
+        File file = new File(root, CATALOG);
+        if (file.exists()) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build();
+                for (CSVRecord record : format.parse(reader)) {
+                    Entry entry = new Entry(record.get("name"), Long.parseLong(record.get("size")),
+                            Long.parseLong(record.get("modified")), Long.parseLong(record.get("checksum")));
+                    catalog.entries.put(entry.getName(), entry);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * @param files Source files that we want to import
+     * @return Files that haven't been imported yet
+     */
+    public List<File> newFiles(Collection<File> files) {
+        List<File> newFiles = new ArrayList<>();
+        for (File file : files) {
+            Entry entry = entries.get(file.getName());
+            if (entry == null) {
+                newFiles.add(file);
+            } else if (entry.getSize() != file.length() || entry.getModified() != file.lastModified()) {
+                long checksum = checksum(file);
+                if (checksum == entry.getChecksum()) {
+                    // touched but not changed, we needn't checksum it again the next time
+                    entries.put(entry.getName(), new Entry(entry.getName(), file.length(), file.lastModified(), checksum));
+                } else {
+                    log.warn("{} has changed since it was imported, skipping it", file.getAbsolutePath());
+                }
+            }
+        }
+        return newFiles;
+    }
+
+    /**
+     * Records the files as imported, call {@link #save()} to persist the catalog.
+     *
+     * @param files Source files that were imported
+     */
+    public void add(Collection<File> files) {
+        for (File file : files) {
+            entries.put(file.getName(), new Entry(file.getName(), file.length(), file.lastModified(), checksum(file)));
+        }
+    }
+
+    public Optional<Entry> get(String name) {
+        return Optional.ofNullable(entries.get(name));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the catalog to a temporary file and moves it in place.
+     */
+    public void save() {
+        Path catalog = new File(root, CATALOG).toPath();
+        Path temp = new File(root, CATALOG + ".tmp").toPath();
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8);
+                 CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(HEADER).build())) {
+                for (Entry entry : entries.values()) {
+                    printer.printRecord(entry.getName(), entry.getSize(), entry.getModified(), entry.getChecksum());
+                }
+            }
+            Files.move(temp, catalog, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static long checksum(File file) {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return crc.getValue();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    @ToString
+    public static class Entry {
+        // name of the file, the source files are identified by their names
+        private final String name;
+        private final long size;
+        // last modified time in millis
+        private final long modified;
+        private final long checksum;
+    }
+}
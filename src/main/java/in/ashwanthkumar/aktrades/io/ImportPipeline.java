@@ -0,0 +1,144 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import in.ashwanthkumar.aktrades.plugins.TableTransformation;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Imports multiple CSV files in parallel.
+ * <p>
+ * Files are parsed, transformed and sorted on a bounded pool of threads. At most {@code maxInFlight} files are
+ * parsed ahead of the writer, so a slow writer applies backpressure instead of piling up parsed tables in memory.
+ * The results are handed to the writer in the order of the file names (which for our daily CSVs is the trading
+ * date) and the rows within each file are sorted on the sort columns, so the output is deterministic irrespective
+ * of the order in which the workers finish.
+ * </p>
+ */
+@Slf4j
+public class ImportPipeline {
+    private static final List<String> DEFAULT_SORT_COLUMNS = List.of("Ticker", "Time");
+
+    private final Supplier<TableTransformation> transformations;
+    private final int parallelism;
+    private final int maxInFlight;
+    private final List<String> sortColumns;
+
+    /**
+     * @param transformations Creates the transformation for each file, so plugins needn't be thread-safe
+     * @param parallelism     Number of files that are parsed concurrently
+     */
+    public ImportPipeline(Supplier<TableTransformation> transformations, int parallelism) {
+        this(transformations, parallelism, 2 * parallelism, DEFAULT_SORT_COLUMNS);
+    }
+
+    /**
+     * @param transformations Creates the transformation for each file, so plugins needn't be thread-safe
+     * @param parallelism     Number of files that are parsed concurrently
+     * @param maxInFlight     Maximum number of files that are parsed (or being parsed) but not yet written
+     * @param sortColumns     Columns the rows of each file are sorted on before they're written
+     */
+    public ImportPipeline(Supplier<TableTransformation> transformations, int parallelism, int maxInFlight, List<String> sortColumns) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism should be positive, but was %s", parallelism);
+        Preconditions.checkArgument(maxInFlight >= parallelism, "maxInFlight (%s) should be at least parallelism (%s)", maxInFlight, parallelism);
+        this.transformations = transformations;
+        this.parallelism = parallelism;
+        this.maxInFlight = maxInFlight;
+        this.sortColumns = sortColumns;
+    }
+
+    /**
+     * Imports all the files into the writer.
+     *
+     * @param files  CSV files to import
+     * @param writer Writer to hand over the parsed tables to, it's only called from the calling thread
+     * @return Throughput of the import
+     */
+    public ImportStats run(Collection<File> files, DatasetWriter writer) {
+        List<File> ordered = new ArrayList<>(files);
+        ordered.sort(Comparator.comparing(File::getName));
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                .setNameFormat("import-%d")
+                .setDaemon(true)
+                .build());
+        Deque<Future<Table>> inFlight = new ArrayDeque<>(maxInFlight);
+        long startTime = System.nanoTime();
+        long rows = 0;
+        int filesImported = 0;
+        try {
+            Iterator<File> pending = ordered.iterator();
+            while (pending.hasNext() || !inFlight.isEmpty()) {
+                while (pending.hasNext() && inFlight.size() < maxInFlight) {
+                    File file = pending.next();
+                    inFlight.add(pool.submit(() -> load(file)));
+                }
+
+                Table table = await(inFlight.poll());
+                writer.append(table);
+                rows += table.rowCount();
+                filesImported++;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ImportStats stats = new ImportStats(filesImported, rows, System.nanoTime() - startTime);
+        log.info("Imported {}", stats);
+        return stats;
+    }
+
+    private Table load(File file) {
+        log.info("Loading the file {}", file.getAbsolutePath());
+        Table table = DataImporter.fromCsv(file.getAbsolutePath(), transformations.get()).getTable();
+        return table.sortAscendingOn(sortColumns.toArray(new String[0]));
+    }
+
+    private static Table await(Future<Table> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class ImportStats {
+        private final int files;
+        private final long rows;
+        private final long elapsedNanos;
+
+        public double rowsPerSecond() {
+            return perSecond(rows);
+        }
+
+        public double filesPerSecond() {
+            return perSecond(files);
+        }
+
+        private double perSecond(double count) {
+            return elapsedNanos == 0 ? 0.0 : count * 1_000_000_000L / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d files (%.2f files/sec), %d rows (%.0f rows/sec) in %d ms",
+                    files, filesPerSecond(), rows, rowsPerSecond(), elapsedNanos / 1_000_000);
+        }
+    }
+}
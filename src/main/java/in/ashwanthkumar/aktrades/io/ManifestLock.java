@@ -0,0 +1,65 @@
+package in.ashwanthkumar.aktrades.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the updates to the manifest of a {@link PartitionedDataset} across threads (with an in-process
+ * lock) and across processes (with a lock on {@code manifest.lock} under the root).
+ */
+class ManifestLock implements AutoCloseable {
+    private static final ConcurrentMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+
+    private ManifestLock(ReentrantLock lock, FileChannel channel, FileLock fileLock) {
+        this.lock = lock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    static ManifestLock acquire(File root) {
+        ReentrantLock lock;
+        try {
+            lock = LOCKS.computeIfAbsent(root.getCanonicalPath(), path -> new ReentrantLock());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        lock.lock();
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(new File(root, "manifest.lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            return new ManifestLock(lock, channel, channel.lock());
+        } catch (IOException | RuntimeException e) {
+            lock.unlock();
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            fileLock.release();
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
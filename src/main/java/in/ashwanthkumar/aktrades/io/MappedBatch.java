@@ -0,0 +1,153 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.io.view.*;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import tech.tablesaw.api.Table;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single record batch of a {@link MappedDataset}. The column views are created once when the batch is mapped
+ * and are safe to be read from multiple threads.
+ * <p>
+ * The batch and its views are valid only till the dataset is closed. Accessing the batch after that throws an
+ * {@link IllegalStateException}, and so do the reads of a view that was handed out before, as long as Arrow's
+ * bounds checking is on (the default, {@code arrow.enable_unsafe_memory_access} turns it off).
+ * </p>
+ */
+public class MappedBatch implements AutoCloseable {
+    private final int index;
+    private final VectorSchemaRoot root;
+    private final DictionaryProvider dictionaries;
+    private final Map<String, Long> priceBases;
+    // holds on to the mapped region, the mapping is released once this and the buffers of the batch are garbage collected
+    private final MappedReferenceManager mapping;
+    private final Map<String, ColumnView> views = new LinkedHashMap<>();
+    private volatile boolean closed = false;
+
+    MappedBatch(int index, VectorSchemaRoot root, DictionaryProvider dictionaries, Map<String, Long> priceBases, MappedReferenceManager mapping) {
+        this.index = index;
+        this.root = root;
+        this.dictionaries = dictionaries;
+        this.priceBases = priceBases;
+        this.mapping = mapping;
+        for (Field field : root.getSchema().getFields()) {
+            ColumnView view = createView(field, root.getVector(field));
+            if (view != null) {
+                views.put(field.getName(), view);
+            }
+        }
+    }
+
+    /**
+     * @return Index of this batch in the dataset
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public int rowCount() {
+        checkOpen();
+        return root.getRowCount();
+    }
+
+    public boolean hasColumn(String name) {
+        return views.containsKey(name);
+    }
+
+    /**
+     * @return All the column views of this batch by their name in the schema order
+     */
+    public Map<String, ColumnView> columns() {
+        checkOpen();
+        return Collections.unmodifiableMap(views);
+    }
+
+    public ColumnView column(String name) {
+        checkOpen();
+        ColumnView view = views.get(name);
+        if (view == null) {
+            throw new IllegalArgumentException("Column " + name + " is not present in the batch");
+        }
+        return view;
+    }
+
+    public DoubleColumnView doubleColumn(String name) {
+        return (DoubleColumnView) column(name);
+    }
+
+    public IntColumnView intColumn(String name) {
+        return (IntColumnView) column(name);
+    }
+
+    public TimestampColumnView timestampColumn(String name) {
+        return (TimestampColumnView) column(name);
+    }
+
+    public BooleanColumnView booleanColumn(String name) {
+        return (BooleanColumnView) column(name);
+    }
+
+    public StringColumnView stringColumn(String name) {
+        return (StringColumnView) column(name);
+    }
+
+    /**
+     * Materializes this batch as a Tablesaw Table on the heap.
+     *
+     * @return Table with all the rows in this batch
+     */
+    public Table toTable() {
+        checkOpen();
+        return Table.create(DataReader.toColumns(root, dictionaries, priceBases));
+    }
+
+    private ColumnView createView(Field field, FieldVector vector) {
+        DictionaryEncoding dictEncoding = field.getDictionary();
+        if (dictEncoding != null) {
+            Dictionary dictionary = dictionaries.lookup(dictEncoding.getId());
+            return StringColumnView.ofDictionary(vector, dictionary);
+        }
+        if (PriceEncoding.isScaled(field)) {
+            return DoubleColumnView.scaled(vector, PriceEncoding.scale(field), priceBases.get(field.getName()));
+        }
+
+        switch (field.getFieldType().getType().getTypeID()) {
+            case Utf8:
+                return StringColumnView.of(vector);
+            case FloatingPoint:
+                return DoubleColumnView.of(vector);
+            case Int:
+                return IntColumnView.of(vector);
+            case Timestamp:
+                return TimestampColumnView.of(vector);
+            case Bool:
+                return BooleanColumnView.of(vector);
+            default:
+                // TODO: Add more types as we have a need for them.
+                return null;
+        }
+    }
+
+    private void checkOpen() {
+        Preconditions.checkState(!closed, "Batch %s is closed along with its dataset", index);
+    }
+
+    /**
+     * Releases the vectors of this batch, the views handed out so far can't be read from here on.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        root.close();
+        mapping.close();
+    }
+}
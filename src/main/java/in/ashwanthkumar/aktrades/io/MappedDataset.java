@@ -0,0 +1,307 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.io.view.StringColumnView;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.memory.util.MemoryUtil;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.util.AutoCloseables;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only, memory mapped view over an Arrow IPC file written by {@link DataWriter}.
+ * <p>
+ * Opening a dataset only reads the footer and the dictionaries. Record batches are mapped on first access and
+ * their vectors point straight into the mapped file, so opening is near-instant and the heap doesn't grow with the
+ * size of the dataset. The OS page cache takes care of what stays in memory.
+ * </p>
+ * <p>
+ * Use {@link #toTable()} or {@link MappedBatch#toTable()} only when a Tablesaw Table is really needed, that copies
+ * the data on to the heap like {@link DataReader#read()} does.
+ * </p>
+ * <p>
+ * The batches and their column views are valid only till the dataset is closed, see {@link MappedBatch}.
+ * </p>
+ */
+@Slf4j
+public class MappedDataset implements AutoCloseable {
+    private final File input;
+    private final FileChannel channel;
+    private final BufferAllocator allocator;
+    private final ArrowFileReader footerReader;
+    private final List<ArrowBlock> blocks;
+    private final Schema schema;
+    // per-batch bases of the price columns
+    private final Map<String, long[]> priceBases;
+    private final DatasetMetadata metadata;
+    private final AtomicReferenceArray<MappedBatch> batches;
+    private volatile boolean closed = false;
+
+    private MappedDataset(File input, FileChannel channel, BufferAllocator allocator, ArrowFileReader footerReader) throws IOException {
+        this.input = input;
+        this.channel = channel;
+        this.allocator = allocator;
+        this.footerReader = footerReader;
+        // reads the footer, schema and the dictionaries. Dictionaries are small, so we're fine copying them.
+        this.blocks = footerReader.getRecordBlocks();
+        this.schema = footerReader.getVectorSchemaRoot().getSchema();
+        this.priceBases = PriceEncoding.bases(schema, footerReader.getMetaData(), blocks.size());
+        this.metadata = DatasetMetadata.of(schema, footerReader.getMetaData(), blocks.size());
+        this.batches = new AtomicReferenceArray<>(blocks.size());
+    }
+
+    public static MappedDataset open(File input) {
+        FileChannel channel = null;
+        BufferAllocator allocator = null;
+        ArrowFileReader reader = null;
+        try {
+            channel = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+            allocator = new RootAllocator();
+            reader = new ArrowFileReader(channel, allocator, Compression.CODECS);
+            return new MappedDataset(input, channel, allocator, reader);
+        } catch (IOException e) {
+            closeQuietly(reader, allocator, channel);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public File getInput() {
+        return input;
+    }
+
+    /**
+     * @return Schema of the dataset, dictionary encoded fields carry their encoding
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return Categorical columns, sort keys and zone maps from the footer of the file
+     */
+    public DatasetMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return Number of record batches in the dataset
+     */
+    public int batchCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Maps the record batch at the given index, subsequent calls return the same instance.
+     * <p>
+     * Different batches can be mapped (and decompressed) from multiple threads at the same time. If two threads
+     * race on the same batch, one of them wins and the other's copy is released.
+     * </p>
+     *
+     * @param index Index of the record batch
+     * @return MappedBatch whose columns are backed by the mapped file
+     */
+    public MappedBatch batch(int index) {
+        Preconditions.checkState(!closed, "%s is closed", input);
+        MappedBatch batch = batches.get(index);
+        if (batch == null) {
+            MappedBatch loaded;
+            try {
+                loaded = load(index);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (batches.compareAndSet(index, null, loaded)) {
+                batch = loaded;
+            } else {
+                loaded.close();
+                batch = batches.get(index);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * @return All the record batches in the dataset, mapping the ones we haven't seen yet
+     */
+    public List<MappedBatch> batches() {
+        List<MappedBatch> all = new ArrayList<>(batchCount());
+        for (int i = 0; i < batchCount(); i++) {
+            all.add(batch(i));
+        }
+        return all;
+    }
+
+    /**
+     * Picks the record batches that may have rows matching the filter by looking only at the zone maps in the
+     * footer, none of the batches are mapped. The rows of the returned batches still have to be filtered.
+     *
+     * @return Indexes of the batches in ascending order
+     */
+    public List<Integer> matchingBatches(BatchFilter filter) {
+        List<Integer> matching = new ArrayList<>(batchCount());
+        int[] tickerCodes = filter.getTickers() == null ? null : codes(BatchFilter.TICKER, filter.getTickers());
+        for (int i = 0; i < batchCount(); i++) {
+            if (filter.mayMatch(metadata, i, tickerCodes)) {
+                matching.add(i);
+            }
+        }
+        if (matching.size() < batchCount()) {
+            log.debug("Skipping {} of {} batches of {}", batchCount() - matching.size(), batchCount(), input.getName());
+            Metrics.global().counter(Metrics.BATCHES_SKIPPED).add(batchCount() - matching.size());
+        }
+        return matching;
+    }
+
+    /**
+     * @return Dictionary codes of the values in ascending order, null if the column isn't dictionary encoded
+     */
+    private int[] codes(String column, Set<String> values) {
+        Field field = schema.getFields().stream().filter(f -> f.getName().equals(column)).findFirst().orElse(null);
+        if (field == null || field.getDictionary() == null) {
+            return null;
+        }
+        ValueVector dictionary = footerReader.lookup(field.getDictionary().getId()).getVector();
+        List<Integer> codes = new ArrayList<>();
+        for (int code = 0; code < dictionary.getValueCount(); code++) {
+            Object value = dictionary.getObject(code);
+            if (value != null && values.contains(value.toString())) {
+                codes.add(code);
+            }
+        }
+        return codes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Reads a dictionary encoded column of all the batches with its codes as is, none of the rows are decoded.
+     *
+     * @param column Name of a categorical column, see {@link DatasetMetadata#getCategoricalColumns()}
+     */
+    public CategoricalColumn categorical(String column) {
+        Preconditions.checkArgument(metadata.getCategoricalColumns().contains(column), "Column %s isn't categorical in %s", column, input.getName());
+        List<StringColumnView> views = new ArrayList<>(batchCount());
+        for (int i = 0; i < batchCount(); i++) {
+            views.add(batch(i).stringColumn(column));
+        }
+        return CategoricalColumn.of(column, views);
+    }
+
+    /**
+     * @return Total number of rows across all the record batches
+     */
+    public long rowCount() {
+        long rows = 0;
+        for (int i = 0; i < batchCount(); i++) {
+            rows += batch(i).rowCount();
+        }
+        return rows;
+    }
+
+    /**
+     * @return Bytes allocated off-heap for the batches that were decompressed, the rest of the batches point to the
+     * mapped file
+     */
+    public long allocatedBytes() {
+        return allocator.getAllocatedMemory();
+    }
+
+    /**
+     * Materializes the entire dataset as a Tablesaw Table on the heap.
+     *
+     * @return Table with all the rows of the dataset
+     */
+    public Table toTable() {
+        Table table = null;
+        for (int i = 0; i < batchCount(); i++) {
+            Table batchTable = batch(i).toTable();
+            // Note: Use append instead of concat, because concat appends only the columns and not rows.
+            table = (table == null) ? batchTable : table.append(batchTable);
+        }
+        return table;
+    }
+
+    private MappedBatch load(int index) throws IOException {
+        ArrowBlock block = blocks.get(index);
+        int metadataLength = block.getMetadataLength();
+        long bodyLength = block.getBodyLength();
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, block.getOffset(), metadataLength + bodyLength);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+
+        // Metadata length contains prefix_size bytes plus byte padding
+        int prefixSize = region.getInt(0) == MessageSerializer.IPC_CONTINUATION_TOKEN ? 8 : 4;
+        ByteBuffer metadata = region.duplicate().position(prefixSize).limit(metadataLength).slice();
+        RecordBatch recordBatchFB = (RecordBatch) Message.getRootAsMessage(metadata).header(new RecordBatch());
+
+        long bodyAddress = MemoryUtil.getByteBufferAddress(region) + metadataLength;
+        MappedReferenceManager mapping = new MappedReferenceManager(allocator, bodyLength, region);
+        ArrowBuf body = new ArrowBuf(mapping, null, bodyLength, bodyAddress);
+
+        VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+        try (ArrowRecordBatch recordBatch = MessageSerializer.deserializeRecordBatch(recordBatchFB, body)) {
+            // compressed buffers are decompressed on to the allocator, the uncompressed ones still point to the file
+            new VectorLoader(root, Compression.CODECS).load(recordBatch);
+        }
+        log.debug("Mapped batch {} of {} with {} rows", index, input.getName(), root.getRowCount());
+        return new MappedBatch(index, root, footerReader, PriceEncoding.basesOf(priceBases, index), mapping);
+    }
+
+    /**
+     * Unmaps the batches and releases the decompressed ones. The batches and the views handed out so far must not
+     * be used after this.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<AutoCloseable> closeables = new ArrayList<>();
+        for (int i = 0; i < batches.length(); i++) {
+            closeables.add(batches.getAndSet(i, null));
+        }
+        closeables.add(footerReader);
+        // the decompressed batches are the only buffers that are allocated, the rest are mapped
+        Metrics.global().counter(Metrics.ARROW_BYTES).add(allocator.getPeakMemoryAllocation());
+        closeables.add(allocator);
+        closeables.add(channel);
+        try {
+            AutoCloseables.close(closeables);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable... closeables) {
+        try {
+            AutoCloseables.close(closeables);
+        } catch (Exception e) {
+            log.warn("Failed to close the resources", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package in.ashwanthkumar.aktrades.io;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OwnershipTransferResult;
+import org.apache.arrow.memory.ReferenceManager;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * ReferenceManager for ArrowBufs that point into a memory mapped region of a file.
+ * <p>
+ * The memory isn't owned by any allocator, it stays valid as long as the MappedByteBuffer backing the region
+ * is reachable, so retain / release are no-ops and nothing is accounted against the allocator. Every buffer of the
+ * region holds on to the region through this manager, so the file isn't unmapped while a column view can still
+ * read from it. Once the batch is closed the ref count drops to 0, and Arrow's bounds checks fail the reads of the
+ * buffers like they do for the buffers of a closed allocator.
+ * Unlike {@link ReferenceManager#NO_OP} we derive proper slices, which is what the record batch
+ * deserialization relies on.
+ * </p>
+ */
+class MappedReferenceManager implements ReferenceManager {
+    private final BufferAllocator allocator;
+    private final long size;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private final MappedByteBuffer region;
+    private volatile boolean closed = false;
+
+    MappedReferenceManager(BufferAllocator allocator, long size, MappedByteBuffer region) {
+        this.allocator = allocator;
+        this.size = size;
+        this.region = region;
+    }
+
+    /**
+     * Marks the buffers of the region as released, they can't be read from here on.
+     */
+    void close() {
+        closed = true;
+    }
+
+    @Override
+    public int getRefCount() {
+        return closed ? 0 : 1;
+    }
+
+    @Override
+    public boolean release() {
+        return false;
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return false;
+    }
+
+    @Override
+    public void retain() {
+    }
+
+    @Override
+    public void retain(int increment) {
+    }
+
+    @Override
+    public ArrowBuf retain(ArrowBuf srcBuffer, BufferAllocator targetAllocator) {
+        return srcBuffer;
+    }
+
+    @Override
+    public ArrowBuf deriveBuffer(ArrowBuf sourceBuffer, long index, long length) {
+        return new ArrowBuf(this, null, length, sourceBuffer.memoryAddress() + index);
+    }
+
+    @Override
+    public OwnershipTransferResult transferOwnership(ArrowBuf sourceBuffer, BufferAllocator targetAllocator) {
+        throw new UnsupportedOperationException("Memory mapped buffers are read-only and can't be transferred");
+    }
+
+    @Override
+    public BufferAllocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public long getAccountedSize() {
+        return 0;
+    }
+}
@@ -0,0 +1,47 @@
+package in.ashwanthkumar.aktrades.io;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Entry in the manifest of a {@link PartitionedDataset} - a segment file with the rows of a ticker over a range
+ * of trading dates.
+ * <p>
+ * Imports write one segment per (ticker, trading date), {@link SegmentCompactor} later merges the small segments
+ * of a ticker into larger ones that span multiple dates.
+ * </p>
+ */
+@Getter
+@RequiredArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class Partition {
+    private final String ticker;
+    // first and last trading date in the segment
+    private final LocalDate date;
+    private final LocalDate endDate;
+    // path of the partition's file relative to the root of the dataset
+    private final String path;
+    private final long rows;
+    // first and last Time (seconds since epoch) in the partition
+    private final long minTime;
+    private final long maxTime;
+
+    /**
+     * @return true if the segment has rows of any of the dates in [from, to]
+     */
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        return !endDate.isBefore(from) && !date.isAfter(to);
+    }
+
+    /**
+     * @return true if all the rows of the segment are within [from, to]
+     */
+    public boolean within(LocalDate from, LocalDate to) {
+        return !date.isBefore(from) && !endDate.isAfter(to);
+    }
+}
@@ -0,0 +1,66 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Predicate on the ticker and the trading date of the partitions that we want to read from a
+ * {@link PartitionedDataset}. Partitions that don't match are never opened.
+ */
+public class PartitionFilter {
+    private static final PartitionFilter ALL = new PartitionFilter(null, LocalDate.MIN, LocalDate.MAX);
+
+    // null means all the tickers
+    private final Set<String> tickers;
+    private final LocalDate from;
+    private final LocalDate to;
+
+    private PartitionFilter(Set<String> tickers, LocalDate from, LocalDate to) {
+        this.tickers = tickers;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static PartitionFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @param tickers Tickers that we want to read
+     * @return Filter that additionally matches only the given tickers
+     */
+    public PartitionFilter tickers(Set<String> tickers) {
+        return new PartitionFilter(Set.copyOf(tickers), from, to);
+    }
+
+    public PartitionFilter tickers(String... tickers) {
+        return tickers(Set.of(tickers));
+    }
+
+    /**
+     * @param from First trading date to read (inclusive)
+     * @param to   Last trading date to read (inclusive)
+     * @return Filter that additionally matches only the dates in the range
+     */
+    public PartitionFilter between(LocalDate from, LocalDate to) {
+        Preconditions.checkArgument(!from.isAfter(to), "from (%s) should not be after to (%s)", from, to);
+        return new PartitionFilter(tickers, from, to);
+    }
+
+    /**
+     * @return true if the partition has any rows that match the filter
+     */
+    public boolean test(Partition partition) {
+        return (tickers == null || tickers.contains(partition.getTicker())) && partition.overlaps(from, to);
+    }
+
+    LocalDate getFrom() {
+        return from;
+    }
+
+    LocalDate getTo() {
+        return to;
+    }
+}
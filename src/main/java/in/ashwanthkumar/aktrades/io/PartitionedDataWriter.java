@@ -0,0 +1,150 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import tech.tablesaw.api.DateTimeColumn;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.datetimes.PackedLocalDateTime;
+import tech.tablesaw.selection.BitmapBackedSelection;
+import tech.tablesaw.selection.Selection;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Writes a {@link PartitionedDataset} - the rows are split by (Ticker, trading date) and every partition is
+ * written to its own segment file.
+ * <p>
+ * The rows of a partition in a table are written as one segment by the {@link #append(Table)} call that sees
+ * them. Segments are never overwritten - if we see a partition that already exists (eg. a late file for a day
+ * that was already imported), its rows land in a new segment of the same partition and
+ * {@link SegmentCompactor} later merges them. The manifest is updated when the writer is closed, and opening a
+ * writer on an existing dataset adds the new segments to it.
+ * </p>
+ */
+@Slf4j
+public class PartitionedDataWriter implements DatasetWriter {
+    private static final String TICKER = "Ticker";
+    private static final String TIME = "Time";
+
+    private final File root;
+    private final Set<String> categoricalColumns;
+    private final Compression compression;
+    private final List<Partition> written = new ArrayList<>();
+
+    /**
+     * @param root               Directory to write the dataset to, it's created if it doesn't exist
+     * @param categoricalColumns List of StringColumns in the table that have categorical values.
+     */
+    public PartitionedDataWriter(File root, Set<String> categoricalColumns) {
+        this(root, categoricalColumns, Compression.NONE);
+    }
+
+    /**
+     * @param root               Directory to write the dataset to, it's created if it doesn't exist
+     * @param categoricalColumns List of StringColumns in the table that have categorical values.
+     * @param compression        Compression of the record batches in the segments
+     */
+    public PartitionedDataWriter(File root, Set<String> categoricalColumns, Compression compression) {
+        Preconditions.checkArgument(root.isDirectory() || root.mkdirs(), "Couldn't create %s", root);
+        this.root = root;
+        this.categoricalColumns = categoricalColumns;
+        this.compression = compression;
+    }
+
+    /**
+     * Writes the rows of the table to their partitions.
+     *
+     * @param table Table with the Ticker and Time columns
+     */
+    @Override
+    public void append(Table table) {
+        // rows are grouped on the ticker's code and the packed date, none of the rows are decoded
+        CategoricalColumn ticker = CategoricalColumn.of(table.stringColumn(TICKER));
+        DateTimeColumn time = table.dateTimeColumn(TIME);
+        Map<Long, Selection> rowsByPartition = new LinkedHashMap<>();
+        long lastKey = -1;
+        Selection lastRows = null;
+        for (int row = 0; row < table.rowCount(); row++) {
+            Preconditions.checkArgument(!ticker.isMissing(row) && !time.isMissing(row), "Ticker and Time can't be empty, but row %s has them missing", row);
+            long key = ((long) ticker.getCode(row) << 32) | (PackedLocalDateTime.date(time.getLongInternal(row)) & 0xffffffffL);
+            if (key != lastKey) {
+                lastKey = key;
+                lastRows = rowsByPartition.computeIfAbsent(key, k -> new BitmapBackedSelection());
+            }
+            lastRows.add(row);
+        }
+
+        for (Map.Entry<Long, Selection> entry : rowsByPartition.entrySet()) {
+            String partitionTicker = ticker.dictionary().get((int) (entry.getKey() >>> 32));
+            written.add(writeSegment(root, partitionTicker, table.where(entry.getValue()), categoricalColumns, compression));
+        }
+    }
+
+    /**
+     * @return Number of segments written by this writer
+     */
+    public int segmentsWritten() {
+        return written.size();
+    }
+
+    @Override
+    public void close() {
+        List<Partition> partitions = PartitionedDataset.updateManifest(root, current -> {
+            List<Partition> updated = new ArrayList<>(current);
+            updated.addAll(written);
+            return updated;
+        });
+        log.debug("Added {} segments to the manifest of {}, it has {} segments now", written.size(), root.getAbsolutePath(), partitions.size());
+    }
+
+    /**
+     * Sorts the rows on Time and writes them as a new segment of the ticker.
+     *
+     * @param rows Rows of a single ticker, with at least one row
+     * @return Manifest entry of the segment
+     */
+    static Partition writeSegment(File root, String ticker, Table rows, Set<String> categoricalColumns, Compression compression) {
+        Table sorted = rows.sortAscendingOn(TIME);
+        DateTimeColumn times = sorted.dateTimeColumn(TIME);
+        LocalDateTime first = times.get(0);
+        LocalDateTime last = times.get(times.size() - 1);
+        String path = newSegmentPath(root, ticker, first.toLocalDate(), last.toLocalDate());
+        try (StreamingDataWriter writer = new StreamingDataWriter(new File(root, path), categoricalColumns, compression, StreamingDataWriter.DEFAULT_BATCH_SIZE)) {
+            writer.append(sorted);
+        }
+        return new Partition(ticker, first.toLocalDate(), last.toLocalDate(), path, sorted.rowCount(),
+                epochSecond(first), epochSecond(last));
+    }
+
+    /**
+     * Reserves a new file for a segment - {@code ticker=<ticker>/date=<from>[_<to>][-<n>].bin}, where n is
+     * added when there's already a segment with the same name.
+     */
+    static String newSegmentPath(File root, String ticker, LocalDate from, LocalDate to) {
+        String directory = "ticker=" + URLEncoder.encode(ticker, StandardCharsets.UTF_8);
+        String name = "date=" + (from.equals(to) ? from.toString() : from + "_" + to);
+        Preconditions.checkState(new File(root, directory).isDirectory() || new File(root, directory).mkdirs(), "Couldn't create %s", directory);
+        try {
+            for (int n = 0; ; n++) {
+                String path = directory + "/" + name + (n == 0 ? "" : "-" + n) + ".bin";
+                // createNewFile is atomic, so concurrent writers never get the same file
+                if (new File(root, path).createNewFile()) {
+                    return path;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,224 @@
+package in.ashwanthkumar.aktrades.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Dataset that's partitioned by ticker and trading date, written by {@link PartitionedDataWriter}.
+ * <p>
+ * Every partition is an Arrow file of its own at {@code ticker=<ticker>/date=<yyyy-MM-dd>.bin} under the root,
+ * and {@code manifest.csv} at the root lists all the partitions with their row count and time range. Readers
+ * only look at the manifest to decide which partitions match a {@link PartitionFilter}, so a backtest of one
+ * ticker over a week opens just those 5 files irrespective of the size of the archive.
+ * </p>
+ * <p>
+ * {@link SegmentCompactor} merges the small partitions of a ticker into segments that span multiple dates, so
+ * a partition that matches a filter can have rows of the dates outside of it. {@link #read(PartitionFilter)}
+ * drops those rows, {@link #map(PartitionFilter)} maps the whole segment.
+ * </p>
+ */
+@Slf4j
+public class PartitionedDataset {
+    static final String MANIFEST = "manifest.csv";
+    private static final String[] HEADER = {"ticker", "date", "end_date", "path", "rows", "min_time", "max_time"};
+
+    private static final Comparator<Partition> ORDER = Comparator.comparing(Partition::getTicker)
+            .thenComparing(Partition::getDate)
+            .thenComparingLong(Partition::getMinTime);
+
+    private final File root;
+    private final List<Partition> partitions;
+
+    private PartitionedDataset(File root, List<Partition> partitions) {
+        this.root = root;
+        this.partitions = partitions;
+    }
+
+    public static PartitionedDataset open(File root) {
+        File manifest = new File(root, MANIFEST);
+        if (!manifest.exists()) {
+            throw new IllegalArgumentException("No manifest found in " + root.getAbsolutePath());
+        }
+        return new PartitionedDataset(root, readManifest(root));
+    }
+
+    public File getRoot() {
+        return root;
+    }
+
+    /**
+     * @return All the partitions, ordered by (ticker, date, min time)
+     */
+    public List<Partition> partitions() {
+        return partitions;
+    }
+
+    /**
+     * @param filter Partitions that we want to read
+     * @return Matching partitions, ordered by (ticker, date, min time)
+     */
+    public List<Partition> partitions(PartitionFilter filter) {
+        return partitions.stream().filter(filter::test).collect(Collectors.toList());
+    }
+
+    /**
+     * @return Names of all the tickers in the dataset
+     */
+    public Set<String> tickers() {
+        return partitions.stream().map(Partition::getTicker).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    public File file(Partition partition) {
+        return new File(root, partition.getPath());
+    }
+
+    /**
+     * Memory maps the matching partitions, see {@link MappedDataset}. The result can be passed as is to
+     * {@code TickIndex.of(...)}.
+     *
+     * @param filter Partitions that we want to read
+     * @return One MappedDataset per partition, they should be closed once we're done with them
+     */
+    public List<MappedDataset> map(PartitionFilter filter) {
+        List<MappedDataset> datasets = new ArrayList<>();
+        List<Partition> matching = partitions(filter);
+        log.debug("Mapping {} of {} partitions", matching.size(), partitions.size());
+        try {
+            for (Partition partition : matching) {
+                datasets.add(MappedDataset.open(file(partition)));
+            }
+        } catch (RuntimeException e) {
+            datasets.forEach(MappedDataset::close);
+            throw e;
+        }
+        return datasets;
+    }
+
+    /**
+     * Reads the matching partitions into a single Table, ordered by (ticker, date).
+     *
+     * @param filter Partitions that we want to read
+     * @return Table with all the rows of the matching partitions that are within the filter's dates
+     */
+    public Table read(PartitionFilter filter) {
+        Table table = null;
+        for (Partition partition : partitions(filter)) {
+            BatchFilter rows = BatchFilter.all();
+            if (!partition.within(filter.getFrom(), filter.getTo())) {
+                // compacted segment that spans more dates than we asked for, its zone maps let us skip the other dates
+                rows = rows.between(filter.getFrom().atStartOfDay(), filter.getTo().atTime(LocalTime.MAX));
+            }
+            Table read = new DataReader(file(partition)).read(rows);
+            table = (table == null) ? read : table.append(read);
+        }
+        return table == null ? Table.create() : table;
+    }
+
+    /**
+     * Removes all the segments of the tickers from the dataset, the manifest is updated before the files are
+     * deleted.
+     *
+     * @param root    Root of the dataset
+     * @param tickers Tickers to remove
+     * @return Segments that were removed
+     */
+    public static List<Partition> dropTickers(File root, Set<String> tickers) {
+        List<Partition> dropped = new ArrayList<>();
+        updateManifest(root, current -> {
+            List<Partition> kept = new ArrayList<>();
+            for (Partition partition : current) {
+                (tickers.contains(partition.getTicker()) ? dropped : kept).add(partition);
+            }
+            return kept;
+        });
+        for (Partition partition : dropped) {
+            File file = new File(root, partition.getPath());
+            if (!file.delete()) {
+                log.warn("Couldn't delete the dropped segment {}", file.getAbsolutePath());
+            }
+        }
+        return dropped;
+    }
+
+    static List<Partition> readManifest(File root) {
+        File manifest = new File(root, MANIFEST);
+        List<Partition> partitions = new ArrayList<>();
+        if (!manifest.exists()) {
+            return partitions;
+        }
+        try (Reader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+            // the header is read from the file, so we can read the manifests that don't have the newer columns
+            CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build();
+            for (CSVRecord record : format.parse(reader)) {
+                LocalDate date = LocalDate.parse(record.get("date"));
+                partitions.add(new Partition(
+                        record.get("ticker"),
+                        date,
+                        record.isMapped("end_date") ? LocalDate.parse(record.get("end_date")) : date,
+                        record.get("path"),
+                        Long.parseLong(record.get("rows")),
+                        Long.parseLong(record.get("min_time")),
+                        Long.parseLong(record.get("max_time"))
+                ));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        partitions.sort(ORDER);
+        return partitions;
+    }
+
+    /**
+     * Applies the update on the current manifest while holding the lock on it, so concurrent writers and
+     * compactions don't lose each other's changes.
+     *
+     * @param update Returns the new list of partitions given the current one
+     * @return Partitions in the new manifest
+     */
+    static List<Partition> updateManifest(File root, UnaryOperator<List<Partition>> update) {
+        try (ManifestLock ignored = ManifestLock.acquire(root)) {
+            List<Partition> partitions = update.apply(readManifest(root));
+            writeManifest(root, partitions);
+            return partitions;
+        }
+    }
+
+    /**
+     * Writes the manifest to a temporary file and moves it in place, so readers never see a partial manifest.
+     */
+    static void writeManifest(File root, Collection<Partition> partitions) {
+        List<Partition> sorted = new ArrayList<>(partitions);
+        sorted.sort(ORDER);
+        Path manifest = new File(root, MANIFEST).toPath();
+        Path temp = new File(root, MANIFEST + ".tmp").toPath();
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8);
+                 CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(HEADER).build())) {
+                for (Partition partition : sorted) {
+                    printer.printRecord(partition.getTicker(), partition.getDate(), partition.getEndDate(), partition.getPath(),
+                            partition.getRows(), partition.getMinTime(), partition.getMaxTime());
+                }
+            }
+            Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
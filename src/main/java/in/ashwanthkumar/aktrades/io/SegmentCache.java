@@ -0,0 +1,281 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.metrics.Counter;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Size bounded cache of the decoded segments of {@link PartitionedDataset}s, for a JVM that runs many backtests
+ * over the same data.
+ * <p>
+ * Every segment - a (ticker, trading date) partition, or a few dates of a ticker once compacted - is opened as a
+ * {@link MappedDataset} with all its batches mapped and decompressed off-heap, once. The backtests {@link #acquire}
+ * the segments they need and get the same datasets, so a repeated or an overlapping backtest needs no decoding
+ * and no new allocator. A segment is pinned (reference counted) while a {@link Lease} holds it and only the
+ * unpinned segments are evicted, least recently used first, when the cache is over its size. The size of a
+ * segment is its mapped file plus its decompressed buffers.
+ * </p>
+ * <p>
+ * A segment file that changed on the disk (eg. it was rewritten) is reloaded, the backtests that hold the old one
+ * keep using it till they release it.
+ * </p>
+ */
+@Slf4j
+public class SegmentCache implements AutoCloseable {
+    public static final String HITS = "segment.cache.hits";
+    public static final String MISSES = "segment.cache.misses";
+    public static final String EVICTIONS = "segment.cache.evictions";
+
+    private final long maxBytes;
+    // in the order of access, the least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long bytes = 0;
+
+    public SegmentCache(long maxBytes) {
+        this(maxBytes, Metrics.global());
+    }
+
+    /**
+     * @param maxBytes Size of the cache, it can go over when the pinned segments are larger
+     * @param metrics  Metrics to count the hits, misses and evictions in
+     */
+    public SegmentCache(long maxBytes, Metrics metrics) {
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes should be positive, but was %s", maxBytes);
+        this.maxBytes = maxBytes;
+        this.hits = metrics.counter(HITS);
+        this.misses = metrics.counter(MISSES);
+        this.evictions = metrics.counter(EVICTIONS);
+    }
+
+    /**
+     * Pins the segments of the dataset that match the filter, loading the ones that aren't cached.
+     *
+     * @param dataset Dataset to read
+     * @param filter  Partitions that we want to read
+     * @return Lease on the segments, ordered like {@link PartitionedDataset#partitions(PartitionFilter)}. It
+     * should be closed once the backtest is done with them, the datasets shouldn't be closed.
+     */
+    public Lease acquire(PartitionedDataset dataset, PartitionFilter filter) {
+        List<File> files = new ArrayList<>();
+        for (Partition partition : dataset.partitions(filter)) {
+            files.add(dataset.file(partition));
+        }
+        return acquire(files);
+    }
+
+    /**
+     * Pins the segments in the files, loading the ones that aren't cached.
+     */
+    public Lease acquire(List<File> files) {
+        List<Entry> pinned = new ArrayList<>(files.size());
+        try {
+            for (File file : files) {
+                pinned.add(pin(file));
+            }
+        } catch (RuntimeException e) {
+            pinned.forEach(this::unpin);
+            throw e;
+        }
+        return new Lease(pinned);
+    }
+
+    /**
+     * @return Size of the cached segments in bytes
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Number of cached segments
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Closes all the segments that aren't pinned, the pinned ones are closed when they're released.
+     */
+    @Override
+    public synchronized void close() {
+        for (Entry entry : entries.values()) {
+            entry.removed = true;
+            if (entry.pins == 0) {
+                entry.close();
+            }
+        }
+        entries.clear();
+        bytes = 0;
+    }
+
+    private Entry pin(File file) {
+        String key = file.getAbsolutePath();
+        Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && !entry.isCurrent(file)) {
+                remove(entry);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(key, file.length(), file.lastModified());
+                entries.put(key, entry);
+                load = true;
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            entry.pins++;
+        }
+
+        if (load) {
+            // loaded outside the lock, the others that want the segment wait on its future
+            try {
+                MappedDataset dataset = MappedDataset.open(file);
+                dataset.batches();
+                synchronized (this) {
+                    entry.bytes = entry.length + dataset.allocatedBytes();
+                    if (!entry.removed) {
+                        bytes += entry.bytes;
+                    }
+                }
+                entry.dataset.complete(dataset);
+                synchronized (this) {
+                    evict();
+                }
+            } catch (RuntimeException e) {
+                entry.dataset.completeExceptionally(e);
+                synchronized (this) {
+                    entry.pins--;
+                    if (entries.get(key) == entry) {
+                        entries.remove(key);
+                    }
+                }
+                throw e;
+            }
+        } else {
+            try {
+                entry.dataset.join();
+            } catch (CompletionException e) {
+                unpin(entry);
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        return entry;
+    }
+
+    private synchronized void unpin(Entry entry) {
+        entry.pins--;
+        if (entry.pins == 0) {
+            if (entry.removed) {
+                entry.close();
+            } else {
+                evict();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used segments that aren't pinned till we're within the size.
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.pins == 0) {
+                iterator.remove();
+                entry.removed = true;
+                bytes -= entry.bytes;
+                entry.close();
+                evictions.increment();
+                log.debug("Evicted {} of {} bytes", entry.key, entry.bytes);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry from the cache, it's closed once it's not pinned.
+     */
+    private void remove(Entry entry) {
+        entries.remove(entry.key);
+        entry.removed = true;
+        bytes -= entry.bytes;
+        if (entry.pins == 0) {
+            entry.close();
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        private final long length;
+        private final long modified;
+        private final CompletableFuture<MappedDataset> dataset = new CompletableFuture<>();
+        // guarded by the cache
+        private long bytes = 0;
+        private int pins = 0;
+        private boolean removed = false;
+
+        Entry(String key, long length, long modified) {
+            this.key = key;
+            this.length = length;
+            this.modified = modified;
+        }
+
+        boolean isCurrent(File file) {
+            return file.length() == length && file.lastModified() == modified;
+        }
+
+        void close() {
+            // an entry is closed only when it's not pinned, i.e. it has finished loading
+            MappedDataset loaded = dataset.getNow(null);
+            if (loaded != null) {
+                loaded.close();
+            }
+        }
+    }
+
+    /**
+     * Segments pinned by a backtest, they stay in the cache till the lease is closed.
+     */
+    public class Lease implements AutoCloseable {
+        private final List<Entry> pinned;
+        private final List<MappedDataset> datasets;
+        private boolean closed = false;
+
+        private Lease(List<Entry> pinned) {
+            this.pinned = pinned;
+            this.datasets = new ArrayList<>(pinned.size());
+            for (Entry entry : pinned) {
+                datasets.add(entry.dataset.join());
+            }
+        }
+
+        /**
+         * @return Datasets of the segments, they can be passed as is to {@code TickIndex.of(...)}
+         */
+        public List<MappedDataset> datasets() {
+            return datasets;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                pinned.forEach(SegmentCache.this::unpin);
+            }
+        }
+    }
+}
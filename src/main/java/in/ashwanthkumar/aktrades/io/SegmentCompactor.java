@@ -0,0 +1,224 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tech.tablesaw.api.DateTimeColumn;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.selection.BitmapBackedSelection;
+import tech.tablesaw.selection.Selection;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Merges the small segments of a {@link PartitionedDataset} into larger sorted ones.
+ * <p>
+ * Imports write a segment per (ticker, trading date), which for most tickers is a few hundred rows. For each
+ * ticker, the compactor merges runs of consecutive small segments into a single segment of at most
+ * {@code targetRows} rows, and always merges the segments that overlap in time (eg. a late file for a day that
+ * was already imported), so the rows of a ticker are in time order across its segments. Rows of a merged segment
+ * that repeat a Time are dropped, they come from a source file that was imported twice - the segments of an import
+ * are added to the manifest before its {@link ImportCatalog} is saved, and a crash in between imports the files
+ * again the next time.
+ * </p>
+ * <p>
+ * The merged segments are written next to the existing ones and swapped into the manifest under the manifest
+ * lock, so it's safe to run while new files are being imported. The replaced segments are deleted after the
+ * swap, datasets that are already mapped keep working off their open files.
+ * </p>
+ */
+@Slf4j
+public class SegmentCompactor {
+    public static final long DEFAULT_SMALL_SEGMENT_ROWS = 16 * 1024;
+    public static final long DEFAULT_TARGET_ROWS = 512 * 1024;
+    private static final String TIME = "Time";
+
+    private final File root;
+    private final Set<String> categoricalColumns;
+    private final Compression compression;
+    private final long smallSegmentRows;
+    private final long targetRows;
+
+    public SegmentCompactor(File root, Set<String> categoricalColumns) {
+        this(root, categoricalColumns, Compression.NONE);
+    }
+
+    public SegmentCompactor(File root, Set<String> categoricalColumns, Compression compression) {
+        this(root, categoricalColumns, compression, DEFAULT_SMALL_SEGMENT_ROWS, DEFAULT_TARGET_ROWS);
+    }
+
+    public SegmentCompactor(File root, Set<String> categoricalColumns, long smallSegmentRows, long targetRows) {
+        this(root, categoricalColumns, Compression.NONE, smallSegmentRows, targetRows);
+    }
+
+    /**
+     * @param root               Root of the dataset
+     * @param categoricalColumns Categorical columns of the dataset, to write the merged segments with
+     * @param compression        Compression of the dataset, to write the merged segments with
+     * @param smallSegmentRows   Segments with fewer rows than this are merged
+     * @param targetRows         Maximum number of rows in a merged segment (unless it has overlapping segments)
+     */
+    public SegmentCompactor(File root, Set<String> categoricalColumns, Compression compression, long smallSegmentRows, long targetRows) {
+        Preconditions.checkArgument(smallSegmentRows <= targetRows, "smallSegmentRows (%s) should be at most targetRows (%s)", smallSegmentRows, targetRows);
+        this.root = root;
+        this.categoricalColumns = categoricalColumns;
+        this.compression = compression;
+        this.smallSegmentRows = smallSegmentRows;
+        this.targetRows = targetRows;
+    }
+
+    /**
+     * Runs the compaction on a background thread.
+     *
+     * @return Future that completes when the compaction is done
+     */
+    public CompletableFuture<CompactionStats> compactInBackground() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("compaction-%d")
+                .setDaemon(true)
+                .build());
+        CompletableFuture<CompactionStats> future = CompletableFuture.supplyAsync(this::compact, executor);
+        executor.shutdown();
+        return future;
+    }
+
+    public CompactionStats compact() {
+        long startTime = System.nanoTime();
+        List<Partition> segments = PartitionedDataset.readManifest(root);
+        Map<String, List<Partition>> segmentsByTicker = segments.stream()
+                .collect(Collectors.groupingBy(Partition::getTicker, TreeMap::new, Collectors.toList()));
+
+        Map<Partition, List<Partition>> merges = new LinkedHashMap<>();
+        long rowsRewritten = 0;
+        for (List<Partition> tickerSegments : segmentsByTicker.values()) {
+            for (List<Partition> group : plan(tickerSegments)) {
+                merges.put(merge(group), group);
+                rowsRewritten += group.stream().mapToLong(Partition::getRows).sum();
+            }
+        }
+
+        List<Partition> replaced = new ArrayList<>();
+        List<Partition> skipped = new ArrayList<>();
+        List<Partition> after = PartitionedDataset.updateManifest(root, current -> {
+            Set<String> paths = current.stream().map(Partition::getPath).collect(Collectors.toSet());
+            List<Partition> updated = new ArrayList<>(current);
+            for (Map.Entry<Partition, List<Partition>> merge : merges.entrySet()) {
+                List<Partition> inputs = merge.getValue();
+                if (inputs.stream().allMatch(input -> paths.contains(input.getPath()))) {
+                    updated.removeAll(inputs);
+                    updated.add(merge.getKey());
+                    replaced.addAll(inputs);
+                } else {
+                    // someone else changed these segments after we read the manifest
+                    skipped.add(merge.getKey());
+                }
+            }
+            return updated;
+        });
+        for (Partition partition : replaced) {
+            delete(partition);
+        }
+        for (Partition partition : skipped) {
+            delete(partition);
+        }
+
+        CompactionStats stats = new CompactionStats(segments.size(), after.size(), merges.size() - skipped.size(),
+                rowsRewritten, System.nanoTime() - startTime);
+        log.info("Compacted {}", stats);
+        return stats;
+    }
+
+    /**
+     * @param segments Segments of a ticker ordered by time
+     * @return Groups of 2 or more segments that should be merged
+     */
+    List<List<Partition>> plan(List<Partition> segments) {
+        List<List<Partition>> groups = new ArrayList<>();
+        List<Partition> group = new ArrayList<>();
+        long groupRows = 0;
+        long groupMaxTime = Long.MIN_VALUE;
+        boolean groupIsSmall = true;
+        for (Partition segment : segments) {
+            boolean overlaps = !group.isEmpty() && segment.getMinTime() <= groupMaxTime;
+            boolean fits = groupIsSmall && segment.getRows() < smallSegmentRows && groupRows + segment.getRows() <= targetRows;
+            if (group.isEmpty() || overlaps || fits) {
+                group.add(segment);
+            } else {
+                if (group.size() > 1) {
+                    groups.add(group);
+                }
+                group = new ArrayList<>();
+                group.add(segment);
+                groupRows = 0;
+                groupMaxTime = Long.MIN_VALUE;
+                groupIsSmall = true;
+            }
+            groupRows += segment.getRows();
+            groupMaxTime = Math.max(groupMaxTime, segment.getMaxTime());
+            groupIsSmall = groupIsSmall && segment.getRows() < smallSegmentRows;
+        }
+        if (group.size() > 1) {
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    private Partition merge(List<Partition> group) {
+        Table table = null;
+        for (Partition segment : group) {
+            Table rows = new DataReader(new File(root, segment.getPath())).read();
+            table = (table == null) ? rows : table.append(rows);
+        }
+        Table unique = dropDuplicateTimes(table.sortAscendingOn(TIME));
+        if (unique.rowCount() < table.rowCount()) {
+            log.warn("Dropped {} rows of {} that repeat a Time, some files were imported more than once", table.rowCount() - unique.rowCount(), group.get(0).getTicker());
+        }
+        return PartitionedDataWriter.writeSegment(root, group.get(0).getTicker(), unique, categoricalColumns, compression);
+    }
+
+    /**
+     * @param sorted Rows of a ticker sorted on Time
+     * @return Rows without the ones that repeat the Time of the previous row
+     */
+    static Table dropDuplicateTimes(Table sorted) {
+        DateTimeColumn times = sorted.dateTimeColumn(TIME);
+        Selection unique = new BitmapBackedSelection();
+        for (int row = 0; row < sorted.rowCount(); row++) {
+            if (row == 0 || times.getLongInternal(row) != times.getLongInternal(row - 1)) {
+                unique.add(row);
+            }
+        }
+        return unique.size() == sorted.rowCount() ? sorted : sorted.where(unique);
+    }
+
+    private void delete(Partition partition) {
+        File file = new File(root, partition.getPath());
+        if (!file.delete()) {
+            log.warn("Couldn't delete {}", file.getAbsolutePath());
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class CompactionStats {
+        private final int segmentsBefore;
+        private final int segmentsAfter;
+        // number of merged segments that were written
+        private final int merges;
+        private final long rowsRewritten;
+        private final long elapsedNanos;
+
+        @Override
+        public String toString() {
+            return String.format("%d segments into %d (%d merges, %d rows rewritten) in %d ms",
+                    segmentsBefore, segmentsAfter, merges, rowsRewritten, elapsedNanos / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package in.ashwanthkumar.aktrades.io;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.util.Text;
+import tech.tablesaw.api.*;
+import tech.tablesaw.columns.Column;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental counterpart of {@link DataWriter}. Tables (or chunks of rows) are appended one at a time and
+ * every {@code batchSize} rows are flushed to the output as their own Arrow record batch, so the memory we hold
+ * is bounded by the batch size and not the size of the dataset.
+ * <p>
+ * The schema is derived from the first table that's appended, all the subsequent tables should have the same
+ * columns. Categorical columns are dictionary encoded, their dictionaries grow as we see new values and are
+ * written when the writer is closed.
+ * </p>
+ * <p>
+ * Price columns are written as exact ticks (see {@link PriceEncoding}) instead of floats, the base tick of every
+ * batch goes in the footer of the file.
+ * </p>
+ * <p>
+ * The footer also describes the dataset - its categorical columns, sort keys and the per-batch zone maps of the
+ * timestamp, categorical and price columns (see {@link DatasetMetadata}), so readers configure themselves from
+ * the file and can skip the batches that don't match a {@link BatchFilter}.
+ * </p>
+ */
+@Slf4j
+public class StreamingDataWriter implements DatasetWriter {
+    public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+    // we encode the categorical values as UInt2, the last code is left for the missing values of a CategoricalColumn
+    private static final int MAX_DICTIONARY_SIZE = CategoricalColumn.MISSING;
+    public static final Set<String> DEFAULT_PRICE_COLUMNS = Set.of("Open", "High", "Low", "Close");
+    // prices are stored in paise
+    public static final int DEFAULT_PRICE_SCALE = 100;
+
+    private final File output;
+    private final Set<String> categoricalColumns;
+    private final Set<String> priceColumns;
+    private final int priceScale;
+    private final Compression compression;
+    private final int batchSize;
+    private final BufferAllocator allocator = new RootAllocator();
+    private final DictionaryProvider.MapDictionaryProvider dictProvider = new DictionaryProvider.MapDictionaryProvider();
+    private final Map<String, String> metaData = new HashMap<>();
+
+    private List<ColumnAppender> appenders;
+    private VectorSchemaRoot root;
+    private FileOutputStream out;
+    private DeferredDictionaryFileWriter writer;
+    private int rowsInBatch = 0;
+    private long rowsWritten = 0;
+    private int batchesWritten = 0;
+
+    public StreamingDataWriter(File output, Set<String> categoricalColumns) {
+        this(output, categoricalColumns, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param output             File to write the dataset to
+     * @param categoricalColumns List of StringColumns in the table that have categorical values.
+     *                           These values have less cardinality and are persisted using dictionary
+     *                           encoding to save space.
+     * @param batchSize          Maximum number of rows in each record batch
+     */
+    public StreamingDataWriter(File output, Set<String> categoricalColumns, int batchSize) {
+        this(output, categoricalColumns, Compression.NONE, batchSize);
+    }
+
+    /**
+     * @param output             File to write the dataset to
+     * @param categoricalColumns List of StringColumns in the table that have categorical values.
+     * @param compression        Compression of the record batches
+     * @param batchSize          Maximum number of rows in each record batch
+     */
+    public StreamingDataWriter(File output, Set<String> categoricalColumns, Compression compression, int batchSize) {
+        this(output, categoricalColumns, DEFAULT_PRICE_COLUMNS, DEFAULT_PRICE_SCALE, compression, batchSize);
+    }
+
+    /**
+     * @param output             File to write the dataset to
+     * @param categoricalColumns List of StringColumns in the table that have categorical values.
+     * @param priceColumns       List of DoubleColumns in the table that are written as exact ticks, the other
+     *                           DoubleColumns are written as floats
+     * @param priceScale         Number of ticks per unit of the price, the prices are rounded to the nearest tick
+     * @param compression        Compression of the record batches
+     * @param batchSize          Maximum number of rows in each record batch
+     */
+    public StreamingDataWriter(File output, Set<String> categoricalColumns, Set<String> priceColumns, int priceScale,
+                               Compression compression, int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "batchSize should be positive, but was %s", batchSize);
+        Preconditions.checkArgument(priceScale > 0, "priceScale should be positive, but was %s", priceScale);
+        this.output = output;
+        this.categoricalColumns = categoricalColumns;
+        this.priceColumns = priceColumns;
+        this.priceScale = priceScale;
+        this.compression = compression;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Appends all the rows in the table.
+     *
+     * @param table Table (or a chunk of rows) to write
+     */
+    @Override
+    public void append(Table table) {
+        append(table, 0, table.rowCount());
+    }
+
+    /**
+     * Appends the rows [fromRow, toRow) of the table.
+     *
+     * @param table   Table to write the rows from
+     * @param fromRow Index of the first row to write (inclusive)
+     * @param toRow   Index of the last row to write (exclusive)
+     */
+    public void append(Table table, int fromRow, int toRow) {
+        if (appenders == null) {
+            start(table);
+        }
+        List<Column<?>> columns = new ArrayList<>(appenders.size());
+        for (ColumnAppender appender : appenders) {
+            Preconditions.checkArgument(table.containsColumn(appender.name), "Column %s is missing in the table", appender.name);
+            columns.add(table.column(appender.name));
+        }
+
+        for (int row = fromRow; row < toRow; row++) {
+            for (int i = 0; i < appenders.size(); i++) {
+                appenders.get(i).append(columns.get(i), row, rowsInBatch);
+            }
+            rowsInBatch++;
+            if (rowsInBatch == batchSize) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Writes the pending rows as a record batch, even if the batch isn't full yet.
+     */
+    public void flush() {
+        if (rowsInBatch == 0) {
+            return;
+        }
+        try {
+            for (ColumnAppender appender : appenders) {
+                appender.finish(rowsInBatch);
+                appender.vector.setValueCount(rowsInBatch);
+                if (appender.zoneMap != null) {
+                    appender.zoneMap.endBatch();
+                }
+            }
+            root.setRowCount(rowsInBatch);
+            writer.writeBatch();
+            rowsWritten += rowsInBatch;
+            batchesWritten++;
+            rowsInBatch = 0;
+            for (ColumnAppender appender : appenders) {
+                appender.vector.reset();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public int getBatchesWritten() {
+        return batchesWritten;
+    }
+
+    /**
+     * Custom metadata that is written to the footer of the file when the writer is closed.
+     *
+     * @return Mutable map of the metadata
+     */
+    public Map<String, String> getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (appenders != null) {
+                flush();
+                List<String> categorical = new ArrayList<>();
+                List<String> sortKeys = new ArrayList<>();
+                for (ColumnAppender appender : appenders) {
+                    if (appender instanceof PriceAppender) {
+                        metaData.put(PriceEncoding.basesKey(appender.name), PriceEncoding.formatBases(((PriceAppender) appender).bases));
+                    }
+                    if (appender instanceof CategoricalAppender) {
+                        categorical.add(appender.name);
+                    }
+                    if (appender instanceof DateTimeAppender && appender.zoneMap.isSorted()) {
+                        sortKeys.add(appender.name);
+                    }
+                    if (appender.zoneMap != null) {
+                        metaData.put(DatasetMetadata.zoneMapKey(appender.name), appender.zoneMap.format());
+                    }
+                }
+                metaData.put(DatasetMetadata.CATEGORICAL, DatasetMetadata.join(categorical));
+                metaData.put(DatasetMetadata.SORT_KEYS, DatasetMetadata.join(sortKeys));
+                writer.end();
+                log.debug("Bytes written: " + writer.bytesWritten());
+                log.debug("Rows written: " + rowsWritten + " in " + batchesWritten + " batches");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            List<AutoCloseable> closeables = new ArrayList<>();
+            closeables.add(writer);
+            closeables.add(out);
+            closeables.add(root);
+            for (long id : dictProvider.getDictionaryIds()) {
+                closeables.add(dictProvider.lookup(id).getVector());
+            }
+            closeables.add(allocator);
+            try {
+                AutoCloseables.close(closeables);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void start(Table table) {
+        long dictId = 1;
+        Set<Long> dictionaryIds = new LinkedHashSet<>();
+        appenders = new ArrayList<>();
+        for (Column<?> column : table.columns()) {
+            ColumnType type = ColumnType.valueOf(column.type().name());
+            if (type.equals(ColumnType.DOUBLE) && priceColumns.contains(column.name())) {
+                FieldType fieldType = new FieldType(true, new ArrowType.Int(32, true), null, PriceEncoding.fieldMetadata(priceScale));
+                appenders.add(new PriceAppender(column.name(), new IntVector(column.name(), fieldType, allocator), priceScale, batchSize));
+            } else if (type.equals(ColumnType.DOUBLE)) {
+                appenders.add(new DoubleAppender(column.name(), new Float4Vector(column.name(), allocator)));
+            } else if (type.equals(ColumnType.STRING)) {
+                if (categoricalColumns.contains(column.name())) {
+                    DictionaryEncoding encoding = new DictionaryEncoding(dictId++, false, new ArrowType.Int(16, false));
+                    VarCharVector dictVector = new VarCharVector(column.name() + "-dict", allocator);
+                    dictVector.allocateNew();
+                    dictProvider.put(new Dictionary(dictVector, encoding));
+                    dictionaryIds.add(encoding.getId());
+                    UInt2Vector codes = new UInt2Vector(column.name(), new FieldType(true, encoding.getIndexType(), encoding), allocator);
+                    appenders.add(new CategoricalAppender(column.name(), codes, dictVector));
+                } else {
+                    appenders.add(new StringAppender(column.name(), new VarCharVector(column.name(), allocator)));
+                }
+            } else if (type.equals(ColumnType.INTEGER)) {
+                appenders.add(new IntAppender(column.name(), new IntVector(column.name(), allocator)));
+            } else if (type.equals(ColumnType.LOCAL_DATE_TIME)) {
+                appenders.add(new DateTimeAppender(column.name(), new TimeStampSecVector(column.name(), allocator)));
+            } else if (type.equals(ColumnType.BOOLEAN)) {
+                appenders.add(new BooleanAppender(column.name(), new BitVector(column.name(), allocator)));
+            }
+            // TODO: Add more types as we have a need for them.
+        }
+
+        List<FieldVector> vectors = appenders.stream().map(appender -> appender.vector).collect(Collectors.toList());
+        for (FieldVector vector : vectors) {
+            vector.setInitialCapacity(batchSize);
+            vector.allocateNew();
+        }
+        root = new VectorSchemaRoot(vectors.stream().map(ValueVector::getField).collect(Collectors.toList()), vectors, 0);
+        try {
+            out = new FileOutputStream(output);
+            writer = new DeferredDictionaryFileWriter(root, dictProvider, dictionaryIds, Channels.newChannel(out), metaData, compression.codec());
+            writer.start();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private abstract static class ColumnAppender {
+        final String name;
+        final FieldVector vector;
+        // only for the columns that we keep a zone map of
+        final DatasetMetadata.ZoneMapBuilder zoneMap;
+
+        ColumnAppender(String name, FieldVector vector) {
+            this(name, vector, null);
+        }
+
+        ColumnAppender(String name, FieldVector vector, DatasetMetadata.ZoneMapBuilder zoneMap) {
+            this.name = name;
+            this.vector = vector;
+            this.zoneMap = zoneMap;
+        }
+
+        /**
+         * @param column Column to read the value from
+         * @param row    Row in the column
+         * @param index  Index in the current batch to write the value to
+         */
+        abstract void append(Column<?> column, int row, int index);
+
+        /**
+         * Called before the batch is written.
+         *
+         * @param rows Number of rows in the batch
+         */
+        void finish(int rows) {
+        }
+    }
+
+    /**
+     * Holds the ticks of the batch till it's written, the column gets the offsets from the smallest tick.
+     */
+    // offsets are written as full Int32s, see PriceEncoding on why they're left to the compression to shrink
+    private static class PriceAppender extends ColumnAppender {
+        private final int scale;
+        private final long[] ticks;
+        private final List<Long> bases = new ArrayList<>();
+
+        PriceAppender(String name, IntVector vector, int scale, int batchSize) {
+            super(name, vector, new DatasetMetadata.ZoneMapBuilder());
+            this.scale = scale;
+            this.ticks = new long[batchSize];
+        }
+
+        @Override
+        void append(Column<?> column, int row, int index) {
+            if (column.isMissing(row)) {
+                ((IntVector) vector).setNull(index);
+                return;
+            }
+            long tick = PriceEncoding.toTicks(((DoubleColumn) column).getDouble(row), scale);
+            ticks[index] = tick;
+            zoneMap.add(tick);
+            // marks the row as not null, the value is set once we know the base
+            ((IntVector) vector).setSafe(index, 0);
+        }
+
+        @Override
+        void finish(int rows) {
+            long min = zoneMap.batchMin();
+            long max = zoneMap.batchMax();
+            long base = min == Long.MAX_VALUE ? 0 : min;
+            Preconditions.checkState(max == Long.MIN_VALUE || max - base <= Integer.MAX_VALUE,
+                    "Prices of %s in the batch range from %s to %s ticks, that's too wide to encode", name, min, max);
+            IntVector offsets = (IntVector) vector;
+            for (int i = 0; i < rows; i++) {
+                if (!offsets.isNull(i)) {
+                    offsets.set(i, (int) (ticks[i] - base));
+                }
+            }
+            bases.add(base);
+        }
+    }
+
+    private static class DoubleAppender extends ColumnAppender {
+        DoubleAppender(String name, Float4Vector vector) {
+            super(name, vector);
+        }
+
+        @Override
+        void append(Column<?> column, int row, int index) {
+            if (column.isMissing(row)) {
+                ((Float4Vector) vector).setNull(index);
+            } else {
+                ((Float4Vector) vector).setSafe(index, (float) ((DoubleColumn) column).getDouble(row));
+            }
+        }
+    }
+
+    private static class IntAppender extends ColumnAppender {
+        IntAppender(String name, IntVector vector) {
+            super(name, vector);
+        }
+
+        @Override
+        void append(Column<?> column, int row, int index) {
+            if (column.isMissing(row)) {
+                ((IntVector) vector).setNull(index);
+            } else {
+                ((IntVector) vector).setSafe(index, ((IntColumn) column).getInt(row));
+            }
+        }
+    }
+
+    private static class DateTimeAppender extends ColumnAppender {
+        DateTimeAppender(String name, TimeStampSecVector vector) {
+            super(name, vector, new DatasetMetadata.ZoneMapBuilder());
+        }
+
+        @Override
+        void append(Column<?> column, int row, int index) {
+            LocalDateTime value = ((DateTimeColumn) column).get(row);
+            if (value == null) {
+                ((TimeStampSecVector) vector).setNull(index);
+            } else {
+                long epochSecond = value.toEpochSecond(ZoneOffset.UTC);
+                ((TimeStampSecVector) vector).setSafe(index, epochSecond);
+                zoneMap.add(epochSecond);
+            }
+        }
+    }
+
+    private static class BooleanAppender extends ColumnAppender {
+        BooleanAppender(String name, BitVector vector) {
+            super(name, vector);
+        }
+
+        @Override
+        void append(Column<?> column, int row, int index) {
+            Boolean value = ((BooleanColumn) column).get(row);
+            if (value == null || !value) {
+                ((BitVector) vector).setNull(index);
+            } else {
+                ((BitVector) vector).setSafe(index, 1);
+            }
+        }
+    }
+
+    private static class StringAppender extends ColumnAppender {
+        StringAppender(String name, VarCharVector vector) {
+            super(name, vector);
+        }
+
+        @Override
+        void append(Column<?> column, int row, int index) {
+            if (column.isMissing(row)) {
+                ((VarCharVector) vector).setNull(index);
+            } else {
+                ((VarCharVector) vector).setSafe(index, new Text(column.getString(row)));
+            }
+        }
+    }
+
+    private static class CategoricalAppender extends ColumnAppender {
+        private final VarCharVector dictionary;
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        CategoricalAppender(String name, UInt2Vector vector, VarCharVector dictionary) {
+            super(name, vector, new DatasetMetadata.ZoneMapBuilder());
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        void append(Column<?> column, int row, int index) {
+            if (column.isMissing(row)) {
+                ((UInt2Vector) vector).setNull(index);
+                return;
+            }
+            String value = column.getString(row);
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                Preconditions.checkState(code < MAX_DICTIONARY_SIZE, "Column %s has more than %s unique values", name, MAX_DICTIONARY_SIZE);
+                dictionary.setSafe(code, new Text(value));
+                dictionary.setValueCount(code + 1);
+                codes.put(value, code);
+            }
+            ((UInt2Vector) vector).setSafe(index, code);
+            zoneMap.add(code);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package in.ashwanthkumar.aktrades.io.view;
+
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+
+/**
+ * View over a boolean column.
+ */
+public class BooleanColumnView implements ColumnView {
+    private final BitVector vector;
+
+    private BooleanColumnView(BitVector vector) {
+        this.vector = vector;
+    }
+
+    public static BooleanColumnView of(FieldVector vector) {
+        if (vector instanceof BitVector) {
+            return new BooleanColumnView((BitVector) vector);
+        }
+        throw new IllegalArgumentException("Unsupported boolean vector " + vector.getClass().getSimpleName() + " for " + vector.getName());
+    }
+
+    @Override
+    public String name() {
+        return vector.getName();
+    }
+
+    @Override
+    public int size() {
+        return vector.getValueCount();
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return vector.isNull(row);
+    }
+
+    /**
+     * DataWriter persists false values as nulls, so we treat missing values as false.
+     *
+     * @param row Index of the row
+     * @return Value at the row
+     */
+    public boolean getBoolean(int row) {
+        return !vector.isNull(row) && vector.get(row) != 0;
+    }
+}
@@ -0,0 +1,23 @@
+package in.ashwanthkumar.aktrades.io.view;
+
+/**
+ * Read-only view of a column that sits directly on top of the Arrow buffers. Views don't copy or box the values,
+ * the typed implementations expose primitive accessors for reading them.
+ */
+public interface ColumnView {
+    /**
+     * @return Name of the column
+     */
+    String name();
+
+    /**
+     * @return Number of values in the column
+     */
+    int size();
+
+    /**
+     * @param row Index of the row
+     * @return true if the value at the row is missing
+     */
+    boolean isNull(int row);
+}
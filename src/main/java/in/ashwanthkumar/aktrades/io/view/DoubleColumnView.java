@@ -0,0 +1,135 @@
+package in.ashwanthkumar.aktrades.io.view;
+
+import com.google.common.base.Preconditions;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+
+/**
+ * View over a floating point column, values stored as floats are widened to double.
+ * <p>
+ * Price columns are stored as scaled integers - an Int32 offset from the base tick of the batch - and are
+ * decoded as {@code (base + offset) / scale}, see {@link #scaled(FieldVector, int, long)}.
+ * </p>
+ */
+public class DoubleColumnView implements ColumnView {
+    private static final int FLOAT4 = 0;
+    private static final int FLOAT8 = 1;
+    private static final int SCALED = 2;
+
+    private final FieldVector vector;
+    private final ArrowBuf data;
+    private final int encoding;
+    private final int scale;
+    private final long base;
+
+    private DoubleColumnView(FieldVector vector, int encoding, int scale, long base) {
+        this.vector = vector;
+        this.data = vector.getDataBuffer();
+        this.encoding = encoding;
+        this.scale = scale;
+        this.base = base;
+    }
+
+    public static DoubleColumnView of(FieldVector vector) {
+        if (vector instanceof Float4Vector) {
+            return new DoubleColumnView(vector, FLOAT4, 0, 0);
+        } else if (vector instanceof Float8Vector) {
+            return new DoubleColumnView(vector, FLOAT8, 0, 0);
+        }
+        throw new IllegalArgumentException("Unsupported floating point vector " + vector.getClass().getSimpleName() + " for " + vector.getName());
+    }
+
+    /**
+     * @param vector Int32 vector with the offset of each tick from the base
+     * @param scale  Number of ticks per unit of the price, eg. 100 for paise
+     * @param base   Tick that the offsets in this batch are relative to
+     */
+    public static DoubleColumnView scaled(FieldVector vector, int scale, long base) {
+        Preconditions.checkArgument(vector instanceof IntVector, "Scaled column %s should be an IntVector, but was %s", vector.getName(), vector.getClass().getSimpleName());
+        Preconditions.checkArgument(scale > 0, "scale should be positive, but was %s", scale);
+        return new DoubleColumnView(vector, SCALED, scale, base);
+    }
+
+    @Override
+    public String name() {
+        return vector.getName();
+    }
+
+    @Override
+    public int size() {
+        return vector.getValueCount();
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return vector.isNull(row);
+    }
+
+    /**
+     * @return true if the values are stored as exact ticks
+     */
+    public boolean isScaled() {
+        return encoding == SCALED;
+    }
+
+    /**
+     * @return Number of ticks per unit of the price, 0 when the column isn't scaled
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @param row Index of the row
+     * @return Value at the row, the value is undefined when the row is null
+     */
+    public double getDouble(int row) {
+        switch (encoding) {
+            case SCALED:
+                return getTicks(row) / (double) scale;
+            case FLOAT4:
+                return data.getFloat((long) row * Float4Vector.TYPE_WIDTH);
+            default:
+                return data.getDouble((long) row * Float8Vector.TYPE_WIDTH);
+        }
+    }
+
+    /**
+     * @param row Index of the row
+     * @return Exact number of ticks at the row, only for the scaled columns
+     */
+    public long getTicks(int row) {
+        Preconditions.checkState(encoding == SCALED, "Column %s isn't scaled", vector.getName());
+        return base + data.getInt((long) row * IntVector.TYPE_WIDTH);
+    }
+
+    /**
+     * Decodes all the values of the column, nulls are decoded as NaN.
+     *
+     * @param values Array to decode the values into, starting from the offset
+     * @param offset Index in the array for the first row
+     */
+    public void copyTo(double[] values, int offset) {
+        Preconditions.checkArgument(offset + size() <= values.length, "Array of size %s can't hold %s values from %s", values.length, size(), offset);
+        for (int row = 0; row < size(); row++) {
+            values[offset + row] = isNull(row) ? Double.NaN : getDouble(row);
+        }
+    }
+
+    /**
+     * Decodes the exact ticks of all the values of the column, only for the scaled columns. Nulls are decoded as 0.
+     *
+     * @param ticks  Array to decode the ticks into, starting from the offset
+     * @param offset Index in the array for the first row
+     */
+    public void copyTicksTo(long[] ticks, int offset) {
+        Preconditions.checkState(encoding == SCALED, "Column %s isn't scaled", vector.getName());
+        Preconditions.checkArgument(offset + size() <= ticks.length, "Array of size %s can't hold %s values from %s", ticks.length, size(), offset);
+        for (int row = 0; row < size(); row++) {
+            ticks[offset + row] = isNull(row) ? 0 : base + data.getInt((long) row * IntVector.TYPE_WIDTH);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package in.ashwanthkumar.aktrades.io.view;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+
+/**
+ * View over a 32-bit integer column.
+ */
+public class IntColumnView implements ColumnView {
+    private final IntVector vector;
+    private final ArrowBuf data;
+
+    private IntColumnView(IntVector vector) {
+        this.vector = vector;
+        this.data = vector.getDataBuffer();
+    }
+
+    public static IntColumnView of(FieldVector vector) {
+        if (vector instanceof IntVector) {
+            return new IntColumnView((IntVector) vector);
+        }
+        throw new IllegalArgumentException("Unsupported int vector " + vector.getClass().getSimpleName() + " for " + vector.getName());
+    }
+
+    @Override
+    public String name() {
+        return vector.getName();
+    }
+
+    @Override
+    public int size() {
+        return vector.getValueCount();
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return vector.isNull(row);
+    }
+
+    /**
+     * @param row Index of the row
+     * @return Value at the row, the value is undefined when the row is null
+     */
+    public int getInt(int row) {
+        return data.getInt((long) row * IntVector.TYPE_WIDTH);
+    }
+}
@@ -0,0 +1,98 @@
+package in.ashwanthkumar.aktrades.io.view;
+
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.dictionary.Dictionary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * View over a string column. Categorical columns are kept dictionary encoded, the dictionary is decoded once
+ * and {@link #getString(int)} returns the same String instance for every row of a value.
+ */
+public class StringColumnView implements ColumnView {
+    private final FieldVector vector;
+    // only set when the column is dictionary encoded
+    private final BaseIntVector codes;
+    private final String[] dictionary;
+
+    private StringColumnView(FieldVector vector, BaseIntVector codes, String[] dictionary) {
+        this.vector = vector;
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    public static StringColumnView of(FieldVector vector) {
+        if (vector instanceof VarCharVector) {
+            return new StringColumnView(vector, null, null);
+        }
+        throw new IllegalArgumentException("Unsupported string vector " + vector.getClass().getSimpleName() + " for " + vector.getName());
+    }
+
+    public static StringColumnView ofDictionary(FieldVector vector, Dictionary dictionary) {
+        if (!(vector instanceof BaseIntVector) || !(dictionary.getVector() instanceof VarCharVector)) {
+            throw new IllegalArgumentException("Unsupported dictionary encoding for " + vector.getName());
+        }
+        VarCharVector values = (VarCharVector) dictionary.getVector();
+        String[] decoded = new String[values.getValueCount()];
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = values.isNull(i) ? null : new String(values.get(i), StandardCharsets.UTF_8);
+        }
+        return new StringColumnView(vector, (BaseIntVector) vector, decoded);
+    }
+
+    @Override
+    public String name() {
+        return vector.getName();
+    }
+
+    @Override
+    public int size() {
+        return vector.getValueCount();
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return vector.isNull(row);
+    }
+
+    public boolean isDictionaryEncoded() {
+        return codes != null;
+    }
+
+    /**
+     * @param row Index of the row
+     * @return Value at the row or null if missing
+     */
+    public String getString(int row) {
+        if (vector.isNull(row)) {
+            return null;
+        }
+        if (codes != null) {
+            return dictionary[getCode(row)];
+        }
+        return new String(((VarCharVector) vector).get(row), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param row Index of the row
+     * @return Dictionary code of the value at the row, the value is undefined when the row is null
+     */
+    public int getCode(int row) {
+        return (int) codes.getValueAsLong(row);
+    }
+
+    /**
+     * @return Dictionary values indexed by their code, empty if the column isn't dictionary encoded
+     */
+    public List<String> dictionary() {
+        if (dictionary == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(dictionary));
+    }
+}
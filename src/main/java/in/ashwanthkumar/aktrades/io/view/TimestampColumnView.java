@@ -0,0 +1,64 @@
+package in.ashwanthkumar.aktrades.io.view;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampSecVector;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * View over a timestamp column stored as seconds since epoch in UTC (see DataWriter).
+ */
+public class TimestampColumnView implements ColumnView {
+    private final TimeStampSecVector vector;
+    private final ArrowBuf data;
+
+    private TimestampColumnView(TimeStampSecVector vector) {
+        this.vector = vector;
+        this.data = vector.getDataBuffer();
+    }
+
+    public static TimestampColumnView of(FieldVector vector) {
+        if (vector instanceof TimeStampSecVector) {
+            return new TimestampColumnView((TimeStampSecVector) vector);
+        }
+        throw new IllegalArgumentException("Unsupported timestamp vector " + vector.getClass().getSimpleName() + " for " + vector.getName());
+    }
+
+    @Override
+    public String name() {
+        return vector.getName();
+    }
+
+    @Override
+    public int size() {
+        return vector.getValueCount();
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return vector.isNull(row);
+    }
+
+    /**
+     * @param row Index of the row
+     * @return Seconds since epoch at the row, the value is undefined when the row is null
+     */
+    public long getEpochSecond(int row) {
+        return data.getLong((long) row * TimeStampSecVector.TYPE_WIDTH);
+    }
+
+    /**
+     * Allocates a new LocalDateTime, prefer {@link #getEpochSecond(int)} on the hot paths.
+     *
+     * @param row Index of the row
+     * @return LocalDateTime at the row or null if missing
+     */
+    public LocalDateTime getDateTime(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(getEpochSecond(row), 0, ZoneOffset.UTC);
+    }
+}
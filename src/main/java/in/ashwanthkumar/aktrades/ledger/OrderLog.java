@@ -0,0 +1,107 @@
+package in.ashwanthkumar.aktrades.ledger;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only, columnar log of the executed orders.
+ * <p>
+ * Every field of the order is stored in its own growable primitive array, so appending an order doesn't
+ * allocate (except when the arrays grow). {@link #asList()} is a read-only view that creates the Orders
+ * on access.
+ * </p>
+ */
+public class OrderLog {
+    private static final OrderOp[] OPS = OrderOp.values();
+    private static final OrderType[] TYPES = OrderType.values();
+
+    private final TickerIds tickerIds;
+    private int size = 0;
+    private int[] ticker = new int[64];
+    private byte[] op = new byte[64];
+    private byte[] type = new byte[64];
+    private int[] quantity = new int[64];
+    private double[] price = new double[64];
+    private double[] triggerPrice = new double[64];
+    private double[] executedPrice = new double[64];
+
+    public OrderLog(TickerIds tickerIds) {
+        this.tickerIds = tickerIds;
+    }
+
+    /**
+     * @param tickerId      Interned id of the order's ticker
+     * @param order         Order that got executed
+     * @param executedPrice Price at which it was executed
+     */
+    public void append(int tickerId, Order order, double executedPrice) {
+        if (size == ticker.length) {
+            grow();
+        }
+        this.ticker[size] = tickerId;
+        this.op[size] = (byte) order.getOp().ordinal();
+        this.type[size] = (byte) order.getOrderType().ordinal();
+        this.quantity[size] = order.getQuantity();
+        this.price[size] = order.getPrice();
+        this.triggerPrice[size] = order.getTriggerPrice();
+        this.executedPrice[size] = executedPrice;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int tickerId(int index) {
+        return ticker[index];
+    }
+
+    public OrderOp op(int index) {
+        return OPS[op[index]];
+    }
+
+    public int quantity(int index) {
+        return quantity[index];
+    }
+
+    public double executedPrice(int index) {
+        return executedPrice[index];
+    }
+
+    public Order get(int index) {
+        return Order.of(tickerIds.name(ticker[index]), OPS[op[index]], TYPES[type[index]], quantity[index], price[index], triggerPrice[index]);
+    }
+
+    public List<Order> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Order get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return OrderLog.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void grow() {
+        int capacity = 2 * ticker.length;
+        ticker = Arrays.copyOf(ticker, capacity);
+        op = Arrays.copyOf(op, capacity);
+        type = Arrays.copyOf(type, capacity);
+        quantity = Arrays.copyOf(quantity, capacity);
+        price = Arrays.copyOf(price, capacity);
+        triggerPrice = Arrays.copyOf(triggerPrice, capacity);
+        executedPrice = Arrays.copyOf(executedPrice, capacity);
+    }
+}
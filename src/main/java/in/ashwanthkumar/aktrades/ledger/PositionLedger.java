@@ -0,0 +1,45 @@
+package in.ashwanthkumar.aktrades.ledger;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.Position;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Keeps track of the open positions and the orders that were executed by a Strategy.
+ * <p>
+ * Positions are closed in FIFO order - an order on the other side of the open positions of a ticker exits
+ * the oldest positions first.
+ * </p>
+ */
+public interface PositionLedger {
+    /**
+     * Records the order and applies it on the open positions of its ticker.
+     *
+     * @param order Order that got executed
+     * @param price Price at which the order was executed
+     */
+    void execute(Order order, double price);
+
+    /**
+     * @return PnL realised by all the positions that were exited so far
+     */
+    double getPnl();
+
+    /**
+     * @return Number of tickers that have open positions
+     */
+    int activePositions();
+
+    /**
+     * @return Open positions of each ticker, in the order in which they'd be exited
+     */
+    Map<String, Queue<Position>> getPositions();
+
+    /**
+     * @return Orders that were executed, in the order of their execution
+     */
+    List<Order> getOrderBook();
+}
@@ -0,0 +1,183 @@
+package in.ashwanthkumar.aktrades.ledger;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.Position;
+
+import java.util.*;
+
+/**
+ * PositionLedger that keeps the open positions in primitive arrays.
+ * <p>
+ * Tickers are interned to int ids and the open lots of each ticker live in a FIFO ring of (quantity, price).
+ * All the lots of a ticker are on the same side, an order on the other side exits the lots from the head of
+ * the ring. Executing an order doesn't allocate (except when a ring or the {@link OrderLog} grows) and
+ * realises exactly the same PnL as {@link QueuePositionLedger}.
+ * </p>
+ * <p>
+ * Unlike QueuePositionLedger, adding to an open position appends a new lot and an order that exits more than
+ * the open quantity opens a position on the other side with the remaining quantity.
+ * </p>
+ */
+public class PrimitivePositionLedger implements PositionLedger {
+    private static final int INITIAL_LOTS = 4;
+
+    private final TickerIds tickerIds = new TickerIds();
+    private final OrderLog orderLog = new OrderLog(tickerIds);
+    // state of each ticker's open lots, indexed by the ticker id
+    private OrderOp[] side = new OrderOp[16];
+    private int[] head = new int[16];
+    private int[] count = new int[16];
+    private int[][] lotQuantity = new int[16][];
+    private double[][] lotPrice = new double[16][];
+    private int activePositions = 0;
+    private double pnl = 0.0;
+
+    @Override
+    public void execute(Order order, double price) {
+        int ticker = tickerIds.intern(order.getTicker());
+        if (ticker == side.length) {
+            growTickers();
+        }
+        orderLog.append(ticker, order, price);
+
+        int remaining = order.getQuantity();
+        if (count[ticker] > 0 && side[ticker] != order.getOp()) {
+            int[] quantities = lotQuantity[ticker];
+            double[] prices = lotPrice[ticker];
+            int mask = quantities.length - 1;
+            while (remaining > 0 && count[ticker] > 0) {
+                int lot = head[ticker];
+                int quantity = Math.min(remaining, quantities[lot]);
+                if (side[ticker] == OrderOp.BUY) {
+                    pnl += (price - prices[lot]) * quantity;
+                } else {
+                    pnl += (prices[lot] - price) * quantity;
+                }
+                quantities[lot] -= quantity;
+                remaining -= quantity;
+                if (quantities[lot] == 0) {
+                    head[ticker] = (lot + 1) & mask;
+                    count[ticker]--;
+                }
+            }
+            if (count[ticker] == 0) {
+                activePositions--;
+            }
+        }
+
+        if (remaining > 0) {
+            addLot(ticker, order.getOp(), remaining, price);
+        }
+    }
+
+    @Override
+    public double getPnl() {
+        return pnl;
+    }
+
+    @Override
+    public int activePositions() {
+        return activePositions;
+    }
+
+    /**
+     * @return Snapshot of the open positions, it isn't updated as more orders are executed
+     */
+    @Override
+    public Map<String, Queue<Position>> getPositions() {
+        Map<String, Queue<Position>> positions = new TreeMap<>(Comparator.naturalOrder());
+        for (int ticker = 0; ticker < tickerIds.size(); ticker++) {
+            if (count[ticker] == 0) {
+                continue;
+            }
+            Queue<Position> lots = new LinkedList<>();
+            int mask = lotQuantity[ticker].length - 1;
+            for (int i = 0; i < count[ticker]; i++) {
+                int lot = (head[ticker] + i) & mask;
+                lots.add(Position.of(tickerIds.name(ticker), side[ticker], lotQuantity[ticker][lot], lotPrice[ticker][lot]));
+            }
+            positions.put(tickerIds.name(ticker), lots);
+        }
+        return positions;
+    }
+
+    /**
+     * @return Read-only view of the orders that were executed
+     */
+    @Override
+    public List<Order> getOrderBook() {
+        return orderLog.asList();
+    }
+
+    public OrderLog getOrderLog() {
+        return orderLog;
+    }
+
+    public TickerIds getTickerIds() {
+        return tickerIds;
+    }
+
+    /**
+     * @param ticker Name of the ticker
+     * @return Net open quantity of the ticker, negative when we're short
+     */
+    public int netQuantity(String ticker) {
+        int id = tickerIds.idOf(ticker);
+        if (id == -1 || count[id] == 0) {
+            return 0;
+        }
+        int mask = lotQuantity[id].length - 1;
+        int quantity = 0;
+        for (int i = 0; i < count[id]; i++) {
+            quantity += lotQuantity[id][(head[id] + i) & mask];
+        }
+        return side[id] == OrderOp.BUY ? quantity : -quantity;
+    }
+
+    private void addLot(int ticker, OrderOp op, int quantity, double price) {
+        if (lotQuantity[ticker] == null) {
+            lotQuantity[ticker] = new int[INITIAL_LOTS];
+            lotPrice[ticker] = new double[INITIAL_LOTS];
+        } else if (count[ticker] == lotQuantity[ticker].length) {
+            growLots(ticker);
+        }
+        if (count[ticker] == 0) {
+            side[ticker] = op;
+            head[ticker] = 0;
+            activePositions++;
+        }
+        int tail = (head[ticker] + count[ticker]) & (lotQuantity[ticker].length - 1);
+        lotQuantity[ticker][tail] = quantity;
+        lotPrice[ticker][tail] = price;
+        count[ticker]++;
+    }
+
+    /**
+     * Doubles the ring of the ticker, the lots are laid out from index 0 in the new ring.
+     */
+    private void growLots(int ticker) {
+        int[] quantities = lotQuantity[ticker];
+        double[] prices = lotPrice[ticker];
+        int capacity = quantities.length;
+        int[] newQuantities = new int[2 * capacity];
+        double[] newPrices = new double[2 * capacity];
+        for (int i = 0; i < count[ticker]; i++) {
+            int lot = (head[ticker] + i) & (capacity - 1);
+            newQuantities[i] = quantities[lot];
+            newPrices[i] = prices[lot];
+        }
+        lotQuantity[ticker] = newQuantities;
+        lotPrice[ticker] = newPrices;
+        head[ticker] = 0;
+    }
+
+    private void growTickers() {
+        int capacity = 2 * side.length;
+        side = Arrays.copyOf(side, capacity);
+        head = Arrays.copyOf(head, capacity);
+        count = Arrays.copyOf(count, capacity);
+        lotQuantity = Arrays.copyOf(lotQuantity, capacity);
+        lotPrice = Arrays.copyOf(lotPrice, capacity);
+    }
+}
@@ -0,0 +1,75 @@
+package in.ashwanthkumar.aktrades.ledger;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.Position;
+import in.ashwanthkumar.aktrades.model.PositionExecutionResult;
+
+import java.util.*;
+
+/**
+ * PositionLedger that keeps a queue of immutable {@link Position}s for each ticker.
+ * <p>
+ * Positions can only be reduced or closed - adding to an open position or exiting more than the open quantity
+ * throws an IllegalArgumentException (see {@link Position#exitWith(Order)}). Use {@link PrimitivePositionLedger}
+ * when the order rate is high.
+ * </p>
+ */
+public class QueuePositionLedger implements PositionLedger {
+    private final Map<String, Queue<Position>> positions = new TreeMap<>(Comparator.naturalOrder());
+    private final List<Order> orderBook = new LinkedList<>();
+    private double pnl = 0.0;
+
+    @Override
+    public void execute(Order order, double ltp) {
+        orderBook.add(order);
+        Queue<Position> currentPositions = positions.getOrDefault(order.getTicker(), new LinkedList<>());
+        if (currentPositions.isEmpty()) {
+            Position newPosition = Position.of(order.getTicker(), order.getOp(), order.getQuantity(), ltp);
+            currentPositions.add(newPosition);
+        } else {
+            boolean orderExecuted = false;
+            while (!orderExecuted && !currentPositions.isEmpty()) {
+                Position position = currentPositions.poll();
+                PositionExecutionResult result = position.exitWith(order.withPrice(ltp));
+                this.pnl += result.getPnl();
+
+                Position newPosition = result.getPosition();
+                orderExecuted = result.orderExecuteFully();
+                if (!orderExecuted) {
+                    // update order ref when it's pending more
+                    order = order.withQuantity(Math.abs(newPosition.getQuantity()));
+                }
+
+                if (newPosition.getQuantity() != 0) {
+                    currentPositions.add(newPosition);
+                }
+            }
+        }
+
+        if (!currentPositions.isEmpty()) {
+            positions.put(order.getTicker(), currentPositions);
+        } else {
+            positions.remove(order.getTicker());
+        }
+    }
+
+    @Override
+    public double getPnl() {
+        return pnl;
+    }
+
+    @Override
+    public int activePositions() {
+        return positions.size();
+    }
+
+    @Override
+    public Map<String, Queue<Position>> getPositions() {
+        return positions;
+    }
+
+    @Override
+    public List<Order> getOrderBook() {
+        return orderBook;
+    }
+}
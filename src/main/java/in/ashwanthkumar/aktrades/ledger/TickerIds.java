@@ -0,0 +1,47 @@
+package in.ashwanthkumar.aktrades.ledger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns ticker names to dense int ids, in the order in which they're first seen.
+ */
+public class TickerIds {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[16];
+
+    /**
+     * @param ticker Name of the ticker
+     * @return Id of the ticker, a new id is assigned if we haven't seen the ticker yet
+     */
+    public int intern(String ticker) {
+        Integer id = ids.get(ticker);
+        if (id == null) {
+            id = ids.size();
+            if (id == names.length) {
+                names = Arrays.copyOf(names, 2 * names.length);
+            }
+            names[id] = ticker;
+            ids.put(ticker, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param ticker Name of the ticker
+     * @return Id of the ticker or -1 if we haven't seen it
+     */
+    public int idOf(String ticker) {
+        Integer id = ids.get(ticker);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,134 @@
+package in.ashwanthkumar.aktrades.live;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.Scrip;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Mutable {@link Scrip} that's a slot of the {@link TickRingBuffer}, the feed reads a tick into it and the strategy
+ * thread hands it to the strategy. Like the other flyweights, the slot is re-used once the strategy returns.
+ * <p>
+ * A tick is a line of comma separated values - {@code ticker,epochSecond,open,high,low,close[,volume[,oi]]} - the
+ * time is the exchange's local time stored as UTC like in the dataset, and an empty volume or oi is missing.
+ * </p>
+ */
+public final class LiveTick implements Scrip {
+    private String name;
+    private long epochSecond;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private boolean hasVolume;
+    private long volume;
+    private boolean hasOi;
+    private long oi;
+    // System.nanoTime() when the tick was published to the ring
+    private long publishedNanos;
+
+    /**
+     * Parses the line into this tick.
+     *
+     * @param line Tick as comma separated values
+     * @return this tick
+     */
+    public LiveTick parse(String line) {
+        String[] values = line.split(",", -1);
+        Preconditions.checkArgument(values.length >= 6 && values.length <= 8, "Expected ticker,epochSecond,open,high,low,close[,volume[,oi]] but got %s", line);
+        name = values[0];
+        epochSecond = Long.parseLong(values[1].trim());
+        open = Double.parseDouble(values[2]);
+        high = Double.parseDouble(values[3]);
+        low = Double.parseDouble(values[4]);
+        close = Double.parseDouble(values[5]);
+        hasVolume = values.length > 6 && !values[6].isBlank();
+        volume = hasVolume ? Long.parseLong(values[6].trim()) : 0;
+        hasOi = values.length > 7 && !values[7].isBlank();
+        oi = hasOi ? Long.parseLong(values[7].trim()) : 0;
+        return this;
+    }
+
+    /**
+     * Copies the values of the scrip into this tick.
+     *
+     * @return this tick
+     */
+    public LiveTick set(Scrip scrip) {
+        name = scrip.getName();
+        epochSecond = scrip.epochSecond();
+        open = scrip.open();
+        high = scrip.high();
+        low = scrip.low();
+        close = scrip.close();
+        hasVolume = scrip.hasVolume();
+        volume = scrip.volumeAsLong();
+        hasOi = scrip.hasOi();
+        oi = scrip.oiAsLong();
+        return this;
+    }
+
+    public long getPublishedNanos() {
+        return publishedNanos;
+    }
+
+    void setPublishedNanos(long publishedNanos) {
+        this.publishedNanos = publishedNanos;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public LocalDateTime instant() {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public long epochSecond() {
+        return epochSecond;
+    }
+
+    @Override
+    public double open() {
+        return open;
+    }
+
+    @Override
+    public double high() {
+        return high;
+    }
+
+    @Override
+    public double low() {
+        return low;
+    }
+
+    @Override
+    public double close() {
+        return close;
+    }
+
+    @Override
+    public boolean hasOi() {
+        return hasOi;
+    }
+
+    @Override
+    public long oiAsLong() {
+        return oi;
+    }
+
+    @Override
+    public boolean hasVolume() {
+        return hasVolume;
+    }
+
+    @Override
+    public long volumeAsLong() {
+        return volume;
+    }
+}
@@ -0,0 +1,57 @@
+package in.ashwanthkumar.aktrades.live;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Feed that reads the ticks - one per line, see {@link LiveTick} - from a socket, a local stand-in for a broker's
+ * streaming API. The feed ends when the other side closes the connection.
+ */
+public class SocketFeed implements TickFeed {
+    private final Socket socket;
+    private final BufferedReader reader;
+    private volatile boolean closed = false;
+
+    /**
+     * Connects to the feed at the host and port.
+     */
+    public SocketFeed(String host, int port) throws IOException {
+        this(new Socket(host, port));
+    }
+
+    public SocketFeed(Socket socket) throws IOException {
+        this.socket = socket;
+        // ticks are small and we want each of them as soon as it's sent
+        socket.setTcpNoDelay(true);
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean next(LiveTick tick) throws IOException {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    tick.parse(line.trim());
+                    return true;
+                }
+            }
+            return false;
+        } catch (SocketException e) {
+            if (closed) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        socket.close();
+    }
+}
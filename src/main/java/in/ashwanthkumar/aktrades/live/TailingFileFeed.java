@@ -0,0 +1,81 @@
+package in.ashwanthkumar.aktrades.live;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Feed that tails a file of ticks - one tick per line, see {@link LiveTick} - like {@code tail -f}.
+ * <p>
+ * When we reach the end of the file we poll it for the lines that are appended later on, till the feed is closed.
+ * A line is read only once it ends with a newline, so a tick that's being written is never read partially.
+ * </p>
+ */
+public class TailingFileFeed implements TickFeed {
+    public static final long DEFAULT_POLL_MILLIS = 1;
+
+    private final InputStream in;
+    private final long pollMillis;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+    private volatile boolean closed = false;
+
+    public TailingFileFeed(File file) {
+        this(file, DEFAULT_POLL_MILLIS);
+    }
+
+    /**
+     * @param file       File to tail, from its beginning
+     * @param pollMillis Time to wait before we look for more lines at the end of the file
+     */
+    public TailingFileFeed(File file, long pollMillis) {
+        try {
+            this.in = new BufferedInputStream(Files.newInputStream(file.toPath()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.pollMillis = pollMillis;
+    }
+
+    @Override
+    public boolean next(LiveTick tick) throws IOException {
+        while (!closed) {
+            int b;
+            try {
+                b = in.read();
+            } catch (IOException e) {
+                if (closed) {
+                    return false;
+                }
+                throw e;
+            }
+            if (b == -1) {
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            } else if (b == '\n') {
+                String value = line.toString(StandardCharsets.UTF_8).trim();
+                line.reset();
+                if (!value.isEmpty()) {
+                    tick.parse(value);
+                    return true;
+                }
+            } else {
+                line.write(b);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        in.close();
+    }
+}
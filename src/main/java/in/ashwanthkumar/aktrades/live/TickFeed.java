@@ -0,0 +1,22 @@
+package in.ashwanthkumar.aktrades.live;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source of the ticks for a live or a paper trading run, eg. {@link TailingFileFeed} or {@link SocketFeed}.
+ * <p>
+ * The feed is read on a thread of its own, which reads each tick straight into a slot of the
+ * {@link TickRingBuffer}. Closing the feed from another thread should make a blocked {@link #next(LiveTick)}
+ * return.
+ * </p>
+ */
+public interface TickFeed extends Closeable {
+    /**
+     * Reads the next tick, blocking till there's one.
+     *
+     * @param tick Tick to read into
+     * @return false if the feed has ended or was closed
+     */
+    boolean next(LiveTick tick) throws IOException;
+}
@@ -0,0 +1,129 @@
+package in.ashwanthkumar.aktrades.live;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-allocated, single-producer single-consumer ring of {@link LiveTick}s between the feed and the strategy
+ * thread.
+ * <p>
+ * The producer claims the next free slot, fills it and publishes it; the consumer polls the next published slot
+ * and releases it once the strategy is done with it. The slots are allocated once and the sequences are ordered
+ * with lazySet (a store-release), so handing off a tick neither allocates nor locks. A full ring makes the
+ * producer wait for the consumer instead of dropping ticks.
+ * </p>
+ */
+public class TickRingBuffer {
+    private final LiveTick[] slots;
+    private final int mask;
+    // next sequence the producer publishes, and the next one the consumer reads - padded to their own cache lines
+    // along with the other side's sequence that the owner has cached
+    private final PaddedSequence published = new PaddedSequence();
+    private final PaddedSequence consumed = new PaddedSequence();
+    private volatile boolean closed = false;
+
+    /**
+     * @param capacity Number of slots, a power of 2
+     */
+    public TickRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity should be a power of 2, but was %s", capacity);
+        this.slots = new LiveTick[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LiveTick();
+        }
+        this.mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Producer: waits for the next slot to be free.
+     *
+     * @return Slot to fill, it's handed to the consumer on {@link #publish()}
+     */
+    public LiveTick claim() {
+        long next = published.get();
+        int spins = 0;
+        while (next - published.cached >= slots.length) {
+            published.cached = consumed.get();
+            if (next - published.cached >= slots.length) {
+                spins = idle(spins);
+            }
+        }
+        return slots[(int) next & mask];
+    }
+
+    /**
+     * Producer: publishes the claimed slot.
+     */
+    public void publish() {
+        long next = published.get();
+        slots[(int) next & mask].setPublishedNanos(System.nanoTime());
+        published.lazySet(next + 1);
+    }
+
+    /**
+     * Producer: no more ticks would be published, the consumer drains the published ones.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Consumer: the next published tick, if there's one.
+     *
+     * @return Tick to handle, null if there's none yet. It should be {@link #release()}d once it's handled.
+     */
+    public LiveTick poll() {
+        long next = consumed.get();
+        if (next == consumed.cached) {
+            consumed.cached = published.get();
+            if (next == consumed.cached) {
+                return null;
+            }
+        }
+        return slots[(int) next & mask];
+    }
+
+    /**
+     * Consumer: frees the slot of the last polled tick for the producer.
+     */
+    public void release() {
+        consumed.lazySet(consumed.get() + 1);
+    }
+
+    /**
+     * @return true if the producer has closed the ring and all the published ticks were consumed
+     */
+    public boolean isDrained() {
+        // closed is read first, so the ticks published before close are seen below
+        return closed && consumed.get() == published.get();
+    }
+
+    /**
+     * Spins for a while and then yields, so an idle side doesn't add a context switch to the latency of the next
+     * tick but doesn't hog a core forever either.
+     *
+     * @return Number of times we've idled so far
+     */
+    public static int idle(int spins) {
+        if (spins < 1000) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+        return spins + 1;
+    }
+
+    @SuppressWarnings("unused")
+    private static class PaddedSequence extends AtomicLong {
+        // the other side's sequence as last read by the side that owns this one, so it reads the other side's
+        // sequence only when it has caught up to it. Written only by the owner, so it shares the owner's line.
+        private long cached = 0;
+        // keeps the producer's and consumer's sequences off each other's cache lines
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
@@ -0,0 +1,36 @@
+package in.ashwanthkumar.aktrades.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count of events (ticks, orders, bytes ...) that can be added to from any number of threads. The hot paths
+ * should count in a local and add it once, eg. at the end of a run.
+ */
+public class Counter {
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long value) {
+        count.add(value);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
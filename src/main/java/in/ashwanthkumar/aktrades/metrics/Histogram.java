@@ -0,0 +1,152 @@
+package in.ashwanthkumar.aktrades.metrics;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative long values (eg. latencies in nanos) with log-linear buckets, in the spirit of
+ * HdrHistogram.
+ * <p>
+ * Values below {@code 2^precision} are counted exactly, above that every power of 2 is split into
+ * {@code 2^(precision - 1)} buckets, so a percentile is within {@code 1 / 2^(precision - 1)} of the recorded value.
+ * The buckets are pre-allocated and {@link #record(long)} is a couple of shifts and an increment, so it can be
+ * called on the hot paths. A histogram has a single writer, reads from the other threads see a recent but not
+ * necessarily consistent snapshot.
+ * </p>
+ */
+public class Histogram {
+    public static final int DEFAULT_PRECISION = 7;
+
+    private final int precision;
+    private final int subBuckets;
+    private final int halfSubBuckets;
+    private final long[] counts;
+    private long count = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    public Histogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision Number of bits of the value that are kept exactly, 7 keeps the values within 1.6%
+     */
+    public Histogram(int precision) {
+        Preconditions.checkArgument(precision >= 1 && precision <= 16, "precision should be in [1, 16], but was %s", precision);
+        this.precision = precision;
+        this.subBuckets = 1 << precision;
+        this.halfSubBuckets = subBuckets >> 1;
+        this.counts = new long[subBuckets + (64 - precision) * halfSubBuckets];
+    }
+
+    /**
+     * @param value Value to record, negative values are recorded as 0
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts[indexOf(v)]++;
+        count++;
+        sum += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Smallest recorded value, 0 when nothing was recorded
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return Mean of the recorded values, NaN when nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : (double) sum / count;
+    }
+
+    /**
+     * @param percentile Percentile in [0, 100], eg. 99.9
+     * @return Largest value that's equivalent to the value at the percentile, 0 when nothing was recorded
+     */
+    public long percentile(double percentile) {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 100, "percentile should be in [0, 100], but was %s", percentile);
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(index), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Adds the values recorded by the other histogram, both should have the same precision.
+     */
+    public void add(Histogram other) {
+        Preconditions.checkArgument(other.precision == precision, "Can't add a histogram of precision %s to %s", other.precision, precision);
+        for (int index = 0; index < counts.length; index++) {
+            counts[index] += other.counts[index];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    private int indexOf(long value) {
+        int bucket = 64 - Long.numberOfLeadingZeros(value) - precision;
+        if (bucket <= 0) {
+            return (int) value;
+        }
+        int sub = (int) (value >>> bucket);
+        return subBuckets + (bucket - 1) * halfSubBuckets + (sub - halfSubBuckets);
+    }
+
+    private long highestEquivalent(int index) {
+        if (index < subBuckets) {
+            return index;
+        }
+        int bucket = (index - subBuckets) / halfSubBuckets + 1;
+        long sub = (index - subBuckets) % halfSubBuckets + halfSubBuckets;
+        return ((sub + 1) << bucket) - 1;
+    }
+
+    /**
+     * @return Summary of the percentiles, the values are divided by the unit, eg. 1000 for nanos in micros
+     */
+    public String summary(long unit) {
+        return String.format("count=%d min=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f",
+                count, getMin() / (double) unit, percentile(50) / (double) unit, percentile(90) / (double) unit,
+                percentile(99) / (double) unit, percentile(99.9) / (double) unit, max / (double) unit);
+    }
+
+    @Override
+    public String toString() {
+        return summary(1);
+    }
+}
@@ -0,0 +1,93 @@
+package in.ashwanthkumar.aktrades.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Registry of the {@link Timer}s and {@link Counter}s of the phases of a backtest - reading the data, the
+ * transformations, the strategy, order matching and order execution.
+ * <p>
+ * The engines look up their timers and counters once and hold on to them, so recording is never a map lookup.
+ * Every {@link in.ashwanthkumar.aktrades.Context} has Metrics of its own by default, the runners that execute many
+ * backtests {@link #add(Metrics)} the metrics of their runs once each run is done. Reading the data and the
+ * transformations aren't part of a run, they're recorded in {@link #global()} which is shared by everything in the
+ * process. {@link #report()} summarises what was recorded since the last {@link #reset()}.
+ * </p>
+ */
+public class Metrics {
+    // names of the timers and the counters that are recorded by aktrades
+    public static final String READ = "read";
+    public static final String TRANSFORM = "transform";
+    public static final String ON_TICK = "strategy.onTick";
+    public static final String INDICATORS = "context.onTick";
+    public static final String MATCHING = "matching";
+    public static final String EXECUTE = "context.execute";
+    public static final String TICKS = "ticks";
+    public static final String ORDERS = "orders";
+    public static final String FILLS = "fills";
+    public static final String ROWS_READ = "rows.read";
+    public static final String ARROW_BYTES = "arrow.bytes.allocated";
+    public static final String BATCHES_SKIPPED = "batches.skipped";
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @return Timer of the name, it's created if it doesn't exist
+     */
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    /**
+     * @return Counter of the name, it's created if it doesn't exist
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Adds everything that was recorded in the other metrics to these.
+     *
+     * @return this
+     */
+    public Metrics add(Metrics other) {
+        other.timers.forEach((name, timer) -> timer(name).add(timer));
+        other.counters.forEach((name, counter) -> counter(name).add(counter.get()));
+        return this;
+    }
+
+    /**
+     * Clears all the recorded values, the timers and the counters that are held on to are still valid.
+     */
+    public void reset() {
+        timers.values().forEach(Timer::reset);
+        counters.values().forEach(Counter::reset);
+    }
+
+    /**
+     * @return One line per timer (total ms, calls and the percentiles in micros) and per counter. The totals of
+     * the per-tick phases are of the sampled ticks.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Timer timer : timers.values()) {
+            Histogram histogram = timer.snapshot();
+            if (histogram.getCount() > 0) {
+                report.append(String.format("%-24s total=%.1fms %s (us)%n", timer.getName(), timer.totalNanos() / 1e6, histogram.summary(1000)));
+            }
+        }
+        for (Counter counter : counters.values()) {
+            if (counter.get() > 0) {
+                report.append(String.format("%-24s %d%n", counter.getName(), counter.get()));
+            }
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package in.ashwanthkumar.aktrades.metrics;
+
+/**
+ * Time spent in a phase, as a {@link Histogram} of the nanos of each call.
+ * <p>
+ * The per-tick phases and the order executions are timed on a sample (see {@link #SAMPLE_MASK}), so timing them
+ * costs a couple of {@code System.nanoTime()} calls every 64 calls. Every run records in Metrics of its own, and
+ * recording is synchronized only so that a report can be taken while the run is going on.
+ * </p>
+ */
+public class Timer {
+    /**
+     * The per-tick phases are timed when {@code (tick & SAMPLE_MASK) == 0}
+     */
+    public static final long SAMPLE_MASK = 63;
+
+    private final String name;
+    private final Histogram histogram = new Histogram();
+    private long totalNanos = 0;
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param nanos Time taken by a call
+     */
+    public synchronized void record(long nanos) {
+        histogram.record(nanos);
+        totalNanos += nanos;
+    }
+
+    /**
+     * Records the time since the start.
+     *
+     * @param startNanos {@code System.nanoTime()} when the call started
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return Copy of the histogram of the nanos
+     */
+    public synchronized Histogram snapshot() {
+        Histogram copy = new Histogram();
+        copy.add(histogram);
+        return copy;
+    }
+
+    /**
+     * @return Sum of the nanos of all the recorded calls
+     */
+    public synchronized long totalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Adds the calls recorded by the other timer to this one.
+     */
+    public void add(Timer other) {
+        Histogram histogram = other.snapshot();
+        long nanos = other.totalNanos();
+        synchronized (this) {
+            this.histogram.add(histogram);
+            totalNanos += nanos;
+        }
+    }
+
+    synchronized void reset() {
+        histogram.reset();
+        totalNanos = 0;
+    }
+}
@@ -25,6 +25,27 @@ public class Order {
     // If MARKET, we ignore this price value.
     @With
     private final double price;
+    // Price at which an SL_LIMIT order is triggered, once triggered it's placed as a
+    // LIMIT order at the price. Ignored for the other order types.
+    private final double triggerPrice;
+
+    public static Order of(String ticker, OrderOp op, OrderType orderType, int quantity, double price) {
+        return of(ticker, op, orderType, quantity, price, price);
+    }
+
+    /**
+     * Creates an SL_LIMIT order
+     *
+     * @param ticker       Name of the ticker
+     * @param op           Buy / Sell
+     * @param quantity     Quantity in the order
+     * @param triggerPrice Price at which the order is triggered
+     * @param limitPrice   Price of the LIMIT order that's placed once triggered
+     * @return SL_LIMIT Order
+     */
+    public static Order stopLimit(String ticker, OrderOp op, int quantity, double triggerPrice, double limitPrice) {
+        return of(ticker, op, OrderType.SL_LIMIT, quantity, limitPrice, triggerPrice);
+    }
 
     public String getTicker() {
         return ticker;
@@ -38,7 +59,15 @@ public class Order {
         return op;
     }
 
+    public OrderType getOrderType() {
+        return orderType;
+    }
+
     public double getPrice() {
         return price;
     }
+
+    public double getTriggerPrice() {
+        return triggerPrice;
+    }
 }
@@ -8,7 +8,8 @@ public enum OrderType {
     // this price to be breached on either side to execute the order.
     LIMIT,
 
-    // SL order with a Limit.
+    // SL order with a Limit. Once the trigger price is breached, the order
+    // is placed as a LIMIT order at its price.
     SL_LIMIT,
 
     // NB: We don't support SL-M because it is not supported on NSE today
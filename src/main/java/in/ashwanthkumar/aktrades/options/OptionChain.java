@@ -0,0 +1,288 @@
+package in.ashwanthkumar.aktrades.options;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Cross-sectional view of the weekly options of an underlying as of the current tick - the strikes that have
+ * traded so far in the trading day in ascending order, with the last close of the call and the put at each of them
+ * and the last close of the underlying (spot).
+ * <p>
+ * The strikes are kept in a sorted primitive array, so finding the ATM strike or the strikes around the spot is a
+ * binary search instead of a scan over all the scrips. A new strike is inserted in place the first time it trades,
+ * the chain is cleared when the trading day changes. Lookups return the index of the strike, the prices at an
+ * index are read with {@link #callClose(int)} and {@link #putClose(int)}, so none of them allocate.
+ * </p>
+ * <p>
+ * The chain isn't a snapshot of a single timestamp. Every strike keeps the last close of its call and put
+ * in the day, however long ago that was, and the ticks of a timestamp are merged in ticker order. So a strategy
+ * that reads the chain on a tick at t sees the closes at t of the tickers that have come before it at t, and the
+ * closes of the earlier ticks for the rest. For example, on the NIFTY tick at t, the spot is at t but the options
+ * that sort after NIFTY are still at t - 1 or earlier. Use {@link #spotEpochSecond()},
+ * {@link #callEpochSecond(int)} and {@link #putEpochSecond(int)} to skip the legs that are stale.
+ * </p>
+ */
+public class OptionChain {
+    private static final int INITIAL_STRIKES = 64;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final String underlying;
+    private double[] strikes = new double[INITIAL_STRIKES];
+    private double[] callClose = new double[INITIAL_STRIKES];
+    private double[] putClose = new double[INITIAL_STRIKES];
+    private String[] callTicker = new String[INITIAL_STRIKES];
+    private String[] putTicker = new String[INITIAL_STRIKES];
+    // time of the last close of each leg
+    private long[] callTime = new long[INITIAL_STRIKES];
+    private long[] putTime = new long[INITIAL_STRIKES];
+    private int size = 0;
+    private double spot = Double.NaN;
+    private long spotTime = Long.MIN_VALUE;
+    private long epochSecond = Long.MIN_VALUE;
+    private long epochDay = Long.MIN_VALUE;
+    private LocalDate expiry;
+
+    OptionChain(String underlying) {
+        this.underlying = underlying;
+    }
+
+    public String getUnderlying() {
+        return underlying;
+    }
+
+    /**
+     * @return Expiry of the options in the chain, null till the chain has seen a tick
+     */
+    public LocalDate getExpiry() {
+        return expiry;
+    }
+
+    /**
+     * @return Time of the last tick of the underlying or any of its options
+     */
+    public long epochSecond() {
+        return epochSecond;
+    }
+
+    /**
+     * @return Last close of the underlying in the trading day, NaN if it hasn't traded yet
+     */
+    public double spot() {
+        return spot;
+    }
+
+    /**
+     * @return Time of the last close of the underlying, Long.MIN_VALUE if it hasn't traded yet
+     */
+    public long spotEpochSecond() {
+        return spotTime;
+    }
+
+    /**
+     * @return Number of strikes in the chain
+     */
+    public int size() {
+        return size;
+    }
+
+    public double strike(int index) {
+        return strikes[index];
+    }
+
+    /**
+     * @return Last close of the call at the strike, NaN if the call hasn't traded yet
+     */
+    public double callClose(int index) {
+        return callClose[index];
+    }
+
+    /**
+     * @return Last close of the put at the strike, NaN if the put hasn't traded yet
+     */
+    public double putClose(int index) {
+        return putClose[index];
+    }
+
+    /**
+     * @return Time of the last close of the call at the strike, Long.MIN_VALUE if the call hasn't traded yet
+     */
+    public long callEpochSecond(int index) {
+        return callTime[index];
+    }
+
+    /**
+     * @return Time of the last close of the put at the strike, Long.MIN_VALUE if the put hasn't traded yet
+     */
+    public long putEpochSecond(int index) {
+        return putTime[index];
+    }
+
+    /**
+     * @return Ticker of the call at the strike, null if the call hasn't traded yet
+     */
+    public String callTicker(int index) {
+        return callTicker[index];
+    }
+
+    /**
+     * @return Ticker of the put at the strike, null if the put hasn't traded yet
+     */
+    public String putTicker(int index) {
+        return putTicker[index];
+    }
+
+    /**
+     * @return Index of the strike, -1 if it isn't in the chain
+     */
+    public int indexOf(double strike) {
+        int index = Arrays.binarySearch(strikes, 0, size, strike);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * @return Index of the first strike that's at or above the price, size() if there's none
+     */
+    public int lowerBound(double price) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (strikes[mid] < price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return Index of the first strike that's above the price, size() if there's none
+     */
+    public int upperBound(double price) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (strikes[mid] <= price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return Index of the strike that's nearest to the price (the lower one on a tie), -1 if the chain is empty
+     */
+    public int nearestIndex(double price) {
+        if (size == 0 || Double.isNaN(price)) {
+            return -1;
+        }
+        int above = lowerBound(price);
+        if (above == 0) {
+            return 0;
+        }
+        if (above == size) {
+            return size - 1;
+        }
+        return strikes[above] - price < price - strikes[above - 1] ? above : above - 1;
+    }
+
+    /**
+     * @return Index of the ATM strike, i.e. the strike that's nearest to the spot. -1 if the chain is empty or the
+     * underlying hasn't traded yet
+     */
+    public int atmIndex() {
+        return nearestIndex(spot);
+    }
+
+    /**
+     * @return Strike that's nearest to the price, NaN if the chain is empty
+     */
+    public double nearestStrike(double price) {
+        int index = nearestIndex(price);
+        return index == -1 ? Double.NaN : strikes[index];
+    }
+
+    /**
+     * Strikes within {@code [price - width, price + width]} are at the indexes
+     * {@code [bandStart(price, width), bandEnd(price, width))}.
+     */
+    public int bandStart(double price, double width) {
+        return lowerBound(price - width);
+    }
+
+    /**
+     * @see #bandStart(double, double)
+     */
+    public int bandEnd(double price, double width) {
+        return upperBound(price + width);
+    }
+
+    void updateSpot(long epochSecond, double close) {
+        roll(epochSecond);
+        spot = close;
+        spotTime = epochSecond;
+    }
+
+    void update(OptionContract contract, long epochSecond, double close) {
+        roll(epochSecond);
+        int index = Arrays.binarySearch(strikes, 0, size, contract.getStrike());
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, contract.getStrike());
+        }
+        if (contract.getType() == OptionContract.Type.CE) {
+            callClose[index] = close;
+            callTime[index] = epochSecond;
+            callTicker[index] = contract.getTicker();
+        } else {
+            putClose[index] = close;
+            putTime[index] = epochSecond;
+            putTicker[index] = contract.getTicker();
+        }
+    }
+
+    private void roll(long epochSecond) {
+        this.epochSecond = epochSecond;
+        long day = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        if (day != epochDay) {
+            epochDay = day;
+            expiry = OptionContract.weeklyExpiry(LocalDate.ofEpochDay(day));
+            size = 0;
+            spot = Double.NaN;
+            spotTime = Long.MIN_VALUE;
+        }
+    }
+
+    private void insert(int index, double strike) {
+        if (size == strikes.length) {
+            int capacity = 2 * strikes.length;
+            strikes = Arrays.copyOf(strikes, capacity);
+            callClose = Arrays.copyOf(callClose, capacity);
+            putClose = Arrays.copyOf(putClose, capacity);
+            callTicker = Arrays.copyOf(callTicker, capacity);
+            putTicker = Arrays.copyOf(putTicker, capacity);
+            callTime = Arrays.copyOf(callTime, capacity);
+            putTime = Arrays.copyOf(putTime, capacity);
+        }
+        int moved = size - index;
+        System.arraycopy(strikes, index, strikes, index + 1, moved);
+        System.arraycopy(callClose, index, callClose, index + 1, moved);
+        System.arraycopy(putClose, index, putClose, index + 1, moved);
+        System.arraycopy(callTicker, index, callTicker, index + 1, moved);
+        System.arraycopy(putTicker, index, putTicker, index + 1, moved);
+        System.arraycopy(callTime, index, callTime, index + 1, moved);
+        System.arraycopy(putTime, index, putTime, index + 1, moved);
+        strikes[index] = strike;
+        callClose[index] = Double.NaN;
+        putClose[index] = Double.NaN;
+        callTicker[index] = null;
+        putTicker[index] = null;
+        callTime[index] = Long.MIN_VALUE;
+        putTime[index] = Long.MIN_VALUE;
+        size++;
+    }
+}
@@ -0,0 +1,69 @@
+package in.ashwanthkumar.aktrades.options;
+
+import in.ashwanthkumar.aktrades.Scrip;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Option chains that the strategies of a run have registered, they're updated with every tick before the
+ * strategies see it.
+ * <p>
+ * Like {@link in.ashwanthkumar.aktrades.bars.Timeframes}, a chain is created once per underlying and shared by the
+ * strategies that ask for it. Every ticker is parsed only once, the ticks of the tickers that aren't options of
+ * a registered underlying cost a map lookup. A chain that's registered in the middle of a day starts empty and
+ * fills up as its strikes trade.
+ * </p>
+ */
+public class OptionChains {
+    private static final OptionContract NOT_AN_OPTION = new OptionContract("", "", Double.NaN, null);
+
+    private final Map<String, OptionChain> chains = new LinkedHashMap<>();
+    // parsed contracts by the ticker
+    private final Map<String, OptionContract> contracts = new HashMap<>();
+
+    /**
+     * @param underlying Name of the underlying's ticker, eg. NIFTY
+     * @return Chain of the underlying, it's created if no one has asked for it before
+     */
+    public OptionChain register(String underlying) {
+        return chains.computeIfAbsent(underlying, OptionChain::new);
+    }
+
+    /**
+     * @return Underlyings of the registered chains in the order they were registered
+     */
+    public List<String> underlyings() {
+        return new ArrayList<>(chains.keySet());
+    }
+
+    /**
+     * Updates the chain of the underlying with the tick, if it's of the underlying or one of its options.
+     */
+    public void onTick(Scrip scrip) {
+        if (chains.isEmpty()) {
+            return;
+        }
+        String ticker = scrip.getName();
+        OptionChain chain = chains.get(ticker);
+        if (chain != null) {
+            chain.updateSpot(scrip.epochSecond(), scrip.close());
+            return;
+        }
+        OptionContract contract = contracts.get(ticker);
+        if (contract == null) {
+            contract = OptionContract.parse(ticker);
+            contract = contract == null ? NOT_AN_OPTION : contract;
+            contracts.put(ticker, contract);
+        }
+        if (contract != NOT_AN_OPTION) {
+            chain = chains.get(contract.getUnderlying());
+            if (chain != null) {
+                chain.update(contract, scrip.epochSecond(), scrip.close());
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package in.ashwanthkumar.aktrades.options;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * An option contract that's parsed out of its ticker, eg. NIFTYWK17000CE is the call of the current weekly expiry
+ * of NIFTY at the strike 17000.
+ * <p>
+ * Tickers of the weekly options don't carry the expiry, they always refer to the nearest weekly expiry, see
+ * {@link #weeklyExpiry(LocalDate)}.
+ * </p>
+ */
+@Getter
+@EqualsAndHashCode
+public class OptionContract {
+    public enum Type {
+        CE, PE
+    }
+
+    private static final String WEEKLY = "WK";
+
+    private final String ticker;
+    private final String underlying;
+    private final double strike;
+    private final Type type;
+
+    OptionContract(String ticker, String underlying, double strike, Type type) {
+        this.ticker = ticker;
+        this.underlying = underlying;
+        this.strike = strike;
+        this.type = type;
+    }
+
+    /**
+     * Parses the ticker of a weekly option of the form {@code <underlying>WK<strike><CE|PE>}.
+     *
+     * @return Contract of the ticker, null if the ticker isn't of a weekly option
+     */
+    public static OptionContract parse(String ticker) {
+        if (ticker == null || ticker.length() < WEEKLY.length() + 4) {
+            return null;
+        }
+        Type type;
+        if (ticker.endsWith("CE")) {
+            type = Type.CE;
+        } else if (ticker.endsWith("PE")) {
+            type = Type.PE;
+        } else {
+            return null;
+        }
+        int strikeEnd = ticker.length() - 2;
+        int strikeStart = strikeEnd;
+        while (strikeStart > 0 && (Character.isDigit(ticker.charAt(strikeStart - 1)) || ticker.charAt(strikeStart - 1) == '.')) {
+            strikeStart--;
+        }
+        String series = ticker.substring(0, strikeStart);
+        if (strikeStart == strikeEnd || !series.endsWith(WEEKLY) || series.length() == WEEKLY.length()) {
+            return null;
+        }
+        double strike;
+        try {
+            strike = Double.parseDouble(ticker.substring(strikeStart, strikeEnd));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new OptionContract(ticker, series.substring(0, series.length() - WEEKLY.length()), strike, type);
+    }
+
+    /**
+     * Weekly options of NIFTY and BANKNIFTY expire on Thursdays, we don't account for the expiries that are moved
+     * to an earlier day because of a holiday.
+     *
+     * @param tradingDate Date on which the option is traded
+     * @return Expiry of the weekly options that are traded on the date
+     */
+    public static LocalDate weeklyExpiry(LocalDate tradingDate) {
+        return tradingDate.with(TemporalAdjusters.nextOrSame(DayOfWeek.THURSDAY));
+    }
+
+    @Override
+    public String toString() {
+        return ticker;
+    }
+}
@@ -0,0 +1,289 @@
+package in.ashwanthkumar.aktrades.plugins;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.io.CategoricalColumn;
+import tech.tablesaw.api.*;
+import tech.tablesaw.columns.Column;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * A range of rows of the table that's being transformed, with the columns that the stages use as primitive
+ * arrays.
+ * <p>
+ * The arrays are indexed by the position of the row in the chunk. Only the rows in the selection vector are
+ * valid - filters drop rows from the selection and the later stages only look at the rows that are left. Input
+ * columns are loaded the first time a stage asks for them, and only for the rows that are selected at that
+ * point, so a column that's read after a selective filter is loaded only for the rows that passed it.
+ * </p>
+ * <p>
+ * Missing values use the Tablesaw representation - NaN for doubles, Integer.MIN_VALUE for ints, "" for strings
+ * and Long.MIN_VALUE for the date times, which are stored in the Tablesaw packed format
+ * (see {@link tech.tablesaw.columns.datetimes.PackedLocalDateTime}).
+ * </p>
+ * <p>
+ * STRING columns of the input table can also be read as dictionary codes with {@link #codes(String)}, so the
+ * filters on low cardinality columns (eg. Ticker) test a bit per row instead of comparing Strings.
+ * </p>
+ */
+public final class Chunk {
+    private final int capacity;
+    private final Map<String, Buffer> buffers = new HashMap<>();
+    private final int[] selection;
+    private int start;
+    private int length;
+    private int selected;
+
+    Chunk(int capacity) {
+        this.capacity = capacity;
+        this.selection = new int[capacity];
+    }
+
+    /**
+     * @return Index of the first row of the chunk in the table
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * @return Number of rows in the chunk, including the ones that were filtered out
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return Number of rows that are still selected
+     */
+    public int selected() {
+        return selected;
+    }
+
+    /**
+     * @param i Index in the selection, in [0, selected())
+     * @return Position (in the chunk) of the i-th selected row
+     */
+    public int row(int i) {
+        return selection[i];
+    }
+
+    /**
+     * Keeps only the selected rows that match the predicate.
+     *
+     * @param keep Tests the position (in the chunk) of a row
+     */
+    public void filter(IntPredicate keep) {
+        int kept = 0;
+        for (int i = 0; i < selected; i++) {
+            int row = selection[i];
+            if (keep.test(row)) {
+                selection[kept++] = row;
+            }
+        }
+        selected = kept;
+    }
+
+    public double[] doubles(String column) {
+        return (double[]) values(column, ColumnType.DOUBLE);
+    }
+
+    public int[] ints(String column) {
+        return (int[]) values(column, ColumnType.INTEGER);
+    }
+
+    public String[] strings(String column) {
+        return (String[]) values(column, ColumnType.STRING);
+    }
+
+    /**
+     * Dictionary codes of a STRING column of the input table, the codes are of {@link #categories(String)}.
+     * Missing values have the code {@link CategoricalColumn#MISSING}.
+     */
+    public int[] codes(String column) {
+        Buffer buffer = buffer(column, ColumnType.STRING);
+        Preconditions.checkArgument(buffer.source != null, "Column %s isn't a column of the input table", column);
+        if (!buffer.codesLoaded) {
+            buffer.loadCodes(start, selection, selected);
+        }
+        return buffer.codes;
+    }
+
+    /**
+     * @return The whole input column encoded as a CategoricalColumn, it's encoded once per table when it's first
+     * asked for
+     */
+    public CategoricalColumn categories(String column) {
+        Buffer buffer = buffer(column, ColumnType.STRING);
+        Preconditions.checkArgument(buffer.source != null, "Column %s isn't a column of the input table", column);
+        return buffer.categories();
+    }
+
+    public boolean[] booleans(String column) {
+        return (boolean[]) values(column, ColumnType.BOOLEAN);
+    }
+
+    /**
+     * @return Values of the column in the Tablesaw packed format
+     */
+    public long[] dateTimes(String column) {
+        return (long[]) values(column, ColumnType.LOCAL_DATE_TIME);
+    }
+
+    void addInput(Column<?> column, ColumnType type) {
+        Preconditions.checkArgument(column.type().equals(type), "Column %s is of type %s but the stages expect %s", column.name(), column.type(), type);
+        buffers.putIfAbsent(column.name(), new Buffer(type, capacity, column));
+    }
+
+    void addOutput(String name, ColumnType type) {
+        Preconditions.checkArgument(!buffers.containsKey(name), "Column %s is written by more than one stage or is already present in the table", name);
+        buffers.put(name, new Buffer(type, capacity, null));
+    }
+
+    boolean contains(String column) {
+        return buffers.containsKey(column);
+    }
+
+    void reset(int start, int length) {
+        this.start = start;
+        this.length = length;
+        this.selected = length;
+        for (int i = 0; i < length; i++) {
+            selection[i] = i;
+        }
+        for (Buffer buffer : buffers.values()) {
+            buffer.loaded = false;
+            buffer.codesLoaded = false;
+        }
+    }
+
+    private Buffer buffer(String column, ColumnType type) {
+        Buffer buffer = buffers.get(column);
+        Preconditions.checkArgument(buffer != null, "Column %s isn't declared as an input or output of any of the stages", column);
+        Preconditions.checkArgument(buffer.type.equals(type), "Column %s is of type %s, not %s", column, buffer.type, type);
+        return buffer;
+    }
+
+    private Object values(String column, ColumnType type) {
+        Buffer buffer = buffer(column, type);
+        if (buffer.source != null && !buffer.loaded) {
+            buffer.load(start, selection, selected);
+        }
+        return buffer.values();
+    }
+
+    /**
+     * Copies the values of the selected rows of an output column to the Tablesaw column.
+     */
+    void appendTo(String name, Column<?> column) {
+        Buffer buffer = buffers.get(name);
+        if (buffer.type.equals(ColumnType.DOUBLE)) {
+            double[] values = (double[]) buffer.values;
+            for (int i = 0; i < selected; i++) {
+                ((DoubleColumn) column).append(values[selection[i]]);
+            }
+        } else if (buffer.type.equals(ColumnType.INTEGER)) {
+            int[] values = (int[]) buffer.values;
+            for (int i = 0; i < selected; i++) {
+                ((IntColumn) column).append(values[selection[i]]);
+            }
+        } else if (buffer.type.equals(ColumnType.STRING)) {
+            String[] values = (String[]) buffer.values;
+            for (int i = 0; i < selected; i++) {
+                ((StringColumn) column).append(values[selection[i]]);
+            }
+        } else if (buffer.type.equals(ColumnType.BOOLEAN)) {
+            boolean[] values = (boolean[]) buffer.values;
+            for (int i = 0; i < selected; i++) {
+                ((BooleanColumn) column).append(values[selection[i]]);
+            }
+        } else {
+            long[] values = (long[]) buffer.values;
+            for (int i = 0; i < selected; i++) {
+                ((DateTimeColumn) column).appendInternal(values[selection[i]]);
+            }
+        }
+    }
+
+    private static class Buffer {
+        private final ColumnType type;
+        private final Object values;
+        // column of the input table, null for the outputs of the stages
+        private final Column<?> source;
+        private boolean loaded = false;
+        // only for the STRING columns of the input table that are read as codes
+        private CategoricalColumn categories;
+        private int[] codes;
+        private boolean codesLoaded = false;
+
+        Buffer(ColumnType type, int capacity, Column<?> source) {
+            this.type = type;
+            this.source = source;
+            if (type.equals(ColumnType.DOUBLE)) {
+                values = new double[capacity];
+            } else if (type.equals(ColumnType.INTEGER)) {
+                values = new int[capacity];
+            } else if (type.equals(ColumnType.STRING)) {
+                values = new String[capacity];
+            } else if (type.equals(ColumnType.BOOLEAN)) {
+                values = new boolean[capacity];
+            } else if (type.equals(ColumnType.LOCAL_DATE_TIME)) {
+                values = new long[capacity];
+            } else {
+                throw new IllegalArgumentException("Columns of type " + type + " aren't supported");
+            }
+        }
+
+        Object values() {
+            return values;
+        }
+
+        CategoricalColumn categories() {
+            if (categories == null) {
+                categories = CategoricalColumn.of((StringColumn) source);
+                codes = new int[((String[]) values).length];
+            }
+            return categories;
+        }
+
+        void loadCodes(int start, int[] selection, int selected) {
+            CategoricalColumn categories = categories();
+            for (int i = 0; i < selected; i++) {
+                codes[selection[i]] = categories.getCode(start + selection[i]);
+            }
+            codesLoaded = true;
+        }
+
+        void load(int start, int[] selection, int selected) {
+            if (type.equals(ColumnType.DOUBLE)) {
+                double[] values = (double[]) this.values;
+                for (int i = 0; i < selected; i++) {
+                    values[selection[i]] = ((DoubleColumn) source).getDouble(start + selection[i]);
+                }
+            } else if (type.equals(ColumnType.INTEGER)) {
+                int[] values = (int[]) this.values;
+                for (int i = 0; i < selected; i++) {
+                    values[selection[i]] = ((IntColumn) source).getInt(start + selection[i]);
+                }
+            } else if (type.equals(ColumnType.STRING)) {
+                String[] values = (String[]) this.values;
+                for (int i = 0; i < selected; i++) {
+                    values[selection[i]] = ((StringColumn) source).get(start + selection[i]);
+                }
+            } else if (type.equals(ColumnType.BOOLEAN)) {
+                boolean[] values = (boolean[]) this.values;
+                for (int i = 0; i < selected; i++) {
+                    values[selection[i]] = ((BooleanColumn) source).get(start + selection[i]) == Boolean.TRUE;
+                }
+            } else {
+                long[] values = (long[]) this.values;
+                for (int i = 0; i < selected; i++) {
+                    values[selection[i]] = ((DateTimeColumn) source).getLongInternal(start + selection[i]);
+                }
+            }
+            loaded = true;
+        }
+    }
+}
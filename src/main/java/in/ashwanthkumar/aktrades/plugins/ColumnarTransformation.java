@@ -0,0 +1,95 @@
+package in.ashwanthkumar.aktrades.plugins;
+
+import com.google.common.base.Preconditions;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import tech.tablesaw.api.ColumnType;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.Column;
+import tech.tablesaw.selection.BitmapBackedSelection;
+import tech.tablesaw.selection.Selection;
+
+import java.util.*;
+
+/**
+ * TableTransformation that's made up of a chain of {@link Stage}s.
+ * <p>
+ * All the stages are fused into a single pass over the table - the rows are processed in chunks, and every
+ * chunk goes through all the stages before we move on to the next one. Stages work on primitive arrays of only
+ * the columns they declare, and no intermediate Tablesaw columns or tables are created. The output has the
+ * columns of the input table (except the dropped ones) followed by the outputs of the stages, and only the rows
+ * that passed all the filters.
+ * </p>
+ */
+public class ColumnarTransformation implements TableTransformation {
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final List<Stage> stages;
+    private final Set<String> droppedColumns;
+    private final int chunkSize;
+
+    public ColumnarTransformation(List<Stage> stages, Set<String> droppedColumns) {
+        this(stages, droppedColumns, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param stages         Stages in the order in which they should be applied
+     * @param droppedColumns Columns (of the input or the outputs of the stages) that shouldn't be in the output
+     * @param chunkSize      Number of rows that are processed at a time
+     */
+    public ColumnarTransformation(List<Stage> stages, Set<String> droppedColumns, int chunkSize) {
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize should be positive, but was %s", chunkSize);
+        this.stages = List.copyOf(stages);
+        this.droppedColumns = Set.copyOf(droppedColumns);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Table transform(Table table) {
+        long startTime = System.nanoTime();
+        Chunk chunk = new Chunk(chunkSize);
+        Map<String, Column<?>> outputs = new LinkedHashMap<>();
+        for (Stage stage : stages) {
+            for (Map.Entry<String, ColumnType> input : stage.inputs().entrySet()) {
+                if (!chunk.contains(input.getKey())) {
+                    Preconditions.checkArgument(table.containsColumn(input.getKey()), "Column %s is neither in the table nor written by an earlier stage", input.getKey());
+                    chunk.addInput(table.column(input.getKey()), input.getValue());
+                }
+            }
+            for (Map.Entry<String, ColumnType> output : stage.outputs().entrySet()) {
+                Preconditions.checkArgument(!table.containsColumn(output.getKey()), "Column %s is already present in the table", output.getKey());
+                chunk.addOutput(output.getKey(), output.getValue());
+                outputs.put(output.getKey(), output.getValue().create(output.getKey()));
+            }
+            stage.prepare(table);
+        }
+
+        Selection selected = new BitmapBackedSelection();
+        for (int start = 0; start < table.rowCount(); start += chunkSize) {
+            chunk.reset(start, Math.min(chunkSize, table.rowCount() - start));
+            for (int i = 0; i < stages.size() && chunk.selected() > 0; i++) {
+                stages.get(i).apply(chunk);
+            }
+            for (int i = 0; i < chunk.selected(); i++) {
+                selected.add(start + chunk.row(i));
+            }
+            for (Map.Entry<String, Column<?>> output : outputs.entrySet()) {
+                chunk.appendTo(output.getKey(), output.getValue());
+            }
+        }
+
+        List<Column<?>> columns = new ArrayList<>();
+        for (Column<?> column : table.columns()) {
+            if (!droppedColumns.contains(column.name())) {
+                columns.add(selected.size() == table.rowCount() ? column.copy() : column.where(selected));
+            }
+        }
+        for (Column<?> output : outputs.values()) {
+            if (!droppedColumns.contains(output.name())) {
+                columns.add(output);
+            }
+        }
+        Table transformed = Table.create(table.name(), columns);
+        Metrics.global().timer(Metrics.TRANSFORM).recordSince(startTime);
+        return transformed;
+    }
+}
@@ -0,0 +1,46 @@
+package in.ashwanthkumar.aktrades.plugins;
+
+import tech.tablesaw.api.ColumnType;
+import tech.tablesaw.api.Table;
+
+import java.util.Map;
+
+/**
+ * Step of a {@link ColumnarTransformation} - filters the rows of a chunk and / or derives new columns from
+ * the existing ones.
+ * <p>
+ * Stages declare the columns they read and write, so the framework can load just those columns into primitive
+ * arrays (see {@link Chunk}) and run all the stages of the pipeline over a chunk before it moves to the next one.
+ * </p>
+ */
+public interface Stage {
+    /**
+     * @return Columns that this stage reads along with their types, they can either be columns of the input
+     * table or the outputs of any of the earlier stages.
+     */
+    Map<String, ColumnType> inputs();
+
+    /**
+     * @return Columns that this stage writes along with their types. Supported types are DOUBLE, INTEGER,
+     * STRING, BOOLEAN and LOCAL_DATE_TIME.
+     */
+    default Map<String, ColumnType> outputs() {
+        return Map.of();
+    }
+
+    /**
+     * Invoked once per table before any of the chunks are processed, for stages that need to look at the
+     * whole table (eg. aggregates over a column).
+     *
+     * @param table Input table
+     */
+    default void prepare(Table table) {
+    }
+
+    /**
+     * Applies the stage on the rows of the chunk that are still selected.
+     *
+     * @param chunk Chunk of rows of the table
+     */
+    void apply(Chunk chunk);
+}
@@ -0,0 +1,161 @@
+package in.ashwanthkumar.aktrades.plugins;
+
+import in.ashwanthkumar.aktrades.io.CategoricalColumn;
+import tech.tablesaw.api.ColumnType;
+import tech.tablesaw.api.Table;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.function.DoublePredicate;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Commonly used {@link Stage}s. The functions are invoked once per selected row, so they shouldn't allocate.
+ */
+public class Stages {
+    /**
+     * @return Stage that keeps the rows where the String column matches the predicate
+     */
+    public static Stage filterStrings(String column, Predicate<String> keep) {
+        return new Stage() {
+            @Override
+            public Map<String, ColumnType> inputs() {
+                return Map.of(column, ColumnType.STRING);
+            }
+
+            @Override
+            public void apply(Chunk chunk) {
+                String[] values = chunk.strings(column);
+                chunk.filter(row -> keep.test(values[row]));
+            }
+        };
+    }
+
+    /**
+     * Same as {@link #filterStrings(String, Predicate)} for a column with few unique values - the predicate is
+     * evaluated once per unique value of the column into a bitmap, and the rows are filtered on their codes.
+     *
+     * @return Stage that keeps the rows where the String column matches the predicate
+     */
+    public static Stage filterCategories(String column, Predicate<String> keep) {
+        return new Stage() {
+            // codes of the values to keep, computed for each table
+            private BitSet matching;
+
+            @Override
+            public Map<String, ColumnType> inputs() {
+                return Map.of(column, ColumnType.STRING);
+            }
+
+            @Override
+            public void prepare(Table table) {
+                matching = null;
+            }
+
+            @Override
+            public void apply(Chunk chunk) {
+                if (matching == null) {
+                    matching = chunk.categories(column).matching(keep);
+                }
+                int[] codes = chunk.codes(column);
+                chunk.filter(row -> codes[row] != CategoricalColumn.MISSING && matching.get(codes[row]));
+            }
+        };
+    }
+
+    /**
+     * @return Stage that keeps the rows where the Double column matches the predicate
+     */
+    public static Stage filterDoubles(String column, DoublePredicate keep) {
+        return new Stage() {
+            @Override
+            public Map<String, ColumnType> inputs() {
+                return Map.of(column, ColumnType.DOUBLE);
+            }
+
+            @Override
+            public void apply(Chunk chunk) {
+                double[] values = chunk.doubles(column);
+                chunk.filter(row -> keep.test(values[row]));
+            }
+        };
+    }
+
+    /**
+     * @param keep Predicate on the packed date time (see {@link tech.tablesaw.columns.datetimes.PackedLocalDateTime})
+     * @return Stage that keeps the rows where the DateTime column matches the predicate
+     */
+    public static Stage filterDateTimes(String column, LongPredicate keep) {
+        return new Stage() {
+            @Override
+            public Map<String, ColumnType> inputs() {
+                return Map.of(column, ColumnType.LOCAL_DATE_TIME);
+            }
+
+            @Override
+            public void apply(Chunk chunk) {
+                long[] values = chunk.dateTimes(column);
+                chunk.filter(row -> keep.test(values[row]));
+            }
+        };
+    }
+
+    /**
+     * @param parser Parses the string into a packed date time
+     * @return Stage that derives a DateTime column from a String column
+     */
+    public static Stage parseDateTimes(String input, String output, ToLongFunction<String> parser) {
+        return new Stage() {
+            @Override
+            public Map<String, ColumnType> inputs() {
+                return Map.of(input, ColumnType.STRING);
+            }
+
+            @Override
+            public Map<String, ColumnType> outputs() {
+                return Map.of(output, ColumnType.LOCAL_DATE_TIME);
+            }
+
+            @Override
+            public void apply(Chunk chunk) {
+                String[] values = chunk.strings(input);
+                long[] parsed = chunk.dateTimes(output);
+                for (int i = 0; i < chunk.selected(); i++) {
+                    int row = chunk.row(i);
+                    parsed[row] = parser.applyAsLong(values[row]);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param mapper Maps the packed date time to a String, it should return constants or cached values
+     * @return Stage that derives a String column from a DateTime column
+     */
+    public static Stage mapDateTimes(String input, String output, LongFunction<String> mapper) {
+        return new Stage() {
+            @Override
+            public Map<String, ColumnType> inputs() {
+                return Map.of(input, ColumnType.LOCAL_DATE_TIME);
+            }
+
+            @Override
+            public Map<String, ColumnType> outputs() {
+                return Map.of(output, ColumnType.STRING);
+            }
+
+            @Override
+            public void apply(Chunk chunk) {
+                long[] values = chunk.dateTimes(input);
+                String[] mapped = chunk.strings(output);
+                for (int i = 0; i < chunk.selected(); i++) {
+                    int row = chunk.row(i);
+                    mapped[row] = mapper.apply(values[row]);
+                }
+            }
+        };
+    }
+}
@@ -1,58 +1,129 @@
 package in.ashwanthkumar.aktrades.plugins;
 
 import org.apache.commons.lang3.StringUtils;
-import tech.tablesaw.api.BooleanColumn;
-import tech.tablesaw.api.DateTimeColumn;
-import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.ColumnType;
 import tech.tablesaw.api.Table;
-import tech.tablesaw.selection.Selection;
+import tech.tablesaw.columns.dates.PackedLocalDate;
+import tech.tablesaw.columns.datetimes.PackedLocalDateTime;
+import tech.tablesaw.columns.times.PackedLocalTime;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.DateTimeException;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 
-public class TelegramNfBnfTransformation implements TableTransformation {
+/**
+ * Keeps only the NIFTY and BANKNIFTY (index, futures and weekly options) rows within the F&O trading hours and
+ * adds the Time, Day and IsWeekly columns.
+ * <p>
+ * All the steps run as a single fused pass over the table (see {@link ColumnarTransformation}). The ticker filter
+ * runs first, so we parse the Date/Time only for the rows that we're going to keep.
+ * </p>
+ */
+public class TelegramNfBnfTransformation extends ColumnarTransformation {
 
     private static final String NIFTY_WK_PREFIX = "NIFTYWK";
     private static final String BANKNIFTY_WK_PREFIX = "BANKNIFTYWK";
+    private static final Set<String> NF_BNF_INDEX = Set.of("BANKNIFTY", "BANKNIFTY-FUT", "NIFTY", "NIFTY-FUT");
 
-    @Override
-    public Table transform(Table table) {
-        System.out.println(table.summary());
-
-        // Step 1: Parse the Date/Time as LocalDateTime
-        StringColumn dateTimeCol = table.column("Date/Time").asStringColumn();
-        DateTimeColumn parsedDateTime = dateTimeCol
-                .mapInto(
-                        input -> LocalDateTime.parse(input, DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss")),
-                        DateTimeColumn.create("Time", dateTimeCol.size())
-                );
-        table.addColumns(parsedDateTime);
-        table.removeColumns("Date/Time");
-
-        StringColumn dayCol = parsedDateTime.mapInto(localDateTime -> localDateTime.getDayOfWeek().name(), StringColumn.create("Day", parsedDateTime.size()));
-        table.addColumns(dayCol);
-
-        // Step 2: Keep only the required rows:
-        Predicate<LocalDateTime> withinFnOTimeRange = localDateTime -> localDateTime.getHour() < 15 || (localDateTime.getHour() == 15 && localDateTime.getMinute() <= 29);
-        Selection activeTradingHours = parsedDateTime.eval(withinFnOTimeRange);
-
-        StringColumn tickerCol = table.column("Ticker").asStringColumn();
-        boolean isWeekly = tickerCol.anyMatch(ticker -> ticker.contains(NIFTY_WK_PREFIX) || ticker.contains(BANKNIFTY_WK_PREFIX));
-        BooleanColumn isWeeklyCol = tickerCol.mapInto(s -> isWeekly, BooleanColumn.create("IsWeekly", tickerCol.size()));
-        table.addColumns(isWeeklyCol);
-
-        Predicate<String> isNfOrBnf = ticker -> {
-            Set<String> bnfIndex = Set.of("BANKNIFTY", "BANKNIFTY-FUT");
-            Set<String> nfIndex = Set.of("NIFTY", "NIFTY-FUT");
-
-            return nfIndex.contains(ticker) || StringUtils.startsWith(ticker, "NIFTYWK") ||
-                    bnfIndex.contains(ticker) || StringUtils.startsWith(ticker, "BANKNIFTYWK");
-        };
-        Selection onlyNfAndBnf = tickerCol.eval(isNfOrBnf);
-
-        // return a subset of table that matches all the required selections
-        return table.where(onlyNfAndBnf.and(activeTradingHours));
+    public TelegramNfBnfTransformation() {
+        super(List.of(
+                // Step 1: Keep only the NF and BNF rows
+                Stages.filterCategories("Ticker", TelegramNfBnfTransformation::isNfOrBnf),
+                // Step 2: Parse the Date/Time as LocalDateTime
+                Stages.parseDateTimes("Date/Time", "Time", TelegramNfBnfTransformation::parseDateTime),
+                // Step 3: Keep only the rows within the trading hours
+                Stages.filterDateTimes("Time", TelegramNfBnfTransformation::withinFnOTimeRange),
+                Stages.mapDateTimes("Time", "Day", time -> PackedLocalDateTime.getDayOfWeek(time).name()),
+                new IsWeekly()
+        ), Set.of("Date/Time"));
+    }
+
+    static boolean isNfOrBnf(String ticker) {
+        return NF_BNF_INDEX.contains(ticker) ||
+                StringUtils.startsWith(ticker, NIFTY_WK_PREFIX) ||
+                StringUtils.startsWith(ticker, BANKNIFTY_WK_PREFIX);
+    }
+
+    static boolean withinFnOTimeRange(long time) {
+        byte hour = PackedLocalDateTime.getHour(time);
+        return hour < 15 || (hour == 15 && PackedLocalDateTime.getMinute(time) <= 29);
+    }
+
+    /**
+     * Parses a date time of the format dd-MM-yyyy HH:mm:ss without allocating any objects.
+     *
+     * @return Date time in the Tablesaw packed format
+     */
+    static long parseDateTime(String input) {
+        if (input.length() != 19 || input.charAt(2) != '-' || input.charAt(5) != '-' || input.charAt(10) != ' '
+                || input.charAt(13) != ':' || input.charAt(16) != ':') {
+            throw new DateTimeParseException("Text '" + input + "' isn't of the format dd-MM-yyyy HH:mm:ss", input, 0);
+        }
+        int day = digits(input, 0, 2);
+        int month = digits(input, 3, 5);
+        int year = digits(input, 6, 10);
+        int hour = digits(input, 11, 13);
+        int minute = digits(input, 14, 16);
+        int second = digits(input, 17, 19);
+        try {
+            ChronoField.MONTH_OF_YEAR.checkValidValue(month);
+            if (day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+                throw new DateTimeException("Invalid day of month " + day);
+            }
+            int date = PackedLocalDate.pack(year, month, day);
+            int time = PackedLocalTime.of(hour, minute, second);
+            return (((long) date) << 32) | (time & 0xffffffffL);
+        } catch (RuntimeException e) {
+            throw new DateTimeParseException("Text '" + input + "' isn't a valid date time", input, 0, e);
+        }
+    }
+
+    private static int digits(String input, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeParseException("Text '" + input + "' has a non-digit at " + i, input, i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * A file is of the weekly expiry if any of its tickers are weekly options.
+     */
+    private static class IsWeekly implements Stage {
+        private boolean isWeekly;
+
+        @Override
+        public Map<String, ColumnType> inputs() {
+            return Map.of();
+        }
+
+        @Override
+        public Map<String, ColumnType> outputs() {
+            return Map.of("IsWeekly", ColumnType.BOOLEAN);
+        }
+
+        @Override
+        public void prepare(Table table) {
+            // looks at the unique tickers only
+            Set<String> tickers = table.stringColumn("Ticker").asSet();
+            isWeekly = tickers.stream().anyMatch(ticker -> ticker.contains(NIFTY_WK_PREFIX) || ticker.contains(BANKNIFTY_WK_PREFIX));
+        }
+
+        @Override
+        public void apply(Chunk chunk) {
+            boolean[] values = chunk.booleans("IsWeekly");
+            for (int i = 0; i < chunk.selected(); i++) {
+                values[chunk.row(i)] = isWeekly;
+            }
+        }
     }
 }
@@ -0,0 +1,184 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.addBar;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BacktestEngineTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTicksAreMergedInTimeOrderAcrossTickersAndDatasets() throws Exception {
+        Table day1 = TestData.bars();
+        addBar(day1, "BANKNIFTY", MARKET_OPEN, 100);
+        addBar(day1, "BANKNIFTY", MARKET_OPEN.plusMinutes(1), 101);
+        addBar(day1, "NIFTY", MARKET_OPEN, 10);
+        addBar(day1, "NIFTY", MARKET_OPEN.plusMinutes(1), 11);
+        Table day2 = TestData.bars();
+        addBar(day2, "NIFTY", MARKET_OPEN.plusDays(1), 12);
+
+        File day1File = TestData.write(folder.newFile("day-1.bin"), day1);
+        File day2File = TestData.write(folder.newFile("day-2.bin"), day2);
+        try (MappedDataset first = MappedDataset.open(day1File); MappedDataset second = MappedDataset.open(day2File)) {
+            // datasets are passed out of order on purpose
+            TickIndex index = TickIndex.of(second, first);
+            assertThat(index.tickerCount(), is(2));
+            assertThat(index.rowCount(), is(5L));
+
+            List<String> seen = new ArrayList<>();
+            Strategy recording = new NoOpStrategy() {
+                @Override
+                public List<Order> onTick(Scrip scrip, Context context) {
+                    seen.add(scrip.getName() + "@" + scrip.instant() + "=" + scrip.close());
+                    return Collections.emptyList();
+                }
+            };
+            new BacktestEngine(index, recording, new Context(20)).execute();
+
+            assertThat(seen, is(List.of(
+                    "BANKNIFTY@2022-01-03T09:15=100.0",
+                    "NIFTY@2022-01-03T09:15=10.0",
+                    "BANKNIFTY@2022-01-03T09:16=101.0",
+                    "NIFTY@2022-01-03T09:16=11.0",
+                    "NIFTY@2022-01-04T09:15=12.0"
+            )));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicateTicksOfATickerAreRejected() throws Exception {
+        Table bars = TestData.bars();
+        addBar(bars, "NIFTY", MARKET_OPEN, 10);
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(1), 11);
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(1), 12);
+        try (MappedDataset dataset = MappedDataset.open(TestData.write(folder.newFile("duplicates.bin"), bars))) {
+            TickIndex.of(dataset);
+        }
+    }
+
+    @Test
+    public void testMarketOrdersAreExecutedOnTheNextTick() throws Exception {
+        Table bars = TestData.bars();
+        addBar(bars, "NIFTY", MARKET_OPEN, 10);
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(1), 11);
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(2), 15);
+
+        try (MappedDataset dataset = MappedDataset.open(TestData.write(folder.newFile("day.bin"), bars))) {
+            Strategy buyAndSell = new NoOpStrategy() {
+                private int ticks = 0;
+
+                @Override
+                public List<Order> onTick(Scrip scrip, Context context) {
+                    ticks++;
+                    if (ticks == 1) {
+                        return List.of(Order.of("NIFTY", OrderOp.BUY, OrderType.MARKET, 1, 0.0));
+                    } else if (ticks == 2) {
+                        return List.of(Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 1, 0.0));
+                    }
+                    return Collections.emptyList();
+                }
+            };
+            Context context = new Context(20);
+            new BacktestEngine(TickIndex.of(dataset), buyAndSell, context).execute();
+
+            // bought at the close of the 1st tick and sold at the close of the 2nd tick
+            assertThat(context.getPnl(), is(1.0));
+            assertThat(context.getCharges(), is(40.0));
+            assertThat(context.activePositions(), is(0));
+        }
+    }
+
+    @Test
+    public void testSinkStrategiesReuseThePooledOrders() throws Exception {
+        Table bars = TestData.bars();
+        for (int i = 0; i < 4; i++) {
+            addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(i), 10 + i);
+        }
+        try (MappedDataset dataset = MappedDataset.open(TestData.write(folder.newFile("day.bin"), bars))) {
+            List<Order> filled = new ArrayList<>();
+            SinkStrategy buyEveryTick = new SinkStrategy() {
+                @Override
+                public void onTick(Scrip scrip, Context context, OrderSink orders) {
+                    orders.submit(scrip.getName(), OrderOp.BUY, OrderType.MARKET, 1, 0.0);
+                }
+
+                @Override
+                public void afterOrder(Order order, Context context, OrderSink orders) {
+                    filled.add(order);
+                }
+            };
+            Context context = new Context(20);
+            new BacktestEngine(TickIndex.of(dataset), buyEveryTick, context).execute();
+
+            // the order on the last tick is never executed
+            assertThat(filled.size(), is(3));
+            assertThat(filled.get(0), sameInstance(filled.get(2)));
+            assertThat(context.getOrderBook().size(), is(3));
+        }
+    }
+
+    @Test
+    public void testNoOpStrategyDoesNotAllocatePerTick() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Table small = TestData.bars();
+        Table large = TestData.bars();
+        for (int i = 0; i < 20_000; i++) {
+            if (i < 1000) {
+                addBar(small, i % 2 == 0 ? "NIFTY" : "BANKNIFTY", MARKET_OPEN.plusMinutes(i / 2), 10 + i % 7);
+            }
+            addBar(large, i % 2 == 0 ? "NIFTY" : "BANKNIFTY", MARKET_OPEN.plusMinutes(i / 2), 10 + i % 7);
+        }
+        try (MappedDataset smallDataset = MappedDataset.open(TestData.write(folder.newFile("small.bin"), small));
+             MappedDataset largeDataset = MappedDataset.open(TestData.write(folder.newFile("large.bin"), large))) {
+            TickIndex smallIndex = TickIndex.of(smallDataset);
+            TickIndex largeIndex = TickIndex.of(largeDataset);
+            SinkStrategy noOp = (scrip, context, orders) -> {
+            };
+            // warm up, so we don't count the allocations of the class loading and the interpreter
+            for (int i = 0; i < 5; i++) {
+                new BacktestEngine(largeIndex, noOp, new Context(20)).execute();
+            }
+
+            long before = threads.getThreadAllocatedBytes(threadId);
+            new BacktestEngine(smallIndex, noOp, new Context(20)).execute();
+            long smallRun = threads.getThreadAllocatedBytes(threadId) - before;
+            before = threads.getThreadAllocatedBytes(threadId);
+            new BacktestEngine(largeIndex, noOp, new Context(20)).execute();
+            long largeRun = threads.getThreadAllocatedBytes(threadId) - before;
+
+            // 19000 more ticks, but the runs allocate the same - the engine and its per-ticker state
+            assertThat("small run allocated " + smallRun + " bytes, large run " + largeRun, largeRun - smallRun < 1000, is(true));
+        }
+    }
+
+    static class NoOpStrategy implements Strategy {
+        @Override
+        public List<Order> onTick(Scrip scrip, Context context) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Order> afterOrder(Order order, Context context) {
+            return Collections.emptyList();
+        }
+    }
+}
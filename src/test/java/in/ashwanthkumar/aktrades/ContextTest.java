@@ -1,17 +1,41 @@
 package in.ashwanthkumar.aktrades;
 
+import in.ashwanthkumar.aktrades.ledger.PositionLedger;
+import in.ashwanthkumar.aktrades.ledger.PrimitivePositionLedger;
+import in.ashwanthkumar.aktrades.ledger.QueuePositionLedger;
 import in.ashwanthkumar.aktrades.model.Order;
 import in.ashwanthkumar.aktrades.model.OrderOp;
 import in.ashwanthkumar.aktrades.model.OrderType;
+import in.ashwanthkumar.aktrades.model.Position;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+@RunWith(Parameterized.class)
 public class ContextTest {
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> ledgers() {
+        return List.of(
+                new Object[]{"queue", (Supplier<PositionLedger>) QueuePositionLedger::new},
+                new Object[]{"primitive", (Supplier<PositionLedger>) PrimitivePositionLedger::new}
+        );
+    }
+
+    private final Supplier<PositionLedger> ledgers;
+
+    public ContextTest(String name, Supplier<PositionLedger> ledgers) {
+        this.ledgers = ledgers;
+    }
+
     @Test
     public void testLongEntryAndExit() {
-        Context ctx = new Context(20);
+        Context ctx = new Context(20, ledgers.get());
         ctx.execute(Order.of("NIFTY", OrderOp.BUY, OrderType.MARKET, 1, 0.0), 11.0);
         ctx.execute(Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 1, 0.0), 15.0);
         assertThat(ctx.getPnl(), is(4.0));
@@ -22,7 +46,7 @@ public class ContextTest {
 
     @Test
     public void testShortEntryAndExit() {
-        Context ctx = new Context(20);
+        Context ctx = new Context(20, ledgers.get());
         ctx.execute(Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 1, 0.0), 11.0);
         ctx.execute(Order.of("NIFTY", OrderOp.BUY, OrderType.MARKET, 1, 0.0), 15.0);
         assertThat(ctx.getPnl(), is(-4.0));
@@ -33,7 +57,7 @@ public class ContextTest {
 
     @Test
     public void testOnlyEntryLong() {
-        Context ctx = new Context(20);
+        Context ctx = new Context(20, ledgers.get());
         ctx.execute(Order.of("NIFTY", OrderOp.BUY, OrderType.MARKET, 1, 0.0), 11.0);
         assertThat(ctx.getPnl(), is(0.0));
         assertThat(ctx.getCharges(), is(20.0));
@@ -43,7 +67,7 @@ public class ContextTest {
 
     @Test
     public void testOnlyEntryShort() {
-        Context ctx = new Context(20);
+        Context ctx = new Context(20, ledgers.get());
         ctx.execute(Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 1, 0.0), 11.0);
         assertThat(ctx.getPnl(), is(0.0));
         assertThat(ctx.getCharges(), is(20.0));
@@ -51,4 +75,29 @@ public class ContextTest {
         assertThat(ctx.getOrderBook().size(), is(1));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testPartialExitsAcrossTickers() {
+        Context ctx = new Context(20, ledgers.get());
+        ctx.execute(Order.of("NIFTY", OrderOp.BUY, OrderType.MARKET, 5, 0.0), 10.1);
+        ctx.execute(Order.of("BANKNIFTY", OrderOp.SELL, OrderType.MARKET, 3, 0.0), 35.7);
+        ctx.execute(Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 2, 0.0), 10.3);
+        ctx.execute(Order.of("BANKNIFTY", OrderOp.BUY, OrderType.MARKET, 3, 0.0), 35.2);
+        ctx.execute(Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 3, 0.0), 9.7);
+        assertThat(ctx.getPnl(), is((((10.3 - 10.1) * 2) + (35.7 - 35.2) * 3) + (9.7 - 10.1) * 3));
+        assertThat(ctx.getCharges(), is(100.0));
+        assertThat(ctx.activePositions(), is(0));
+        assertThat(ctx.getOrderBook().size(), is(5));
+        assertThat(ctx.getOrderBook().get(1).getTicker(), is("BANKNIFTY"));
+        assertThat(ctx.getOrderBook().get(1).getQuantity(), is(3));
+    }
+
+    @Test
+    public void testOpenPositionsAfterPartialExit() {
+        Context ctx = new Context(20, ledgers.get());
+        ctx.execute(Order.of("NIFTY", OrderOp.SELL, OrderType.MARKET, 5, 0.0), 11.0);
+        ctx.execute(Order.of("NIFTY", OrderOp.BUY, OrderType.MARKET, 2, 0.0), 10.0);
+        assertThat(ctx.getPnl(), is(2.0));
+        assertThat(ctx.activePositions(), is(1));
+        assertThat(List.copyOf(ctx.getPositions().get("NIFTY")), is(List.of(Position.of("NIFTY", OrderOp.SELL, 3, 11.0))));
+    }
+}
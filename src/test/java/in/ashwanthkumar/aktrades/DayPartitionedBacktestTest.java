@@ -0,0 +1,90 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.addBar;
+import static in.ashwanthkumar.aktrades.TestData.describe;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DayPartitionedBacktestTest {
+    private static final int DAYS = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTheIndexIsSlicedByTradingDate() throws Exception {
+        try (MappedDataset dataset = MappedDataset.open(TestData.write(folder.newFile("days.bin"), days()))) {
+            TickIndex index = TickIndex.of(dataset);
+            List<LocalDate> dates = index.tradingDates();
+            assertThat(dates.size(), is(DAYS));
+            assertThat(dates.get(0), is(MARKET_OPEN.toLocalDate()));
+            assertThat(index.between(dates.get(1), dates.get(1)).rowCount(), is(20L));
+            assertThat(index.between(dates.get(1), dates.get(3)).rowCount(), is(60L));
+            assertThat(index.between(dates.get(1), dates.get(1)).tickerCount(), is(2));
+        }
+    }
+
+    @Test
+    public void testTheMergedResultIsIdenticalToASequentialRun() throws Exception {
+        try (MappedDataset dataset = MappedDataset.open(TestData.write(folder.newFile("days.bin"), days()))) {
+            TickIndex index = TickIndex.of(dataset);
+            Context sequential = new Context(20);
+            new BacktestEngine(index, new Intraday(), sequential).execute();
+
+            DayPartitionedBacktest.Result result = new DayPartitionedBacktest(index, 20, 3).run(Intraday::new);
+            Context merged = result.getContext();
+            assertThat(result.getDays().size(), is(DAYS));
+            assertThat(result.getDays().get(0).getTrades(), is(4));
+            assertThat(Double.doubleToRawLongBits(merged.getPnl()), is(Double.doubleToRawLongBits(sequential.getPnl())));
+            assertThat(Double.doubleToRawLongBits(merged.getCharges()), is(Double.doubleToRawLongBits(sequential.getCharges())));
+            assertThat(describe(merged.getOrderBook()), is(describe(sequential.getOrderBook())));
+            assertThat(merged.activePositions(), is(0));
+            // the replay isn't counted again in the merged metrics
+            assertThat(merged.getMetrics().counter(Metrics.FILLS).get(), is(sequential.getMetrics().counter(Metrics.FILLS).get()));
+            assertThat(merged.getMetrics().counter(Metrics.TICKS).get(), is(sequential.getMetrics().counter(Metrics.TICKS).get()));
+        }
+    }
+
+    static Table days() {
+        Table bars = TestData.bars();
+        for (int day = 0; day < DAYS; day++) {
+            for (int i = 0; i < 10; i++) {
+                // prices that aren't exact in binary, so the order of the additions shows up in the PnL
+                addBar(bars, "NIFTY", MARKET_OPEN.plusDays(day).plusMinutes(i), 100.1 + 0.37 * day + 0.13 * i);
+                addBar(bars, "BANKNIFTY", MARKET_OPEN.plusDays(day).plusMinutes(i), 300.7 - 0.29 * day + 0.31 * i);
+            }
+        }
+        return bars;
+    }
+
+    /**
+     * Buys every ticker on the 2nd minute of the day and exits on the 7th.
+     */
+    static class Intraday extends BacktestEngineTest.NoOpStrategy {
+        @Override
+        public List<Order> onTick(Scrip scrip, Context context) {
+            int minute = scrip.instant().getMinute() - MARKET_OPEN.getMinute();
+            if (minute == 1) {
+                return List.of(Order.of(scrip.getName(), OrderOp.BUY, OrderType.MARKET, 3, 0.0));
+            } else if (minute == 6) {
+                return List.of(Order.of(scrip.getName(), OrderOp.SELL, OrderType.MARKET, 3, 0.0));
+            }
+            return Collections.emptyList();
+        }
+    }
+}
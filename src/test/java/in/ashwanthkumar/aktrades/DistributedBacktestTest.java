@@ -0,0 +1,158 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.io.PartitionFilter;
+import in.ashwanthkumar.aktrades.io.PartitionedDataWriter;
+import in.ashwanthkumar.aktrades.io.PartitionedDataset;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.describe;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class DistributedBacktestTest {
+    private static final LocalDate FROM = MARKET_OPEN.toLocalDate();
+    private static final LocalDate TO = FROM.plusDays(4);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File root;
+    private Context sequential;
+
+    @Before
+    public void setUp() throws Exception {
+        root = folder.newFolder("dataset");
+        try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of(ScripColumns.TICKER))) {
+            writer.append(DayPartitionedBacktestTest.days());
+        }
+        sequential = runSequential(PartitionFilter.all());
+    }
+
+    @Test
+    public void testTheMergedResultOfTheWorkersIsIdenticalToASequentialRun() {
+        try (DistributedBacktest backtest = new DistributedBacktest(root, IntradayFactory.class, 20).spawnLocalWorkers(2)) {
+            DistributedBacktest.Result result = backtest.run(Shard.byDate(FROM, TO, 2));
+            assertThat(result.getShards().size(), is(3));
+            assertThat(result.getShards().get(0).getTrades(), is(8));
+            assertThat(result.getShards().get(2).getTrades(), is(4));
+            assertIdentical(result.getContext());
+
+            // the workers are reused for the next run
+            assertIdentical(backtest.run(Shard.byDate(FROM, TO, 1)).getContext());
+        }
+    }
+
+    @Test
+    public void testTheShardOfAWorkerThatDiedIsRetried() throws IOException {
+        File marker = new File(folder.getRoot(), "crashed");
+        // every shard has the marker, so they're still merged, the first one to be handed out crashes its worker
+        List<Shard> shards = new ArrayList<>();
+        for (Shard shard : Shard.byDate(FROM, TO, 1)) {
+            shards.add(shard.withParameters(Map.of(CrashingFactory.MARKER, marker.getAbsolutePath())));
+        }
+        try (DistributedBacktest backtest = new DistributedBacktest(root, CrashingFactory.class, 20).spawnLocalWorkers(2)) {
+            DistributedBacktest.Result result = backtest.run(shards);
+            assertThat(marker.exists(), is(true));
+            assertThat(result.getShards().stream().mapToInt(DistributedBacktest.ShardResult::getAttempts).sum(), is(shards.size() + 1));
+            assertIdentical(result.getContext());
+        }
+    }
+
+    @Test
+    public void testShardsOfTickersAreNotMerged() {
+        try (DistributedBacktest backtest = new DistributedBacktest(root, IntradayFactory.class, 20).spawnLocalWorkers(2)) {
+            DistributedBacktest.Result result = backtest.run(Shard.byTickers(FROM, TO, Set.of("NIFTY", "BANKNIFTY"), 1));
+            assertThat(result.isMerged(), is(false));
+            assertThat(result.getShards().size(), is(2));
+            for (DistributedBacktest.ShardResult shard : result.getShards()) {
+                Context alone = runSequential(PartitionFilter.all().tickers(shard.getShard().getTickers()));
+                assertThat(shard.getTrades(), is(10));
+                assertThat(Double.doubleToRawLongBits(shard.getPnl()), is(Double.doubleToRawLongBits(alone.getPnl())));
+                assertThat(Double.doubleToRawLongBits(shard.getCharges()), is(Double.doubleToRawLongBits(alone.getCharges())));
+            }
+        }
+    }
+
+    @Test
+    public void testShardsOfParametersAreNotMerged() {
+        List<Map<String, String>> parameters = List.of(Map.of("run", "1"), Map.of("run", "2"));
+        try (DistributedBacktest backtest = new DistributedBacktest(root, IntradayFactory.class, 20).spawnLocalWorkers(2)) {
+            DistributedBacktest.Result result = backtest.run(Shard.byParameters(FROM, TO, parameters));
+            assertThat(result.isMerged(), is(false));
+            assertThat(result.getShards().size(), is(2));
+            for (DistributedBacktest.ShardResult shard : result.getShards()) {
+                assertThat(shard.getTrades(), is(sequential.getOrderBook().size()));
+                assertThat(Double.doubleToRawLongBits(shard.getPnl()), is(Double.doubleToRawLongBits(sequential.getPnl())));
+            }
+            assertThrows(IllegalStateException.class, result::getContext);
+        }
+    }
+
+    @Test
+    public void testOnlyShardsOfConsecutiveDatesAreMergeable() {
+        assertThat(DistributedBacktest.isMergeable(Shard.byDate(FROM, TO, 2)), is(true));
+        assertThat(DistributedBacktest.isMergeable(List.of(Shard.between(FROM, FROM), Shard.between(FROM, TO))), is(false));
+        assertThat(DistributedBacktest.isMergeable(Shard.byTickers(FROM, TO, Set.of("NIFTY", "BANKNIFTY"), 1)), is(false));
+        assertThat(DistributedBacktest.isMergeable(Shard.byParameters(FROM, TO, List.of(Map.of("run", "1"), Map.of("run", "2")))), is(false));
+    }
+
+    private Context runSequential(PartitionFilter filter) {
+        List<MappedDataset> datasets = PartitionedDataset.open(root).map(filter);
+        try {
+            Context context = new Context(20);
+            new BacktestEngine(TickIndex.of(datasets), new DayPartitionedBacktestTest.Intraday(), context).reportMetrics(false).execute();
+            return context;
+        } finally {
+            datasets.forEach(MappedDataset::close);
+        }
+    }
+
+    private void assertIdentical(Context merged) {
+        assertThat(Double.doubleToRawLongBits(merged.getPnl()), is(Double.doubleToRawLongBits(sequential.getPnl())));
+        assertThat(Double.doubleToRawLongBits(merged.getCharges()), is(Double.doubleToRawLongBits(sequential.getCharges())));
+        assertThat(describe(merged.getOrderBook()), is(describe(sequential.getOrderBook())));
+    }
+
+    public static class IntradayFactory implements StrategyFactory {
+        @Override
+        public Strategy create(Map<String, String> parameters) {
+            return new DayPartitionedBacktestTest.Intraday();
+        }
+    }
+
+    /**
+     * Kills the worker the first time it's handed the shard with the marker.
+     */
+    public static class CrashingFactory implements StrategyFactory {
+        static final String MARKER = "marker";
+
+        @Override
+        public Strategy create(Map<String, String> parameters) {
+            if (parameters.containsKey(MARKER)) {
+                File marker = new File(parameters.get(MARKER));
+                try {
+                    if (marker.createNewFile()) {
+                        Runtime.getRuntime().halt(1);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return new DayPartitionedBacktestTest.Intraday();
+        }
+    }
+}
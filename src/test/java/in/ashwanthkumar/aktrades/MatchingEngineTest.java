@@ -0,0 +1,199 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MatchingEngineTest {
+    private final RecordingContext context = new RecordingContext();
+    private final MatchingEngine engine = new MatchingEngine(context, new BacktestEngineTest.NoOpStrategy());
+
+    @Test
+    public void testBuyLimitIsFilledWhenLowCrossesThePrice() {
+        engine.submit(Order.of("NIFTY", OrderOp.BUY, OrderType.LIMIT, 1, 100.0));
+        engine.onTickBoundary();
+
+        engine.onBar(new Bar("NIFTY", 105, 106, 101, 105));
+        assertThat(context.fills.size(), is(0));
+
+        engine.onBar(new Bar("NIFTY", 103, 104, 99, 100));
+        assertThat(context.fills, is(List.of("BUY NIFTY@100.0")));
+        assertThat(engine.openOrders(), is(0));
+    }
+
+    @Test
+    public void testSellLimitIsFilledAtTheOpenWhenItGapsPastThePrice() {
+        engine.submit(Order.of("NIFTY", OrderOp.SELL, OrderType.LIMIT, 1, 110.0));
+        engine.onTickBoundary();
+
+        engine.onBar(new Bar("NIFTY", 112, 115, 111, 113));
+        assertThat(context.fills, is(List.of("SELL NIFTY@112.0")));
+    }
+
+    @Test
+    public void testOrdersAreNotMatchedOnTheTickTheyArePlaced() {
+        engine.onBar(new Bar("NIFTY", 100, 100, 100, 100));
+        engine.submit(Order.of("NIFTY", OrderOp.BUY, OrderType.LIMIT, 1, 100.0));
+        engine.onBar(new Bar("NIFTY", 100, 100, 90, 100));
+        assertThat(context.fills.size(), is(0));
+        assertThat(engine.openOrders(), is(1));
+    }
+
+    @Test
+    public void testMarketOrdersAreExecutedAtLtpOnTheTickBoundary() {
+        engine.onBar(new Bar("NIFTY", 100, 102, 99, 101));
+        engine.submit(Order.of("NIFTY", OrderOp.BUY, OrderType.MARKET, 1, 0.0));
+        // BANKNIFTY hasn't traded yet, so we wait for it
+        engine.submit(Order.of("BANKNIFTY", OrderOp.SELL, OrderType.MARKET, 1, 0.0));
+        engine.onTickBoundary();
+        assertThat(context.fills, is(List.of("BUY NIFTY@101.0")));
+
+        engine.onBar(new Bar("BANKNIFTY", 300, 300, 300, 301));
+        engine.onTickBoundary();
+        assertThat(context.fills, is(List.of("BUY NIFTY@101.0", "SELL BANKNIFTY@301.0")));
+    }
+
+    @Test
+    public void testStopLimitIsConvertedToLimitOnTrigger() {
+        engine.submit(Order.stopLimit("NIFTY", OrderOp.BUY, 1, 105.0, 106.0));
+        engine.onTickBoundary();
+
+        engine.onBar(new Bar("NIFTY", 100, 104, 99, 103));
+        engine.onTickBoundary();
+        assertThat(engine.openOrders(), is(1));
+
+        engine.onBar(new Bar("NIFTY", 104, 105, 103, 105));
+        // triggered, but the LIMIT order is only considered from the next tick
+        assertThat(context.fills.size(), is(0));
+        engine.onTickBoundary();
+
+        engine.onBar(new Bar("NIFTY", 107, 108, 105.5, 107));
+        assertThat(context.fills, is(List.of("BUY NIFTY@106.0")));
+    }
+
+    @Test
+    public void testOnlyTheCrossedOrdersAreReleased() {
+        for (int price = 95; price < 105; price++) {
+            engine.submit(Order.of("NIFTY", OrderOp.BUY, OrderType.LIMIT, 1, price));
+            engine.submit(Order.of("NIFTY", OrderOp.SELL, OrderType.LIMIT, 1, price + 20));
+        }
+        engine.onTickBoundary();
+
+        engine.onBar(new Bar("NIFTY", 110, 117, 100, 110));
+        // in price priority, the highest BUY and the lowest SELL first
+        assertThat(context.fills, is(List.of(
+                "BUY NIFTY@104.0", "BUY NIFTY@103.0", "BUY NIFTY@102.0", "BUY NIFTY@101.0", "BUY NIFTY@100.0",
+                "SELL NIFTY@115.0", "SELL NIFTY@116.0", "SELL NIFTY@117.0"
+        )));
+        assertThat(engine.openOrders(), is(12));
+    }
+
+    @Test
+    public void testOrdersOfAPriceAreFilledInTheOrderTheyWerePlaced() {
+        engine.submit(Order.of("NIFTY", OrderOp.BUY, OrderType.LIMIT, 1, 100.0));
+        engine.submit(Order.of("NIFTY", OrderOp.BUY, OrderType.LIMIT, 2, 102.0));
+        engine.submit(Order.of("NIFTY", OrderOp.BUY, OrderType.LIMIT, 3, 100.0));
+        engine.submit(Order.of("NIFTY", OrderOp.BUY, OrderType.LIMIT, 4, 102.0));
+        engine.onTickBoundary();
+
+        engine.onBar(new Bar("NIFTY", 99, 99, 98, 99));
+        assertThat(context.quantities, is(List.of(2, 4, 1, 3)));
+    }
+
+    static class RecordingContext extends Context {
+        private final List<String> fills = new ArrayList<>();
+        private final List<Integer> quantities = new ArrayList<>();
+
+        RecordingContext() {
+            super(0);
+        }
+
+        @Override
+        void execute(Order order, double ltp) {
+            fills.add(order.getOp() + " " + order.getTicker() + "@" + ltp);
+            quantities.add(order.getQuantity());
+        }
+    }
+
+    static class Bar implements Scrip {
+        private static final LocalDateTime TIME = MARKET_OPEN;
+        private final String name;
+        private final double open;
+        private final double high;
+        private final double low;
+        private final double close;
+
+        Bar(String name, double open, double high, double low, double close) {
+            this.name = name;
+            this.open = open;
+            this.high = high;
+            this.low = low;
+            this.close = close;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public LocalDateTime instant() {
+            return TIME;
+        }
+
+        @Override
+        public long epochSecond() {
+            return TIME.toEpochSecond(ZoneOffset.UTC);
+        }
+
+        @Override
+        public double open() {
+            return open;
+        }
+
+        @Override
+        public double high() {
+            return high;
+        }
+
+        @Override
+        public double low() {
+            return low;
+        }
+
+        @Override
+        public double close() {
+            return close;
+        }
+
+        @Override
+        public boolean hasOi() {
+            return false;
+        }
+
+        @Override
+        public long oiAsLong() {
+            return 0;
+        }
+
+        @Override
+        public boolean hasVolume() {
+            return false;
+        }
+
+        @Override
+        public long volumeAsLong() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.live.SocketFeed;
+import in.ashwanthkumar.aktrades.live.TailingFileFeed;
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PaperTradingEngineTest {
+    private static final long OPEN = MARKET_OPEN.toEpochSecond(ZoneOffset.UTC);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testOrdersAreFilledOnTheTicksOfASocketFeed() throws Exception {
+        int ticks = 50_000;
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread publisher = new Thread(() -> {
+                try (Socket socket = server.accept();
+                     PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8)) {
+                    // a burst of ticks, each minute has a tick of NIFTY and BANKNIFTY
+                    for (int i = 0; i < ticks; i++) {
+                        String ticker = i % 2 == 0 ? "NIFTY" : "BANKNIFTY";
+                        double price = 100 + (i / 2) % 10;
+                        out.println(ticker + "," + (OPEN + 60L * (i / 2)) + "," + price + "," + price + "," + price + "," + price + ",100");
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            publisher.start();
+
+            Context context = new Context(20);
+            PaperTradingEngine engine = new PaperTradingEngine(new SocketFeed("localhost", server.getLocalPort()), new BuyLowSellHigh(), context, 64);
+            engine.start();
+            assertThat(engine.awaitTermination(30, TimeUnit.SECONDS), is(true));
+            engine.close();
+            publisher.join();
+
+            assertThat(engine.ticks(), is((long) ticks));
+            // buys at 100 and sells at 109, 2500 rounds of each ticker but the sells on the last minute are never filled
+            assertThat(context.getOrderBook().size(), is(ticks / 5 - 2));
+            assertThat(context.getPnl(), is(9.0 * (ticks / 10 - 2)));
+            assertThat(engine.getLatency().getCount(), is((long) ticks / 5));
+        }
+    }
+
+    @Test
+    public void testTheTicksAppendedToAFileAreHandled() throws Exception {
+        File file = folder.newFile("ticks.csv");
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        Strategy strategy = new BacktestEngineTest.NoOpStrategy() {
+            @Override
+            public List<Order> onTick(Scrip scrip, Context context) {
+                seen.add(scrip.getName() + "@" + (scrip.epochSecond() - OPEN));
+                return Collections.emptyList();
+            }
+        };
+        try (PaperTradingEngine engine = new PaperTradingEngine(new TailingFileFeed(file), strategy, new Context(20))) {
+            engine.start();
+            append(file, "NIFTY," + OPEN + ",1,1,1,1\nNIFTY," + (OPEN + 60) + ",1,1,1,");
+            waitFor(() -> seen.size() == 1);
+            // the partial line is read once it's complete
+            append(file, "1\nBANKNIFTY," + (OPEN + 60) + ",1,1,1,1\n");
+            waitFor(() -> seen.size() == 3);
+        }
+        assertThat(seen, is(List.of("NIFTY@0", "NIFTY@60", "BANKNIFTY@60")));
+    }
+
+    private static void append(File file, String text) throws Exception {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+            writer.write(text);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean(), is(true));
+    }
+
+    /**
+     * Buys at 100 and sells at 109.
+     */
+    private static class BuyLowSellHigh extends BacktestEngineTest.NoOpStrategy {
+        @Override
+        public List<Order> onTick(Scrip scrip, Context context) {
+            if (scrip.close() == 100) {
+                return List.of(Order.of(scrip.getName(), OrderOp.BUY, OrderType.MARKET, 1, 0.0));
+            } else if (scrip.close() == 109) {
+                return List.of(Order.of(scrip.getName(), OrderOp.SELL, OrderType.MARKET, 1, 0.0));
+            }
+            return Collections.emptyList();
+        }
+    }
+}
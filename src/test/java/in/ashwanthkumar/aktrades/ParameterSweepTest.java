@@ -0,0 +1,67 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.util.Collections;
+import java.util.List;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.addBar;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ParameterSweepTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRunsAreRankedOnNetPnl() throws Exception {
+        Table bars = TestData.bars();
+        addBar(bars, "NIFTY", MARKET_OPEN, 10);
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(1), 11);
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(2), 15);
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(3), 12);
+
+        try (MappedDataset dataset = MappedDataset.open(TestData.write(folder.newFile("day.bin"), bars))) {
+            ParameterSweep sweep = new ParameterSweep(TickIndex.of(dataset), 1, 2);
+            Table results = sweep.runAsTable(List.of(1, 2, 3, 4), HoldFor::new);
+
+            assertThat(results.rowCount(), is(4));
+            assertThat(results.stringColumn("Parameters").asList(), is(List.of("2", "1", "3", "4")));
+            assertThat(results.doubleColumn("PnL").asList(), is(List.of(5.0, 1.0, 0.0, 0.0)));
+            // the exit order is never executed when it's placed on the last tick (or after)
+            assertThat(results.intColumn("Trades").asList(), is(List.of(2, 2, 1, 1)));
+            assertThat(results.doubleColumn("Charges").asList(), is(List.of(2.0, 2.0, 1.0, 1.0)));
+        }
+    }
+
+    /**
+     * Buys on the first tick and sells after holding for the given number of ticks.
+     */
+    static class HoldFor extends BacktestEngineTest.NoOpStrategy {
+        private final int ticksToHold;
+        private int ticks = 0;
+
+        HoldFor(int ticksToHold) {
+            this.ticksToHold = ticksToHold;
+        }
+
+        @Override
+        public List<Order> onTick(Scrip scrip, Context context) {
+            ticks++;
+            if (ticks == 1) {
+                return List.of(Order.of(scrip.getName(), OrderOp.BUY, OrderType.MARKET, 1, 0.0));
+            } else if (ticks == 1 + ticksToHold) {
+                return List.of(Order.of(scrip.getName(), OrderOp.SELL, OrderType.MARKET, 1, 0.0));
+            }
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.io.DataWriter;
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.DateTimeColumn;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ScripCursorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCursorReadsTheRowItPointsTo() throws Exception {
+        LocalDateTime start = MARKET_OPEN;
+        Table table = Table.create(
+                StringColumn.create("Ticker", "NIFTY", "BANKNIFTY"),
+                DateTimeColumn.create("Time", start, start.plusMinutes(1)),
+                DoubleColumn.create("Open", 10.5, 20.5),
+                DoubleColumn.create("High", 11.5, 21.5),
+                DoubleColumn.create("Low", 9.5, 19.5),
+                DoubleColumn.create("Close", 10.0, 20.0),
+                IntColumn.create("Volume", 100, 200)
+        );
+        File output = folder.newFile("dataset.bin");
+        new DataWriter(table, output).write(Set.of("Ticker"));
+
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            ScripCursor cursor = new ScripCursor().moveTo(dataset.batch(0), 1);
+            assertThat(cursor.getName(), is("BANKNIFTY"));
+            assertThat(cursor.instant(), is(start.plusMinutes(1)));
+            assertThat(cursor.open(), is(20.5));
+            assertThat(cursor.high(), is(21.5));
+            assertThat(cursor.low(), is(19.5));
+            assertThat(cursor.close(), is(20.0));
+            assertThat(cursor.hasVolume(), is(true));
+            assertThat(cursor.volumeAsLong(), is(200L));
+            // Open Interest isn't present in the dataset
+            assertThat(cursor.hasOi(), is(false));
+            assertThat(cursor.oiAsLong(), is(0L));
+            assertThat(cursor.oi(), is(Optional.empty()));
+
+            cursor.moveTo(dataset.batch(0), 0);
+            assertThat(cursor.getName(), is("NIFTY"));
+            assertThat(cursor.volume(), is(Optional.of(100L)));
+            assertThat(cursor.hasTickerCodes(), is(true));
+            assertThat(cursor.tickerCode(), is(0));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTickerCodesNeedACategoricalTickerColumn() throws Exception {
+        File output = TestData.write(folder.newFile("plain.bin"), TestData.bars("NIFTY", TestData.MARKET_OPEN, 2), Set.of());
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            ScripCursor cursor = new ScripCursor().moveTo(dataset.batch(0), 1);
+            assertThat(cursor.getName(), is("NIFTY"));
+            assertThat(cursor.hasTickerCodes(), is(false));
+            cursor.tickerCode();
+        }
+    }
+
+    @Test
+    public void testCursorsOfTheMergedTicksShareTheNamesOfTheIndex() throws Exception {
+        Table bars = TestData.bars("NIFTY", TestData.MARKET_OPEN, 2);
+        TestData.addBar(bars, "BANKNIFTY", TestData.MARKET_OPEN, 300);
+        File output = TestData.write(folder.newFile("plain.bin"), bars, Set.of());
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            TickIndex index = TickIndex.of(dataset);
+            TickMerger ticks = new TickMerger(index);
+            int merged = 0;
+            while (ticks.hasNext()) {
+                int ticker = ticks.peekTicker();
+                // the Ticker column isn't dictionary encoded, the name isn't decoded from it on every tick
+                assertThat(ticks.next().getName(), sameInstance(index.ticker(ticker)));
+                merged++;
+            }
+            assertThat(merged, is(3));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package in.ashwanthkumar.aktrades;
+
+import in.ashwanthkumar.aktrades.io.DataWriter;
+import in.ashwanthkumar.aktrades.model.Order;
+import tech.tablesaw.api.DateTimeColumn;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers to build small OHLC datasets for the tests.
+ */
+public class TestData {
+    public static final LocalDateTime MARKET_OPEN = LocalDateTime.of(2022, 1, 3, 9, 15);
+
+    public static Table bars() {
+        return Table.create(
+                StringColumn.create(ScripColumns.TICKER),
+                DateTimeColumn.create(ScripColumns.TIME),
+                DoubleColumn.create(ScripColumns.OPEN),
+                DoubleColumn.create(ScripColumns.HIGH),
+                DoubleColumn.create(ScripColumns.LOW),
+                DoubleColumn.create(ScripColumns.CLOSE),
+                IntColumn.create(ScripColumns.VOLUME)
+        );
+    }
+
+    public static Table addBar(Table table, String ticker, LocalDateTime time, double open, double high, double low, double close) {
+        table.stringColumn(ScripColumns.TICKER).append(ticker);
+        table.dateTimeColumn(ScripColumns.TIME).append(time);
+        table.doubleColumn(ScripColumns.OPEN).append(open);
+        table.doubleColumn(ScripColumns.HIGH).append(high);
+        table.doubleColumn(ScripColumns.LOW).append(low);
+        table.doubleColumn(ScripColumns.CLOSE).append(close);
+        table.intColumn(ScripColumns.VOLUME).append(100);
+        return table;
+    }
+
+    public static Table addBar(Table table, String ticker, LocalDateTime time, double close) {
+        return addBar(table, ticker, time, close, close, close, close);
+    }
+
+    /**
+     * @return Bars of the ticker at every minute from the start, the close goes up by 1 from 100
+     */
+    public static Table bars(String ticker, LocalDateTime start, int count) {
+        Table bars = bars();
+        for (int i = 0; i < count; i++) {
+            addBar(bars, ticker, start.plusMinutes(i), 100 + i);
+        }
+        return bars;
+    }
+
+    /**
+     * @return Ticker, op and quantity of each order, to compare the order books of two runs
+     */
+    public static List<String> describe(List<Order> orders) {
+        return orders.stream().map(o -> o.getTicker() + " " + o.getOp() + " " + o.getQuantity()).collect(Collectors.toList());
+    }
+
+    public static File write(File output, Table table) throws IOException {
+        return write(output, table, Set.of(ScripColumns.TICKER));
+    }
+
+    public static File write(File output, Table table, Set<String> categoricalColumns) throws IOException {
+        new DataWriter(table, output).write(categoricalColumns);
+        return output;
+    }
+}
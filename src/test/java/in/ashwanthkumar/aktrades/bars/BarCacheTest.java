@@ -0,0 +1,65 @@
+package in.ashwanthkumar.aktrades.bars;
+
+import in.ashwanthkumar.aktrades.ScripColumns;
+import in.ashwanthkumar.aktrades.TestData;
+import in.ashwanthkumar.aktrades.io.Compression;
+import in.ashwanthkumar.aktrades.io.Partition;
+import in.ashwanthkumar.aktrades.io.PartitionFilter;
+import in.ashwanthkumar.aktrades.io.PartitionedDataWriter;
+import in.ashwanthkumar.aktrades.io.PartitionedDataset;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.addBar;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BarCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testOnlyTheChangedTickersAreResampled() throws Exception {
+        File root = folder.newFolder("dataset");
+        try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of(ScripColumns.TICKER))) {
+            writer.append(day(MARKET_OPEN, "NIFTY", "BANKNIFTY"));
+        }
+        Timeframe quarter = Timeframe.minutes(15);
+        PartitionedDataset bars = new BarCache(PartitionedDataset.open(root), Set.of(ScripColumns.TICKER), Compression.ZSTD).open(quarter);
+        assertThat(bars.tickers(), is(Set.of("BANKNIFTY", "NIFTY")));
+        Partition bankNifty = bars.partitions(PartitionFilter.all().tickers("BANKNIFTY")).get(0);
+        Table nifty = bars.read(PartitionFilter.all().tickers("NIFTY"));
+        assertThat(nifty.dateTimeColumn(ScripColumns.TIME).asList(), is(List.of(MARKET_OPEN, MARKET_OPEN.plusMinutes(15))));
+        assertThat(nifty.intColumn(ScripColumns.VOLUME).getInt(0), is(1500));
+
+        // the next day is imported for NIFTY alone
+        try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of(ScripColumns.TICKER))) {
+            writer.append(day(MARKET_OPEN.plusDays(1), "NIFTY"));
+        }
+        bars = new BarCache(PartitionedDataset.open(root), Set.of(ScripColumns.TICKER), Compression.ZSTD).open(quarter);
+        assertThat(bars.partitions(PartitionFilter.all().tickers("BANKNIFTY")), is(List.of(bankNifty)));
+        assertThat(bars.read(PartitionFilter.all().tickers("NIFTY")).rowCount(), is(4));
+
+        // nothing changed, the cache is served as is
+        PartitionedDataset again = new BarCache(PartitionedDataset.open(root), Set.of(ScripColumns.TICKER), Compression.ZSTD).open(quarter);
+        assertThat(again.partitions(), is(bars.partitions()));
+    }
+
+    private static Table day(LocalDateTime open, String... tickers) {
+        Table bars = TestData.bars();
+        for (int i = 0; i < 20; i++) {
+            for (String ticker : tickers) {
+                addBar(bars, ticker, open.plusMinutes(i), 100 + i);
+            }
+        }
+        return bars;
+    }
+}
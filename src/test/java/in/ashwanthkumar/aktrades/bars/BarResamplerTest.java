@@ -0,0 +1,103 @@
+package in.ashwanthkumar.aktrades.bars;
+
+import in.ashwanthkumar.aktrades.*;
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.model.Order;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.addBar;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BarResamplerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTimeframesAreAlignedToTheMarketOpen() {
+        Timeframe hourly = Timeframe.hours(1);
+        long open = MARKET_OPEN.toEpochSecond(ZoneOffset.UTC);
+        assertThat(hourly.barStart(open), is(open));
+        assertThat(hourly.barStart(open + 3599), is(open));
+        assertThat(hourly.barStart(open + 3600), is(open + 3600));
+        assertThat(Timeframe.minutes(15).barStart(open - 60), is(open - 15 * 60));
+        assertThat(Timeframe.minutes(15).name(), is("15m"));
+        assertThat(hourly.name(), is("1h"));
+    }
+
+    @Test
+    public void testCompletedBarsAreServedOnTheTickThatEndsThem() throws Exception {
+        Table bars = TestData.bars();
+        for (int i = 0; i < 7; i++) {
+            addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(i), 100 + i, 101 + i, 99 - i, 100.5 + i);
+        }
+        File file = TestData.write(folder.newFile("bars.bin"), bars);
+
+        List<String> seen = new ArrayList<>();
+        Strategy strategy = new TickStrategy() {
+            private BarResampler fiveMinutes;
+
+            @Override
+            public List<Order> onTick(Scrip scrip, Context context) {
+                if (fiveMinutes == null) {
+                    fiveMinutes = context.timeframe(Timeframe.minutes(5));
+                    assertThat(context.timeframe(Timeframe.minutes(5)), sameInstance(fiveMinutes));
+                }
+                if (fiveMinutes.justCompleted(scrip.getName()) > 0) {
+                    Scrip bar = fiveMinutes.lastBar(scrip.getName());
+                    seen.add(scrip.instant().toLocalTime() + " " + bar.instant().toLocalTime() + " " + bar.open() + " "
+                            + bar.high() + " " + bar.low() + " " + bar.close() + " " + bar.volumeAsLong());
+                }
+                return Collections.emptyList();
+            }
+        };
+        try (MappedDataset dataset = MappedDataset.open(file)) {
+            Context context = new Context(20);
+            new BacktestEngine(TickIndex.of(dataset), strategy, context).execute();
+            BarResampler resampler = context.timeframe(Timeframe.minutes(5));
+            assertThat(resampler.completedBars("NIFTY"), is(1L));
+            assertThat(resampler.bar("NIFTY", 1) == null, is(true));
+        }
+        // the 09:19 tick ends the 09:15 bar, the 09:20 bar is still open at 09:21
+        assertThat(seen, is(List.of("09:19 09:15 100.0 105.0 95.0 104.5 500")));
+    }
+
+    @Test
+    public void testResamplingATable() {
+        Table bars = TestData.bars();
+        addBar(bars, "NIFTY", MARKET_OPEN, 100, 102, 99, 101);
+        addBar(bars, "BANKNIFTY", MARKET_OPEN, 200);
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(1), 101, 103, 100, 102);
+        // a gap - this tick completes the 09:15 bar and then its own 09:25 bar
+        addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(14), 105);
+
+        Table resampled = BarResampler.resample(bars, Timeframe.minutes(5));
+        assertThat(resampled.rowCount(), is(3));
+        assertThat(resampled.stringColumn(ScripColumns.TICKER).asList(), is(List.of("NIFTY", "NIFTY", "BANKNIFTY")));
+        assertThat(resampled.dateTimeColumn(ScripColumns.TIME).asList(),
+                is(List.of(MARKET_OPEN, MARKET_OPEN.plusMinutes(10), MARKET_OPEN)));
+        assertThat(resampled.doubleColumn(ScripColumns.HIGH).getDouble(0), is(103.0));
+        assertThat(resampled.doubleColumn(ScripColumns.LOW).getDouble(0), is(99.0));
+        assertThat(resampled.doubleColumn(ScripColumns.CLOSE).getDouble(0), is(102.0));
+        assertThat(resampled.intColumn(ScripColumns.VOLUME).getInt(0), is(200));
+        assertThat(resampled.intColumn(ScripColumns.OPEN_INTEREST).isMissing(0), is(true));
+    }
+
+    private abstract static class TickStrategy implements Strategy {
+        @Override
+        public List<Order> afterOrder(Order order, Context context) {
+            return Collections.emptyList();
+        }
+    }
+}
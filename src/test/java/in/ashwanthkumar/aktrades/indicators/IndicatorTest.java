@@ -0,0 +1,117 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.ledger.TickerIds;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+public class IndicatorTest {
+    private static final int TICKS = 500;
+    private static final int TICKERS = 3;
+
+    @Test
+    public void testIncrementalValuesMatchTheValuesOverTheWholeHistory() {
+        Random random = new Random(42);
+        double[][] high = new double[TICKERS][TICKS];
+        double[][] low = new double[TICKERS][TICKS];
+        double[][] close = new double[TICKERS][TICKS];
+        for (int t = 0; t < TICKERS; t++) {
+            double price = 1000 * (t + 1);
+            for (int i = 0; i < TICKS; i++) {
+                price += random.nextInt(41) - 20;
+                high[t][i] = price + random.nextInt(10);
+                low[t][i] = price - random.nextInt(10);
+                close[t][i] = price;
+            }
+        }
+
+        int period = 14;
+        TickerIds tickerIds = new TickerIds();
+        Indicator sma = Indicator.of(IndicatorSpec.sma(period), tickerIds);
+        Indicator ema = Indicator.of(IndicatorSpec.ema(period), tickerIds);
+        Indicator atr = Indicator.of(IndicatorSpec.atr(period), tickerIds);
+        Indicator highest = Indicator.of(IndicatorSpec.highest(period), tickerIds);
+        Indicator lowest = Indicator.of(IndicatorSpec.lowest(period), tickerIds);
+        Indicator[] all = {sma, ema, atr, highest, lowest};
+        for (int i = 0; i < TICKS; i++) {
+            // the ticks of the tickers are interleaved like they're in a backtest
+            for (int t = 0; t < TICKERS; t++) {
+                int id = tickerIds.intern("T" + t);
+                for (Indicator indicator : all) {
+                    indicator.update(id, 60L * i, close[t][i], high[t][i], low[t][i], close[t][i], 0);
+                }
+                if (i < period - 1) {
+                    for (Indicator indicator : all) {
+                        assertThat(indicator.getSpec() + " shouldn't be ready", indicator.isReady("T" + t), is(false));
+                    }
+                    continue;
+                }
+                assertThat(sma.value(id), closeTo(sma(close[t], i, period), 1e-6));
+                assertThat(ema.value(id), closeTo(ema(close[t], i, period), 1e-6));
+                assertThat(atr.value(id), closeTo(atr(high[t], low[t], close[t], i, period), 1e-6));
+                assertThat(highest.value(id), is(extreme(high[t], i, period, true)));
+                assertThat(lowest.value(id), is(extreme(low[t], i, period, false)));
+            }
+        }
+        assertThat(Double.isNaN(sma.value("UNKNOWN")), is(true));
+    }
+
+    @Test
+    public void testVwapStartsOverEveryDay() {
+        TickerIds tickerIds = new TickerIds();
+        Indicator vwap = Indicator.of(IndicatorSpec.vwap(), tickerIds);
+        int id = tickerIds.intern("NIFTY-FUT");
+        long day = 19000L * 24 * 60 * 60;
+        vwap.update(id, day + 100, 0, 103, 97, 100, 10);
+        vwap.update(id, day + 160, 0, 113, 107, 110, 30);
+        assertThat(vwap.value(id), is((100.0 * 10 + 110.0 * 30) / 40));
+
+        long nextDay = day + 24 * 60 * 60;
+        vwap.update(id, nextDay + 100, 0, 200, 200, 200, 0);
+        // no volume traded on the day yet
+        assertThat(Double.isNaN(vwap.value(id)), is(true));
+        vwap.update(id, nextDay + 160, 0, 210, 210, 210, 5);
+        assertThat(vwap.value(id), is(210.0));
+    }
+
+    private static double sma(double[] close, int end, int period) {
+        double sum = 0;
+        for (int i = end - period + 1; i <= end; i++) {
+            sum += close[i];
+        }
+        return sum / period;
+    }
+
+    private static double ema(double[] close, int end, int period) {
+        double value = sma(close, period - 1, period);
+        double alpha = 2.0 / (period + 1);
+        for (int i = period; i <= end; i++) {
+            value = alpha * close[i] + (1 - alpha) * value;
+        }
+        return value;
+    }
+
+    private static double atr(double[] high, double[] low, double[] close, int end, int period) {
+        double[] trueRange = new double[end + 1];
+        for (int i = 0; i <= end; i++) {
+            trueRange[i] = i == 0 ? high[i] - low[i] : Math.max(high[i] - low[i], Math.max(Math.abs(high[i] - close[i - 1]), Math.abs(low[i] - close[i - 1])));
+        }
+        double value = sma(trueRange, period - 1, period);
+        for (int i = period; i <= end; i++) {
+            value = (value * (period - 1) + trueRange[i]) / period;
+        }
+        return value;
+    }
+
+    private static double extreme(double[] values, int end, int period, boolean highest) {
+        double extreme = values[end];
+        for (int i = end - period + 1; i <= end; i++) {
+            extreme = highest ? Math.max(extreme, values[i]) : Math.min(extreme, values[i]);
+        }
+        return extreme;
+    }
+}
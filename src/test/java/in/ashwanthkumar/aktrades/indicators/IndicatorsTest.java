@@ -0,0 +1,90 @@
+package in.ashwanthkumar.aktrades.indicators;
+
+import in.ashwanthkumar.aktrades.*;
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.plugins.ColumnarTransformation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.addBar;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IndicatorsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testStrategiesShareTheIndicatorsThroughTheContext() throws Exception {
+        Table bars = TestData.bars();
+        for (int i = 0; i < 4; i++) {
+            addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(i), 100 + i);
+            addBar(bars, "BANKNIFTY", MARKET_OPEN.plusMinutes(i), 200 + 2 * i);
+        }
+        File file = TestData.write(folder.newFile("bars.bin"), bars);
+
+        List<String> seen = new ArrayList<>();
+        Strategy strategy = new TickStrategy() {
+            private Indicator sma;
+
+            @Override
+            public List<Order> onTick(Scrip scrip, Context context) {
+                if (sma == null) {
+                    // registered on the first tick, it still sees that tick
+                    sma = context.indicator(IndicatorSpec.sma(2));
+                    assertThat(context.indicator(IndicatorSpec.sma(2)), sameInstance(sma));
+                }
+                seen.add(scrip.getName() + "=" + sma.value(scrip.getName()));
+                return Collections.emptyList();
+            }
+        };
+        try (MappedDataset dataset = MappedDataset.open(file)) {
+            Context context = new Context(20);
+            new BacktestEngine(TickIndex.of(dataset), strategy, context).execute();
+            assertThat(context.getIndicators().specs(), is(List.of(IndicatorSpec.sma(2))));
+        }
+        assertThat(seen, is(List.of(
+                "BANKNIFTY=NaN", "NIFTY=NaN",
+                "BANKNIFTY=201.0", "NIFTY=100.5",
+                "BANKNIFTY=203.0", "NIFTY=101.5",
+                "BANKNIFTY=205.0", "NIFTY=102.5"
+        )));
+    }
+
+    @Test
+    public void testIndicatorsArePrecomputedAsColumns() {
+        Table bars = TestData.bars();
+        for (int i = 0; i < 3; i++) {
+            addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(i), 100 + i);
+            addBar(bars, "BANKNIFTY", MARKET_OPEN.plusMinutes(i), 200 - i);
+        }
+        List<IndicatorSpec> specs = List.of(IndicatorSpec.sma(2), IndicatorSpec.highest(2), IndicatorSpec.vwap());
+        Table table = new ColumnarTransformation(List.of(new IndicatorStage(specs)), Set.of()).transform(bars);
+
+        DoubleColumn sma = table.doubleColumn("SMA(2)");
+        assertThat(sma.getDouble(2), is(100.5));
+        assertThat(sma.getDouble(3), is(199.5));
+        assertThat(sma.isMissing(1), is(true));
+        assertThat(table.doubleColumn("HIGHEST(2)").getDouble(5), is(199.0));
+        assertThat(table.doubleColumn("VWAP").getDouble(4), is(101.0));
+    }
+
+    private abstract static class TickStrategy implements Strategy {
+        @Override
+        public List<Order> afterOrder(Order order, Context context) {
+            return Collections.emptyList();
+        }
+    }
+}
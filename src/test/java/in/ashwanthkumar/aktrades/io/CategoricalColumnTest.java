@@ -0,0 +1,97 @@
+package in.ashwanthkumar.aktrades.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.selection.Selection;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CategoricalColumnTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPredicatesAndGroupsAreOnTheCodes() {
+        StringColumn ticker = StringColumn.create("Ticker", "NIFTY", "NIFTY", "BANKNIFTY", "NIFTY");
+        ticker.appendMissing();
+        ticker.append("NIFTYWK17000CE");
+        CategoricalColumn categorical = CategoricalColumn.of(ticker);
+
+        assertThat(categorical.dictionary(), is(List.of("NIFTY", "BANKNIFTY", "NIFTYWK17000CE")));
+        assertThat(categorical.getCode(3), is(0));
+        assertThat(categorical.isMissing(4), is(true));
+        assertThat(categorical.getString(4) == null, is(true));
+        assertThat(categorical.codeOf("ACC"), is(-1));
+
+        assertThat(categorical.isIn(Set.of("BANKNIFTY", "NIFTYWK17000CE", "ACC")).toArray(), is(new int[]{2, 5}));
+        assertThat(categorical.isEqualTo("NIFTY").toArray(), is(new int[]{0, 1, 3}));
+        assertThat(categorical.eval(value -> value.startsWith("NIFTY")).toArray(), is(new int[]{0, 1, 3, 5}));
+        assertThat(categorical.countByCode(), is(new int[]{3, 1, 1}));
+
+        Map<String, Selection> groups = categorical.groupBy();
+        assertThat(List.copyOf(groups.keySet()), is(List.of("NIFTY", "BANKNIFTY", "NIFTYWK17000CE")));
+        assertThat(groups.get("NIFTY").toArray(), is(new int[]{0, 1, 3}));
+
+        StringColumn decoded = categorical.toStringColumn();
+        assertThat(decoded.asList(), is(ticker.asList()));
+        assertThat(decoded.isMissing(4), is(true));
+    }
+
+    @Test
+    public void testMappedColumnsKeepTheirCodes() throws Exception {
+        File output = folder.newFile("categorical.bin");
+        Table table = Table.create(
+                StringColumn.create("Ticker", "NIFTY", "BANKNIFTY", "NIFTY", "NIFTY-FUT", "BANKNIFTY"),
+                DoubleColumn.create("Close", 1, 2, 3, 4, 5));
+        new DataWriter(table, output).write(Set.of("Ticker"), 2);
+
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            CategoricalColumn ticker = dataset.categorical("Ticker");
+            assertThat(ticker.size(), is(5));
+            // codes are the ones in the file, the dictionary is shared by all the batches
+            assertThat(ticker.dictionary(), is(List.of("NIFTY", "BANKNIFTY", "NIFTY-FUT")));
+            assertThat(ticker.getCode(4), is(1));
+            assertThat(ticker.toStringColumn().asList(), is(table.stringColumn("Ticker").asList()));
+        }
+    }
+
+    @Test
+    public void testEveryCodeTheWriterAcceptsIsReadBack() throws Exception {
+        File output = folder.newFile("largest.bin");
+        new DataWriter(tickers(CategoricalColumn.MISSING), output).write(Set.of("Ticker"));
+
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            CategoricalColumn ticker = dataset.categorical("Ticker");
+            int last = CategoricalColumn.MISSING - 1;
+            assertThat(ticker.dictionary().size(), is(CategoricalColumn.MISSING));
+            assertThat(ticker.getCode(last), is(last));
+            assertThat(ticker.isMissing(last), is(false));
+            assertThat(ticker.getString(last), is("T" + last));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTheWriterRejectsTheCodeOfTheMissingValues() throws Exception {
+        new DataWriter(tickers(CategoricalColumn.MISSING + 1), folder.newFile("overflow.bin")).write(Set.of("Ticker"));
+    }
+
+    private static Table tickers(int count) {
+        StringColumn ticker = StringColumn.create("Ticker");
+        DoubleColumn close = DoubleColumn.create("Close");
+        for (int i = 0; i < count; i++) {
+            ticker.append("T" + i);
+            close.append(i);
+        }
+        return Table.create(ticker, close);
+    }
+}
@@ -0,0 +1,46 @@
+package in.ashwanthkumar.aktrades.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ImportCatalogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testOnlyNewFilesAreImported() throws Exception {
+        File root = folder.newFolder("dataset");
+        File day1 = csv("day-1.csv", "Ticker,Seq\nNIFTY,1\n");
+        File day2 = csv("day-2.csv", "Ticker,Seq\nNIFTY,2\n");
+
+        ImportCatalog catalog = ImportCatalog.open(root);
+        assertThat(catalog.newFiles(List.of(day1)), is(List.of(day1)));
+        catalog.add(List.of(day1));
+        catalog.save();
+
+        ImportCatalog reopened = ImportCatalog.open(root);
+        assertThat(reopened.size(), is(1));
+        assertThat(reopened.get("day-1.csv").get().getSize(), is(day1.length()));
+        assertThat(reopened.newFiles(List.of(day1, day2)), is(List.of(day2)));
+
+        // touching a file doesn't make it new, changing its contents makes it skipped
+        day1.setLastModified(day1.lastModified() + 10_000);
+        assertThat(reopened.newFiles(List.of(day1)), is(List.of()));
+        Files.writeString(day1.toPath(), "Ticker,Seq\nNIFTY,3\n");
+        assertThat(reopened.newFiles(List.of(day1)), is(List.of()));
+    }
+
+    private File csv(String name, String content) throws Exception {
+        File file = folder.newFile(name);
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+}
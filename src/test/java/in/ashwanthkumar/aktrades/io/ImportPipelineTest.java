@@ -0,0 +1,44 @@
+package in.ashwanthkumar.aktrades.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ImportPipelineTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFilesAreWrittenInDeterministicOrder() throws Exception {
+        File day2 = csv("day-2.csv", "Ticker,Seq\nNIFTY,4\nBANKNIFTY,3\n");
+        File day1 = csv("day-1.csv", "Ticker,Seq\nNIFTY,2\nBANKNIFTY,1\nNIFTY,1\n");
+        File output = folder.newFile("dataset.bin");
+
+        ImportPipeline pipeline = new ImportPipeline(() -> table -> table, 2, 2, List.of("Ticker", "Seq"));
+        ImportPipeline.ImportStats stats;
+        try (StreamingDataWriter writer = new StreamingDataWriter(output, Set.of("Ticker"))) {
+            stats = pipeline.run(List.of(day2, day1), writer);
+        }
+        assertThat(stats.getFiles(), is(2));
+        assertThat(stats.getRows(), is(5L));
+
+        Table table = new DataReader(output).read();
+        assertThat(table.stringColumn("Ticker").asList(), is(List.of("BANKNIFTY", "NIFTY", "NIFTY", "BANKNIFTY", "NIFTY")));
+        assertThat(table.intColumn("Seq").asList(), is(List.of(1, 1, 2, 3, 4)));
+    }
+
+    private File csv(String name, String content) throws Exception {
+        File file = folder.newFile(name);
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+}
@@ -0,0 +1,78 @@
+package in.ashwanthkumar.aktrades.io;
+
+import in.ashwanthkumar.aktrades.io.view.DoubleColumnView;
+import in.ashwanthkumar.aktrades.io.view.StringColumnView;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.DateTimeColumn;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class MappedDatasetTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMappedColumnsMatchTheWrittenTable() throws Exception {
+        LocalDateTime start = MARKET_OPEN;
+        Table table = Table.create(
+                StringColumn.create("Ticker", "NIFTY", "BANKNIFTY", "NIFTY"),
+                DoubleColumn.create("Close", 17500.5, 38000.25, 17510.75),
+                IntColumn.create("Volume", 10, 20, 30),
+                DateTimeColumn.create("Time", start, start, start.plusMinutes(1))
+        );
+        File output = folder.newFile("dataset.bin");
+        new DataWriter(table, output).write(Set.of("Ticker"));
+
+        try (MappedDataset dataset = new DataReader(output).map()) {
+            assertThat(dataset.batchCount(), is(1));
+            assertThat(dataset.rowCount(), is(3L));
+
+            MappedBatch batch = dataset.batch(0);
+            StringColumnView ticker = batch.stringColumn("Ticker");
+            assertThat(ticker.isDictionaryEncoded(), is(true));
+            assertThat(ticker.getString(1), is("BANKNIFTY"));
+            assertThat(ticker.getCode(0), is(ticker.getCode(2)));
+            assertThat(batch.doubleColumn("Close").getDouble(2), is(17510.75));
+            assertThat(batch.intColumn("Volume").getInt(1), is(20));
+            assertThat(batch.timestampColumn("Time").getEpochSecond(2), is(start.plusMinutes(1).toEpochSecond(ZoneOffset.UTC)));
+
+            Table materialized = dataset.toTable();
+            assertThat(materialized.rowCount(), is(3));
+            assertThat(materialized.stringColumn("Ticker").asList(), is(List.of("NIFTY", "BANKNIFTY", "NIFTY")));
+            assertThat(materialized.intColumn("Volume").getInt(2), is(30));
+        }
+    }
+
+    @Test
+    public void testBatchesAndTheirViewsCantBeReadOnceTheDatasetIsClosed() throws Exception {
+        for (Compression compression : List.of(Compression.NONE, Compression.LZ4_FRAME)) {
+            File output = folder.newFile("dataset-" + compression + ".bin");
+            new DataWriter(Table.create(DoubleColumn.create("Close", 17500.5, 17510.75)), output).write(Set.of(), compression);
+
+            MappedDataset dataset = new DataReader(output).map();
+            MappedBatch batch = dataset.batch(0);
+            DoubleColumnView close = batch.doubleColumn("Close");
+            assertThat(close.getDouble(1), is(17510.75));
+            dataset.close();
+
+            assertThrows(IllegalStateException.class, () -> dataset.batch(0));
+            assertThrows(IllegalStateException.class, () -> batch.doubleColumn("Close"));
+            assertThrows(IllegalStateException.class, () -> close.getDouble(1));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package in.ashwanthkumar.aktrades.io;
+
+import in.ashwanthkumar.aktrades.TestData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.addBar;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PartitionedDatasetTest {
+    private static final LocalDateTime DAY_2 = MARKET_OPEN.plusDays(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testOnlyTheMatchingPartitionsAreRead() throws Exception {
+        File root = folder.newFolder("dataset");
+        try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of("Ticker"))) {
+            writer.append(bars(MARKET_OPEN, "NIFTY", "BANKNIFTY-FUT"));
+        }
+        // the second day is imported later on
+        try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of("Ticker"))) {
+            writer.append(bars(DAY_2, "NIFTY", "BANKNIFTY-FUT"));
+            assertThat(writer.segmentsWritten(), is(2));
+        }
+
+        PartitionedDataset dataset = PartitionedDataset.open(root);
+        assertThat(dataset.partitions().size(), is(4));
+        assertThat(dataset.tickers(), is(Set.of("BANKNIFTY-FUT", "NIFTY")));
+        Partition first = dataset.partitions().get(0);
+        assertThat(first.getTicker(), is("BANKNIFTY-FUT"));
+        assertThat(first.getDate(), is(MARKET_OPEN.toLocalDate()));
+        assertThat(first.getRows(), is(2L));
+        assertThat(first.getMaxTime() - first.getMinTime(), is(60L));
+
+        PartitionFilter niftyOnDay2 = PartitionFilter.all().tickers("NIFTY").between(DAY_2.toLocalDate(), LocalDate.of(2022, 1, 31));
+        assertThat(dataset.partitions(niftyOnDay2).size(), is(1));
+        Table table = dataset.read(niftyOnDay2);
+        assertThat(table.stringColumn("Ticker").asList(), is(List.of("NIFTY", "NIFTY")));
+        assertThat(table.dateTimeColumn("Time").asList(), is(List.of(DAY_2, DAY_2.plusMinutes(1))));
+
+        List<MappedDataset> mapped = dataset.map(PartitionFilter.all().tickers("NIFTY"));
+        try {
+            assertThat(mapped.size(), is(2));
+            assertThat(mapped.get(0).rowCount() + mapped.get(1).rowCount(), is(4L));
+        } finally {
+            mapped.forEach(MappedDataset::close);
+        }
+    }
+
+    @Test
+    public void testLateRowsOfAPartitionLandInANewSegment() throws Exception {
+        File root = folder.newFolder("dataset");
+        try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of("Ticker"))) {
+            writer.append(bars(MARKET_OPEN, "NIFTY"));
+            writer.append(bars(MARKET_OPEN.plusMinutes(2), "NIFTY"));
+        }
+        PartitionedDataset dataset = PartitionedDataset.open(root);
+        assertThat(dataset.partitions().size(), is(2));
+        assertThat(dataset.partitions().get(0).getPath(), is("ticker=NIFTY/date=2022-01-03.bin"));
+        assertThat(dataset.partitions().get(1).getPath(), is("ticker=NIFTY/date=2022-01-03-1.bin"));
+        assertThat(dataset.read(PartitionFilter.all()).rowCount(), is(4));
+    }
+
+    private static Table bars(LocalDateTime time, String... tickers) {
+        Table bars = TestData.bars();
+        // rows are out of order on purpose
+        for (int minute = 1; minute >= 0; minute--) {
+            for (String name : tickers) {
+                addBar(bars, name, time.plusMinutes(minute), 100 + minute);
+            }
+        }
+        return bars;
+    }
+}
@@ -0,0 +1,98 @@
+package in.ashwanthkumar.aktrades.io;
+
+import in.ashwanthkumar.aktrades.TestData;
+import in.ashwanthkumar.aktrades.metrics.Metrics;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.util.Set;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SegmentCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testOverlappingBacktestsShareTheDecodedSegments() throws Exception {
+        PartitionedDataset dataset = dataset(3);
+        Metrics metrics = new Metrics();
+        try (SegmentCache cache = new SegmentCache(Long.MAX_VALUE, metrics)) {
+            PartitionFilter first = PartitionFilter.all().tickers("NIFTY").between(MARKET_OPEN.toLocalDate(), MARKET_OPEN.toLocalDate().plusDays(1));
+            PartitionFilter second = PartitionFilter.all().tickers("NIFTY");
+            try (SegmentCache.Lease a = cache.acquire(dataset, first); SegmentCache.Lease b = cache.acquire(dataset, second)) {
+                assertThat(a.datasets().size(), is(2));
+                assertThat(b.datasets().size(), is(3));
+                assertThat(b.datasets().get(0), sameInstance(a.datasets().get(0)));
+                assertThat(b.datasets().get(1).rowCount(), is(10L));
+            }
+            assertThat(metrics.counter(SegmentCache.MISSES).get(), is(3L));
+            assertThat(metrics.counter(SegmentCache.HITS).get(), is(2L));
+            assertThat(cache.size(), is(3));
+            assertThat(cache.bytes() > 0, is(true));
+        }
+    }
+
+    @Test
+    public void testOnlyTheUnpinnedSegmentsAreEvicted() throws Exception {
+        PartitionedDataset dataset = dataset(3);
+        long segmentBytes = dataset.file(dataset.partitions().get(0)).length();
+        Metrics metrics = new Metrics();
+        // room for about 2 segments
+        try (SegmentCache cache = new SegmentCache(segmentBytes * 2 + segmentBytes / 2, metrics)) {
+            PartitionFilter day1 = PartitionFilter.all().tickers("NIFTY").between(MARKET_OPEN.toLocalDate(), MARKET_OPEN.toLocalDate());
+            PartitionFilter day2 = PartitionFilter.all().tickers("NIFTY").between(MARKET_OPEN.toLocalDate().plusDays(1), MARKET_OPEN.toLocalDate().plusDays(1));
+            try (SegmentCache.Lease pinned = cache.acquire(dataset, day1)) {
+                // the 3 segments are over the size, but the first one is pinned
+                cache.acquire(dataset, PartitionFilter.all()).close();
+                assertThat(cache.size(), is(2));
+                assertThat(metrics.counter(SegmentCache.EVICTIONS).get(), is(1L));
+                // day 2 was the least recently used one that wasn't pinned
+                cache.acquire(dataset, day1).close();
+                assertThat(pinned.datasets().get(0).rowCount(), is(10L));
+                cache.acquire(dataset, day2).close();
+                assertThat(metrics.counter(SegmentCache.MISSES).get(), is(4L));
+            }
+        }
+    }
+
+    @Test
+    public void testAChangedSegmentIsReloaded() throws Exception {
+        PartitionedDataset dataset = dataset(1);
+        Metrics metrics = new Metrics();
+        try (SegmentCache cache = new SegmentCache(Long.MAX_VALUE, metrics)) {
+            SegmentCache.Lease old = cache.acquire(dataset, PartitionFilter.all());
+            MappedDataset before = old.datasets().get(0);
+
+            // replaced with a new file, the old one is still mapped
+            File file = dataset.file(dataset.partitions().get(0));
+            assertThat(file.delete(), is(true));
+            new DataWriter(TestData.bars("NIFTY", MARKET_OPEN, 20), file).write(Set.of("Ticker"));
+            try (SegmentCache.Lease reloaded = cache.acquire(dataset, PartitionFilter.all())) {
+                assertThat(reloaded.datasets().get(0), not(sameInstance(before)));
+                assertThat(reloaded.datasets().get(0).rowCount(), is(20L));
+            }
+            // the old segment is still usable till it's released
+            assertThat(before.rowCount(), is(10L));
+            old.close();
+            assertThat(metrics.counter(SegmentCache.MISSES).get(), is(2L));
+        }
+    }
+
+    private PartitionedDataset dataset(int days) throws Exception {
+        File root = folder.newFolder("dataset");
+        try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of("Ticker"))) {
+            for (int day = 0; day < days; day++) {
+                writer.append(TestData.bars("NIFTY", MARKET_OPEN.plusDays(day), 10));
+            }
+        }
+        return PartitionedDataset.open(root);
+    }
+}
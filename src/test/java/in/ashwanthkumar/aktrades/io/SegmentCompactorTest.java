@@ -0,0 +1,85 @@
+package in.ashwanthkumar.aktrades.io;
+
+import in.ashwanthkumar.aktrades.TestData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SegmentCompactorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSmallSegmentsAreMergedIntoSortedSegments() throws Exception {
+        File root = folder.newFolder("dataset");
+        try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of("Ticker"))) {
+            for (int day = 0; day < 5; day++) {
+                writer.append(TestData.bars("NIFTY", MARKET_OPEN.plusDays(day), 2));
+            }
+            // a late file for the 2nd day, it overlaps with the existing segment
+            writer.append(TestData.bars("NIFTY", MARKET_OPEN.plusDays(1).plusSeconds(30), 1));
+            writer.append(TestData.bars("BANKNIFTY", MARKET_OPEN, 2));
+        }
+        assertThat(PartitionedDataset.open(root).partitions().size(), is(7));
+
+        // segments of at most 4 rows, segments of less than 3 rows are small
+        SegmentCompactor compactor = new SegmentCompactor(root, Set.of("Ticker"), 3, 4);
+        SegmentCompactor.CompactionStats stats = compactor.compactInBackground().join();
+        assertThat(stats.getSegmentsBefore(), is(7));
+        assertThat(stats.getMerges(), is(2));
+
+        PartitionedDataset dataset = PartitionedDataset.open(root);
+        List<String> segments = dataset.partitions().stream()
+                .map(p -> p.getTicker() + " " + p.getDate() + ".." + p.getEndDate() + " " + p.getRows())
+                .collect(Collectors.toList());
+        assertThat(segments, is(List.of(
+                "BANKNIFTY 2022-01-03..2022-01-03 2",
+                // the late segment is merged even though it goes over the target
+                "NIFTY 2022-01-03..2022-01-04 5",
+                "NIFTY 2022-01-05..2022-01-06 4",
+                "NIFTY 2022-01-07..2022-01-07 2"
+        )));
+
+        // the replaced segments are deleted
+        long files;
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            files = paths.filter(path -> path.toString().endsWith(".bin")).count();
+        }
+        assertThat(files, is(4L));
+
+        // rows are in time order and we read only the dates that we ask for
+        Table day2 = dataset.read(PartitionFilter.all().tickers("NIFTY").between(LocalDate.of(2022, 1, 4), LocalDate.of(2022, 1, 4)));
+        assertThat(day2.dateTimeColumn("Time").asList(), is(List.of(
+                MARKET_OPEN.plusDays(1), MARKET_OPEN.plusDays(1).plusSeconds(30), MARKET_OPEN.plusDays(1).plusMinutes(1))));
+    }
+
+    @Test
+    public void testRowsOfAFileThatWasImportedTwiceAreDropped() throws Exception {
+        File root = folder.newFolder("dataset");
+        // the segments of the file were added, but the catalog wasn't saved before a crash
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try (PartitionedDataWriter writer = new PartitionedDataWriter(root, Set.of("Ticker"))) {
+                writer.append(TestData.bars("NIFTY", MARKET_OPEN, 3));
+            }
+        }
+        assertThat(PartitionedDataset.open(root).read(PartitionFilter.all()).rowCount(), is(6));
+
+        new SegmentCompactor(root, Set.of("Ticker"), 3, 4).compact();
+        Table nifty = PartitionedDataset.open(root).read(PartitionFilter.all());
+        assertThat(nifty.dateTimeColumn("Time").asList(), is(List.of(MARKET_OPEN, MARKET_OPEN.plusMinutes(1), MARKET_OPEN.plusMinutes(2))));
+    }
+}
@@ -0,0 +1,178 @@
+package in.ashwanthkumar.aktrades.io;
+
+import in.ashwanthkumar.aktrades.io.view.DoubleColumnView;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.DateTimeColumn;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StreamingDataWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEachBatchIsFlushedAsItsOwnRecordBatch() throws Exception {
+        File output = folder.newFile("dataset.bin");
+        try (StreamingDataWriter writer = new StreamingDataWriter(output, Set.of("Ticker"), 2)) {
+            writer.append(Table.create(
+                    StringColumn.create("Ticker", "NIFTY", "NIFTY", "NIFTY"),
+                    DoubleColumn.create("Close", 1.5, 2.5, 3.5)
+            ));
+            // new categorical values show up only in the later chunks
+            writer.append(Table.create(
+                    StringColumn.create("Ticker", "BANKNIFTY", "NIFTY-FUT"),
+                    DoubleColumn.create("Close", 4.5, 5.5)
+            ));
+            assertThat(writer.getBatchesWritten(), is(2));
+        }
+
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            assertThat(dataset.batchCount(), is(3));
+            assertThat(dataset.batch(2).rowCount(), is(1));
+            assertThat(dataset.batch(2).stringColumn("Ticker").getString(0), is("NIFTY-FUT"));
+        }
+
+        List<Integer> rowsPerBatch = new ArrayList<>();
+        try (DataReader.BatchIterator batches = new DataReader(output).batches()) {
+            batches.forEachRemaining(batch -> rowsPerBatch.add(batch.rowCount()));
+        }
+        assertThat(rowsPerBatch, is(List.of(2, 2, 1)));
+
+        Table table = new DataReader(output).read();
+        assertThat(table.rowCount(), is(5));
+        assertThat(table.stringColumn("Ticker").asList(), is(List.of("NIFTY", "NIFTY", "NIFTY", "BANKNIFTY", "NIFTY-FUT")));
+        assertThat(table.doubleColumn("Close").getDouble(3), is(4.5));
+    }
+
+    @Test
+    public void testPricesAreStoredAsExactTicks() throws Exception {
+        File output = folder.newFile("prices.bin");
+        double[] closes = {38123.45, 38123.5, 38099.05, 41250.95, 41250.9};
+        try (StreamingDataWriter writer = new StreamingDataWriter(output, Set.of("Ticker"), 2)) {
+            writer.append(Table.create(
+                    StringColumn.create("Ticker", "BANKNIFTY", "BANKNIFTY", "BANKNIFTY", "BANKNIFTY", "BANKNIFTY"),
+                    DoubleColumn.create("Close", closes),
+                    DoubleColumn.create("Ratio", 0.125, 0.25, 0.5, 1.0, 2.0)
+            ));
+        }
+
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            DoubleColumnView close = dataset.batch(1).doubleColumn("Close");
+            assertThat(close.isScaled(), is(true));
+            assertThat(close.getTicks(0), is(3809905L));
+            assertThat(close.getDouble(1), is(41250.95));
+            // columns that aren't prices are still written as floats
+            assertThat(dataset.batch(1).doubleColumn("Ratio").isScaled(), is(false));
+
+            long[] ticks = new long[2];
+            dataset.batch(0).doubleColumn("Close").copyTicksTo(ticks, 0);
+            assertThat(ticks, is(new long[]{3812345, 3812350}));
+        }
+
+        Table table = new DataReader(output).read();
+        assertThat(table.doubleColumn("Close").asDoubleArray(), is(closes));
+        assertThat(table.doubleColumn("Ratio").getDouble(4), is(2.0));
+    }
+
+    @Test
+    public void testMissingPricesAreReadAsMissing() throws Exception {
+        File output = folder.newFile("missing.bin");
+        DoubleColumn close = DoubleColumn.create("Close", 17500.05, 17501.1);
+        close.appendMissing();
+        try (StreamingDataWriter writer = new StreamingDataWriter(output, Set.of(), 3)) {
+            writer.append(Table.create(close));
+        }
+
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            assertThat(dataset.batch(0).doubleColumn("Close").isNull(2), is(true));
+        }
+        Table table = new DataReader(output).read();
+        assertThat(table.doubleColumn("Close").getDouble(0), is(17500.05));
+        assertThat(table.doubleColumn("Close").isMissing(2), is(true));
+    }
+
+    @Test
+    public void testCompressedBatchesAreReadBack() throws Exception {
+        int rows = 10_000;
+        StringColumn ticker = StringColumn.create("Ticker");
+        DoubleColumn close = DoubleColumn.create("Close");
+        for (int i = 0; i < rows; i++) {
+            ticker.append(i % 3 == 0 ? "NIFTY" : "BANKNIFTY");
+            close.append(17000 + (i % 200) * 0.05);
+        }
+        Table table = Table.create(ticker, close);
+
+        File uncompressed = folder.newFile("uncompressed.bin");
+        new DataWriter(table, uncompressed).write(Set.of("Ticker"), Compression.NONE, 1000);
+        for (Compression compression : List.of(Compression.LZ4_FRAME, Compression.ZSTD)) {
+            File output = folder.newFile(compression + ".bin");
+            new DataWriter(table, output).write(Set.of("Ticker"), compression, 1000);
+            assertThat(compression + " should be smaller", output.length() < uncompressed.length(), is(true));
+
+            // batches are decompressed concurrently and appended in order
+            Table read = new DataReader(output).read(4);
+            assertThat(read.stringColumn("Ticker").asList(), is(ticker.asList()));
+            assertThat(read.doubleColumn("Close").asDoubleArray(), is(close.asDoubleArray()));
+
+            try (MappedDataset dataset = MappedDataset.open(output)) {
+                assertThat(dataset.batchCount(), is(10));
+                assertThat(dataset.batch(9).doubleColumn("Close").getDouble(999), is(close.getDouble(9999)));
+                assertThat(dataset.batch(9).stringColumn("Ticker").getString(999), is("NIFTY"));
+            }
+            try (DataReader.BatchIterator batches = new DataReader(output).batches()) {
+                assertThat(batches.next().doubleColumn("Close").getDouble(1), is(17000.05));
+            }
+        }
+    }
+
+    @Test
+    public void testFooterDescribesTheDatasetAndPrunesTheBatches() throws Exception {
+        File output = folder.newFile("zonemaps.bin");
+        LocalDateTime open = MARKET_OPEN;
+        StringColumn ticker = StringColumn.create("Ticker");
+        DateTimeColumn time = DateTimeColumn.create("Time");
+        DoubleColumn close = DoubleColumn.create("Close");
+        for (int i = 0; i < 18; i++) {
+            ticker.append(List.of("A", "B", "C").get(i / 6));
+            time.append(open.plusMinutes(i));
+            close.append(100 + i);
+        }
+        // [A A A A] [A A B B] [B B B B] [C C C C] [C C]
+        new DataWriter(Table.create(ticker, time, close), output).write(Set.of("Ticker"), 4);
+
+        DatasetMetadata metadata = new DataReader(output).metadata();
+        assertThat(metadata.getCategoricalColumns(), is(Set.of("Ticker")));
+        assertThat(metadata.getSortKeys(), is(List.of("Time")));
+        assertThat(metadata.zoneMap("Ticker").min(1), is(0L));
+        assertThat(metadata.zoneMap("Ticker").max(1), is(1L));
+        assertThat(metadata.zoneMap("Close").max(4), is(11700L));
+        assertThat(metadata.zoneMap("Time").min(3), is(open.plusMinutes(12).toEpochSecond(ZoneOffset.UTC)));
+
+        try (MappedDataset dataset = MappedDataset.open(output)) {
+            assertThat(dataset.matchingBatches(BatchFilter.all()), is(List.of(0, 1, 2, 3, 4)));
+            assertThat(dataset.matchingBatches(BatchFilter.all().tickers("B")), is(List.of(1, 2)));
+            assertThat(dataset.matchingBatches(BatchFilter.all().between(open.plusMinutes(13), open.plusMinutes(14))), is(List.of(3)));
+            assertThat(dataset.matchingBatches(BatchFilter.all().tickers("UNKNOWN")), is(List.of()));
+        }
+
+        Table b = new DataReader(output).read(BatchFilter.all().tickers("B"));
+        assertThat(b.rowCount(), is(6));
+        assertThat(b.stringColumn("Ticker").countUnique(), is(1));
+        Table lateC = new DataReader(output).read(BatchFilter.all().tickers("A", "C").between(open.plusMinutes(15), open.plusMinutes(30)));
+        assertThat(lateC.doubleColumn("Close").asDoubleArray(), is(new double[]{115, 116, 117}));
+    }
+}
@@ -0,0 +1,72 @@
+package in.ashwanthkumar.aktrades.ledger;
+
+import in.ashwanthkumar.aktrades.model.Order;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+import in.ashwanthkumar.aktrades.model.Position;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PrimitivePositionLedgerTest {
+    @Test
+    public void testScaleUpAndExitInFifoOrder() {
+        PrimitivePositionLedger ledger = new PrimitivePositionLedger();
+        // more lots than the initial size of the ring, with exits in between so that it wraps around
+        for (int i = 0; i < 3; i++) {
+            ledger.execute(buy("NIFTY", 1), 10.0 + i);
+        }
+        ledger.execute(sell("NIFTY", 2), 20.0);
+        for (int i = 3; i < 10; i++) {
+            ledger.execute(buy("NIFTY", 1), 10.0 + i);
+        }
+        assertThat(ledger.netQuantity("NIFTY"), is(8));
+        assertThat(ledger.getPnl(), is(10.0 + 9.0));
+
+        ledger.execute(sell("NIFTY", 8), 20.0);
+        assertThat(ledger.getPnl(), is(19.0 + 8.0 + 7.0 + 6.0 + 5.0 + 4.0 + 3.0 + 2.0 + 1.0));
+        assertThat(ledger.netQuantity("NIFTY"), is(0));
+        assertThat(ledger.activePositions(), is(0));
+        assertThat(ledger.getOrderBook().size(), is(12));
+    }
+
+    @Test
+    public void testExitingMoreThanOpenFlipsThePosition() {
+        PrimitivePositionLedger ledger = new PrimitivePositionLedger();
+        ledger.execute(buy("NIFTY", 5), 10.0);
+        ledger.execute(sell("NIFTY", 8), 15.0);
+        assertThat(ledger.getPnl(), is(25.0));
+        assertThat(ledger.netQuantity("NIFTY"), is(-3));
+        assertThat(List.copyOf(ledger.getPositions().get("NIFTY")), is(List.of(Position.of("NIFTY", OrderOp.SELL, 3, 15.0))));
+
+        ledger.execute(buy("NIFTY", 3), 14.0);
+        assertThat(ledger.getPnl(), is(28.0));
+        assertThat(ledger.activePositions(), is(0));
+    }
+
+    @Test
+    public void testOrderLogKeepsTheExecutedPrice() {
+        PrimitivePositionLedger ledger = new PrimitivePositionLedger();
+        for (int i = 0; i < 100; i++) {
+            ledger.execute(Order.of("T" + (i % 20), i % 2 == 0 ? OrderOp.BUY : OrderOp.SELL, OrderType.LIMIT, 1, i), i + 0.5);
+        }
+        OrderLog log = ledger.getOrderLog();
+        assertThat(log.size(), is(100));
+        assertThat(ledger.getTickerIds().size(), is(20));
+        assertThat(log.executedPrice(99), is(99.5));
+        assertThat(log.get(99).getPrice(), is(99.0));
+        assertThat(log.get(99).getTicker(), is("T19"));
+        assertThat(log.op(99), is(OrderOp.SELL));
+    }
+
+    private static Order buy(String ticker, int quantity) {
+        return Order.of(ticker, OrderOp.BUY, OrderType.MARKET, quantity, 0.0);
+    }
+
+    private static Order sell(String ticker, int quantity) {
+        return Order.of(ticker, OrderOp.SELL, OrderType.MARKET, quantity, 0.0);
+    }
+}
@@ -0,0 +1,48 @@
+package in.ashwanthkumar.aktrades.live;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TickRingBufferTest {
+    @Test
+    public void testTicksAreHandedOffInOrderAcrossThreads() throws Exception {
+        TickRingBuffer ring = new TickRingBuffer(8);
+        int ticks = 200_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < ticks; i++) {
+                ring.claim().parse("NIFTY," + i + ",1,1,1,1");
+                ring.publish();
+            }
+            ring.close();
+        });
+        producer.start();
+
+        long expected = 0;
+        int spins = 0;
+        while (!ring.isDrained()) {
+            LiveTick tick = ring.poll();
+            if (tick == null) {
+                spins = TickRingBuffer.idle(spins);
+                continue;
+            }
+            assertThat(tick.epochSecond(), is(expected++));
+            ring.release();
+        }
+        producer.join();
+        assertThat(expected, is((long) ticks));
+        assertThat(ring.poll(), is(nullValue()));
+    }
+
+    @Test
+    public void testTicksAreParsed() {
+        LiveTick tick = new LiveTick().parse("NIFTY,1641201300,100.5,101,99.75,100,1500,");
+        assertThat(tick.getName(), is("NIFTY"));
+        assertThat(tick.instant().toString(), is("2022-01-03T09:15"));
+        assertThat(tick.low(), is(99.75));
+        assertThat(tick.volumeAsLong(), is(1500L));
+        assertThat(tick.hasOi(), is(false));
+    }
+}
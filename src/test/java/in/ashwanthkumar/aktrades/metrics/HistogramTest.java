@@ -0,0 +1,45 @@
+package in.ashwanthkumar.aktrades.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class HistogramTest {
+    @Test
+    public void testPercentilesAreWithinThePrecision() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        assertThat(histogram.getCount(), is(100_000L));
+        assertThat(histogram.getMin(), is(1L));
+        assertThat(histogram.getMax(), is(100_000L));
+        assertThat(histogram.getMean(), is(50_000.5));
+        assertWithin(histogram.percentile(50), 50_000);
+        assertWithin(histogram.percentile(99), 99_000);
+        assertThat(histogram.percentile(100), is(100_000L));
+        // small values are exact
+        assertThat(histogram.percentile(0.1), is(100L));
+    }
+
+    @Test
+    public void testHistogramsCanBeAdded() {
+        Histogram first = new Histogram();
+        Histogram second = new Histogram();
+        first.record(10);
+        second.record(20);
+        second.record(-5);
+        first.add(second);
+        assertThat(first.getCount(), is(3L));
+        assertThat(first.getMin(), is(0L));
+        assertThat(first.percentile(100), is(20L));
+        first.reset();
+        assertThat(first.getCount(), is(0L));
+        assertThat(first.percentile(50), is(0L));
+    }
+
+    private static void assertWithin(long actual, long expected) {
+        assertThat(actual + " should be within 1.6% of " + expected, Math.abs(actual - expected) <= expected * 0.016, is(true));
+    }
+}
@@ -0,0 +1,55 @@
+package in.ashwanthkumar.aktrades.metrics;
+
+import in.ashwanthkumar.aktrades.*;
+import in.ashwanthkumar.aktrades.io.MappedDataset;
+import in.ashwanthkumar.aktrades.ledger.PrimitivePositionLedger;
+import in.ashwanthkumar.aktrades.model.OrderOp;
+import in.ashwanthkumar.aktrades.model.OrderType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static in.ashwanthkumar.aktrades.TestData.addBar;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MetricsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThePhasesOfABacktestAreRecorded() throws Exception {
+        Table bars = TestData.bars();
+        for (int i = 0; i < 130; i++) {
+            addBar(bars, "NIFTY", MARKET_OPEN.plusMinutes(i), 100 + i % 3);
+        }
+        try (MappedDataset dataset = MappedDataset.open(TestData.write(folder.newFile("bars.bin"), bars))) {
+            Metrics metrics = new Metrics();
+            Context context = new Context(20, new PrimitivePositionLedger(), metrics);
+            SinkStrategy buyOnDips = (scrip, ctx, orders) -> {
+                if (scrip.close() == 100) {
+                    orders.submit(scrip.getName(), OrderOp.BUY, OrderType.MARKET, 1, 0.0);
+                }
+            };
+            new BacktestEngine(TickIndex.of(dataset), buyOnDips, context).execute();
+
+            assertThat(metrics.counter(Metrics.TICKS).get(), is(130L));
+            assertThat(metrics.counter(Metrics.ORDERS).get(), is(44L));
+            // the order on the last tick is never executed
+            assertThat(metrics.counter(Metrics.FILLS).get(), is(43L));
+            // executions are sampled like the ticks, only the 1st of the 43 is timed
+            assertThat(metrics.timer(Metrics.EXECUTE).snapshot().getCount(), is(1L));
+            // ticks 0, 64 and 128 are sampled
+            assertThat(metrics.timer(Metrics.ON_TICK).snapshot().getCount(), is(3L));
+            assertThat(metrics.timer(Metrics.MATCHING).snapshot().getCount(), is(3L));
+            assertThat(metrics.report(), containsString("strategy.onTick"));
+
+            metrics.reset();
+            assertThat(metrics.counter(Metrics.TICKS).get(), is(0L));
+            assertThat(metrics.report(), is(""));
+        }
+    }
+}
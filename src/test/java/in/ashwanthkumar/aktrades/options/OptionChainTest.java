@@ -0,0 +1,102 @@
+package in.ashwanthkumar.aktrades.options;
+
+import in.ashwanthkumar.aktrades.live.LiveTick;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static in.ashwanthkumar.aktrades.TestData.MARKET_OPEN;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class OptionChainTest {
+    private static final long OPEN = MARKET_OPEN.toEpochSecond(ZoneOffset.UTC);
+
+    @Test
+    public void testTickersAreParsedIntoContracts() {
+        OptionContract call = OptionContract.parse("BANKNIFTYWK36000CE");
+        assertThat(call.getUnderlying(), is("BANKNIFTY"));
+        assertThat(call.getStrike(), is(36000.0));
+        assertThat(call.getType(), is(OptionContract.Type.CE));
+        assertThat(OptionContract.parse("NIFTYWK17050PE").getType(), is(OptionContract.Type.PE));
+
+        assertThat(OptionContract.parse("NIFTY"), is(nullValue()));
+        assertThat(OptionContract.parse("NIFTY-FUT"), is(nullValue()));
+        assertThat(OptionContract.parse("WK17000CE"), is(nullValue()));
+        assertThat(OptionContract.parse("NIFTYWKCE"), is(nullValue()));
+        // Monday to the Thursday of the same week, Thursday is its own expiry
+        assertThat(OptionContract.weeklyExpiry(LocalDate.of(2022, 1, 3)), is(LocalDate.of(2022, 1, 6)));
+        assertThat(OptionContract.weeklyExpiry(LocalDate.of(2022, 1, 6)), is(LocalDate.of(2022, 1, 6)));
+    }
+
+    @Test
+    public void testNearestStrikeAndBandsAroundTheSpot() {
+        OptionChains chains = new OptionChains();
+        OptionChain nifty = chains.register("NIFTY");
+        assertThat(nifty.atmIndex(), is(-1));
+
+        tick(chains, "NIFTY", OPEN, 17_420.5);
+        for (int strike : new int[]{17_500, 17_300, 17_400, 17_600, 17_350, 17_450}) {
+            tick(chains, "NIFTYWK" + strike + "CE", OPEN, 100);
+        }
+        tick(chains, "NIFTYWK17400PE", OPEN, 42.5);
+        // options of the underlyings that aren't registered are ignored
+        tick(chains, "BANKNIFTYWK36000CE", OPEN, 300);
+        assertThat(chains.register("NIFTY"), is(nifty));
+
+        assertThat(nifty.size(), is(6));
+        assertThat(nifty.strike(0), is(17_300.0));
+        assertThat(nifty.strike(5), is(17_600.0));
+        assertThat(nifty.getExpiry(), is(LocalDate.of(2022, 1, 6)));
+
+        int atm = nifty.atmIndex();
+        assertThat(nifty.strike(atm), is(17_400.0));
+        assertThat(nifty.putClose(atm), is(42.5));
+        assertThat(nifty.putTicker(atm), is("NIFTYWK17400PE"));
+        assertThat(Double.isNaN(nifty.putClose(atm + 1)), is(true));
+        assertThat(nifty.nearestStrike(17_425), is(17_400.0));
+        assertThat(nifty.nearestStrike(17_426), is(17_450.0));
+        assertThat(nifty.nearestStrike(10_000), is(17_300.0));
+        assertThat(nifty.indexOf(17_350), is(1));
+        assertThat(nifty.indexOf(17_375), is(-1));
+
+        // strikes within ±100 of the spot: 17350, 17400, 17450, 17500
+        assertThat(nifty.bandStart(nifty.spot(), 100), is(1));
+        assertThat(nifty.bandEnd(nifty.spot(), 100), is(5));
+
+        // the chain starts afresh on the next trading day
+        tick(chains, "NIFTYWK17800CE", OPEN + 24 * 60 * 60, 90);
+        assertThat(nifty.size(), is(1));
+        assertThat(Double.isNaN(nifty.spot()), is(true));
+        assertThat(nifty.callClose(0), is(90.0));
+    }
+
+    @Test
+    public void testEveryLegHasTheTimeOfItsLastClose() {
+        OptionChains chains = new OptionChains();
+        OptionChain nifty = chains.register("NIFTY");
+        tick(chains, "NIFTY", OPEN, 17_420.5);
+        tick(chains, "NIFTYWK17400CE", OPEN, 100);
+        tick(chains, "NIFTYWK17400PE", OPEN, 42.5);
+        // on the NIFTY tick of the next minute its options are still at the previous minute
+        tick(chains, "NIFTY", OPEN + 60, 17_431);
+        int atm = nifty.atmIndex();
+        assertThat(nifty.spotEpochSecond(), is(OPEN + 60));
+        assertThat(nifty.callEpochSecond(atm), is(OPEN));
+        assertThat(nifty.putEpochSecond(atm), is(OPEN));
+
+        tick(chains, "NIFTYWK17400CE", OPEN + 60, 110);
+        tick(chains, "NIFTYWK17450CE", OPEN + 60, 80);
+        assertThat(nifty.callEpochSecond(atm), is(OPEN + 60));
+        assertThat(nifty.putEpochSecond(atm), is(OPEN));
+        // legs that haven't traded don't have a time
+        assertThat(nifty.putEpochSecond(nifty.indexOf(17_450)), is(Long.MIN_VALUE));
+        assertThat(nifty.epochSecond(), is(OPEN + 60));
+    }
+
+    private static void tick(OptionChains chains, String ticker, long epochSecond, double close) {
+        chains.onTick(new LiveTick().parse(ticker + "," + epochSecond + "," + close + "," + close + "," + close + "," + close));
+    }
+}
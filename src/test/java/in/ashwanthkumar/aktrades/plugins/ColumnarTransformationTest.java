@@ -0,0 +1,88 @@
+package in.ashwanthkumar.aktrades.plugins;
+
+import org.junit.Test;
+import tech.tablesaw.api.ColumnType;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ColumnarTransformationTest {
+    @Test
+    public void testStagesAreAppliedOnTheRowsThatPassedTheEarlierFilters() {
+        Table input = Table.create("input",
+                StringColumn.create("Ticker", "A", "B", "A", "A", "B", "A", "A"),
+                DoubleColumn.create("Close", 1, 2, 3, 4, 5, 6, 7));
+        int[] rowsSeen = new int[1];
+        Stage doubled = new Stage() {
+            @Override
+            public Map<String, ColumnType> inputs() {
+                return Map.of("Close", ColumnType.DOUBLE);
+            }
+
+            @Override
+            public Map<String, ColumnType> outputs() {
+                return Map.of("Doubled", ColumnType.DOUBLE);
+            }
+
+            @Override
+            public void apply(Chunk chunk) {
+                double[] close = chunk.doubles("Close");
+                double[] doubled = chunk.doubles("Doubled");
+                for (int i = 0; i < chunk.selected(); i++) {
+                    int row = chunk.row(i);
+                    doubled[row] = 2 * close[row];
+                    rowsSeen[0]++;
+                }
+            }
+        };
+
+        // chunks of 3 rows, so the filters and derivations cross chunk boundaries
+        ColumnarTransformation transformation = new ColumnarTransformation(List.of(
+                Stages.filterStrings("Ticker", "A"::equals),
+                doubled,
+                Stages.filterDoubles("Doubled", value -> value > 4)
+        ), Set.of("Ticker"), 3);
+        Table output = transformation.transform(input);
+
+        assertThat(output.columnNames(), is(List.of("Close", "Doubled")));
+        assertThat(output.doubleColumn("Close").asList(), is(List.of(3.0, 4.0, 6.0, 7.0)));
+        assertThat(output.doubleColumn("Doubled").asList(), is(List.of(6.0, 8.0, 12.0, 14.0)));
+        // the derivation ran only on the rows of A
+        assertThat(rowsSeen[0], is(5));
+    }
+
+    @Test
+    public void testCategoryFiltersEvaluateThePredicateOncePerValue() {
+        StringColumn ticker = StringColumn.create("Ticker", "NIFTY", "ACC", "NIFTY", "BANKNIFTY", "ACC", "NIFTY");
+        ticker.appendMissing();
+        Table input = Table.create("input", ticker, DoubleColumn.create("Close", 1, 2, 3, 4, 5, 6, 7));
+        List<String> tested = new ArrayList<>();
+        Stage filter = Stages.filterCategories("Ticker", value -> {
+            tested.add(value);
+            return value.contains("NIFTY");
+        });
+
+        Table output = new ColumnarTransformation(List.of(filter), Set.of(), 3).transform(input);
+        assertThat(output.doubleColumn("Close").asList(), is(List.of(1.0, 3.0, 4.0, 6.0)));
+        assertThat(tested, is(List.of("NIFTY", "ACC", "BANKNIFTY")));
+
+        // the bitmap is computed again for the next table
+        output = new ColumnarTransformation(List.of(filter), Set.of()).transform(Table.create("next",
+                StringColumn.create("Ticker", "ACC", "NIFTY-FUT"), DoubleColumn.create("Close", 1, 2)));
+        assertThat(output.stringColumn("Ticker").asList(), is(List.of("NIFTY-FUT")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownInputColumnsAreRejected() {
+        Table input = Table.create("input", DoubleColumn.create("Close", 1, 2));
+        new ColumnarTransformation(List.of(Stages.filterStrings("Ticker", "A"::equals)), Set.of()).transform(input);
+    }
+}
@@ -0,0 +1,48 @@
+package in.ashwanthkumar.aktrades.plugins;
+
+import org.junit.Test;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.datetimes.PackedLocalDateTime;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TelegramNfBnfTransformationTest {
+    @Test
+    public void testOnlyNfAndBnfRowsWithinTradingHoursAreKept() {
+        Table input = Table.create("day",
+                StringColumn.create("Ticker", "NIFTY", "RELIANCE", "BANKNIFTYWK36000CE", "NIFTY-FUT", "BANKNIFTY"),
+                StringColumn.create("Date/Time", "03-01-2022 09:15:00", "not a date", "03-01-2022 15:29:59", "03-01-2022 15:30:00", "04-01-2022 10:00:00"),
+                DoubleColumn.create("Close", 1.0, 2.0, 3.0, 4.0, 5.0));
+
+        Table output = new TelegramNfBnfTransformation().transform(input);
+
+        assertThat(output.name(), is("day"));
+        assertThat(output.columnNames(), is(List.of("Ticker", "Close", "Time", "Day", "IsWeekly")));
+        assertThat(output.stringColumn("Ticker").asList(), is(List.of("NIFTY", "BANKNIFTYWK36000CE", "BANKNIFTY")));
+        assertThat(output.doubleColumn("Close").asList(), is(List.of(1.0, 3.0, 5.0)));
+        assertThat(output.dateTimeColumn("Time").asList(), is(List.of(
+                LocalDateTime.of(2022, 1, 3, 9, 15),
+                LocalDateTime.of(2022, 1, 3, 15, 29, 59),
+                LocalDateTime.of(2022, 1, 4, 10, 0))));
+        assertThat(output.stringColumn("Day").asList(), is(List.of("MONDAY", "MONDAY", "TUESDAY")));
+        assertThat(output.booleanColumn("IsWeekly").asList(), is(List.of(true, true, true)));
+    }
+
+    @Test
+    public void testParseDateTime() {
+        LocalDateTime expected = LocalDateTime.of(2024, 2, 29, 23, 59, 58);
+        assertThat(TelegramNfBnfTransformation.parseDateTime("29-02-2024 23:59:58"), is(PackedLocalDateTime.pack(expected)));
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseDateTimeRejectsInvalidDates() {
+        TelegramNfBnfTransformation.parseDateTime("30-02-2024 09:15:00");
+    }
+}